@@ -0,0 +1,43 @@
+/*
+ * Copyright 2020-2022 Equinix, Inc
+ * Copyright 2014-2022 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.billing.payment.api;
+
+import javax.annotation.Nullable;
+
+import org.killbill.billing.util.callcontext.CallContext;
+
+public interface BulkPaymentApi {
+
+    /**
+     * Create many purchases at once (with payment control). Requests are grouped by account: each account is processed
+     * sequentially (payments for the same account serialize on the account lock anyway), while different accounts are
+     * processed concurrently, within the bounds of the bulk payment thread pool.
+     * <p>
+     * Results are streamed back to the handler as soon as each payment completes (in no particular order across accounts).
+     * The handler is invoked from the worker threads and must be thread-safe. This call blocks until all requests have been processed.
+     */
+    public void createPurchasesWithPaymentControl(Iterable<BulkPaymentRequest> requests,
+                                                  PaymentOptions paymentOptions,
+                                                  BulkPaymentResultHandler resultHandler,
+                                                  CallContext callContext);
+
+    public interface BulkPaymentResultHandler {
+
+        public void onResult(BulkPaymentRequest request, @Nullable Payment payment, @Nullable PaymentApiException exception);
+    }
+}
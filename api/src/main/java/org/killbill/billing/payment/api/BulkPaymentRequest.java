@@ -0,0 +1,96 @@
+/*
+ * Copyright 2020-2022 Equinix, Inc
+ * Copyright 2014-2022 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.billing.payment.api;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.UUID;
+
+import javax.annotation.Nullable;
+
+import org.killbill.billing.catalog.api.Currency;
+
+public class BulkPaymentRequest {
+
+    private final UUID accountId;
+    private final UUID paymentMethodId;
+    private final BigDecimal amount;
+    private final Currency currency;
+    private final String paymentExternalKey;
+    private final String paymentTransactionExternalKey;
+    private final Iterable<PluginProperty> properties;
+
+    public BulkPaymentRequest(final UUID accountId,
+                              @Nullable final UUID paymentMethodId,
+                              final BigDecimal amount,
+                              @Nullable final Currency currency,
+                              @Nullable final String paymentExternalKey,
+                              @Nullable final String paymentTransactionExternalKey,
+                              @Nullable final Iterable<PluginProperty> properties) {
+        this.accountId = accountId;
+        this.paymentMethodId = paymentMethodId;
+        this.amount = amount;
+        this.currency = currency;
+        this.paymentExternalKey = paymentExternalKey;
+        this.paymentTransactionExternalKey = paymentTransactionExternalKey;
+        this.properties = properties == null ? Collections.emptyList() : properties;
+    }
+
+    public UUID getAccountId() {
+        return accountId;
+    }
+
+    // Account default payment method if null
+    public UUID getPaymentMethodId() {
+        return paymentMethodId;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    // Account currency if null
+    public Currency getCurrency() {
+        return currency;
+    }
+
+    public String getPaymentExternalKey() {
+        return paymentExternalKey;
+    }
+
+    public String getPaymentTransactionExternalKey() {
+        return paymentTransactionExternalKey;
+    }
+
+    public Iterable<PluginProperty> getProperties() {
+        return properties;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("BulkPaymentRequest{");
+        sb.append("accountId=").append(accountId);
+        sb.append(", paymentMethodId=").append(paymentMethodId);
+        sb.append(", amount=").append(amount);
+        sb.append(", currency=").append(currency);
+        sb.append(", paymentExternalKey='").append(paymentExternalKey).append('\'');
+        sb.append(", paymentTransactionExternalKey='").append(paymentTransactionExternalKey).append('\'');
+        sb.append('}');
+        return sb.toString();
+    }
+}
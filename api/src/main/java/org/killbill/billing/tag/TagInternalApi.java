@@ -23,6 +23,7 @@ import org.killbill.billing.ObjectType;
 import org.killbill.billing.util.api.TagApiException;
 import org.killbill.billing.callcontext.InternalCallContext;
 import org.killbill.billing.callcontext.InternalTenantContext;
+import org.killbill.billing.util.tag.ControlTagType;
 import org.killbill.billing.util.tag.Tag;
 import org.killbill.billing.util.tag.TagDefinition;
 
@@ -45,6 +46,17 @@ public interface TagInternalApi {
 
     public List<Tag> getTagsForAccount(boolean includedDeleted, InternalTenantContext context);
 
+    /**
+     * Check whether a control tag is set on a given object, using the cached tags of the context account
+     *
+     * @param objectId       the object id, which must belong to the context account (unless it is an account itself)
+     * @param objectType     the object type
+     * @param controlTagType the control tag to look for
+     * @param context        call callcontext
+     * @return true if the control tag is set on the object
+     */
+    public boolean hasControlTag(UUID objectId, ObjectType objectType, ControlTagType controlTagType, InternalTenantContext context);
+
     public void addTag(final UUID objectId, final ObjectType objectType, UUID tagDefinitionId, InternalCallContext context) throws TagApiException;
 
     public void removeTag(final UUID objectId, final ObjectType objectType, final UUID tagDefinitionId, InternalCallContext context) throws TagApiException;
@@ -18,7 +18,9 @@
 
 package org.killbill.billing.beatrix.extbus;
 
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.annotation.Nullable;
 import javax.inject.Inject;
@@ -80,6 +82,7 @@ import org.slf4j.LoggerFactory;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.joda.JodaModule;
 
@@ -93,6 +96,9 @@ public class BeatrixListener {
 
     protected ObjectMapper objectMapper;
 
+    // Writers are immutable and bound to the metadata type, which saves the root serializer lookup on each event
+    private final Map<Class<?>, ObjectWriter> metadataWriters = new ConcurrentHashMap<Class<?>, ObjectWriter>();
+
     @Inject
     public BeatrixListener(@Named(BusModule.EXTERNAL_BUS_NAMED) final PersistentBus externalBus,
                            final InternalCallContextFactory internalCallContextFactory) {
@@ -177,7 +183,7 @@ public class BeatrixListener {
 
                 SubscriptionMetadata.ActionType actionType = (event instanceof EffectiveSubscriptionInternalEvent) ? ActionType.EFFECTIVE : ActionType.REQUESTED;
                 final SubscriptionMetadata subscriptionMetadataObj = new SubscriptionMetadata(actionType, realEventST.getBundleExternalKey());
-                metaData = objectMapper.writeValueAsString(subscriptionMetadataObj);
+                metaData = writeMetadata(subscriptionMetadataObj);
                 break;
 
             case BLOCKING_STATE:
@@ -207,7 +213,7 @@ public class BeatrixListener {
                     final BlockingStateMetadata blockingStateMetadata = new BlockingStateMetadata(realEventBS.getBlockableId(), realEventBS.getService(), realEventBS.getStateName(), realEventBS.getBlockingType(), realEventBS.getEffectiveDate(),
                                                                                         realEventBS.isTransitionedToBlockedBilling(), realEventBS.isTransitionedToUnblockedBilling(),
                                                                                         realEventBS.isTransitionedToBlockedEntitlement(), realEventBS.isTransitionedToUnblockedEntitlement());
-                    metaData = objectMapper.writeValueAsString(blockingStateMetadata);
+                    metaData = writeMetadata(blockingStateMetadata);
                 }
                 break;
 
@@ -228,7 +234,7 @@ public class BeatrixListener {
                 final InvoiceNotificationMetadata invoiceNotificationMetadata = new InvoiceNotificationMetadata(realEventInvNotification.getTargetDate(),
                                                                                                 realEventInvNotification.getAmountOwed(),
                                                                                                 realEventInvNotification.getCurrency());
-                metaData = objectMapper.writeValueAsString(invoiceNotificationMetadata);
+                metaData = writeMetadata(invoiceNotificationMetadata);
                 break;
 
 
@@ -245,7 +251,7 @@ public class BeatrixListener {
                 objectId = realEventInvPay.getInvoiceId();
                 eventBusType = ExtBusEventType.INVOICE_PAYMENT_SUCCESS;
                 final InvoicePaymentMetadata invoicePaymentInfoMetaDataObj = new InvoicePaymentMetadata(realEventInvPay.getPaymentId(), realEventInvPay.getPaymentAttemptId(), realEventInvPay.getType(), realEventInvPay.getPaymentDate(), realEventInvPay.getAmount(), realEventInvPay.getCurrency(), realEventInvPay.getLinkedInvoicePaymentId(), realEventInvPay.getPaymentCookieId(), realEventInvPay.getProcessedCurrency());
-                metaData = objectMapper.writeValueAsString(invoicePaymentInfoMetaDataObj);
+                metaData = writeMetadata(invoicePaymentInfoMetaDataObj);
                 break;
 
             case INVOICE_PAYMENT_ERROR:
@@ -254,7 +260,7 @@ public class BeatrixListener {
                 objectId = realEventInvPayErr.getInvoiceId();
                 eventBusType = ExtBusEventType.INVOICE_PAYMENT_FAILED;
                 final InvoicePaymentMetadata invoicePaymentErrorMetaDataObj = new InvoicePaymentMetadata(realEventInvPayErr.getPaymentId(), realEventInvPayErr.getPaymentAttemptId(), realEventInvPayErr.getType(), realEventInvPayErr.getPaymentDate(), realEventInvPayErr.getAmount(), realEventInvPayErr.getCurrency(), realEventInvPayErr.getLinkedInvoicePaymentId(), realEventInvPayErr.getPaymentCookieId(), realEventInvPayErr.getProcessedCurrency());
-                metaData = objectMapper.writeValueAsString(invoicePaymentErrorMetaDataObj);
+                metaData = writeMetadata(invoicePaymentErrorMetaDataObj);
                 break;
 
             case PAYMENT_INFO:
@@ -263,7 +269,7 @@ public class BeatrixListener {
                 objectId = realEventPay.getPaymentId();
                 eventBusType = ExtBusEventType.PAYMENT_SUCCESS;
                 final PaymentMetadata paymentInfoMetaDataObj = new PaymentMetadata(realEventPay.getPaymentTransactionId(), realEventPay.getAmount(), realEventPay.getCurrency(), realEventPay.getStatus(), realEventPay.getTransactionType(), realEventPay.getEffectiveDate());
-                metaData = objectMapper.writeValueAsString(paymentInfoMetaDataObj);
+                metaData = writeMetadata(paymentInfoMetaDataObj);
                 break;
 
             case PAYMENT_ERROR:
@@ -273,7 +279,7 @@ public class BeatrixListener {
                 eventBusType = ExtBusEventType.PAYMENT_FAILED;
                 accountId = realEventPayErr.getAccountId();
                 final PaymentMetadata paymentErrorMetaDataObj = new PaymentMetadata(realEventPayErr.getPaymentTransactionId(), realEventPayErr.getAmount(), realEventPayErr.getCurrency(), realEventPayErr.getStatus(), realEventPayErr.getTransactionType(), realEventPayErr.getEffectiveDate());
-                metaData = objectMapper.writeValueAsString(paymentErrorMetaDataObj);
+                metaData = writeMetadata(paymentErrorMetaDataObj);
                 break;
 
             case PAYMENT_PLUGIN_ERROR:
@@ -282,7 +288,7 @@ public class BeatrixListener {
                 objectId = realEventPayPluginErr.getPaymentId();
                 eventBusType = ExtBusEventType.PAYMENT_FAILED;
                 final PaymentMetadata pluginErrorMetaDataObj = new PaymentMetadata(realEventPayPluginErr.getPaymentTransactionId(), realEventPayPluginErr.getAmount(), realEventPayPluginErr.getCurrency(), realEventPayPluginErr.getStatus(), realEventPayPluginErr.getTransactionType(), realEventPayPluginErr.getEffectiveDate());
-                metaData = objectMapper.writeValueAsString(pluginErrorMetaDataObj);
+                metaData = writeMetadata(pluginErrorMetaDataObj);
                 break;
 
             case OVERDUE_CHANGE:
@@ -298,7 +304,7 @@ public class BeatrixListener {
                 objectId = realUserTagEventCr.getTagId();
                 eventBusType = ExtBusEventType.TAG_CREATION;
                 final TagMetadata userTagCreationMetadata = new TagMetadata(realUserTagEventCr.getTagDefinition().getName());
-                metaData = objectMapper.writeValueAsString(userTagCreationMetadata);
+                metaData = writeMetadata(userTagCreationMetadata);
                 break;
 
             case CONTROL_TAG_CREATION:
@@ -307,7 +313,7 @@ public class BeatrixListener {
                 objectId = realTagEventCr.getTagId();
                 eventBusType = ExtBusEventType.TAG_CREATION;
                 final TagMetadata controlTagCreationMetadata = new TagMetadata(realTagEventCr.getTagDefinition().getName());
-                metaData = objectMapper.writeValueAsString(controlTagCreationMetadata);
+                metaData = writeMetadata(controlTagCreationMetadata);
                 break;
 
             case USER_TAG_DELETION:
@@ -316,7 +322,7 @@ public class BeatrixListener {
                 objectId = realUserTagEventDel.getTagId();
                 eventBusType = ExtBusEventType.TAG_DELETION;
                 final TagMetadata userTagDeletionMetadata = new TagMetadata(realUserTagEventDel.getTagDefinition().getName());
-                metaData = objectMapper.writeValueAsString(userTagDeletionMetadata);
+                metaData = writeMetadata(userTagDeletionMetadata);
                 break;
 
             case CONTROL_TAG_DELETION:
@@ -325,7 +331,7 @@ public class BeatrixListener {
                 objectId = realTagEventDel.getTagId();
                 eventBusType = ExtBusEventType.TAG_DELETION;
                 final TagMetadata controlTagDeletionMetadata = new TagMetadata(realTagEventDel.getTagDefinition().getName());
-                metaData = objectMapper.writeValueAsString(controlTagDeletionMetadata);
+                metaData = writeMetadata(controlTagDeletionMetadata);
                 break;
 
             case CUSTOM_FIELD_CREATION:
@@ -348,7 +354,7 @@ public class BeatrixListener {
                 objectId = realTenantConfigEventChg.getId();
                 eventBusType = ExtBusEventType.TENANT_CONFIG_CHANGE;
                 final TenantConfigMetadata tenantConfigChangeMetadata = new TenantConfigMetadata(realTenantConfigEventChg.getKey());
-                metaData = objectMapper.writeValueAsString(tenantConfigChangeMetadata);
+                metaData = writeMetadata(tenantConfigChangeMetadata);
                 break;
 
             case TENANT_CONFIG_DELETION:
@@ -357,7 +363,7 @@ public class BeatrixListener {
                 objectId = null;
                 eventBusType = ExtBusEventType.TENANT_CONFIG_DELETION;
                 final TenantConfigMetadata tenantConfigDeletionMetadata = new TenantConfigMetadata(realTenantConfigEventDel.getKey());
-                metaData = objectMapper.writeValueAsString(tenantConfigDeletionMetadata);
+                metaData = writeMetadata(tenantConfigDeletionMetadata);
                 break;
 
             case BROADCAST_SERVICE:
@@ -366,7 +372,7 @@ public class BeatrixListener {
                 objectId = null;
                 eventBusType = ExtBusEventType.BROADCAST_SERVICE;
                 final BroadcastMetadata broadcastMetadata = new BroadcastMetadata(realBroadcastEvent.getServiceName(), realBroadcastEvent.getType(), realBroadcastEvent.getJsonEvent());
-                metaData = objectMapper.writeValueAsString(broadcastMetadata);
+                metaData = writeMetadata(broadcastMetadata);
                 break;
 
             default:
@@ -391,8 +397,15 @@ public class BeatrixListener {
             return null;
         } else if (objectId == null) {
             return null;
+        } else if (context.getAccountId() != null) {
+            // Internal events are posted with the account record id of their object (searchKey1), already resolved by createTenantContext
+            return context.getAccountId();
         } else {
             return internalCallContextFactory.getAccountId(objectId, objectType, context);
         }
     }
+
+    private String writeMetadata(final Object metadata) throws JsonProcessingException {
+        return metadataWriters.computeIfAbsent(metadata.getClass(), objectMapper::writerFor).writeValueAsString(metadata);
+    }
 }
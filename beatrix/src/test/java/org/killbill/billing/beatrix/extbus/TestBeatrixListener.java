@@ -71,6 +71,7 @@ import org.testng.annotations.Test;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.isA;
@@ -114,6 +115,7 @@ public class TestBeatrixListener {
     private InternalCallContextFactory internalCallContextFactory;
     private TenantContext tenantContext;
     private ObjectMapper objectMapper;
+    private ObjectWriter objectWriter;
 
     @BeforeMethod(groups = "fast")
     public void setUp() throws Exception {
@@ -122,6 +124,8 @@ public class TestBeatrixListener {
         beatrixListener = new BeatrixListener(externalBus, internalCallContextFactory);
 
         objectMapper = mock(ObjectMapper.class);
+        objectWriter = mock(ObjectWriter.class);
+        when(objectMapper.writerFor(any(Class.class))).thenReturn(objectWriter);
         beatrixListener.objectMapper = objectMapper;
 
         InternalCallContext internalContext = new InternalCallContext(
@@ -240,6 +244,27 @@ public class TestBeatrixListener {
         assertCommonFieldsWithAccountId(postedEvent);
     }
 
+    @Test(groups = "fast")
+    public void testInvoiceCreationWithAccountIdFromContext() throws Exception {
+        InvoiceCreationInternalEvent event = mock(InvoiceCreationInternalEvent.class);
+        provideCommonBusEventInfo(event);
+        when(event.getBusEventType()).thenReturn(BusInternalEventType.INVOICE_CREATION);
+        when(event.getInvoiceId()).thenReturn(OBJECT_ID);
+        when(tenantContext.getAccountId()).thenReturn(ACCOUNT_ID);
+
+        ArgumentCaptor<BusEvent> eventCaptor = ArgumentCaptor.forClass(BusEvent.class);
+
+        beatrixListener.handleAllInternalKillbillEvents(event);
+
+        verify(externalBus).post(eventCaptor.capture());
+        verify(internalCallContextFactory, never()).getAccountId(any(UUID.class), any(ObjectType.class), any(TenantContext.class));
+
+        DefaultBusExternalEvent postedEvent = (DefaultBusExternalEvent)eventCaptor.getValue();
+        assertEquals(postedEvent.getObjectId(), OBJECT_ID);
+        assertEquals(postedEvent.getEventType(), ExtBusEventType.INVOICE_CREATION);
+        assertCommonFieldsWithAccountId(postedEvent);
+    }
+
     @Test(groups = "fast")
     public void testInvoiceAdjustment() throws Exception {
         InvoiceAdjustmentInternalEvent event = mock(InvoiceAdjustmentInternalEvent.class);
@@ -276,7 +301,7 @@ public class TestBeatrixListener {
         provideCommonInvoicePaymentInfo(event);
 
         ArgumentCaptor<InvoicePaymentMetadata> metadataCaptor = ArgumentCaptor.forClass(InvoicePaymentMetadata.class);
-        when(objectMapper.writeValueAsString(metadataCaptor.capture())).thenReturn(METADATA);
+        when(objectWriter.writeValueAsString(metadataCaptor.capture())).thenReturn(METADATA);
 
         when(internalCallContextFactory.getAccountId(
                 OBJECT_ID,
@@ -310,7 +335,7 @@ public class TestBeatrixListener {
         provideCommonInvoicePaymentInfo(event);
 
         ArgumentCaptor<InvoicePaymentMetadata> metadataCaptor = ArgumentCaptor.forClass(InvoicePaymentMetadata.class);
-        when(objectMapper.writeValueAsString(metadataCaptor.capture())).thenReturn(METADATA);
+        when(objectWriter.writeValueAsString(metadataCaptor.capture())).thenReturn(METADATA);
 
         when(internalCallContextFactory.getAccountId(
                 OBJECT_ID,
@@ -344,7 +369,7 @@ public class TestBeatrixListener {
         provideCommonPaymentInfo(event);
 
         ArgumentCaptor<PaymentMetadata> metadataCaptor = ArgumentCaptor.forClass(PaymentMetadata.class);
-        when(objectMapper.writeValueAsString(metadataCaptor.capture())).thenReturn(METADATA);
+        when(objectWriter.writeValueAsString(metadataCaptor.capture())).thenReturn(METADATA);
 
         when(internalCallContextFactory.getAccountId(
                 OBJECT_ID,
@@ -379,7 +404,7 @@ public class TestBeatrixListener {
         provideCommonPaymentInfo(event);
 
         ArgumentCaptor<PaymentMetadata> metadataCaptor = ArgumentCaptor.forClass(PaymentMetadata.class);
-        when(objectMapper.writeValueAsString(metadataCaptor.capture())).thenReturn(METADATA);
+        when(objectWriter.writeValueAsString(metadataCaptor.capture())).thenReturn(METADATA);
 
         ArgumentCaptor<BusEvent> eventCaptor = ArgumentCaptor.forClass(BusEvent.class);
 
@@ -407,7 +432,7 @@ public class TestBeatrixListener {
         provideCommonPaymentInfo(event);
 
         ArgumentCaptor<PaymentMetadata> metadataCaptor = ArgumentCaptor.forClass(PaymentMetadata.class);
-        when(objectMapper.writeValueAsString(metadataCaptor.capture())).thenReturn(METADATA);
+        when(objectWriter.writeValueAsString(metadataCaptor.capture())).thenReturn(METADATA);
 
         when(internalCallContextFactory.getAccountId(
                 OBJECT_ID,
@@ -467,7 +492,7 @@ public class TestBeatrixListener {
         when(event.getTagId()).thenReturn(OBJECT_ID);
         when(event.getTagDefinition()).thenReturn(new DefaultTagDefinition("MY_TAG", "", false));
         ArgumentCaptor<TagMetadata> metadataCaptor = ArgumentCaptor.forClass(TagMetadata.class);
-        when(objectMapper.writeValueAsString(metadataCaptor.capture())).thenReturn(METADATA);
+        when(objectWriter.writeValueAsString(metadataCaptor.capture())).thenReturn(METADATA);
 
         when(internalCallContextFactory.getAccountId(
                 OBJECT_ID,
@@ -500,7 +525,7 @@ public class TestBeatrixListener {
         when(event.getTagId()).thenReturn(OBJECT_ID);
         when(event.getTagDefinition()).thenReturn(new DefaultTagDefinition("MY_TAG", "", false));
         ArgumentCaptor<TagMetadata> metadataCaptor = ArgumentCaptor.forClass(TagMetadata.class);
-        when(objectMapper.writeValueAsString(metadataCaptor.capture())).thenReturn(METADATA);
+        when(objectWriter.writeValueAsString(metadataCaptor.capture())).thenReturn(METADATA);
 
         when(internalCallContextFactory.getAccountId(
                 OBJECT_ID,
@@ -533,7 +558,7 @@ public class TestBeatrixListener {
         when(event.getTagId()).thenReturn(OBJECT_ID);
         when(event.getTagDefinition()).thenReturn(new DefaultTagDefinition("MY_TAG", "", false));
         ArgumentCaptor<TagMetadata> metadataCaptor = ArgumentCaptor.forClass(TagMetadata.class);
-        when(objectMapper.writeValueAsString(metadataCaptor.capture())).thenReturn(METADATA);
+        when(objectWriter.writeValueAsString(metadataCaptor.capture())).thenReturn(METADATA);
 
         when(internalCallContextFactory.getAccountId(
                 OBJECT_ID,
@@ -566,7 +591,7 @@ public class TestBeatrixListener {
         when(event.getTagId()).thenReturn(OBJECT_ID);
         when(event.getTagDefinition()).thenReturn(new DefaultTagDefinition("MY_TAG", "", false));
         ArgumentCaptor<TagMetadata> metadataCaptor = ArgumentCaptor.forClass(TagMetadata.class);
-        when(objectMapper.writeValueAsString(metadataCaptor.capture())).thenReturn(METADATA);
+        when(objectWriter.writeValueAsString(metadataCaptor.capture())).thenReturn(METADATA);
 
         when(internalCallContextFactory.getAccountId(
                 OBJECT_ID,
@@ -653,7 +678,7 @@ public class TestBeatrixListener {
         when(event.getId()).thenReturn(OBJECT_ID);
         when(event.getKey()).thenReturn("PER_TENANT_CONFIG");
         ArgumentCaptor<TenantConfigMetadata> metadataCaptor = ArgumentCaptor.forClass(TenantConfigMetadata.class);
-        when(objectMapper.writeValueAsString(metadataCaptor.capture())).thenReturn(METADATA);
+        when(objectWriter.writeValueAsString(metadataCaptor.capture())).thenReturn(METADATA);
 
         ArgumentCaptor<BusEvent> eventCaptor = ArgumentCaptor.forClass(BusEvent.class);
 
@@ -679,7 +704,7 @@ public class TestBeatrixListener {
         when(event.getBusEventType()).thenReturn(BusInternalEventType.TENANT_CONFIG_DELETION);
         when(event.getKey()).thenReturn("PER_TENANT_CONFIG");
         ArgumentCaptor<TenantConfigMetadata> metadataCaptor = ArgumentCaptor.forClass(TenantConfigMetadata.class);
-        when(objectMapper.writeValueAsString(metadataCaptor.capture())).thenReturn(METADATA);
+        when(objectWriter.writeValueAsString(metadataCaptor.capture())).thenReturn(METADATA);
 
         ArgumentCaptor<BusEvent> eventCaptor = ArgumentCaptor.forClass(BusEvent.class);
 
@@ -708,7 +733,7 @@ public class TestBeatrixListener {
         when(event.getJsonEvent()).thenReturn(BROADCAST_EVENT_JSON);
 
         ArgumentCaptor<BroadcastMetadata> metadataCaptor = ArgumentCaptor.forClass(BroadcastMetadata.class);
-        when(objectMapper.writeValueAsString(metadataCaptor.capture())).thenReturn(METADATA);
+        when(objectWriter.writeValueAsString(metadataCaptor.capture())).thenReturn(METADATA);
 
         ArgumentCaptor<BusEvent> eventCaptor = ArgumentCaptor.forClass(BusEvent.class);
 
@@ -742,7 +767,7 @@ public class TestBeatrixListener {
     public void testJsonProcessingException() throws Exception {
         InvoicePaymentInfoInternalEvent event = mock(InvoicePaymentInfoInternalEvent.class);
         when(event.getBusEventType()).thenReturn(BusInternalEventType.INVOICE_PAYMENT_INFO);
-        when(objectMapper.writeValueAsString(any())).thenThrow(JsonProcessingException.class);
+        when(objectWriter.writeValueAsString(any())).thenThrow(JsonProcessingException.class);
 
         // Just make sure exception gets swallowed.
         beatrixListener.handleAllInternalKillbillEvents(event);
@@ -1348,6 +1348,41 @@ public class TestIntegrationBase extends BeatrixTestSuiteWithEmbeddedDB implemen
             return defaultInvoiceConfig.getInvoicePluginNames();
         }
 
+        @Override
+        public TimeSpan getInvoicePluginTimeout() {
+            return defaultInvoiceConfig.getInvoicePluginTimeout();
+        }
+
+        @Override
+        public List<String> getInvoicePluginTimeouts() {
+            return defaultInvoiceConfig.getInvoicePluginTimeouts();
+        }
+
+        @Override
+        public boolean isInvoicePluginParallelDispatchEnabled() {
+            return defaultInvoiceConfig.isInvoicePluginParallelDispatchEnabled();
+        }
+
+        @Override
+        public int getInvoicePluginThreadNb() {
+            return defaultInvoiceConfig.getInvoicePluginThreadNb();
+        }
+
+        @Override
+        public int getInvoicePluginQueueSize() {
+            return defaultInvoiceConfig.getInvoicePluginQueueSize();
+        }
+
+        @Override
+        public int getInvoicePluginCircuitBreakerFailureThreshold() {
+            return defaultInvoiceConfig.getInvoicePluginCircuitBreakerFailureThreshold();
+        }
+
+        @Override
+        public TimeSpan getInvoicePluginCircuitBreakerOpenDuration() {
+            return defaultInvoiceConfig.getInvoicePluginCircuitBreakerOpenDuration();
+        }
+
         @Override
         public boolean isEmailNotificationsEnabled() {
             return defaultInvoiceConfig.isEmailNotificationsEnabled();
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2020-2022 Equinix, Inc
+ * Copyright 2014-2022 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.killbill.billing.beatrix.extbus;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.joda.time.DateTime;
+import org.killbill.billing.callcontext.InternalCallContext;
+import org.killbill.billing.catalog.api.Currency;
+import org.killbill.billing.events.BusInternalEvent;
+import org.killbill.billing.invoice.api.user.DefaultInvoiceCreationEvent;
+import org.killbill.billing.invoice.api.user.DefaultInvoiceNotificationInternalEvent;
+import org.killbill.billing.util.broadcast.DefaultBroadcastInternalEvent;
+import org.killbill.billing.util.callcontext.CallOrigin;
+import org.killbill.billing.util.callcontext.InternalCallContextFactory;
+import org.killbill.billing.util.callcontext.TenantContext;
+import org.killbill.billing.util.callcontext.UserType;
+import org.killbill.bus.api.PersistentBus;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Fan-out of internal events to the external bus by the BeatrixListener (context resolution, metadata serialization), with the
+ * external bus stubbed out. Threads model the concurrent bus dispatchers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(4)
+@Fork(1)
+public class BeatrixListenerBenchmark {
+
+    private static final Long SEARCH_KEY_2 = 9L;
+    private static final Long SEARCH_KEY_1 = 10L;
+    private static final Long ACCOUNT_RECORD_ID = 11L;
+    private static final Long TENANT_RECORD_ID = 12L;
+    private static final UUID USER_TOKEN = UUID.randomUUID();
+    private static final UUID TENANT_ID = UUID.randomUUID();
+    private static final UUID ACCOUNT_ID = UUID.randomUUID();
+
+    private BeatrixListener beatrixListener;
+    private BusInternalEvent invoiceCreationEvent;
+    private BusInternalEvent invoiceNotificationEvent;
+    private BusInternalEvent broadcastEvent;
+
+    @Setup
+    public void setUp() {
+        // Stub-only mocks, so that invocations aren't recorded
+        final PersistentBus externalBus = Mockito.mock(PersistentBus.class, Mockito.withSettings().stubOnly());
+        final InternalCallContextFactory internalCallContextFactory = Mockito.mock(InternalCallContextFactory.class, Mockito.withSettings().stubOnly());
+        beatrixListener = new BeatrixListener(externalBus, internalCallContextFactory);
+
+        final InternalCallContext internalContext = new InternalCallContext(TENANT_RECORD_ID,
+                                                                            ACCOUNT_RECORD_ID,
+                                                                            null, null,
+                                                                            USER_TOKEN,
+                                                                            null, null, null, null, null, null, null);
+        // Broadcast events aren't tied to an account nor a tenant
+        Mockito.when(internalCallContextFactory.createInternalCallContext(Mockito.<Long>any(), Mockito.<Long>any(), Mockito.eq("BeatrixListener"), Mockito.eq(CallOrigin.INTERNAL), Mockito.eq(UserType.SYSTEM), Mockito.<UUID>any())).thenReturn(internalContext);
+
+        final TenantContext tenantContext = Mockito.mock(TenantContext.class, Mockito.withSettings().stubOnly());
+        Mockito.when(tenantContext.getTenantId()).thenReturn(TENANT_ID);
+        Mockito.when(tenantContext.getAccountId()).thenReturn(ACCOUNT_ID);
+        Mockito.when(internalCallContextFactory.createTenantContext(internalContext)).thenReturn(tenantContext);
+
+        invoiceCreationEvent = new DefaultInvoiceCreationEvent(UUID.randomUUID(), ACCOUNT_ID, BigDecimal.TEN, Currency.USD, SEARCH_KEY_1, SEARCH_KEY_2, USER_TOKEN);
+        invoiceNotificationEvent = new DefaultInvoiceNotificationInternalEvent(ACCOUNT_ID, BigDecimal.TEN, Currency.USD, new DateTime(2026, 10, 19, 0, 0), SEARCH_KEY_1, SEARCH_KEY_2, USER_TOKEN);
+        broadcastEvent = new DefaultBroadcastInternalEvent("service name", "broadcast event type", "{\"key\":\"value\"}");
+    }
+
+    // No metadata
+    @Benchmark
+    public void invoiceCreation() {
+        beatrixListener.handleAllInternalKillbillEvents(invoiceCreationEvent);
+    }
+
+    @Benchmark
+    public void invoiceNotification() {
+        beatrixListener.handleAllInternalKillbillEvents(invoiceNotificationEvent);
+    }
+
+    @Benchmark
+    public void broadcast() {
+        beatrixListener.handleAllInternalKillbillEvents(broadcastEvent);
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright 2020-2022 Equinix, Inc
+ * Copyright 2014-2022 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.killbill.billing.catalog;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.killbill.billing.catalog.api.BillingActionPolicy;
+import org.killbill.billing.catalog.api.BillingPeriod;
+import org.killbill.billing.catalog.api.CatalogApiException;
+import org.killbill.billing.catalog.api.PhaseType;
+import org.killbill.billing.catalog.api.Plan;
+import org.killbill.billing.catalog.api.PlanChangeResult;
+import org.killbill.billing.catalog.api.PlanPhaseSpecifier;
+import org.killbill.billing.catalog.api.PlanSpecifier;
+import org.killbill.billing.catalog.api.PriceList;
+import org.killbill.billing.catalog.api.Product;
+import org.killbill.billing.catalog.api.ProductCategory;
+import org.killbill.billing.catalog.api.StaticCatalog;
+import org.killbill.billing.catalog.rules.DefaultPlanRules;
+import org.killbill.commons.utils.io.Resources;
+import org.killbill.xmlloader.XMLLoader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Name, version and plan rule lookups on a versioned catalog, as done in the billing event and subscription timeline loops.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DefaultVersionedCatalogBenchmark {
+
+    private static final String CATALOG_NAME = "benchmark";
+    private static final DateTime FIRST_VERSION_DATE = new DateTime(2020, 1, 1, 0, 0, DateTimeZone.UTC);
+
+    @Param({"50", "5000"})
+    private int nbPlans;
+
+    @Param({"1", "10"})
+    private int nbVersions;
+
+    private DefaultVersionedCatalog versionedCatalog;
+    private Date lookupDate;
+    private String planName;
+    private String productName;
+    private String priceListName;
+    private DefaultPlanRules planRules;
+    private PlanPhaseSpecifier changeFrom;
+    private PlanSpecifier changeTo;
+
+    @Setup
+    public void setUp() throws Exception {
+        versionedCatalog = new DefaultVersionedCatalog();
+        for (int v = 0; v < nbVersions; v++) {
+            versionedCatalog.add(createCatalog(FIRST_VERSION_DATE.plusMonths(v).toDate()));
+        }
+        versionedCatalog.initialize(versionedCatalog);
+
+        // Most lookups happen against the latest version, for a plan at the end of the catalog
+        lookupDate = FIRST_VERSION_DATE.plusMonths(nbVersions).toDate();
+        planName = "plan-" + (nbPlans - 1);
+        productName = "product-" + (nbPlans - 1);
+        priceListName = planName + "-pl";
+
+        final StandaloneCatalog weaponsHire = XMLLoader.getObjectFromString(Resources.getResource("org/killbill/billing/catalog/WeaponsHire.xml").toExternalForm(), StandaloneCatalog.class);
+        planRules = (DefaultPlanRules) weaponsHire.getPlanRules();
+        changeFrom = new PlanPhaseSpecifier("pistol-monthly", PhaseType.EVERGREEN);
+        changeTo = new PlanSpecifier("shotgun-monthly");
+    }
+
+    @Benchmark
+    public StaticCatalog getVersion() {
+        return versionedCatalog.getVersion(lookupDate);
+    }
+
+    @Benchmark
+    public Plan findPlan() throws CatalogApiException {
+        return versionedCatalog.getVersion(lookupDate).findPlan(planName);
+    }
+
+    @Benchmark
+    public Product findProduct() throws CatalogApiException {
+        return versionedCatalog.getVersion(lookupDate).findProduct(productName);
+    }
+
+    @Benchmark
+    public PriceList findPriceList() throws CatalogApiException {
+        return versionedCatalog.getVersion(lookupDate).findPriceList(priceListName);
+    }
+
+    @Benchmark
+    public Plan createOrFindPlanFromProduct() throws CatalogApiException {
+        return versionedCatalog.getVersion(lookupDate).createOrFindPlan(new PlanSpecifier(productName, BillingPeriod.MONTHLY, priceListName), null);
+    }
+
+    @Benchmark
+    public BillingActionPolicy getPlanChangeResult() throws CatalogApiException {
+        final PlanChangeResult result = planRules.getPlanChangeResult(changeFrom, changeTo);
+        return result.getPolicy();
+    }
+
+    private StandaloneCatalog createCatalog(final Date effectiveDate) {
+        final List<Product> products = new ArrayList<Product>(nbPlans);
+        final List<Plan> plans = new ArrayList<Plan>(nbPlans);
+        for (int i = 0; i < nbPlans; i++) {
+            final MockProduct product = new MockProduct("product-" + i, ProductCategory.BASE, CATALOG_NAME);
+            products.add(product);
+            plans.add(new MockPlan("plan-" + i, product, new DefaultPlanPhase[]{}, MockPlanPhase.createUSDMonthlyEvergreen("1.0", null), -1));
+        }
+
+        final DefaultPriceList[] priceLists = new DefaultPriceList[nbPlans - 1];
+        for (int i = 1; i < nbPlans; i++) {
+            final DefaultPlan plan = (DefaultPlan) plans.get(i);
+            priceLists[i - 1] = new DefaultPriceList(new DefaultPlan[]{plan}, plan.getName() + "-pl");
+        }
+
+        final StandaloneCatalog catalog = new StandaloneCatalog();
+        catalog.setCatalogName(CATALOG_NAME);
+        catalog.setUnits(new DefaultUnit[0]);
+        catalog.setEffectiveDate(effectiveDate);
+        catalog.setProducts(products);
+        catalog.setPlans(plans);
+        catalog.setPlanRules(new DefaultPlanRules());
+        catalog.setPriceLists(new DefaultPriceListSet(new PriceListDefault(new DefaultPlan[]{(DefaultPlan) plans.get(0)}), priceLists));
+        catalog.initialize(catalog);
+        return catalog;
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2020-2022 Equinix, Inc
+ * Copyright 2014-2022 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.killbill.billing.entitlement.api;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.joda.time.DateTime;
+import org.killbill.billing.entitlement.EntitlementTestSuiteNoDB;
+import org.killbill.billing.junction.DefaultBlockingState;
+import org.killbill.billing.platform.api.KillbillService.KILLBILL_SERVICES;
+import org.killbill.billing.subscription.api.user.SubscriptionBaseTransition;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Merge of the blocking states into the subscription events stream, for a synthetic timeline with many pause / resume transitions.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BlockingStateOrderingBenchmark extends EntitlementTestSuiteNoDB {
+
+    @Param({"10", "500"})
+    private int nbTransitions;
+
+    private long globalOrdering = 0;
+    private List<UUID> allEntitlementUUIDs;
+    private Collection<BlockingState> blockingStates;
+    private List<SubscriptionEvent> subscriptionEvents;
+
+    @Setup
+    public void setUp() throws Exception {
+        globalBeforeSuite();
+        globalBeforeTest();
+        beforeClass();
+        beforeMethod();
+
+        final DateTime now = clock.getUTCNow();
+        final UUID subscriptionId = UUID.randomUUID();
+
+        blockingStates = new LinkedList<BlockingState>();
+        blockingStates.add(createBlockingState(subscriptionId, DefaultEntitlementApi.ENT_STATE_START, KILLBILL_SERVICES.ENTITLEMENT_SERVICE.getServiceName(), false, false, now));
+        for (int i = 0; i < nbTransitions; i++) {
+            blockingStates.add(createBlockingState(subscriptionId, "paused", "svc1", true, true, now.plusDays(2 * i + 1)));
+            blockingStates.add(createBlockingState(subscriptionId, "resumed", "svc1", false, false, now.plusDays(2 * i + 2)));
+        }
+
+        subscriptionEvents = new LinkedList<SubscriptionEvent>();
+        subscriptionEvents.add(createEvent(subscriptionId, SubscriptionEventType.START_BILLING, now));
+        subscriptionEvents.add(createEvent(subscriptionId, SubscriptionEventType.PHASE, now.plusDays(30).plusHours(1)));
+
+        final Collection<UUID> entitlementUUIDs = new HashSet<UUID>();
+        for (final SubscriptionEvent subscriptionEvent : subscriptionEvents) {
+            entitlementUUIDs.add(subscriptionEvent.getEntitlementId());
+        }
+        entitlementUUIDs.add(subscriptionId);
+        allEntitlementUUIDs = new LinkedList<UUID>(entitlementUUIDs);
+    }
+
+    @TearDown
+    public void tearDown() {
+        afterMethod();
+        globalAfterSuite();
+    }
+
+    @Benchmark
+    public LinkedList<SubscriptionEvent> computeEvents() {
+        // The stream is updated in place
+        final LinkedList<SubscriptionEvent> allEvents = new LinkedList<SubscriptionEvent>(subscriptionEvents);
+        BlockingStateOrdering.INSTANCE.computeEvents(new LinkedList<UUID>(allEntitlementUUIDs), blockingStates, internalCallContext, allEvents);
+        return allEvents;
+    }
+
+    private BlockingState createBlockingState(final UUID blockedId,
+                                              final String stateName,
+                                              final String service,
+                                              final boolean blockEntitlement,
+                                              final boolean blockBilling,
+                                              final DateTime effectiveDate) {
+        return new DefaultBlockingState(UUID.randomUUID(),
+                                        blockedId,
+                                        BlockingStateType.SUBSCRIPTION,
+                                        stateName,
+                                        service,
+                                        false,
+                                        blockEntitlement,
+                                        blockBilling,
+                                        effectiveDate,
+                                        effectiveDate,
+                                        effectiveDate,
+                                        globalOrdering++);
+    }
+
+    private SubscriptionEvent createEvent(final UUID subscriptionId, final SubscriptionEventType type, final DateTime effectiveDate) {
+        final SubscriptionBaseTransition subscriptionBaseTransition = Mockito.mock(SubscriptionBaseTransition.class);
+        Mockito.when(subscriptionBaseTransition.getId()).thenReturn(UUID.randomUUID());
+        Mockito.when(subscriptionBaseTransition.getSubscriptionId()).thenReturn(subscriptionId);
+        Mockito.when(subscriptionBaseTransition.getEffectiveTransitionTime()).thenReturn(effectiveDate);
+        return SubscriptionEventOrdering.toSubscriptionEvent(subscriptionBaseTransition, type, internalCallContext);
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2020-2022 Equinix, Inc
+ * Copyright 2014-2022 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.killbill.billing.invoice;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.joda.time.DateTime;
+import org.joda.time.LocalDate;
+import org.killbill.billing.account.api.Account;
+import org.killbill.billing.callcontext.InternalCallContext;
+import org.killbill.billing.catalog.MockPlan;
+import org.killbill.billing.catalog.MockPlanPhase;
+import org.killbill.billing.catalog.api.BillingMode;
+import org.killbill.billing.catalog.api.BillingPeriod;
+import org.killbill.billing.catalog.api.Currency;
+import org.killbill.billing.invoice.TestInvoiceHelper.DryRunFutureDateArguments;
+import org.killbill.billing.invoice.api.DryRunArguments;
+import org.killbill.billing.invoice.api.Invoice;
+import org.killbill.billing.invoice.api.InvoiceApiException;
+import org.killbill.billing.junction.BillingEventSet;
+import org.killbill.billing.subscription.api.SubscriptionBaseTransitionType;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * End-to-end invoice generation through the InvoiceDispatcher (locking, existing invoices, generator, plugins), in dry-run mode
+ * so that each invocation sees the same account state.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Dorg.killbill.billing.dbi.test.h2=true")
+public class InvoiceDispatcherBenchmark extends InvoiceTestSuiteWithEmbeddedDB {
+
+    @Param({"1", "100"})
+    private int nbSubscriptions;
+
+    private UUID accountId;
+    private LocalDate targetDate;
+    private InternalCallContext context;
+    private InvoiceDispatcher dispatcher;
+    private DryRunArguments dryRunArguments;
+
+    @Setup
+    public void setUp() throws Exception {
+        globalBeforeSuite();
+        beforeSuite();
+        globalBeforeTest();
+        beforeClass();
+        beforeMethod();
+
+        final Account account = invoiceUtil.createAccount(callContext);
+        accountId = account.getId();
+        context = internalCallContextFactory.createInternalCallContext(accountId, callContext);
+
+        final DateTime effectiveDate = clock.getUTCNow().minusMonths(1);
+        final BillingEventSet events = new MockBillingEventSet();
+        for (int i = 0; i < nbSubscriptions; i++) {
+            events.add(invoiceUtil.createMockBillingEvent(account, invoiceUtil.createSubscription(), effectiveDate,
+                                                          MockPlan.createBicycleNoTrialEvergreen1USD(), MockPlanPhase.create1USDMonthlyEvergreen(),
+                                                          null, BigDecimal.ONE, Currency.USD, BillingPeriod.MONTHLY, 1,
+                                                          BillingMode.IN_ADVANCE, "", 1L, SubscriptionBaseTransitionType.CREATE));
+        }
+        Mockito.when(billingApi.getBillingEventsForAccountAndUpdateAccountBCD(Mockito.<UUID>any(), Mockito.<DryRunArguments>any(), Mockito.<LocalDate>any(), Mockito.<InternalCallContext>any())).thenReturn(events);
+
+        targetDate = context.toLocalDate(clock.getUTCNow());
+        dryRunArguments = new DryRunFutureDateArguments();
+        dispatcher = new InvoiceDispatcher(generator, accountApi, billingApi, subscriptionApi, invoiceDao,
+                                           internalCallContextFactory, invoicePluginDispatcher, locker, bus,
+                                           notificationQueueService, invoiceConfig, clock, invoiceOptimizer, parkedAccountsManager);
+    }
+
+    // The billing API is a mock: don't let its recorded invocations pile up across iterations
+    @Setup(Level.Iteration)
+    public void clearMockInvocations() {
+        Mockito.clearInvocations(billingApi);
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        afterMethod();
+        afterSuite();
+        globalAfterSuite();
+    }
+
+    @Benchmark
+    public List<Invoice> generateDryRunInvoice() throws InvoiceApiException {
+        return dispatcher.processAccountFromNotificationOrBusEvent(accountId, targetDate, dryRunArguments, false, context);
+    }
+}
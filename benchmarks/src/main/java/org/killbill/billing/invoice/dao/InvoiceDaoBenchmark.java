@@ -0,0 +1,98 @@
+/*
+ * Copyright 2020-2022 Equinix, Inc
+ * Copyright 2014-2022 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.killbill.billing.invoice.dao;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.joda.time.LocalDate;
+import org.killbill.billing.account.api.Account;
+import org.killbill.billing.callcontext.InternalCallContext;
+import org.killbill.billing.catalog.api.Currency;
+import org.killbill.billing.invoice.InvoiceTestSuiteWithEmbeddedDB;
+import org.killbill.billing.invoice.api.Invoice;
+import org.killbill.billing.invoice.model.DefaultInvoice;
+import org.killbill.billing.invoice.model.RecurringInvoiceItem;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Loading all invoices of an account, with their items, payments and tracking ids, as done on every invoice run.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Dorg.killbill.billing.dbi.test.h2=true")
+public class InvoiceDaoBenchmark extends InvoiceTestSuiteWithEmbeddedDB {
+
+    private static final LocalDate FIRST_INVOICE_DATE = new LocalDate(2010, 1, 1);
+
+    @Param({"100", "10000"})
+    private int nbInvoices;
+
+    private InternalCallContext context;
+
+    @Setup
+    public void setUp() throws Exception {
+        globalBeforeSuite();
+        beforeSuite();
+        globalBeforeTest();
+        beforeClass();
+        beforeMethod();
+
+        final Account account = invoiceUtil.createAccount(callContext);
+        context = internalCallContextFactory.createInternalCallContext(account.getId(), callContext);
+
+        final UUID bundleId = UUID.randomUUID();
+        final UUID subscriptionId = UUID.randomUUID();
+        for (int i = 0; i < nbInvoices; i++) {
+            final LocalDate startDate = FIRST_INVOICE_DATE.plusDays(i);
+            final Invoice invoice = new DefaultInvoice(account.getId(), startDate, startDate, Currency.USD);
+            invoice.addInvoiceItem(new RecurringInvoiceItem(invoice.getId(), account.getId(), bundleId, subscriptionId, "product", "plan-daily", "plan-daily-evergreen", null,
+                                                            startDate, startDate.plusDays(1), BigDecimal.ONE, BigDecimal.ONE, Currency.USD));
+            invoiceUtil.createInvoice(invoice, context);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        afterMethod();
+        afterSuite();
+        globalAfterSuite();
+    }
+
+    @Benchmark
+    public List<InvoiceModelDao> getInvoicesByAccount() {
+        return invoiceDao.getInvoicesByAccount(false, true, context);
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2020-2022 Equinix, Inc
+ * Copyright 2014-2022 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.killbill.billing.invoice.tree;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.joda.time.LocalDate;
+import org.killbill.billing.catalog.api.Currency;
+import org.killbill.billing.invoice.api.InvoiceItem;
+import org.killbill.billing.invoice.model.RecurringInvoiceItem;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Construction and merge of the item tree of a subscription billed daily, i.e. one existing and one proposed item per day.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SubscriptionItemTreeBenchmark {
+
+    private static final LocalDate START_DATE = new LocalDate(2020, 1, 1);
+    private static final BigDecimal DAILY_RATE = new BigDecimal("1.0");
+
+    @Param({"365", "3650"})
+    private int nbItems;
+
+    private UUID subscriptionId;
+    private UUID invoiceId;
+    private List<InvoiceItem> existingItems;
+    private List<InvoiceItem> proposedItems;
+
+    @Setup
+    public void setUp() {
+        final UUID accountId = UUID.randomUUID();
+        final UUID bundleId = UUID.randomUUID();
+        subscriptionId = UUID.randomUUID();
+        invoiceId = UUID.randomUUID();
+
+        existingItems = new ArrayList<InvoiceItem>(nbItems);
+        proposedItems = new ArrayList<InvoiceItem>(nbItems);
+        for (int i = 0; i < nbItems; i++) {
+            final LocalDate startDate = START_DATE.plusDays(i);
+            existingItems.add(new RecurringInvoiceItem(UUID.randomUUID(), accountId, bundleId, subscriptionId, "product", "plan-daily", "plan-daily-evergreen", null,
+                                                       startDate, startDate.plusDays(1), DAILY_RATE, DAILY_RATE, Currency.USD));
+            proposedItems.add(new RecurringInvoiceItem(invoiceId, accountId, bundleId, subscriptionId, "product", "plan-daily", "plan-daily-evergreen", null,
+                                                       startDate, startDate.plusDays(1), DAILY_RATE, DAILY_RATE, Currency.USD));
+        }
+    }
+
+    @Benchmark
+    public SubscriptionItemTree buildExistingItems() {
+        final SubscriptionItemTree tree = new SubscriptionItemTree(subscriptionId, invoiceId);
+        for (final InvoiceItem item : existingItems) {
+            tree.addItem(item);
+        }
+        tree.build();
+        return tree;
+    }
+
+    @Benchmark
+    public List<InvoiceItem> mergeProposedItems() {
+        final SubscriptionItemTree tree = new SubscriptionItemTree(subscriptionId, invoiceId);
+        for (final InvoiceItem item : existingItems) {
+            tree.addItem(item);
+        }
+        tree.build();
+        tree.flatten(true);
+
+        for (final InvoiceItem item : proposedItems) {
+            tree.mergeProposedItem(item);
+        }
+        tree.buildForMerge();
+        return tree.getView();
+    }
+}
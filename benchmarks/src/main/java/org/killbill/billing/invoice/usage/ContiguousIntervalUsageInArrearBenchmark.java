@@ -0,0 +1,129 @@
+/*
+ * Copyright 2020-2022 Equinix, Inc
+ * Copyright 2014-2022 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.killbill.billing.invoice.usage;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.joda.time.DateTimeZone;
+import org.joda.time.Days;
+import org.joda.time.LocalDate;
+import org.killbill.billing.catalog.DefaultTier;
+import org.killbill.billing.catalog.DefaultUsage;
+import org.killbill.billing.catalog.api.BillingPeriod;
+import org.killbill.billing.catalog.api.TierBlockPolicy;
+import org.killbill.billing.catalog.api.Usage;
+import org.killbill.billing.invoice.api.InvoiceItem;
+import org.killbill.billing.invoice.model.UsageInvoiceItem;
+import org.killbill.billing.invoice.usage.ContiguousIntervalUsageInArrear.UsageInArrearItemsAndNextNotificationDate;
+import org.killbill.billing.junction.BillingEvent;
+import org.killbill.billing.usage.api.RawUsageRecord;
+import org.killbill.billing.usage.api.svcs.DefaultRawUsage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Rating of a year of consumable in-arrear usage (monthly billing, two tiers), against one existing usage item per month.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ContiguousIntervalUsageInArrearBenchmark extends TestUsageInArrearBase {
+
+    private static final LocalDate START_DATE = new LocalDate(2014, 3, 20);
+    private static final LocalDate FIRST_BCD_DATE = new LocalDate(2014, 4, 15);
+    private static final int NB_MONTHS = 12;
+    private static final String UNIT = "unit";
+
+    @Param({"1000", "100000"})
+    private int nbRawUsages;
+
+    private LocalDate endDate;
+    private DefaultUsage usage;
+    private List<RawUsageRecord> rawUsageRecords;
+    private List<InvoiceItem> existingItems;
+    private BillingEvent startEvent;
+    private BillingEvent endEvent;
+
+    @Setup
+    public void setUp() throws Exception {
+        globalBeforeSuite();
+        globalBeforeTest();
+        beforeClass();
+        beforeMethod();
+
+        endDate = FIRST_BCD_DATE.plusMonths(NB_MONTHS - 1);
+
+        final DefaultTier tier1 = createDefaultTierWithBlocks(createDefaultTieredBlock(UNIT, 100, 10, BigDecimal.ONE));
+        final DefaultTier tier2 = createDefaultTierWithBlocks(createDefaultTieredBlock(UNIT, 100, -1, new BigDecimal("0.5")));
+        usage = createConsumableInArrearUsage(usageName, BillingPeriod.MONTHLY, TierBlockPolicy.ALL_TIERS, tier1, tier2);
+
+        final int nbDays = Days.daysBetween(START_DATE, endDate).getDays();
+        rawUsageRecords = new ArrayList<RawUsageRecord>(nbRawUsages);
+        for (int i = 0; i < nbRawUsages; i++) {
+            rawUsageRecords.add(new DefaultRawUsage(subscriptionId, START_DATE.plusDays(i % nbDays).toDateTimeAtStartOfDay(), UNIT, BigDecimal.TEN, "tracking-" + (i % nbDays)));
+        }
+
+        existingItems = new ArrayList<InvoiceItem>(NB_MONTHS);
+        LocalDate periodStart = START_DATE;
+        LocalDate periodEnd = FIRST_BCD_DATE;
+        while (!periodEnd.isAfter(endDate)) {
+            existingItems.add(new UsageInvoiceItem(invoiceId, accountId, bundleId, subscriptionId, productName, planName, phaseName,
+                                                   usage.getName(), null, periodStart, periodEnd, BigDecimal.ONE, currency));
+            periodStart = periodEnd;
+            periodEnd = periodEnd.plusMonths(1);
+        }
+    }
+
+    // The billing events are mocks: re-create them so that their recorded invocations don't pile up across iterations
+    @Setup(Level.Iteration)
+    public void setUpBillingEvents() throws Exception {
+        startEvent = createMockBillingEvent(START_DATE.toDateTimeAtStartOfDay(DateTimeZone.UTC), BillingPeriod.MONTHLY, Collections.<Usage>emptyList(), catalogEffectiveDate);
+        endEvent = createMockBillingEvent(endDate.toDateTimeAtStartOfDay(DateTimeZone.UTC), BillingPeriod.MONTHLY, Collections.<Usage>emptyList(), catalogEffectiveDate);
+    }
+
+    @TearDown
+    public void tearDown() {
+        afterMethod();
+        globalAfterSuite();
+    }
+
+    @Benchmark
+    public UsageInArrearItemsAndNextNotificationDate computeMissingItems() throws Exception {
+        final ContiguousIntervalUsageInArrear intervalConsumableInArrear = createContiguousIntervalConsumableInArrear(usage, rawUsageRecords, endDate, true, startEvent, endEvent);
+        return intervalConsumableInArrear.computeMissingItemsAndNextNotificationDate(existingItems);
+    }
+}
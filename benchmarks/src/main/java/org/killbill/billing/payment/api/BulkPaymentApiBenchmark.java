@@ -0,0 +1,122 @@
+/*
+ * Copyright 2020-2022 Equinix, Inc
+ * Copyright 2014-2022 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.killbill.billing.payment.api;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.inject.Inject;
+
+import org.killbill.billing.account.api.Account;
+import org.killbill.billing.payment.PaymentTestSuiteWithEmbeddedDB;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Purchases through the bulk payment API, against the mock payment plugin: accounts are processed concurrently,
+ * payments of a given account sequentially.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(value = 1, jvmArgsAppend = "-Dorg.killbill.billing.dbi.test.h2=true")
+public class BulkPaymentApiBenchmark extends PaymentTestSuiteWithEmbeddedDB {
+
+    private static final PaymentOptions NO_CONTROL_PLUGIN_OPTIONS = new PaymentOptions() {
+        @Override
+        public boolean isExternalPayment() {
+            return false;
+        }
+
+        @Override
+        public List<String> getPaymentControlPluginNames() {
+            return Collections.emptyList();
+        }
+    };
+
+    @Param({"1", "20"})
+    private int nbAccounts;
+
+    @Param({"50"})
+    private int nbPaymentsPerAccount;
+
+    @Inject
+    private BulkPaymentApi bulkPaymentApi;
+
+    private List<Account> accounts;
+
+    @Setup
+    public void setUp() throws Exception {
+        globalBeforeSuite();
+        beforeSuite();
+        globalBeforeTest();
+        beforeClass();
+        beforeMethod();
+
+        accounts = new ArrayList<Account>(nbAccounts);
+        for (int i = 0; i < nbAccounts; i++) {
+            accounts.add(testHelper.createTestAccount(UUID.randomUUID().toString(), true));
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        afterMethod();
+        afterSuite();
+        globalAfterSuite();
+    }
+
+    @Benchmark
+    public int createPurchases() {
+        final List<BulkPaymentRequest> requests = new ArrayList<BulkPaymentRequest>(nbAccounts * nbPaymentsPerAccount);
+        for (int i = 0; i < nbPaymentsPerAccount; i++) {
+            for (final Account account : accounts) {
+                requests.add(new BulkPaymentRequest(account.getId(), null, BigDecimal.TEN, null, null, UUID.randomUUID().toString(), null));
+            }
+        }
+
+        final AtomicInteger nbSuccesses = new AtomicInteger();
+        bulkPaymentApi.createPurchasesWithPaymentControl(requests,
+                                                         NO_CONTROL_PLUGIN_OPTIONS,
+                                                         (request, payment, exception) -> {
+                                                             if (payment != null) {
+                                                                 nbSuccesses.incrementAndGet();
+                                                             }
+                                                         },
+                                                         callContext);
+        return nbSuccesses.get();
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2020-2022 Equinix, Inc
+ * Copyright 2014-2022 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.killbill.billing.payment.api;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.killbill.billing.account.api.Account;
+import org.killbill.billing.catalog.api.Currency;
+import org.killbill.billing.payment.PaymentTestSuiteWithEmbeddedDB;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Purchase and refund of a payment, end-to-end through the payment state machines, against the mock payment plugin.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Dorg.killbill.billing.dbi.test.h2=true")
+public class PaymentApiBenchmark extends PaymentTestSuiteWithEmbeddedDB {
+
+    private Account account;
+
+    @Setup
+    public void setUp() throws Exception {
+        globalBeforeSuite();
+        beforeSuite();
+        globalBeforeTest();
+        beforeClass();
+        beforeMethod();
+
+        account = testHelper.createTestAccount(UUID.randomUUID().toString(), true);
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        afterMethod();
+        afterSuite();
+        globalAfterSuite();
+    }
+
+    @Benchmark
+    public Payment purchase() throws PaymentApiException {
+        return paymentApi.createPurchase(account, account.getPaymentMethodId(), null, BigDecimal.TEN, Currency.USD, null, UUID.randomUUID().toString(), UUID.randomUUID().toString(),
+                                         Collections.emptyList(), callContext);
+    }
+
+    @Benchmark
+    public Payment purchaseAndRefund() throws PaymentApiException {
+        final Payment payment = purchase();
+        return paymentApi.createRefund(account, payment.getId(), payment.getPurchasedAmount(), payment.getCurrency(), null, UUID.randomUUID().toString(),
+                                       Collections.emptyList(), callContext);
+    }
+}
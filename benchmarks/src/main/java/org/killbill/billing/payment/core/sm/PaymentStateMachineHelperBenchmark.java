@@ -0,0 +1,97 @@
+/*
+ * Copyright 2020-2022 Equinix, Inc
+ * Copyright 2014-2022 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.killbill.billing.payment.core.sm;
+
+import java.util.concurrent.TimeUnit;
+
+import org.killbill.automaton.MissingEntryException;
+import org.killbill.automaton.StateMachineConfig;
+import org.killbill.billing.payment.PaymentTestSuiteNoDB;
+import org.killbill.billing.payment.api.TransactionType;
+import org.killbill.billing.payment.caching.CompiledStateMachineConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import static org.killbill.billing.payment.provider.MockPaymentControlProviderPlugin.PLUGIN_NAME;
+
+/**
+ * State and operation lookups done by the PaymentAutomatonRunner for purchases and refunds, through the compiled
+ * state machine config and through the parsed XML config.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PaymentStateMachineHelperBenchmark extends PaymentTestSuiteNoDB {
+
+    private StateMachineConfig stateMachineConfig;
+    private CompiledStateMachineConfig compiledStateMachineConfig;
+
+    @Setup
+    public void setUp() throws Exception {
+        globalBeforeSuite();
+        globalBeforeTest();
+        beforeClass();
+        beforeMethod();
+
+        stateMachineConfig = paymentSMHelper.getStateMachineConfig(PLUGIN_NAME, internalCallContext);
+        compiledStateMachineConfig = paymentSMHelper.getCompiledStateMachineConfig(PLUGIN_NAME, internalCallContext);
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        afterMethod();
+        globalAfterSuite();
+    }
+
+    @Benchmark
+    public void compiledLookups(final Blackhole blackhole) throws MissingEntryException {
+        // Purchase of a new payment, then refund of that purchase
+        lookup(compiledStateMachineConfig, paymentSMHelper.getInitStateNameForTransaction(), TransactionType.PURCHASE, blackhole);
+        lookup(compiledStateMachineConfig, paymentSMHelper.getSuccessfulStateForTransaction(TransactionType.PURCHASE), TransactionType.REFUND, blackhole);
+    }
+
+    @Benchmark
+    public void xmlLookups(final Blackhole blackhole) throws MissingEntryException {
+        lookup(stateMachineConfig, paymentSMHelper.getInitStateNameForTransaction(), TransactionType.PURCHASE, blackhole);
+        lookup(stateMachineConfig, paymentSMHelper.getSuccessfulStateForTransaction(TransactionType.PURCHASE), TransactionType.REFUND, blackhole);
+    }
+
+    private void lookup(final CompiledStateMachineConfig config, final String currentStateName, final TransactionType transactionType, final Blackhole blackhole) throws MissingEntryException {
+        blackhole.consume(paymentSMHelper.getState(config, currentStateName));
+        blackhole.consume(paymentSMHelper.getOperationForTransaction(config, transactionType));
+    }
+
+    private void lookup(final StateMachineConfig config, final String currentStateName, final TransactionType transactionType, final Blackhole blackhole) throws MissingEntryException {
+        blackhole.consume(config.getStateMachineForState(currentStateName).getState(currentStateName));
+        blackhole.consume(paymentSMHelper.getOperationForTransaction(config, transactionType));
+    }
+}
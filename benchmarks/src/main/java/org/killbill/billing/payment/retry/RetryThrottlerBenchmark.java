@@ -0,0 +1,88 @@
+/*
+ * Copyright 2020-2022 Equinix, Inc
+ * Copyright 2014-2022 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.killbill.billing.payment.retry;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.joda.time.DateTime;
+import org.killbill.billing.payment.invoice.InvoicePaymentControlPluginApi;
+import org.killbill.billing.util.config.definition.PaymentConfig;
+import org.killbill.clock.Clock;
+import org.killbill.clock.DefaultClock;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.skife.config.TimeSpan;
+
+/**
+ * Overhead of the retry throttling on the retry notification handlers (jitter and per-plugin token buckets),
+ * with the dispatcher threads contending on the same plugin. Retries over the limit get a reservation slot,
+ * which is measured as well once the bucket is drained.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class RetryThrottlerBenchmark {
+
+    private static final List<String> PAYMENT_CONTROL_PLUGIN_NAMES = List.of(InvoicePaymentControlPluginApi.PLUGIN_NAME);
+
+    // 0 disables the throttling
+    @Param({"0", "1000"})
+    private int retryPluginRateLimit;
+
+    private RetryThrottler retryThrottler;
+    private DateTime timeOfRetry;
+
+    @Setup
+    public void setUp() {
+        final PaymentConfig paymentConfig = Mockito.mock(PaymentConfig.class, Mockito.withSettings().stubOnly());
+        Mockito.when(paymentConfig.getRetryPluginRateLimit()).thenReturn(retryPluginRateLimit);
+        Mockito.when(paymentConfig.getRetryJitter()).thenReturn(new TimeSpan("1h"));
+
+        final Clock clock = new DefaultClock();
+        retryThrottler = new RetryThrottler(paymentConfig, clock);
+        timeOfRetry = clock.getUTCNow();
+    }
+
+    @Benchmark
+    public DateTime computeTimeOfRetry() {
+        return retryThrottler.computeTimeOfRetry(UUID.randomUUID(), timeOfRetry);
+    }
+
+    @Benchmark
+    public DateTime tryAcquire() {
+        return retryThrottler.tryAcquire(UUID.randomUUID(), PAYMENT_CONTROL_PLUGIN_NAMES);
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright 2020-2022 Equinix, Inc
+ * Copyright 2014-2022 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.killbill.billing.subscription.engine.dao;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.joda.time.DateTime;
+import org.killbill.billing.api.TestApiListener.NextEvent;
+import org.killbill.billing.catalog.DefaultPriceListSet;
+import org.killbill.billing.catalog.api.ProductCategory;
+import org.killbill.billing.subscription.SubscriptionTestSuiteWithEmbeddedDB;
+import org.killbill.billing.subscription.api.SubscriptionBaseWithAddOns;
+import org.killbill.billing.subscription.api.user.DefaultSubscriptionBase;
+import org.killbill.billing.subscription.api.user.DefaultSubscriptionBaseBundle;
+import org.killbill.billing.subscription.api.user.DefaultSubscriptionBaseWithAddOns;
+import org.killbill.billing.subscription.api.user.SubscriptionBaseBundle;
+import org.killbill.billing.subscription.api.user.SubscriptionBuilder;
+import org.killbill.billing.subscription.events.SubscriptionBaseEvent;
+import org.killbill.billing.subscription.events.user.ApiEventBuilder;
+import org.killbill.billing.subscription.events.user.ApiEventCreate;
+import org.killbill.billing.util.UUIDs;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Import of a batch of base subscriptions (one per bundle) through DefaultSubscriptionDao#createSubscriptionsWithAddOns.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(value = 1, jvmArgsAppend = "-Dorg.killbill.billing.dbi.test.h2=true")
+public class SubscriptionImportBenchmark extends SubscriptionTestSuiteWithEmbeddedDB {
+
+    @Param({"1000"})
+    private int nbSubscriptions;
+
+    private List<SubscriptionBaseWithAddOns> subscriptionsWithAddOns;
+    private Map<UUID, List<SubscriptionBaseEvent>> initialEventsMap;
+
+    @Setup
+    public void setUp() throws Exception {
+        globalBeforeSuite();
+        beforeSuite();
+        globalBeforeTest();
+        beforeClass();
+        beforeMethod();
+    }
+
+    @Setup(Level.Invocation)
+    public void createBundles() throws Exception {
+        final DateTime startDate = clock.getUTCNow();
+        final DateTime createdDate = startDate.plusSeconds(10);
+
+        subscriptionsWithAddOns = new ArrayList<SubscriptionBaseWithAddOns>(nbSubscriptions);
+        initialEventsMap = new HashMap<UUID, List<SubscriptionBaseEvent>>();
+        for (int i = 0; i < nbSubscriptions; i++) {
+            final DefaultSubscriptionBaseBundle bundleDef = new DefaultSubscriptionBaseBundle(UUID.randomUUID().toString(), bundle.getAccountId(), startDate, startDate, createdDate, createdDate);
+            final SubscriptionBaseBundle importedBundle = dao.createSubscriptionBundle(bundleDef, catalog, true, internalCallContext);
+
+            final SubscriptionBuilder builder = new SubscriptionBuilder()
+                    .setId(UUIDs.randomUUID())
+                    .setBundleId(importedBundle.getId())
+                    .setBundleExternalKey(importedBundle.getExternalKey())
+                    .setCategory(ProductCategory.BASE)
+                    .setBundleStartDate(startDate)
+                    .setAlignStartDate(startDate)
+                    .setMigrated(false);
+
+            final ApiEventBuilder createBuilder = new ApiEventBuilder()
+                    .setSubscriptionId(builder.getId())
+                    .setEventPlan("shotgun-monthly")
+                    .setEventPlanPhase("shotgun-monthly-trial")
+                    .setEventPriceList(DefaultPriceListSet.DEFAULT_PRICELIST_NAME)
+                    .setEffectiveDate(startDate)
+                    .setFromDisk(true);
+
+            final DefaultSubscriptionBase subscription = new DefaultSubscriptionBase(builder);
+            subscriptionsWithAddOns.add(new DefaultSubscriptionBaseWithAddOns(importedBundle, List.of(subscription)));
+            initialEventsMap.put(subscription.getId(), List.of(new ApiEventCreate(createBuilder)));
+        }
+
+        final NextEvent[] expectedEvents = new NextEvent[nbSubscriptions];
+        Arrays.fill(expectedEvents, NextEvent.CREATE);
+        testListener.pushExpectedEvents(expectedEvents);
+    }
+
+    @TearDown(Level.Invocation)
+    public void waitForCreateEvents() {
+        assertListenerStatus();
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        afterMethod();
+        afterSuite();
+        globalAfterSuite();
+    }
+
+    @Benchmark
+    public List<SubscriptionBaseEvent> createSubscriptionsWithAddOns() throws Exception {
+        return dao.createSubscriptionsWithAddOns(subscriptionsWithAddOns, initialEventsMap, catalog, internalCallContext);
+    }
+}
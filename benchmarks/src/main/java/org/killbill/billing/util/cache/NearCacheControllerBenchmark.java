@@ -0,0 +1,237 @@
+/*
+ * Copyright 2020-2022 Equinix, Inc
+ * Copyright 2014-2022 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.killbill.billing.util.cache;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+import javax.annotation.Nullable;
+
+import org.killbill.billing.util.cache.Cachable.CacheType;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Reads (and occasional evictions) through the near cache in front of a simulated Redis tier, compared to going to the remote tier
+ * directly. Besides the throughput, the number of remote round trips is reported as the roundTrips secondary metric.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class NearCacheControllerBenchmark {
+
+    private static final int NEAR_CACHE_MAX_SIZE = 10000;
+    private static final long NEAR_CACHE_TTL_MILLIS = 60000L;
+
+    @Param({"RECORD_ID", "ACCOUNT_BCD"})
+    private CacheType cacheType;
+
+    @Param({"true", "false"})
+    private boolean nearCache;
+
+    @Param({"1000"})
+    private int nbKeys;
+
+    // Evict one key every writeEvery reads (immutable caches are never evicted in practice)
+    @Param({"100"})
+    private int writeEvery;
+
+    @Param({"100"})
+    private long remoteLatencyMicros;
+
+    private RemoteCache remoteCache;
+    private CacheController<String, Object> cacheController;
+    private String[] keys;
+    private long nbOperations;
+
+    @Setup
+    public void setUp() {
+        remoteCache = new RemoteCache(cacheType, TimeUnit.MICROSECONDS.toNanos(remoteLatencyMicros));
+        cacheController = nearCache ?
+                          new NearCacheController<String, Object>(remoteCache, new InMemoryChannel(), NEAR_CACHE_MAX_SIZE, NEAR_CACHE_TTL_MILLIS) :
+                          remoteCache;
+
+        keys = new String[nbKeys];
+        for (int i = 0; i < nbKeys; i++) {
+            keys[i] = "key-" + i;
+        }
+    }
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class RoundTrips {
+
+        public long roundTrips;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            roundTrips = 0;
+        }
+    }
+
+    @Benchmark
+    public Object get(final RoundTrips counters) {
+        final long roundTripsBefore = remoteCache.roundTrips;
+
+        final String key = keys[(int) (nbOperations++ % nbKeys)];
+        final Object value;
+        if (!NearCacheController.IMMUTABLE_CACHE_TYPES.contains(cacheType) && nbOperations % writeEvery == 0) {
+            value = cacheController.remove(key);
+        } else {
+            value = cacheController.get(key, null);
+        }
+
+        counters.roundTrips += remoteCache.roundTrips - roundTripsBefore;
+        return value;
+    }
+
+    // Stand-in for the shared Redis tier: each call is a round trip
+    private static final class RemoteCache implements CacheController<String, Object> {
+
+        private final CacheType cacheType;
+        private final long latencyNanos;
+        private final Map<String, Object> values = new ConcurrentHashMap<String, Object>();
+
+        // Only accessed by the benchmark thread
+        private long roundTrips = 0;
+
+        private RemoteCache(final CacheType cacheType, final long latencyNanos) {
+            this.cacheType = cacheType;
+            this.latencyNanos = latencyNanos;
+        }
+
+        private void roundTrip() {
+            roundTrips++;
+            if (latencyNanos > 0) {
+                LockSupport.parkNanos(latencyNanos);
+            }
+        }
+
+        @Override
+        public List<String> getKeys() {
+            roundTrip();
+            return new ArrayList<String>(values.keySet());
+        }
+
+        @Override
+        public boolean isKeyInCache(final String key) {
+            roundTrip();
+            return values.containsKey(key);
+        }
+
+        @Override
+        public Object get(final String key, final CacheLoaderArgument objectType) {
+            roundTrip();
+            return values.computeIfAbsent(key, k -> k + "-value");
+        }
+
+        @Override
+        public Map<String, Object> getAll(final Set<String> keys) {
+            roundTrip();
+            final Map<String, Object> result = new HashMap<String, Object>();
+            for (final String key : keys) {
+                final Object value = values.get(key);
+                if (value != null) {
+                    result.put(key, value);
+                }
+            }
+            return result;
+        }
+
+        @Override
+        public boolean remove(final String key) {
+            roundTrip();
+            return values.remove(key) != null;
+        }
+
+        @Override
+        public void remove(final Function<String, Boolean> keyMatcher) {
+            roundTrip();
+            values.keySet().removeIf(keyMatcher::apply);
+        }
+
+        @Override
+        public void putIfAbsent(final String key, final Object value) {
+            roundTrip();
+            values.putIfAbsent(key, value);
+        }
+
+        @Override
+        public void putAll(final Map<String, Object> newValues) {
+            roundTrip();
+            values.putAll(newValues);
+        }
+
+        @Override
+        public int size() {
+            roundTrip();
+            return values.size();
+        }
+
+        @Override
+        public void removeAll() {
+            roundTrip();
+            values.clear();
+        }
+
+        @Override
+        public CacheType getCacheType() {
+            return cacheType;
+        }
+    }
+
+    // Single node: invalidations published on evictions have nobody else to reach
+    private static final class InMemoryChannel implements NearCacheInvalidationChannel {
+
+        private final List<Listener> listeners = new ArrayList<Listener>();
+
+        @Override
+        public void publish(final CacheType cacheType, @Nullable final Object key) {
+            for (final Listener listener : listeners) {
+                listener.onInvalidation(cacheType, key);
+            }
+        }
+
+        @Override
+        public void subscribe(final Listener listener) {
+            listeners.add(listener);
+        }
+    }
+}
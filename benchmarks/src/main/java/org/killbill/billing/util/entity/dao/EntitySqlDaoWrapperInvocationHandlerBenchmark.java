@@ -0,0 +1,117 @@
+/*
+ * Copyright 2020-2022 Equinix, Inc
+ * Copyright 2014-2022 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.killbill.billing.util.entity.dao;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.killbill.billing.ObjectType;
+import org.killbill.billing.util.UtilTestSuiteWithEmbeddedDB;
+import org.killbill.billing.util.metrics.LatencyHistogram;
+import org.killbill.billing.util.metrics.LatencyHistograms;
+import org.killbill.billing.util.tag.dao.TagModelDao;
+import org.killbill.billing.util.tag.dao.TagSqlDao;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.skife.jdbi.v2.Handle;
+import org.skife.jdbi.v2.tweak.HandleCallback;
+
+/**
+ * Overhead of the EntitySqlDao proxy (EntitySqlDaoWrapperInvocationHandler: caching, audit, profiling, latency
+ * histograms) compared to a plain jDBI SqlObject, for the same getById query.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Dorg.killbill.billing.dbi.test.h2=true")
+public class EntitySqlDaoWrapperInvocationHandlerBenchmark extends UtilTestSuiteWithEmbeddedDB {
+
+    private EntitySqlDaoTransactionalJdbiWrapper transactionalSqlDao;
+    private TagModelDao tag;
+    private LatencyHistograms latencyHistograms;
+    private LatencyHistogram latencyHistogram;
+
+    @Setup
+    public void setUp() throws Exception {
+        globalBeforeSuite();
+        beforeSuite();
+        globalBeforeTest();
+        beforeClass();
+        beforeMethod();
+
+        latencyHistograms = new LatencyHistograms();
+        transactionalSqlDao = new EntitySqlDaoTransactionalJdbiWrapper(dbi, roDbi, clock, controlCacheDispatcher, nonEntityDao, internalCallContextFactory, latencyHistograms);
+        tag = new TagModelDao(clock.getUTCNow(), UUID.randomUUID(), UUID.randomUUID(), ObjectType.TAG);
+        transactionalSqlDao.execute(false, new EntitySqlDaoTransactionWrapper<Void>() {
+            @Override
+            public Void inTransaction(final EntitySqlDaoWrapperFactory entitySqlDaoWrapperFactory) throws Exception {
+                entitySqlDaoWrapperFactory.become(TagSqlDao.class).create(tag, internalCallContext);
+                return null;
+            }
+        });
+
+        latencyHistogram = latencyHistograms.getHistogram(LatencyHistograms.DAO, EntitySqlDaoWrapperInvocationHandlerBenchmark.class.getSimpleName());
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        afterMethod();
+        afterSuite();
+        globalAfterSuite();
+    }
+
+    @Benchmark
+    public TagModelDao getByIdThroughWrapper() {
+        return transactionalSqlDao.execute(true, new EntitySqlDaoTransactionWrapper<TagModelDao>() {
+            @Override
+            public TagModelDao inTransaction(final EntitySqlDaoWrapperFactory entitySqlDaoWrapperFactory) throws Exception {
+                return entitySqlDaoWrapperFactory.become(TagSqlDao.class).getById(tag.getId().toString(), internalCallContext);
+            }
+        });
+    }
+
+    @Benchmark
+    public TagModelDao getByIdWithRawJdbi() {
+        return roDbi.withHandle(new HandleCallback<TagModelDao>() {
+            @Override
+            public TagModelDao withHandle(final Handle handle) throws Exception {
+                return handle.attach(TagSqlDao.class).getById(tag.getId().toString(), internalCallContext);
+            }
+        });
+    }
+
+    // Cost added to each proxied call by the always-on latency histograms
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public void recordLatency() {
+        final long startNano = System.nanoTime();
+        latencyHistogram.record(System.nanoTime() - startNano);
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2020-2022 Equinix, Inc
+ * Copyright 2014-2022 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.killbill.billing.util.security.shiro;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.shiro.authc.AuthenticationInfo;
+import org.apache.shiro.authc.AuthenticationToken;
+import org.apache.shiro.authc.SimpleAuthenticationInfo;
+import org.apache.shiro.authc.UsernamePasswordToken;
+import org.apache.shiro.authc.credential.CredentialsMatcher;
+import org.apache.shiro.crypto.SecureRandomNumberGenerator;
+import org.apache.shiro.crypto.hash.SimpleHash;
+import org.apache.shiro.util.ByteSource;
+import org.killbill.billing.util.config.definition.SecurityConfig;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Credentials verification of authenticated requests, as done by the JDBC realms, with and without the verified credentials cache
+ * (verifiedCredentialsCacheSize=0 disables it).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(4)
+@Fork(1)
+public class KillbillCredentialsMatcherBenchmark {
+
+    private static final String USERNAME = "admin";
+    private static final String PASSWORD = "password";
+
+    @Param({"0", "1000"})
+    private int verifiedCredentialsCacheSize;
+
+    @Param({"200000"})
+    private int nbHashIterations;
+
+    private CredentialsMatcher credentialsMatcher;
+    private AuthenticationToken token;
+    private AuthenticationInfo info;
+
+    @Setup
+    public void setUp() {
+        final SecurityConfig securityConfig = Mockito.mock(SecurityConfig.class, Mockito.withSettings().stubOnly());
+        Mockito.when(securityConfig.getShiroNbHashIterations()).thenReturn(nbHashIterations);
+        Mockito.when(securityConfig.getShiroVerifiedCredentialsCacheSize()).thenReturn(verifiedCredentialsCacheSize);
+        credentialsMatcher = KillbillCredentialsMatcher.getCredentialsMatcher(securityConfig);
+
+        // Stored like DefaultUserDao does, and read back like KillBillJdbcRealm does (SaltStyle.COLUMN)
+        final String salt = new SecureRandomNumberGenerator().nextBytes().toBase64();
+        final String hashedPasswordBase64 = new SimpleHash(KillbillCredentialsMatcher.HASH_ALGORITHM_NAME, PASSWORD, salt, nbHashIterations).toBase64();
+        info = new SimpleAuthenticationInfo(USERNAME, hashedPasswordBase64.toCharArray(), ByteSource.Util.bytes(salt), "KillBillJdbcRealm");
+        token = new UsernamePasswordToken(USERNAME, PASSWORD);
+    }
+
+    @Benchmark
+    public boolean doCredentialsMatch() {
+        return credentialsMatcher.doCredentialsMatch(token, info);
+    }
+}
@@ -23,6 +23,7 @@ import java.io.ObjectInput;
 import java.io.ObjectOutput;
 import java.util.Collection;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.TreeMap;
@@ -32,13 +33,17 @@ import org.killbill.billing.catalog.api.CatalogEntity;
 public class CatalogEntityCollection<T extends CatalogEntity> implements Collection<T>, Externalizable {
 
     private final Map<String, T> data;
+    // Hash index on top of the ordered map: lookups by name happen in billing loops
+    private final Map<String, T> index;
 
     public CatalogEntityCollection() {
         this.data = new TreeMap<String, T>(Comparator.naturalOrder());
+        this.index = new HashMap<String, T>();
     }
 
     public CatalogEntityCollection(final T[] entities) {
         this.data = new TreeMap<String, T>(Comparator.naturalOrder());
+        this.index = new HashMap<String, T>();
         for (final T cur : entities) {
             addEntry(cur);
         }
@@ -46,16 +51,14 @@ public class CatalogEntityCollection<T extends CatalogEntity> implements Collect
 
     public CatalogEntityCollection(final Iterable<T> entities) {
         this.data = new TreeMap<String, T>(Comparator.naturalOrder());
+        this.index = new HashMap<String, T>();
         for (final T cur : entities) {
             addEntry(cur);
         }
     }
 
-    //
-    // Returning such entries will be log(N)
-    //
     public T findByName(final String entryName) {
-        return data.get(entryName);
+        return index.get(entryName);
     }
 
     public Collection<T> getEntries() {
@@ -74,7 +77,7 @@ public class CatalogEntityCollection<T extends CatalogEntity> implements Collect
 
     @Override
     public boolean contains(final Object o) {
-        return data.containsKey(((CatalogEntity) o).getName());
+        return index.containsKey(((CatalogEntity) o).getName());
     }
 
     @Override
@@ -101,6 +104,7 @@ public class CatalogEntityCollection<T extends CatalogEntity> implements Collect
                 if (prevKey != null) {
                     keyIterator.remove();
                     data.remove(prevKey);
+                    index.remove(prevKey);
                 }
             }
         };
@@ -131,6 +135,7 @@ public class CatalogEntityCollection<T extends CatalogEntity> implements Collect
     @Override
     public void clear() {
         data.clear();
+        index.clear();
     }
 
     @Override
@@ -144,6 +149,7 @@ public class CatalogEntityCollection<T extends CatalogEntity> implements Collect
         while (iterator.hasNext()) {
             final CatalogEntity cur = (CatalogEntity) iterator.next();
             data.remove(cur.getName());
+            index.remove(cur.getName());
         }
         return true;
     }
@@ -153,7 +159,7 @@ public class CatalogEntityCollection<T extends CatalogEntity> implements Collect
         final Iterator iterator = c.iterator();
         while (iterator.hasNext()) {
             final CatalogEntity cur = (CatalogEntity) iterator.next();
-            if (!data.containsKey(cur.getName())) {
+            if (!index.containsKey(cur.getName())) {
                 return false;
             }
         }
@@ -190,15 +196,18 @@ public class CatalogEntityCollection<T extends CatalogEntity> implements Collect
 
     private void addEntry(final T entry) {
         data.put(entry.getName(), entry);
+        index.put(entry.getName(), entry);
     }
 
     private boolean removeEntry(final T entry) {
+        index.remove(entry.getName());
         return data.remove(entry.getName()) != null;
     }
 
     @Override
     public void readExternal(final ObjectInput in) throws IOException, ClassNotFoundException {
         data.putAll((Map<? extends String, ? extends T>) in.readObject());
+        index.putAll(data);
     }
 
     @Override
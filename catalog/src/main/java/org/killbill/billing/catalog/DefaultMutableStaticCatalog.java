@@ -60,6 +60,7 @@ public class DefaultMutableStaticCatalog extends StandaloneCatalog implements Mu
     @Override
     public void addProduct(final Product product) {
         getCatalogEntityCollectionProduct().add(product);
+        resetPlanRulesDecisionTables();
     }
 
     @Override
@@ -69,6 +70,7 @@ public class DefaultMutableStaticCatalog extends StandaloneCatalog implements Mu
 
         final DefaultPriceList priceList = (DefaultPriceList) plan.getPriceList();
         priceList.getCatalogEntityCollectionPlan().add(plan);
+        resetPlanRulesDecisionTables();
     }
 
     @Override
@@ -76,6 +78,7 @@ public class DefaultMutableStaticCatalog extends StandaloneCatalog implements Mu
         final PriceList[] newEntries = allocateNewEntries(getPriceLists().getChildPriceLists(), priceList);
         final DefaultPriceListSet priceListSet = new DefaultPriceListSet(getPriceLists().getDefaultPricelist(), (DefaultPriceList[]) newEntries);
         setPriceLists(priceListSet);
+        resetPlanRulesDecisionTables();
     }
 
     public void addRecurringPriceToPlan(final DefaultInternationalPrice currentPrices, final Price newPrice) {
@@ -87,6 +90,12 @@ public class DefaultMutableStaticCatalog extends StandaloneCatalog implements Mu
         ((DefaultProduct) targetBasePlan).getCatalogEntityCollectionAvailable().add(aoProduct);
     }
 
+    private void resetPlanRulesDecisionTables() {
+        if (getPlanRules() != null) {
+            ((DefaultPlanRules) getPlanRules()).resetDecisionTables();
+        }
+    }
+
     private <T> T[] allocateNewEntries(final T[] existingEntries, final T newEntry) {
 
         if (existingEntries != null) {
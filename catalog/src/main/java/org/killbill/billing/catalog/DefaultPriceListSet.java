@@ -25,7 +25,9 @@ import java.io.ObjectOutput;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import javax.xml.bind.annotation.XmlAccessType;
 import javax.xml.bind.annotation.XmlAccessorType;
@@ -52,6 +54,9 @@ public class DefaultPriceListSet extends ValidatingConfig<StandaloneCatalog> imp
     @XmlElement(required = false, name = "childPriceList")
     private DefaultPriceList[] childPriceLists;
 
+    // Built on first lookup, the price lists of a set don't change once loaded
+    private volatile Map<String, DefaultPriceList> priceListsByName;
+
     // Required for deserialization
     public DefaultPriceListSet() {
     }
@@ -86,15 +91,27 @@ public class DefaultPriceListSet extends ValidatingConfig<StandaloneCatalog> imp
         if (priceListName == null) {
             throw new CatalogApiException(ErrorCode.CAT_NULL_PRICE_LIST_NAME);
         }
-        if (defaultPricelist.getName().equals(priceListName)) {
-            return defaultPricelist;
+        final DefaultPriceList result = getPriceListsByName().get(priceListName);
+        if (result != null) {
+            return result;
         }
-        for (final DefaultPriceList pl : childPriceLists) {
-            if (pl.getName().equals(priceListName)) {
-                return pl;
+        throw new CatalogApiException(ErrorCode.CAT_PRICE_LIST_NOT_FOUND, priceListName);
+    }
+
+    private Map<String, DefaultPriceList> getPriceListsByName() {
+        Map<String, DefaultPriceList> result = priceListsByName;
+        if (result == null) {
+            result = new HashMap<String, DefaultPriceList>();
+            if (childPriceLists != null) {
+                // Reverse order so that the first child wins on duplicate names, as with the previous scan
+                for (int i = childPriceLists.length - 1; i >= 0; i--) {
+                    result.put(childPriceLists[i].getName(), childPriceLists[i]);
+                }
             }
+            result.put(defaultPricelist.getName(), defaultPricelist);
+            priceListsByName = result;
         }
-        throw new CatalogApiException(ErrorCode.CAT_PRICE_LIST_NOT_FOUND, priceListName);
+        return result;
     }
 
     @Override
@@ -120,6 +137,7 @@ public class DefaultPriceListSet extends ValidatingConfig<StandaloneCatalog> imp
     @Override
     public void initialize(final StandaloneCatalog catalog) {
         super.initialize(catalog);
+        priceListsByName = null;
         defaultPricelist.initialize(catalog);
         if (childPriceLists != null) {
             for (DefaultPriceList cur : childPriceLists) {
@@ -185,5 +203,6 @@ public class DefaultPriceListSet extends ValidatingConfig<StandaloneCatalog> imp
     public void readExternal(final ObjectInput in) throws IOException, ClassNotFoundException {
         this.defaultPricelist = (DefaultPriceList) in.readObject();
         this.childPriceLists = (DefaultPriceList[]) in.readObject();
+        this.priceListsByName = null;
     }
 }
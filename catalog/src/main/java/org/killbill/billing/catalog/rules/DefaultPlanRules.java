@@ -25,6 +25,11 @@ import java.io.ObjectOutput;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.annotation.Nullable;
 
 import javax.xml.bind.annotation.XmlAccessType;
 import javax.xml.bind.annotation.XmlAccessorType;
@@ -36,8 +41,10 @@ import org.killbill.billing.catalog.DefaultPriceList;
 import org.killbill.billing.catalog.StandaloneCatalog;
 import org.killbill.billing.catalog.api.BillingActionPolicy;
 import org.killbill.billing.catalog.api.BillingAlignment;
+import org.killbill.billing.catalog.api.BillingPeriod;
 import org.killbill.billing.catalog.api.CatalogApiException;
 import org.killbill.billing.catalog.api.IllegalPlanChange;
+import org.killbill.billing.catalog.api.PhaseType;
 import org.killbill.billing.catalog.api.PlanAlignmentChange;
 import org.killbill.billing.catalog.api.PlanAlignmentCreate;
 import org.killbill.billing.catalog.api.PlanChangeResult;
@@ -82,6 +89,15 @@ public class DefaultPlanRules extends ValidatingConfig<StandaloneCatalog> implem
     @XmlElement(name = "priceListCase", required = false)
     private DefaultCasePriceList[] priceListCase;
 
+    // Decision tables: rule results computed by walking the cases, keyed by the specifier(s) they were computed for.
+    // Entries only depend on the catalog and the rules, so they are kept until the rules are re-initialized.
+    private final Map<SpecifierKey, PlanAlignmentCreate> createAlignmentTable = new ConcurrentHashMap<SpecifierKey, PlanAlignmentCreate>();
+    private final Map<SpecifierKey, BillingActionPolicy> cancelPolicyTable = new ConcurrentHashMap<SpecifierKey, BillingActionPolicy>();
+    private final Map<SpecifierKey, BillingAlignment> billingAlignmentTable = new ConcurrentHashMap<SpecifierKey, BillingAlignment>();
+    private final Map<SpecifierKey, DefaultPriceList> priceListTable = new ConcurrentHashMap<SpecifierKey, DefaultPriceList>();
+    private final Map<ChangeKey, BillingActionPolicy> changePolicyTable = new ConcurrentHashMap<ChangeKey, BillingActionPolicy>();
+    private final Map<ChangeKey, PlanAlignmentChange> changeAlignmentTable = new ConcurrentHashMap<ChangeKey, PlanAlignmentChange>();
+
     // Required for deserialization
     public DefaultPlanRules() {
     }
@@ -124,20 +140,38 @@ public class DefaultPlanRules extends ValidatingConfig<StandaloneCatalog> implem
 
     @Override
     public PlanAlignmentCreate getPlanCreateAlignment(final PlanSpecifier specifier) throws CatalogApiException {
-        final PlanAlignmentCreate result = DefaultCase.getResult(createAlignmentCase, specifier, root);
-        return (result != null) ? result : PlanAlignmentCreate.START_OF_BUNDLE;
+        final SpecifierKey key = new SpecifierKey(null, specifier);
+        PlanAlignmentCreate result = createAlignmentTable.get(key);
+        if (result == null) {
+            result = DefaultCase.getResult(createAlignmentCase, specifier, root);
+            result = (result != null) ? result : PlanAlignmentCreate.START_OF_BUNDLE;
+            createAlignmentTable.put(key, result);
+        }
+        return result;
     }
 
     @Override
     public BillingActionPolicy getPlanCancelPolicy(final PlanPhaseSpecifier planPhase) throws CatalogApiException {
-        final BillingActionPolicy result = DefaultCasePhase.getResult(cancelCase, planPhase, root);
-        return (result != null) ? result : BillingActionPolicy.END_OF_TERM;
+        final SpecifierKey key = new SpecifierKey(planPhase.getPhaseType(), planPhase);
+        BillingActionPolicy result = cancelPolicyTable.get(key);
+        if (result == null) {
+            result = DefaultCasePhase.getResult(cancelCase, planPhase, root);
+            result = (result != null) ? result : BillingActionPolicy.END_OF_TERM;
+            cancelPolicyTable.put(key, result);
+        }
+        return result;
     }
 
     @Override
     public BillingAlignment getBillingAlignment(final PlanPhaseSpecifier planPhase) throws CatalogApiException {
-        final BillingAlignment result = DefaultCasePhase.getResult(billingAlignmentCase, planPhase, root);
-        return (result != null) ? result : BillingAlignment.ACCOUNT;
+        final SpecifierKey key = new SpecifierKey(planPhase.getPhaseType(), planPhase);
+        BillingAlignment result = billingAlignmentTable.get(key);
+        if (result == null) {
+            result = DefaultCasePhase.getResult(billingAlignmentCase, planPhase, root);
+            result = (result != null) ? result : BillingAlignment.ACCOUNT;
+            billingAlignmentTable.put(key, result);
+        }
+        return result;
     }
 
     @Override
@@ -165,25 +199,52 @@ public class DefaultPlanRules extends ValidatingConfig<StandaloneCatalog> implem
 
     private PlanAlignmentChange getPlanChangeAlignment(final PlanPhaseSpecifier from,
                                                        final PlanSpecifier to) throws CatalogApiException {
-        final PlanAlignmentChange result = DefaultCaseChange.getResult(changeAlignmentCase, from, to, root);
-        return (result != null) ? result : PlanAlignmentChange.START_OF_BUNDLE;
+        final ChangeKey key = new ChangeKey(from, to);
+        PlanAlignmentChange result = changeAlignmentTable.get(key);
+        if (result == null) {
+            result = DefaultCaseChange.getResult(changeAlignmentCase, from, to, root);
+            result = (result != null) ? result : PlanAlignmentChange.START_OF_BUNDLE;
+            changeAlignmentTable.put(key, result);
+        }
+        return result;
     }
 
     private BillingActionPolicy getPlanChangePolicy(final PlanPhaseSpecifier from,
                                                     final PlanSpecifier to) throws CatalogApiException {
-        final BillingActionPolicy result = DefaultCaseChange.getResult(changeCase, from, to, root);
-        return (result != null) ? result : BillingActionPolicy.END_OF_TERM;
+        final ChangeKey key = new ChangeKey(from, to);
+        BillingActionPolicy result = changePolicyTable.get(key);
+        if (result == null) {
+            result = DefaultCaseChange.getResult(changeCase, from, to, root);
+            result = (result != null) ? result : BillingActionPolicy.END_OF_TERM;
+            changePolicyTable.put(key, result);
+        }
+        return result;
     }
 
     private DefaultPriceList findPriceList(final PlanSpecifier specifier) throws CatalogApiException {
-        DefaultPriceList result = DefaultCasePriceList.getResult(priceListCase, specifier, root);
+        final SpecifierKey key = new SpecifierKey(null, specifier);
+        DefaultPriceList result = priceListTable.get(key);
         if (result == null) {
-            final String priceListName = specifier.getPlanName() != null ? root.findPlan(specifier.getPlanName()).getPriceList().getName() : specifier.getPriceListName();
-            result = (DefaultPriceList) root.findPriceList(priceListName);
+            result = DefaultCasePriceList.getResult(priceListCase, specifier, root);
+            if (result == null) {
+                final String priceListName = specifier.getPlanName() != null ? root.findPlan(specifier.getPlanName()).getPriceList().getName() : specifier.getPriceListName();
+                result = (DefaultPriceList) root.findPriceList(priceListName);
+            }
+            priceListTable.put(key, result);
         }
         return result;
     }
 
+    // Lookups failing with a CatalogApiException are never recorded, they are evaluated (and fail) on each call
+    public void resetDecisionTables() {
+        createAlignmentTable.clear();
+        cancelPolicyTable.clear();
+        billingAlignmentTable.clear();
+        priceListTable.clear();
+        changePolicyTable.clear();
+        changeAlignmentTable.clear();
+    }
+
     @Override
     public ValidationErrors validate(final StandaloneCatalog catalog, final ValidationErrors errors) {
         //
@@ -281,6 +342,7 @@ public class DefaultPlanRules extends ValidatingConfig<StandaloneCatalog> implem
     public void initialize(final StandaloneCatalog catalog) {
         super.initialize(catalog);
         CatalogSafetyInitializer.initializeNonRequiredNullFieldsWithDefaultValue(this);
+        resetDecisionTables();
 
         for (final DefaultCaseChangePlanPolicy cur : changeCase) {
             cur.initialize(catalog);
@@ -308,33 +370,39 @@ public class DefaultPlanRules extends ValidatingConfig<StandaloneCatalog> implem
 
     public DefaultPlanRules setChangeCase(final DefaultCaseChangePlanPolicy[] changeCase) {
         this.changeCase = changeCase;
+        resetDecisionTables();
         return this;
     }
 
     public DefaultPlanRules setChangeAlignmentCase(
             final DefaultCaseChangePlanAlignment[] changeAlignmentCase) {
         this.changeAlignmentCase = changeAlignmentCase;
+        resetDecisionTables();
         return this;
     }
 
     public DefaultPlanRules setCancelCase(final DefaultCaseCancelPolicy[] cancelCase) {
         this.cancelCase = cancelCase;
+        resetDecisionTables();
         return this;
     }
 
     public DefaultPlanRules setCreateAlignmentCase(final DefaultCaseCreateAlignment[] createAlignmentCase) {
         this.createAlignmentCase = createAlignmentCase;
+        resetDecisionTables();
         return this;
     }
 
     public DefaultPlanRules setBillingAlignmentCase(
             final DefaultCaseBillingAlignment[] billingAlignmentCase) {
         this.billingAlignmentCase = billingAlignmentCase;
+        resetDecisionTables();
         return this;
     }
 
     public DefaultPlanRules setPriceListCase(final DefaultCasePriceList[] priceListCase) {
         this.priceListCase = priceListCase;
+        resetDecisionTables();
         return this;
     }
 
@@ -401,4 +469,70 @@ public class DefaultPlanRules extends ValidatingConfig<StandaloneCatalog> implem
         this.billingAlignmentCase = (DefaultCaseBillingAlignment[]) in.readObject();
         this.priceListCase = (DefaultCasePriceList[]) in.readObject();
     }
+
+    private static final class SpecifierKey {
+
+        private final PhaseType phaseType;
+        private final String planName;
+        private final String productName;
+        private final BillingPeriod billingPeriod;
+        private final String priceListName;
+
+        private SpecifierKey(@Nullable final PhaseType phaseType, final PlanSpecifier specifier) {
+            this.phaseType = phaseType;
+            this.planName = specifier.getPlanName();
+            this.productName = specifier.getProductName();
+            this.billingPeriod = specifier.getBillingPeriod();
+            this.priceListName = specifier.getPriceListName();
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof SpecifierKey)) {
+                return false;
+            }
+            final SpecifierKey that = (SpecifierKey) o;
+            return phaseType == that.phaseType &&
+                   billingPeriod == that.billingPeriod &&
+                   Objects.equals(planName, that.planName) &&
+                   Objects.equals(productName, that.productName) &&
+                   Objects.equals(priceListName, that.priceListName);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(phaseType, planName, productName, billingPeriod, priceListName);
+        }
+    }
+
+    private static final class ChangeKey {
+
+        private final SpecifierKey from;
+        private final SpecifierKey to;
+
+        private ChangeKey(final PlanPhaseSpecifier from, final PlanSpecifier to) {
+            this.from = new SpecifierKey(from.getPhaseType(), from);
+            this.to = new SpecifierKey(null, to);
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof ChangeKey)) {
+                return false;
+            }
+            final ChangeKey that = (ChangeKey) o;
+            return from.equals(that.from) && to.equals(that.to);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * from.hashCode() + to.hashCode();
+        }
+    }
 }
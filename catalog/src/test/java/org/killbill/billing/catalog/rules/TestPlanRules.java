@@ -16,6 +16,10 @@
 
 package org.killbill.billing.catalog.rules;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
 import org.testng.Assert;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
@@ -24,16 +28,21 @@ import org.killbill.billing.catalog.CatalogTestSuiteNoDB;
 import org.killbill.billing.catalog.DefaultPriceList;
 import org.killbill.billing.catalog.DefaultProduct;
 import org.killbill.billing.catalog.MockCatalog;
+import org.killbill.billing.catalog.StandaloneCatalog;
 import org.killbill.billing.catalog.api.BillingActionPolicy;
+import org.killbill.billing.catalog.api.BillingAlignment;
 import org.killbill.billing.catalog.api.BillingPeriod;
 import org.killbill.billing.catalog.api.CatalogApiException;
 import org.killbill.billing.catalog.api.IllegalPlanChange;
 import org.killbill.billing.catalog.api.PhaseType;
+import org.killbill.billing.catalog.api.Plan;
+import org.killbill.billing.catalog.api.PlanAlignmentCreate;
 import org.killbill.billing.catalog.api.PlanAlignmentChange;
 import org.killbill.billing.catalog.api.PlanChangeResult;
 import org.killbill.billing.catalog.api.PlanPhaseSpecifier;
 import org.killbill.billing.catalog.api.PlanSpecifier;
 import org.killbill.billing.catalog.api.PriceListSet;
+import org.killbill.billing.catalog.api.StaticCatalog;
 
 public class TestPlanRules extends CatalogTestSuiteNoDB {
 
@@ -100,4 +109,87 @@ public class TestPlanRules extends CatalogTestSuiteNoDB {
         Assert.assertEquals(result.getAlignment(), PlanAlignmentChange.START_OF_SUBSCRIPTION);
         Assert.assertEquals(result.getNewPriceList(), priceList2);
     }
+
+    @Test(groups = "fast")
+    public void testDecisionTablesMatchRuleWalk() throws Exception {
+        final StandaloneCatalog catalog = getCatalog("WeaponsHire.xml");
+        final DefaultPlanRules rules = (DefaultPlanRules) catalog.getPlanRules();
+
+        final List<PlanSpecifier> specifiers = new ArrayList<PlanSpecifier>();
+        for (final Plan plan : catalog.getPlans()) {
+            specifiers.add(new PlanSpecifier(plan.getName()));
+            specifiers.add(new PlanSpecifier(plan.getProduct().getName(), plan.getRecurringBillingPeriod(), plan.getPriceList().getName()));
+        }
+
+        // Second pass is answered from the decision tables
+        for (int pass = 0; pass < 2; pass++) {
+            for (final PlanSpecifier specifier : specifiers) {
+                Assert.assertEquals(rules.getPlanCreateAlignment(specifier),
+                                    Objects.requireNonNullElse(walkCases(rules.getCaseCreateAlignment(), specifier, catalog), PlanAlignmentCreate.START_OF_BUNDLE));
+
+                for (final PhaseType phaseType : PhaseType.values()) {
+                    final PlanPhaseSpecifier from = toPlanPhaseSpecifier(specifier, phaseType);
+                    Assert.assertEquals(rules.getBillingAlignment(from),
+                                        Objects.requireNonNullElse(walkPhaseCases(rules.getCaseBillingAlignment(), from, catalog), BillingAlignment.ACCOUNT));
+                    Assert.assertEquals(rules.getPlanCancelPolicy(from),
+                                        Objects.requireNonNullElse(walkPhaseCases(rules.getCaseCancelPolicy(), from, catalog), BillingActionPolicy.END_OF_TERM));
+
+                    if (specifier.getPlanName() == null) {
+                        continue;
+                    }
+                    for (final Plan toPlan : catalog.getPlans()) {
+                        final PlanSpecifier to = new PlanSpecifier(toPlan.getName());
+                        final BillingActionPolicy expectedPolicy = Objects.requireNonNullElse(walkChangeCases(rules.getCaseChangePlanPolicy(), from, to, catalog), BillingActionPolicy.END_OF_TERM);
+                        try {
+                            final PlanChangeResult result = rules.getPlanChangeResult(from, to);
+                            Assert.assertEquals(result.getPolicy(), expectedPolicy);
+                            Assert.assertEquals(result.getAlignment(),
+                                                Objects.requireNonNullElse(walkChangeCases(rules.getCaseChangePlanAlignment(), from, to, catalog), PlanAlignmentChange.START_OF_BUNDLE));
+                        } catch (final IllegalPlanChange e) {
+                            Assert.assertEquals(expectedPolicy, BillingActionPolicy.ILLEGAL);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private static PlanPhaseSpecifier toPlanPhaseSpecifier(final PlanSpecifier specifier, final PhaseType phaseType) {
+        return specifier.getPlanName() != null ?
+               new PlanPhaseSpecifier(specifier.getPlanName(), phaseType) :
+               new PlanPhaseSpecifier(specifier.getProductName(), specifier.getBillingPeriod(), specifier.getPriceListName(), phaseType);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T walkCases(final Iterable<?> cases, final PlanSpecifier specifier, final StaticCatalog catalog) throws CatalogApiException {
+        for (final Object cur : cases) {
+            final T result = ((DefaultCase<T>) cur).getResult(specifier, catalog);
+            if (result != null) {
+                return result;
+            }
+        }
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T walkPhaseCases(final Iterable<?> cases, final PlanPhaseSpecifier specifier, final StaticCatalog catalog) throws CatalogApiException {
+        for (final Object cur : cases) {
+            final T result = ((DefaultCasePhase<T>) cur).getResult(specifier, catalog);
+            if (result != null) {
+                return result;
+            }
+        }
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T walkChangeCases(final Iterable<?> cases, final PlanPhaseSpecifier from, final PlanSpecifier to, final StaticCatalog catalog) throws CatalogApiException {
+        for (final Object cur : cases) {
+            final T result = ((DefaultCaseChange<T>) cur).getResult(from, to, catalog);
+            if (result != null) {
+                return result;
+            }
+        }
+        return null;
+    }
 }
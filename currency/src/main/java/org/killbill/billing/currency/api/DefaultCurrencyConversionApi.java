@@ -16,8 +16,15 @@
 
 package org.killbill.billing.currency.api;
 
+import java.util.Collections;
+import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
 
+import javax.annotation.Nullable;
 import javax.inject.Inject;
 
 import org.joda.time.DateTime;
@@ -27,17 +34,25 @@ import org.killbill.billing.catalog.api.Currency;
 import org.killbill.billing.currency.plugin.api.CurrencyPluginApi;
 import org.killbill.billing.osgi.api.OSGIServiceRegistration;
 import org.killbill.billing.util.config.definition.CurrencyConfig;
+import org.killbill.clock.Clock;
 
 public class DefaultCurrencyConversionApi implements CurrencyConversionApi {
 
+    // Snapshot key for the base currencies
+    private static final RatesKey BASE_CURRENCIES_KEY = new RatesKey(null, null);
+
     private final CurrencyConfig config;
     private final OSGIServiceRegistration<CurrencyPluginApi> registry;
+    private final Clock clock;
+    // Rate snapshots per base currency and conversion date (null for the current rates)
+    private final ConcurrentMap<RatesKey, RatesSnapshot<?>> snapshots;
 
     @Inject
-    public DefaultCurrencyConversionApi(final CurrencyConfig config, final OSGIServiceRegistration<CurrencyPluginApi> registry) {
+    public DefaultCurrencyConversionApi(final CurrencyConfig config, final OSGIServiceRegistration<CurrencyPluginApi> registry, final Clock clock) {
         this.config = config;
         this.registry = registry;
-
+        this.clock = clock;
+        this.snapshots = new ConcurrentHashMap<RatesKey, RatesSnapshot<?>>();
     }
 
     private CurrencyPluginApi getPluginApi() throws CurrencyConversionException {
@@ -51,18 +66,20 @@ public class DefaultCurrencyConversionApi implements CurrencyConversionApi {
     @Override
     public Set<Currency> getBaseRates() throws CurrencyConversionException {
         final CurrencyPluginApi pluginApi = getPluginApi();
-        return pluginApi.getBaseCurrencies();
+        return getOrLoadSnapshot(pluginApi, BASE_CURRENCIES_KEY, pluginApi::getBaseCurrencies);
     }
 
     @Override
     public CurrencyConversion getCurrentCurrencyConversion(final Currency baseCurrency) throws CurrencyConversionException {
-        final Set<Rate> allRates = getPluginApi().getCurrentRates(baseCurrency);
+        final CurrencyPluginApi pluginApi = getPluginApi();
+        final Set<Rate> allRates = getOrLoadSnapshot(pluginApi, new RatesKey(baseCurrency, null), () -> pluginApi.getCurrentRates(baseCurrency));
         return getCurrencyConversionInternal(baseCurrency, allRates);
     }
 
     @Override
     public CurrencyConversion getCurrencyConversion(final Currency baseCurrency, final DateTime dateConversion) throws CurrencyConversionException {
-        final Set<Rate> allRates = getPluginApi().getRates(baseCurrency, dateConversion);
+        final CurrencyPluginApi pluginApi = getPluginApi();
+        final Set<Rate> allRates = getOrLoadSnapshot(pluginApi, new RatesKey(baseCurrency, dateConversion), () -> pluginApi.getRates(baseCurrency, dateConversion));
         return getCurrencyConversionInternal(baseCurrency, allRates);
     }
 
@@ -70,4 +87,133 @@ public class DefaultCurrencyConversionApi implements CurrencyConversionApi {
         final CurrencyConversion result = new DefaultCurrencyConversion(baseCurrency, allRates);
         return result;
     }
+
+    // Snapshots are shared between callers: the sets handed out are unmodifiable
+    @SuppressWarnings("unchecked")
+    private <T> Set<T> getOrLoadSnapshot(final CurrencyPluginApi pluginApi, final RatesKey key, final RatesLoader<Set<T>> loader) throws CurrencyConversionException {
+        final long ttlMillis = config.getRatesCacheTTL().getMillis();
+        if (ttlMillis <= 0) {
+            return unmodifiableSet(loader.load());
+        }
+
+        while (true) {
+            final long now = clock.getUTCNow().getMillis();
+            final RatesSnapshot<?> existing = snapshots.get(key);
+            if (existing != null && existing.isValid(pluginApi, now)) {
+                // Blocks if the snapshot is being loaded by another thread
+                return (Set<T>) existing.get();
+            }
+
+            // Single-flight: only the thread which installs the new snapshot calls the plugin
+            final RatesSnapshot<Set<T>> snapshot = new RatesSnapshot<Set<T>>(pluginApi, now + ttlMillis);
+            final boolean installed = existing == null ? snapshots.putIfAbsent(key, snapshot) == null : snapshots.replace(key, existing, snapshot);
+            if (!installed) {
+                continue;
+            }
+            evictIfNeeded(now);
+
+            try {
+                final Set<T> value = unmodifiableSet(loader.load());
+                snapshot.complete(value);
+                return value;
+            } catch (final Throwable e) {
+                // Don't keep failures around (the next call will retry) and never leave waiting threads blocked, whatever the failure
+                snapshots.remove(key, snapshot);
+                snapshot.completeExceptionally(e);
+                throw e;
+            }
+        }
+    }
+
+    private static <T> Set<T> unmodifiableSet(@Nullable final Set<T> set) {
+        return set == null ? null : Collections.unmodifiableSet(set);
+    }
+
+    private void evictIfNeeded(final long now) {
+        if (snapshots.size() <= config.getRatesCacheMaxSize()) {
+            return;
+        }
+        snapshots.values().removeIf(snapshot -> !snapshot.isValid(snapshot.pluginApi, now));
+        if (snapshots.size() > config.getRatesCacheMaxSize()) {
+            snapshots.clear();
+        }
+    }
+
+    private interface RatesLoader<T> {
+
+        T load() throws CurrencyConversionException;
+    }
+
+    private static final class RatesKey {
+
+        private final Currency baseCurrency;
+        private final DateTime dateConversion;
+
+        private RatesKey(@Nullable final Currency baseCurrency, @Nullable final DateTime dateConversion) {
+            this.baseCurrency = baseCurrency;
+            this.dateConversion = dateConversion;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            final RatesKey ratesKey = (RatesKey) o;
+            return baseCurrency == ratesKey.baseCurrency &&
+                   (dateConversion == null ? ratesKey.dateConversion == null : ratesKey.dateConversion != null && dateConversion.isEqual(ratesKey.dateConversion));
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(baseCurrency, dateConversion == null ? null : dateConversion.getMillis());
+        }
+    }
+
+    private static final class RatesSnapshot<T> {
+
+        // Snapshots are only valid for the plugin instance which computed them (e.g. not after a plugin restart)
+        private final CurrencyPluginApi pluginApi;
+        private final long expirationMillis;
+        private final CompletableFuture<T> value;
+
+        private RatesSnapshot(final CurrencyPluginApi pluginApi, final long expirationMillis) {
+            this.pluginApi = pluginApi;
+            this.expirationMillis = expirationMillis;
+            this.value = new CompletableFuture<T>();
+        }
+
+        private boolean isValid(final CurrencyPluginApi currentPluginApi, final long now) {
+            return pluginApi == currentPluginApi && now < expirationMillis;
+        }
+
+        private void complete(final T rates) {
+            value.complete(rates);
+        }
+
+        private void completeExceptionally(final Throwable e) {
+            value.completeExceptionally(e);
+        }
+
+        private T get() throws CurrencyConversionException {
+            try {
+                return value.get();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for currency rates", e);
+            } catch (final ExecutionException e) {
+                if (e.getCause() instanceof CurrencyConversionException) {
+                    throw (CurrencyConversionException) e.getCause();
+                } else if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                } else if (e.getCause() instanceof Error) {
+                    throw (Error) e.getCause();
+                }
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+    }
 }
@@ -0,0 +1,199 @@
+/*
+ * Copyright 2020-2022 Equinix, Inc
+ * Copyright 2014-2022 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.billing.currency.api;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.killbill.billing.catalog.api.Currency;
+import org.killbill.billing.currency.plugin.api.CurrencyPluginApi;
+import org.killbill.billing.osgi.api.OSGIServiceRegistration;
+import org.killbill.billing.util.config.definition.CurrencyConfig;
+import org.killbill.clock.Clock;
+import org.mockito.Mockito;
+import org.skife.config.ConfigurationObjectFactory;
+import org.skife.config.SimplePropertyConfigSource;
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class TestDefaultCurrencyConversionApi {
+
+    private final DateTime startTime = new DateTime(2024, 1, 1, 0, 0, DateTimeZone.UTC);
+
+    private CurrencyPluginApi pluginApi;
+    private Clock clock;
+    private DefaultCurrencyConversionApi currencyConversionApi;
+
+    @BeforeMethod(groups = "fast")
+    public void beforeMethod() {
+        final CurrencyConfig config = new ConfigurationObjectFactory(new SimplePropertyConfigSource(new Properties())).build(CurrencyConfig.class);
+
+        pluginApi = Mockito.mock(CurrencyPluginApi.class);
+        @SuppressWarnings("unchecked")
+        final OSGIServiceRegistration<CurrencyPluginApi> registry = Mockito.mock(OSGIServiceRegistration.class);
+        Mockito.when(registry.getServiceForName(config.getDefaultCurrencyProvider())).thenReturn(pluginApi);
+
+        clock = Mockito.mock(Clock.class);
+        Mockito.when(clock.getUTCNow()).thenReturn(startTime);
+
+        currencyConversionApi = new DefaultCurrencyConversionApi(config, registry, clock);
+    }
+
+    @Test(groups = "fast")
+    public void testRatesAreCached() throws Exception {
+        final DateTime conversionDate = startTime.minusDays(10);
+        for (int i = 0; i < 1000; i++) {
+            currencyConversionApi.getBaseRates();
+            Assert.assertEquals(currencyConversionApi.getCurrentCurrencyConversion(Currency.USD).getBaseCurrency(), Currency.USD);
+            Assert.assertEquals(currencyConversionApi.getCurrentCurrencyConversion(Currency.EUR).getBaseCurrency(), Currency.EUR);
+            currencyConversionApi.getCurrencyConversion(Currency.USD, conversionDate);
+            // Same instant, different time zone
+            currencyConversionApi.getCurrencyConversion(Currency.USD, conversionDate.withZone(DateTimeZone.forID("America/Los_Angeles")));
+        }
+
+        Mockito.verify(pluginApi, Mockito.times(1)).getBaseCurrencies();
+        Mockito.verify(pluginApi, Mockito.times(1)).getCurrentRates(Currency.USD);
+        Mockito.verify(pluginApi, Mockito.times(1)).getCurrentRates(Currency.EUR);
+        Mockito.verify(pluginApi, Mockito.times(1)).getRates(Mockito.eq(Currency.USD), Mockito.<DateTime>any());
+    }
+
+    @Test(groups = "fast")
+    public void testRatesExpiration() throws Exception {
+        currencyConversionApi.getCurrentCurrencyConversion(Currency.USD);
+        currencyConversionApi.getCurrentCurrencyConversion(Currency.USD);
+        Mockito.verify(pluginApi, Mockito.times(1)).getCurrentRates(Currency.USD);
+
+        // Default TTL is 1 minute
+        Mockito.when(clock.getUTCNow()).thenReturn(startTime.plusMinutes(2));
+        currencyConversionApi.getCurrentCurrencyConversion(Currency.USD);
+        currencyConversionApi.getCurrentCurrencyConversion(Currency.USD);
+        Mockito.verify(pluginApi, Mockito.times(2)).getCurrentRates(Currency.USD);
+    }
+
+    @Test(groups = "fast")
+    public void testCachedRatesAreUnmodifiable() throws Exception {
+        final Rate rate = Mockito.mock(Rate.class);
+        Mockito.when(pluginApi.getCurrentRates(Currency.USD)).thenReturn(new HashSet<Rate>(Set.of(rate)));
+        Mockito.when(pluginApi.getBaseCurrencies()).thenReturn(new HashSet<Currency>(Set.of(Currency.USD)));
+
+        try {
+            currencyConversionApi.getCurrentCurrencyConversion(Currency.USD).getRates().clear();
+            Assert.fail();
+        } catch (final UnsupportedOperationException ignored) {
+        }
+        try {
+            currencyConversionApi.getBaseRates().add(Currency.EUR);
+            Assert.fail();
+        } catch (final UnsupportedOperationException ignored) {
+        }
+        Assert.assertEquals(currencyConversionApi.getCurrentCurrencyConversion(Currency.USD).getRates(), Set.of(rate));
+        Assert.assertEquals(currencyConversionApi.getBaseRates(), Set.of(Currency.USD));
+    }
+
+    @Test(groups = "fast")
+    public void testFailuresAreNotCached() throws Exception {
+        Mockito.when(pluginApi.getCurrentRates(Currency.USD)).thenThrow(new IllegalStateException("Provider down")).thenReturn(Set.of());
+
+        try {
+            currencyConversionApi.getCurrentCurrencyConversion(Currency.USD);
+            Assert.fail();
+        } catch (final IllegalStateException e) {
+            Assert.assertEquals(e.getMessage(), "Provider down");
+        }
+        Assert.assertEquals(currencyConversionApi.getCurrentCurrencyConversion(Currency.USD).getRates(), Set.of());
+        Mockito.verify(pluginApi, Mockito.times(2)).getCurrentRates(Currency.USD);
+    }
+
+    @Test(groups = "fast")
+    public void testErrorsAreNotCached() throws Exception {
+        final CountDownLatch pluginCalled = new CountDownLatch(1);
+        final CountDownLatch releasePlugin = new CountDownLatch(1);
+        Mockito.when(pluginApi.getCurrentRates(Currency.USD)).thenAnswer(invocation -> {
+            pluginCalled.countDown();
+            Assert.assertTrue(releasePlugin.await(10, TimeUnit.SECONDS));
+            throw new NoClassDefFoundError("Broken plugin");
+        }).thenReturn(Set.of());
+
+        final int nbThreads = 10;
+        final ExecutorService executor = Executors.newFixedThreadPool(nbThreads);
+        try {
+            final List<Future<CurrencyConversion>> futures = new ArrayList<Future<CurrencyConversion>>();
+            for (int i = 0; i < nbThreads; i++) {
+                futures.add(executor.submit((Callable<CurrencyConversion>) () -> currencyConversionApi.getCurrentCurrencyConversion(Currency.USD)));
+            }
+
+            Assert.assertTrue(pluginCalled.await(10, TimeUnit.SECONDS));
+            releasePlugin.countDown();
+            // The loading thread and the threads waiting for it all get the error, instead of blocking forever
+            for (final Future<CurrencyConversion> future : futures) {
+                try {
+                    future.get(10, TimeUnit.SECONDS);
+                } catch (final ExecutionException e) {
+                    Assert.assertTrue(e.getCause() instanceof NoClassDefFoundError);
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Assert.assertEquals(currencyConversionApi.getCurrentCurrencyConversion(Currency.USD).getRates(), Set.of());
+    }
+
+    @Test(groups = "fast")
+    public void testSingleFlightRefresh() throws Exception {
+        final CountDownLatch pluginCalled = new CountDownLatch(1);
+        final CountDownLatch releasePlugin = new CountDownLatch(1);
+        Mockito.when(pluginApi.getCurrentRates(Currency.USD)).thenAnswer(invocation -> {
+            pluginCalled.countDown();
+            Assert.assertTrue(releasePlugin.await(10, TimeUnit.SECONDS));
+            return Set.of();
+        });
+
+        final int nbThreads = 10;
+        final ExecutorService executor = Executors.newFixedThreadPool(nbThreads);
+        try {
+            final List<Future<CurrencyConversion>> futures = new ArrayList<Future<CurrencyConversion>>();
+            for (int i = 0; i < nbThreads; i++) {
+                futures.add(executor.submit((Callable<CurrencyConversion>) () -> currencyConversionApi.getCurrentCurrencyConversion(Currency.USD)));
+            }
+
+            Assert.assertTrue(pluginCalled.await(10, TimeUnit.SECONDS));
+            releasePlugin.countDown();
+            for (final Future<CurrencyConversion> future : futures) {
+                Assert.assertEquals(future.get(10, TimeUnit.SECONDS).getBaseCurrency(), Currency.USD);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Mockito.verify(pluginApi, Mockito.times(1)).getCurrentRates(Currency.USD);
+    }
+}
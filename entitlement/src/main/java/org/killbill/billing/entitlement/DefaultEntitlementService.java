@@ -35,6 +35,7 @@ import org.killbill.billing.entitlement.api.DefaultEntitlement;
 import org.killbill.billing.entitlement.api.Entitlement;
 import org.killbill.billing.entitlement.api.EntitlementApiException;
 import org.killbill.billing.entitlement.dao.BlockingStateDao;
+import org.killbill.billing.entitlement.engine.core.AccountEventsStreamsCache;
 import org.killbill.billing.entitlement.engine.core.BlockingTransitionNotificationKey;
 import org.killbill.billing.entitlement.engine.core.EntitlementNotificationKey;
 import org.killbill.billing.entitlement.engine.core.EntitlementNotificationKeyAction;
@@ -70,6 +71,7 @@ public class DefaultEntitlementService implements EntitlementService {
     private final NotificationQueueService notificationQueueService;
     private final EntitlementUtils entitlementUtils;
     private final InternalCallContextFactory internalCallContextFactory;
+    private final AccountEventsStreamsCache accountEventsStreamsCache;
 
     private NotificationQueue entitlementEventQueue;
 
@@ -79,13 +81,15 @@ public class DefaultEntitlementService implements EntitlementService {
                                      final BusOptimizer eventBus,
                                      final NotificationQueueService notificationQueueService,
                                      final EntitlementUtils entitlementUtils,
-                                     final InternalCallContextFactory internalCallContextFactory) {
+                                     final InternalCallContextFactory internalCallContextFactory,
+                                     final AccountEventsStreamsCache accountEventsStreamsCache) {
         this.entitlementInternalApi = entitlementInternalApi;
         this.blockingStateDao = blockingStateDao;
         this.eventBus = eventBus;
         this.notificationQueueService = notificationQueueService;
         this.entitlementUtils = entitlementUtils;
         this.internalCallContextFactory = internalCallContextFactory;
+        this.accountEventsStreamsCache = accountEventsStreamsCache;
     }
 
     @Override
@@ -125,6 +129,14 @@ public class DefaultEntitlementService implements EntitlementService {
         } catch (final NotificationQueueAlreadyExists e) {
             throw new RuntimeException(e);
         }
+
+        if (accountEventsStreamsCache.isEnabled()) {
+            try {
+                eventBus.register(accountEventsStreamsCache);
+            } catch (final EventBusException e) {
+                throw new RuntimeException("Failed to register bus handlers", e);
+            }
+        }
     }
 
     private void processEntitlementNotification(final EntitlementNotificationKey key, final InternalCallContext internalCallContext, final CallContext callContext) {
@@ -218,6 +230,13 @@ public class DefaultEntitlementService implements EntitlementService {
 
     @LifecycleHandlerType(LifecycleLevel.STOP_SERVICE)
     public void stop() throws NoSuchNotificationQueue {
+        if (accountEventsStreamsCache.isEnabled()) {
+            try {
+                eventBus.unregister(accountEventsStreamsCache);
+            } catch (final EventBusException e) {
+                throw new RuntimeException("Failed to unregister bus handlers", e);
+            }
+        }
         if (entitlementEventQueue != null) {
             if (!entitlementEventQueue.stopQueue()) {
                 log.warn("Timed out while shutting down {} queue: IN_PROCESSING entries might be left behind", entitlementEventQueue.getFullQName());
@@ -27,12 +27,14 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
 import javax.annotation.Nullable;
 
+import org.joda.time.DateTime;
 import org.killbill.billing.callcontext.InternalTenantContext;
 import org.killbill.billing.catalog.api.BillingPeriod;
 import org.killbill.billing.catalog.api.Plan;
@@ -79,32 +81,38 @@ public class BlockingStateOrdering extends EntitlementOrderingBase {
 
         final SupportForOlderVersionThan_0_17_X backwardCompatibleContext = new SupportForOlderVersionThan_0_17_X(inputAndOutputResult, blockingStates);
 
+        // Work on an array-backed copy of the stream: lookups are by position and the state at the insertion point is maintained incrementally
+        final EventTimeline timeline = new EventTimeline(allEntitlementUUIDs, inputAndOutputResult, backwardCompatibleContext);
+
         // Trust the incoming ordering here: blocking states were sorted using ProxyBlockingStateDao#sortedCopy
         for (final BlockingState currentBlockingState : blockingStates) {
             final List<SubscriptionEvent> outputNewEvents = new ArrayList<SubscriptionEvent>();
-            final int index = insertFromBlockingEvent(allEntitlementUUIDs, currentBlockingState, inputAndOutputResult, backwardCompatibleContext, internalTenantContext, outputNewEvents);
-            insertAfterIndex(inputAndOutputResult, outputNewEvents, index);
+            final int index = insertFromBlockingEvent(allEntitlementUUIDs, currentBlockingState, timeline, internalTenantContext, outputNewEvents);
+            timeline.insertAfterIndex(outputNewEvents, index);
         }
+
+        inputAndOutputResult.clear();
+        inputAndOutputResult.addAll(timeline.events);
         backwardCompatibleContext.addMissing_START_ENTITLEMENT(inputAndOutputResult, internalTenantContext);
     }
 
     // Returns the index and the newEvents generated from the incoming blocking state event. Those new events will all be created for the same effectiveDate and should be ordered.
-    private int insertFromBlockingEvent(final Collection<UUID> allEntitlementUUIDs, final BlockingState currentBlockingState, final List<SubscriptionEvent> inputExistingEvents, final SupportForOlderVersionThan_0_17_X backwardCompatibleContext, final InternalTenantContext internalTenantContext, final Collection<SubscriptionEvent> outputNewEvents) {
-        // Keep the current state per entitlement
+    private int insertFromBlockingEvent(final Collection<UUID> allEntitlementUUIDs, final BlockingState currentBlockingState, final EventTimeline timeline, final InternalTenantContext internalTenantContext, final Collection<SubscriptionEvent> outputNewEvents) {
+        // All events strictly before the blocking state are always skipped: their effect is kept in the timeline across blocking states
+        timeline.advanceTo(currentBlockingState.getEffectiveDate());
+
+        // Keep the current state per entitlement (copied lazily from the timeline, as the blocking state below will modify it)
         final Map<UUID, TargetState> targetStates = new HashMap<UUID, TargetState>();
-        for (final UUID cur : allEntitlementUUIDs) {
-            targetStates.put(cur, new TargetState());
-        }
 
         //
         // Find out where to insert next event, and calculate current state for each entitlement at the position where we stop.
+        // Only the events on the same effective date need to be looked at.
         //
-        int index = -1;
-        final Iterator<SubscriptionEvent> it = inputExistingEvents.iterator();
+        int index = timeline.nbReplayedEvents - 1;
         // Where we need to insert in that stream
-        DefaultSubscriptionEvent curInsertion = null;
-        while (it.hasNext()) {
-            final DefaultSubscriptionEvent cur = (DefaultSubscriptionEvent) it.next();
+        DefaultSubscriptionEvent curInsertion = index >= 0 ? (DefaultSubscriptionEvent) timeline.events.get(index) : null;
+        for (int i = timeline.nbReplayedEvents; i < timeline.events.size(); i++) {
+            final DefaultSubscriptionEvent cur = (DefaultSubscriptionEvent) timeline.events.get(i);
             final int compEffectiveDate = currentBlockingState.getEffectiveDate().compareTo(cur.getEffectiveDateTime());
 
             final boolean shouldContinue;
@@ -125,34 +133,9 @@ public class BlockingStateOrdering extends EntitlementOrderingBase {
             if (!shouldContinue) {
                 break;
             }
-            index++;
+            index = i;
 
-            final TargetState curTargetState = targetStates.get(cur.getEntitlementId());
-            switch (cur.getSubscriptionEventType()) {
-                case START_ENTITLEMENT:
-                    curTargetState.setEntitlementStarted();
-                    break;
-                case STOP_ENTITLEMENT:
-                    curTargetState.setEntitlementStopped();
-                    break;
-                case START_BILLING:
-                    // For older subscriptions we miss the START_ENTITLEMENT (the START_BILLING marks both start of billing and entitlement)
-                    if (backwardCompatibleContext.isOlderEntitlement(cur.getEntitlementId())) {
-                        curTargetState.setEntitlementStarted();
-                    }
-                    curTargetState.setBillingStarted();
-                    break;
-                case PAUSE_BILLING:
-                case PAUSE_ENTITLEMENT:
-                case RESUME_ENTITLEMENT:
-                case RESUME_BILLING:
-                case SERVICE_STATE_CHANGE:
-                    curTargetState.addEntitlementEvent(cur);
-                    break;
-                case STOP_BILLING:
-                    curTargetState.setBillingStopped();
-                    break;
-            }
+            timeline.getTargetState(targetStates, cur.getEntitlementId()).replay(cur, timeline.backwardCompatibleContext);
             curInsertion = cur;
         }
 
@@ -163,8 +146,8 @@ public class BlockingStateOrdering extends EntitlementOrderingBase {
 
         // For each target compute the new events that should be inserted in the stream
         for (final UUID targetEntitlementId : targetEntitlementIds) {
-            final SubscriptionEvent[] prevNext = findPrevNext(inputExistingEvents, targetEntitlementId, curInsertion);
-            final TargetState curTargetState = targetStates.get(targetEntitlementId);
+            final TargetState curTargetState = timeline.getTargetState(targetStates, targetEntitlementId);
+            final SubscriptionEvent[] prevNext = findPrevNext(timeline, targetEntitlementId, curTargetState, curInsertion, index);
 
             final List<SubscriptionEventType> eventTypes = curTargetState.addStateAndReturnEventTypes(currentBlockingState);
             for (final SubscriptionEventType t : eventTypes) {
@@ -240,7 +223,28 @@ public class BlockingStateOrdering extends EntitlementOrderingBase {
         }
     }
 
-    // Extract prev and next events in the stream events for that particular target subscription from the insertionEvent
+    // Extract prev and next events in the stream events for that particular target subscription from the insertionEvent (located at insertionIndex)
+    private SubscriptionEvent[] findPrevNext(final EventTimeline timeline, final UUID targetEntitlementId, final TargetState targetState, final SubscriptionEvent insertionEvent, final int insertionIndex) {
+        if (insertionEvent == null || timeline.hasDuplicates(insertionEvent)) {
+            // The reference lookup stops at the first event matching the insertionEvent id and type, which isn't necessarily at insertionIndex
+            return findPrevNext(timeline.events, targetEntitlementId, insertionEvent);
+        }
+
+        final SubscriptionEvent[] result = new DefaultSubscriptionEvent[2];
+        // The target state has seen all events up to insertionIndex
+        result[0] = targetState.getLastEvent();
+        if (timeline.hasEventsAfter(targetEntitlementId, targetState)) {
+            for (int i = insertionIndex + 1; i < timeline.events.size(); i++) {
+                final SubscriptionEvent tmp = timeline.events.get(i);
+                if (tmp.getEntitlementId().equals(targetEntitlementId)) {
+                    result[1] = tmp;
+                    break;
+                }
+            }
+        }
+        return result;
+    }
+
     private SubscriptionEvent[] findPrevNext(final List<SubscriptionEvent> events, final UUID targetEntitlementId, final SubscriptionEvent insertionEvent) {
         // Find prev/next event for the same entitlement
         final SubscriptionEvent[] result = new DefaultSubscriptionEvent[2];
@@ -370,19 +374,134 @@ public class BlockingStateOrdering extends EntitlementOrderingBase {
                                             internalTenantContext);
     }
 
-    private void insertAfterIndex(final LinkedList<SubscriptionEvent> original, final Collection<SubscriptionEvent> newEvents, final int index) {
-        final boolean firstPosition = (index == -1);
-        final boolean lastPosition = (index == original.size() - 1);
-        if (lastPosition || firstPosition) {
-            for (final SubscriptionEvent cur : newEvents) {
-                if (lastPosition) {
-                    original.addLast(cur);
-                } else {
-                    original.addFirst(cur);
+    //
+    // Internal class to keep the (array-backed) event stream, along with the state of each subscription right before the current blocking state effective date
+    //
+    private static final class EventTimeline {
+
+        private final Collection<UUID> allEntitlementUUIDs;
+        private final SupportForOlderVersionThan_0_17_X backwardCompatibleContext;
+        private final List<SubscriptionEvent> events;
+        private final Map<UUID, Integer> nbEventsPerEntitlement;
+        private final Map<EventKey, Integer> nbEventsPerKey;
+
+        private Map<UUID, TargetState> replayedTargetStates;
+        private int nbReplayedEvents;
+        private DateTime lastEffectiveDate;
+
+        public EventTimeline(final Collection<UUID> allEntitlementUUIDs, final Collection<SubscriptionEvent> initialEvents, final SupportForOlderVersionThan_0_17_X backwardCompatibleContext) {
+            this.allEntitlementUUIDs = allEntitlementUUIDs;
+            this.backwardCompatibleContext = backwardCompatibleContext;
+            this.events = new ArrayList<SubscriptionEvent>(initialEvents);
+            this.nbEventsPerEntitlement = new HashMap<UUID, Integer>();
+            this.nbEventsPerKey = new HashMap<EventKey, Integer>();
+            for (final SubscriptionEvent cur : events) {
+                track(cur);
+            }
+            reset();
+        }
+
+        //
+        // Replay all events strictly before the effectiveDate: those are skipped by any blocking state on or after that date.
+        // Since new events are never inserted before the replayed ones, the replayed state remains valid as long as blocking states come in order.
+        //
+        public void advanceTo(final DateTime effectiveDate) {
+            if (lastEffectiveDate != null && effectiveDate.compareTo(lastEffectiveDate) < 0) {
+                reset();
+            }
+            lastEffectiveDate = effectiveDate;
+
+            while (nbReplayedEvents < events.size()) {
+                final DefaultSubscriptionEvent cur = (DefaultSubscriptionEvent) events.get(nbReplayedEvents);
+                if (effectiveDate.compareTo(cur.getEffectiveDateTime()) <= 0) {
+                    break;
                 }
+                replayedTargetStates.get(cur.getEntitlementId()).replay(cur, backwardCompatibleContext);
+                nbReplayedEvents++;
             }
-        } else {
-            original.addAll(index + 1, newEvents);
+        }
+
+        public TargetState getTargetState(final Map<UUID, TargetState> targetStates, final UUID entitlementId) {
+            TargetState targetState = targetStates.get(entitlementId);
+            if (targetState == null) {
+                final TargetState replayedTargetState = replayedTargetStates.get(entitlementId);
+                if (replayedTargetState == null) {
+                    return null;
+                }
+                targetState = new TargetState(replayedTargetState);
+                targetStates.put(entitlementId, targetState);
+            }
+            return targetState;
+        }
+
+        public boolean hasDuplicates(final SubscriptionEvent event) {
+            return nbEventsPerKey.get(new EventKey(event)) > 1;
+        }
+
+        public boolean hasEventsAfter(final UUID entitlementId, final TargetState targetState) {
+            return targetState.getNbEvents() < nbEventsPerEntitlement.getOrDefault(entitlementId, 0);
+        }
+
+        public void insertAfterIndex(final List<SubscriptionEvent> newEvents, final int index) {
+            final boolean firstPosition = (index == -1);
+            final boolean lastPosition = (index == events.size() - 1);
+            if (lastPosition) {
+                events.addAll(newEvents);
+            } else if (firstPosition) {
+                // New events are pushed one by one at the head of the stream
+                final List<SubscriptionEvent> reversedNewEvents = new ArrayList<SubscriptionEvent>(newEvents);
+                Collections.reverse(reversedNewEvents);
+                events.addAll(0, reversedNewEvents);
+            } else {
+                events.addAll(index + 1, newEvents);
+            }
+
+            for (final SubscriptionEvent cur : newEvents) {
+                track(cur);
+            }
+        }
+
+        private void track(final SubscriptionEvent event) {
+            nbEventsPerEntitlement.merge(event.getEntitlementId(), 1, Integer::sum);
+            nbEventsPerKey.merge(new EventKey(event), 1, Integer::sum);
+        }
+
+        private void reset() {
+            replayedTargetStates = new HashMap<UUID, TargetState>();
+            for (final UUID cur : allEntitlementUUIDs) {
+                replayedTargetStates.put(cur, new TargetState());
+            }
+            nbReplayedEvents = 0;
+            lastEffectiveDate = null;
+        }
+    }
+
+    // Events are identified by their id and type because of multiplexing
+    private static final class EventKey {
+
+        private final UUID id;
+        private final SubscriptionEventType type;
+
+        public EventKey(final SubscriptionEvent event) {
+            this.id = event.getId();
+            this.type = event.getSubscriptionEventType();
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            final EventKey eventKey = (EventKey) o;
+            return id.equals(eventKey.id) && type == eventKey.type;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(id, type);
         }
     }
 
@@ -398,12 +517,66 @@ public class BlockingStateOrdering extends EntitlementOrderingBase {
         private boolean isBillingStarted;
         private boolean isBillingStopped;
 
+        // Last event seen for that subscription and number of events seen so far
+        private SubscriptionEvent lastEvent;
+        private int nbEvents;
+
         public TargetState() {
             this.isEntitlementStarted = false;
             this.isEntitlementStopped = false;
             this.isBillingStarted = false;
             this.isBillingStopped = false;
             this.perServiceBlockingState = new HashMap<String, BlockingState>();
+            this.lastEvent = null;
+            this.nbEvents = 0;
+        }
+
+        public TargetState(final TargetState other) {
+            this.isEntitlementStarted = other.isEntitlementStarted;
+            this.isEntitlementStopped = other.isEntitlementStopped;
+            this.isBillingStarted = other.isBillingStarted;
+            this.isBillingStopped = other.isBillingStopped;
+            this.perServiceBlockingState = new HashMap<String, BlockingState>(other.perServiceBlockingState);
+            this.lastEvent = other.lastEvent;
+            this.nbEvents = other.nbEvents;
+        }
+
+        public SubscriptionEvent getLastEvent() {
+            return lastEvent;
+        }
+
+        public int getNbEvents() {
+            return nbEvents;
+        }
+
+        public void replay(final DefaultSubscriptionEvent cur, final SupportForOlderVersionThan_0_17_X backwardCompatibleContext) {
+            switch (cur.getSubscriptionEventType()) {
+                case START_ENTITLEMENT:
+                    setEntitlementStarted();
+                    break;
+                case STOP_ENTITLEMENT:
+                    setEntitlementStopped();
+                    break;
+                case START_BILLING:
+                    // For older subscriptions we miss the START_ENTITLEMENT (the START_BILLING marks both start of billing and entitlement)
+                    if (backwardCompatibleContext.isOlderEntitlement(cur.getEntitlementId())) {
+                        setEntitlementStarted();
+                    }
+                    setBillingStarted();
+                    break;
+                case PAUSE_BILLING:
+                case PAUSE_ENTITLEMENT:
+                case RESUME_ENTITLEMENT:
+                case RESUME_BILLING:
+                case SERVICE_STATE_CHANGE:
+                    addEntitlementEvent(cur);
+                    break;
+                case STOP_BILLING:
+                    setBillingStopped();
+                    break;
+            }
+            lastEvent = cur;
+            nbEvents++;
         }
 
         public void setEntitlementStarted() {
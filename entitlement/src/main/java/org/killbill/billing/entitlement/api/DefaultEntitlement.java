@@ -830,6 +830,8 @@ public class DefaultEntitlement extends EntityBase implements Entitlement {
             subscriptionInternalApi.updateBCD(getId(), newBCD, effectiveFromDate, context);
         } catch (final SubscriptionBaseApiException e) {
             throw new EntitlementApiException(e);
+        } finally {
+            eventsStreamBuilder.invalidateAccountEventsStreams(context);
         }
     }
 
@@ -842,6 +844,8 @@ public class DefaultEntitlement extends EntityBase implements Entitlement {
             subscriptionInternalApi.updateQuantity(getId(), quantity, effectiveFromDate, context);
         } catch (final SubscriptionBaseApiException e) {
             throw new EntitlementApiException(e);
+        } finally {
+            eventsStreamBuilder.invalidateAccountEventsStreams(context);
         }
     }
 
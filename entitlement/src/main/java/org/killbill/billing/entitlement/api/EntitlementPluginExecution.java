@@ -24,6 +24,7 @@ import java.util.concurrent.Callable;
 import javax.inject.Inject;
 
 import org.killbill.billing.ErrorCode;
+import org.killbill.billing.entitlement.engine.core.AccountEventsStreamsCache;
 import org.killbill.billing.entitlement.plugin.api.EntitlementContext;
 import org.killbill.billing.entitlement.plugin.api.EntitlementPluginApi;
 import org.killbill.billing.entitlement.plugin.api.EntitlementPluginApiException;
@@ -40,15 +41,19 @@ public class EntitlementPluginExecution {
 
     private final EntitlementApi entitlementApi;
     private final OSGIServiceRegistration<EntitlementPluginApi> pluginRegistry;
+    private final AccountEventsStreamsCache accountEventsStreamsCache;
 
     public interface WithEntitlementPlugin<T> {
         T doCall(final EntitlementApi entitlementApi, final DefaultEntitlementContext updatedPluginContext) throws EntitlementApiException;
     }
 
     @Inject
-    public EntitlementPluginExecution(final EntitlementApi entitlementApi, final OSGIServiceRegistration<EntitlementPluginApi> pluginRegistry) {
+    public EntitlementPluginExecution(final EntitlementApi entitlementApi,
+                                      final OSGIServiceRegistration<EntitlementPluginApi> pluginRegistry,
+                                      final AccountEventsStreamsCache accountEventsStreamsCache) {
         this.entitlementApi = entitlementApi;
         this.pluginRegistry = pluginRegistry;
+        this.accountEventsStreamsCache = accountEventsStreamsCache;
     }
 
     public void executeWithPlugin(final Callable<Void> preCallbacksCallback, final List<WithEntitlementPlugin> callbacks, final Iterable<EntitlementContext> pluginContexts) throws EntitlementApiException {
@@ -83,6 +88,11 @@ public class EntitlementPluginExecution {
             throw new EntitlementApiException(ErrorCode.ENT_PLUGIN_API_ABORTED, e.getMessage());
         } catch (final Exception e) {
             throw new EntitlementApiException(ErrorCode.ENT_PLUGIN_API_ABORTED, e.getMessage());
+        } finally {
+            // Don't wait for the bus events to drop the cached state of the account(s) we just modified
+            for (final EntitlementContext pluginContext : pluginContexts) {
+                accountEventsStreamsCache.invalidate(pluginContext.getAccountId());
+            }
         }
     }
 
@@ -103,6 +113,9 @@ public class EntitlementPluginExecution {
             }
         } catch (final EntitlementPluginApiException e) {
             throw new EntitlementApiException(ErrorCode.ENT_PLUGIN_API_ABORTED, e.getMessage());
+        } finally {
+            accountEventsStreamsCache.invalidate(pluginContext.getAccountId());
+            accountEventsStreamsCache.invalidate(pluginContext.getDestinationAccountId());
         }
     }
 
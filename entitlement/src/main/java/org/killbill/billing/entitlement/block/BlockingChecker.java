@@ -17,6 +17,7 @@
 package org.killbill.billing.entitlement.block;
 
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 import org.joda.time.DateTime;
@@ -25,6 +26,7 @@ import org.killbill.billing.entitlement.api.Blockable;
 import org.killbill.billing.entitlement.api.BlockingApiException;
 import org.killbill.billing.entitlement.api.BlockingState;
 import org.killbill.billing.entitlement.api.BlockingStateType;
+import org.killbill.billing.subscription.api.SubscriptionBase;
 
 public interface BlockingChecker {
 
@@ -50,6 +52,12 @@ public interface BlockingChecker {
 
     public BlockingAggregator getBlockedStatus(final UUID blockableId, final BlockingStateType type, final DateTime upToDate, final InternalTenantContext context) throws BlockingApiException;
 
+    // Map subscription id -> aggregated (account, bundle and subscription) blocking status, using a single read of the blocking states
+    public Map<UUID, BlockingAggregator> getBlockedStatusForSubscriptions(Iterable<SubscriptionBase> subscriptions, final DateTime upToDate, InternalTenantContext context) throws BlockingApiException;
+
+    // Map subscription id -> aggregated (account, bundle and subscription) blocking status, using the blocking states on disk already retrieved for that account
+    public Map<UUID, BlockingAggregator> getBlockedStatusForSubscriptions(UUID accountId, Iterable<SubscriptionBase> subscriptions, Iterable<BlockingState> allBlockingStatesOnDiskForAccount, final DateTime upToDate);
+
     public void checkBlockedChange(Blockable blockable, final DateTime upToDate, InternalTenantContext context) throws BlockingApiException;
 
     public void checkBlockedEntitlement(Blockable blockable, final DateTime upToDate, InternalTenantContext context) throws BlockingApiException;
@@ -19,7 +19,11 @@
 package org.killbill.billing.entitlement.block;
 
 import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 
 import javax.annotation.Nullable;
@@ -214,6 +218,41 @@ public class DefaultBlockingChecker implements BlockingChecker {
         return statelessBlockingChecker.getBlockedState(accountEntitlementStates, bundleEntitlementStates, subscriptionEntitlementStates);
     }
 
+    @Override
+    public Map<UUID, BlockingAggregator> getBlockedStatusForSubscriptions(final Iterable<SubscriptionBase> subscriptions, final DateTime upToDate, final InternalTenantContext context) throws BlockingApiException {
+        final Set<UUID> bundleIds = new LinkedHashSet<UUID>();
+        final Set<UUID> blockableIds = new LinkedHashSet<UUID>();
+        for (final SubscriptionBase subscription : subscriptions) {
+            blockableIds.add(subscription.getId());
+            if (subscription.getBundleId() != null) {
+                bundleIds.add(subscription.getBundleId());
+            }
+        }
+        if (blockableIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        // All subscriptions belong to the same account (context)
+        UUID accountId = null;
+        if (!bundleIds.isEmpty()) {
+            try {
+                accountId = subscriptionApi.getAccountIdFromBundleId(bundleIds.iterator().next(), context);
+            } catch (final SubscriptionBaseApiException e) {
+                throw new BlockingApiException(e, ErrorCode.fromCode(e.getCode()));
+            }
+            blockableIds.add(accountId);
+            blockableIds.addAll(bundleIds);
+        }
+
+        final List<BlockingState> blockingStatesOnDisk = dao.getByBlockingIds(blockableIds, false, context);
+        return getBlockedStatusForSubscriptions(accountId, subscriptions, blockingStatesOnDisk, upToDate);
+    }
+
+    @Override
+    public Map<UUID, BlockingAggregator> getBlockedStatusForSubscriptions(final UUID accountId, final Iterable<SubscriptionBase> subscriptions, final Iterable<BlockingState> allBlockingStatesOnDiskForAccount, final DateTime upToDate) {
+        return new LinkedHashMap<UUID, BlockingAggregator>(statelessBlockingChecker.getBlockedStateForSubscriptions(accountId, subscriptions, allBlockingStatesOnDiskForAccount, upToDate));
+    }
+
     @Override
     public void checkBlockedChange(final Blockable blockable, final DateTime upToDate, final InternalTenantContext context) throws BlockingApiException {
         if (blockable instanceof SubscriptionBase && getBlockedStateSubscription(((SubscriptionBase) blockable).getBundleId(), blockable.getId(), upToDate, context).isBlockChange()) {
@@ -17,8 +17,18 @@
 
 package org.killbill.billing.entitlement.block;
 
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import javax.annotation.Nullable;
+
+import org.joda.time.DateTime;
 import org.killbill.billing.entitlement.api.BlockingState;
+import org.killbill.billing.entitlement.api.BlockingStateType;
 import org.killbill.billing.entitlement.block.DefaultBlockingChecker.DefaultBlockingAggregator;
+import org.killbill.billing.subscription.api.SubscriptionBase;
 
 public class StatelessBlockingChecker {
 
@@ -31,6 +41,69 @@ public class StatelessBlockingChecker {
         return result;
     }
 
+    /**
+     * Compute the blocking status of each subscription in a single pass over the blocking states of the account.
+     * <p/>
+     * For each blockable and service, the current state is the last one (in the natural BlockingState ordering,
+     * i.e. effective date first) effective up to the specified date: this is how DefaultEventsStream resolves it,
+     * so the result can be handed over to the streams built from the same states.
+     *
+     * @param accountId                         account associated with the subscriptions
+     * @param subscriptions                     subscriptions for which to compute the blocking status
+     * @param allBlockingStatesOnDiskForAccount all active blocking states on disk for that account
+     * @param upToDate                          cutoff date
+     * @return map subscription id -> aggregated (account, bundle and subscription) blocking status
+     */
+    public Map<UUID, DefaultBlockingAggregator> getBlockedStateForSubscriptions(final UUID accountId,
+                                                                               final Iterable<SubscriptionBase> subscriptions,
+                                                                               final Iterable<BlockingState> allBlockingStatesOnDiskForAccount,
+                                                                               @Nullable final DateTime upToDate) {
+        // Map blockable id -> service -> current state
+        final Map<UUID, Map<String, BlockingState>> currentStatesPerBlockable = new HashMap<UUID, Map<String, BlockingState>>();
+        for (final BlockingState blockingState : allBlockingStatesOnDiskForAccount) {
+            if (upToDate != null && blockingState.getEffectiveDate().isAfter(upToDate)) {
+                continue;
+            }
+
+            final Map<String, BlockingState> currentStatesPerService = currentStatesPerBlockable.computeIfAbsent(blockingState.getBlockedId(), k -> new HashMap<String, BlockingState>());
+            final BlockingState currentState = currentStatesPerService.get(blockingState.getService());
+            if (currentState == null || isMoreRecent(blockingState, currentState)) {
+                currentStatesPerService.put(blockingState.getService(), blockingState);
+            }
+        }
+
+        final DefaultBlockingAggregator accountState = getBlockedState(currentStatesPerBlockable, accountId, BlockingStateType.ACCOUNT);
+        final Map<UUID, DefaultBlockingAggregator> bundleStates = new HashMap<UUID, DefaultBlockingAggregator>();
+        final Map<UUID, DefaultBlockingAggregator> result = new LinkedHashMap<UUID, DefaultBlockingAggregator>();
+        for (final SubscriptionBase subscription : subscriptions) {
+            final DefaultBlockingAggregator subscriptionState = getBlockedState(currentStatesPerBlockable, subscription.getId(), BlockingStateType.SUBSCRIPTION);
+            if (subscription.getBundleId() != null) {
+                subscriptionState.or(bundleStates.computeIfAbsent(subscription.getBundleId(), bundleId -> getBlockedState(currentStatesPerBlockable, bundleId, BlockingStateType.SUBSCRIPTION_BUNDLE)));
+                subscriptionState.or(accountState);
+            }
+            result.put(subscription.getId(), subscriptionState);
+        }
+        return result;
+    }
+
+    private DefaultBlockingAggregator getBlockedState(final Map<UUID, Map<String, BlockingState>> currentStatesPerBlockable, final UUID blockableId, final BlockingStateType type) {
+        final DefaultBlockingAggregator result = new DefaultBlockingAggregator();
+        final Map<String, BlockingState> currentStatesPerService = currentStatesPerBlockable.get(blockableId);
+        if (currentStatesPerService != null) {
+            for (final BlockingState cur : currentStatesPerService.values()) {
+                if (type == cur.getType()) {
+                    result.or(cur);
+                }
+            }
+        }
+        return result;
+    }
+
+    private static boolean isMoreRecent(final BlockingState blockingState, final BlockingState currentState) {
+        // Ties keep the input ordering
+        return blockingState.compareTo(currentState) >= 0;
+    }
+
     public DefaultBlockingAggregator getBlockedState(final Iterable<BlockingState> currentBlockableStatePerService) {
         final DefaultBlockingAggregator result = new DefaultBlockingAggregator();
         for (final BlockingState cur : currentBlockableStatePerService) {
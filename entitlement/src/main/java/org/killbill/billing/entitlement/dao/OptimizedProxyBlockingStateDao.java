@@ -21,9 +21,12 @@ package org.killbill.billing.entitlement.dao;
 import java.util.Collection;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
 
 import javax.annotation.Nullable;
 
+import org.joda.time.DateTime;
 import org.killbill.billing.account.api.ImmutableAccountData;
 import org.killbill.billing.callcontext.InternalTenantContext;
 import org.killbill.billing.catalog.api.ProductCategory;
@@ -32,6 +35,7 @@ import org.killbill.billing.entitlement.EventsStream;
 import org.killbill.billing.entitlement.api.BlockingState;
 import org.killbill.billing.entitlement.api.BlockingStateType;
 import org.killbill.billing.entitlement.api.EntitlementApiException;
+import org.killbill.billing.entitlement.block.BlockingChecker.BlockingAggregator;
 import org.killbill.billing.entitlement.engine.core.EventsStreamBuilder;
 import org.killbill.billing.subscription.api.SubscriptionBase;
 import org.killbill.billing.subscription.api.SubscriptionBaseInternalApi;
@@ -40,6 +44,7 @@ import org.killbill.billing.util.audit.dao.AuditDao;
 import org.killbill.billing.util.cache.CacheControllerDispatcher;
 import org.killbill.billing.util.callcontext.InternalCallContextFactory;
 import org.killbill.billing.util.dao.NonEntityDao;
+import org.killbill.billing.util.metrics.LatencyHistograms;
 import org.killbill.billing.util.optimizer.BusOptimizer;
 import org.killbill.clock.Clock;
 import org.killbill.notificationq.api.NotificationQueueService;
@@ -49,8 +54,9 @@ public class OptimizedProxyBlockingStateDao extends ProxyBlockingStateDao {
 
     public OptimizedProxyBlockingStateDao(final EventsStreamBuilder eventsStreamBuilder, final SubscriptionBaseInternalApi subscriptionBaseInternalApi,
                                           final IDBI dbi, final IDBI roDbi, final Clock clock, final NotificationQueueService notificationQueueService, final BusOptimizer eventBus,
-                                          final CacheControllerDispatcher cacheControllerDispatcher, final NonEntityDao nonEntityDao, final AuditDao auditDao, final InternalCallContextFactory internalCallContextFactory) {
-        super(eventsStreamBuilder, subscriptionBaseInternalApi, dbi, roDbi, clock, notificationQueueService, eventBus, cacheControllerDispatcher, nonEntityDao, auditDao, internalCallContextFactory);
+                                          final CacheControllerDispatcher cacheControllerDispatcher, final NonEntityDao nonEntityDao, final AuditDao auditDao, final InternalCallContextFactory internalCallContextFactory,
+                                          final LatencyHistograms latencyHistograms) {
+        super(eventsStreamBuilder, subscriptionBaseInternalApi, dbi, roDbi, clock, notificationQueueService, eventBus, cacheControllerDispatcher, nonEntityDao, auditDao, internalCallContextFactory, latencyHistograms);
     }
 
     /**
@@ -72,6 +78,8 @@ public class OptimizedProxyBlockingStateDao extends ProxyBlockingStateDao {
      * @param accountBCD                        account BCD
      * @param catalog                           full Catalog
      * @param includeDeletedEvents              flag that specifies whether deleted events should be returned
+     * @param blockingAggregators               current blocking status per subscription computed from allBlockingStatesOnDiskForAccount, if any
+     * @param utcNow                            date as of which blockingAggregators were computed
      * @param context                           call context
      * @return blocking states for that subscription
      * @throws EntitlementApiException
@@ -86,6 +94,8 @@ public class OptimizedProxyBlockingStateDao extends ProxyBlockingStateDao {
                                                         final int accountBCD,
                                                         final VersionedCatalog catalog,
                                                         final boolean includeDeletedEvents,
+                                                        @Nullable final Map<UUID, BlockingAggregator> blockingAggregators,
+                                                        final DateTime utcNow,
                                                         final InternalTenantContext context) throws EntitlementApiException {
         // blockable id points to a subscription, but make sure it's an add-on
         if (!ProductCategory.ADD_ON.equals(subscription.getCategory())) {
@@ -102,6 +112,8 @@ public class OptimizedProxyBlockingStateDao extends ProxyBlockingStateDao {
                                                                                                      accountBCD,
                                                                                                      catalog,
                                                                                                      includeDeletedEvents,
+                                                                                                     blockingAggregators,
+                                                                                                     utcNow,
                                                                                                      context));
 
         return addBlockingStatesNotOnDisk(subscription.getId(),
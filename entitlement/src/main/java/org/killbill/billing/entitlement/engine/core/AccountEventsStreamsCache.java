@@ -0,0 +1,351 @@
+/*
+ * Copyright 2020-2022 Equinix, Inc
+ * Copyright 2014-2022 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.billing.entitlement.engine.core;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.Nullable;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.joda.time.DateTime;
+import org.killbill.billing.callcontext.InternalTenantContext;
+import org.killbill.billing.catalog.api.StaticCatalog;
+import org.killbill.billing.catalog.api.VersionedCatalog;
+import org.killbill.billing.entitlement.AccountEventsStreams;
+import org.killbill.billing.entitlement.EventsStream;
+import org.killbill.billing.entitlement.api.BlockingState;
+import org.killbill.billing.events.AccountChangeInternalEvent;
+import org.killbill.billing.events.BlockingTransitionInternalEvent;
+import org.killbill.billing.events.InvoiceCreationInternalEvent;
+import org.killbill.billing.events.SubscriptionInternalEvent;
+import org.killbill.billing.subscription.api.SubscriptionBase;
+import org.killbill.billing.subscription.api.user.SubscriptionBaseTransition;
+import org.killbill.billing.util.config.definition.EntitlementConfig;
+import org.killbill.billing.util.nodes.dao.NodeInfoDao;
+import org.killbill.bus.api.BusEvent;
+import org.killbill.clock.Clock;
+import org.killbill.commons.eventbus.AllowConcurrentEvents;
+import org.killbill.commons.eventbus.Subscribe;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Bounded cache of the {@link AccountEventsStreamsInputs} used to build the {@link AccountEventsStreams}, keyed by (tenantRecordId, accountRecordId).
+ * The streams themselves are built on each call, as of the current time.
+ * <p>
+ * Entries are invalidated synchronously by the entitlement write paths, by the subscription, blocking state,
+ * account and invoice (charged through dates) bus events, and expire on their own when the clock reaches the next
+ * subscription transition or blocking state, to pick up anything computed when the inputs were read.
+ * <p>
+ * Invalidations only reach the local node: the cache refuses to turn on (and turns itself off) as soon as
+ * another live Kill Bill node is registered.
+ */
+@Singleton
+public class AccountEventsStreamsCache {
+
+    private static final Logger log = LoggerFactory.getLogger(AccountEventsStreamsCache.class);
+
+    // Nodes refresh their heartbeat every few seconds
+    private static final long NODES_CHECK_INTERVAL_MILLIS = 60 * 1000L;
+
+    private final EntitlementConfig config;
+    @Nullable
+    private final NodeInfoDao nodeInfoDao;
+    private final Clock clock;
+    private final Map<CacheKey, CachedAccountEventsStreamsInputs> entries;
+    // Bumped on each invalidation, to avoid caching inputs read from data invalidated in the meantime
+    private final AtomicLong generation = new AtomicLong(0);
+    private final AtomicLong nextNodesCheckMillis = new AtomicLong(0);
+    private volatile boolean multiNode = false;
+
+    @Inject
+    public AccountEventsStreamsCache(final EntitlementConfig config, final Optional<NodeInfoDao> nodeInfoDao, final Clock clock) {
+        this.config = config;
+        // Not bound when running without the nodes module (e.g. tests), i.e. single node
+        this.nodeInfoDao = nodeInfoDao.orElse(null);
+        this.clock = clock;
+
+        final int maxSize = config.getEventsStreamCacheMaxSize();
+        this.entries = Collections.synchronizedMap(new LinkedHashMap<CacheKey, CachedAccountEventsStreamsInputs>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<CacheKey, CachedAccountEventsStreamsInputs> eldest) {
+                return size() > maxSize;
+            }
+        });
+    }
+
+    public boolean isEnabled() {
+        return config.isEventsStreamCacheEnabled() && !isMultiNode();
+    }
+
+    public boolean isConsistencyCheckEnabled() {
+        return config.isEventsStreamCacheConsistencyCheckEnabled();
+    }
+
+    public long getGeneration() {
+        return generation.get();
+    }
+
+    @Nullable
+    public AccountEventsStreamsInputs get(final VersionedCatalog catalog, final InternalTenantContext context) {
+        final CacheKey key = new CacheKey(context.getTenantRecordId(), context.getAccountRecordId());
+        final CachedAccountEventsStreamsInputs cached = entries.get(key);
+        if (cached == null) {
+            return null;
+        }
+
+        if (!cached.isValid(catalog, clock.getUTCNow())) {
+            entries.remove(key);
+            return null;
+        }
+        return cached.getInputs();
+    }
+
+    public void put(final AccountEventsStreamsInputs inputs,
+                    final VersionedCatalog catalog,
+                    final DateTime builtAt,
+                    final long expectedGeneration,
+                    final InternalTenantContext context) {
+        final DateTime expirationDate = computeExpirationDate(inputs, builtAt);
+        final CacheKey key = new CacheKey(context.getTenantRecordId(), context.getAccountRecordId());
+        synchronized (entries) {
+            if (generation.get() != expectedGeneration) {
+                // Data changed while we were reading the inputs
+                return;
+            }
+            entries.put(key, new CachedAccountEventsStreamsInputs(inputs, catalog, builtAt, expirationDate));
+        }
+    }
+
+    public void invalidate(final InternalTenantContext context) {
+        invalidate(context.getTenantRecordId(), context.getAccountRecordId());
+    }
+
+    public void invalidate(@Nullable final Long tenantRecordId, @Nullable final Long accountRecordId) {
+        if (accountRecordId == null) {
+            return;
+        }
+        generation.incrementAndGet();
+        entries.remove(new CacheKey(tenantRecordId, accountRecordId));
+    }
+
+    public void invalidate(@Nullable final UUID accountId) {
+        if (accountId == null) {
+            return;
+        }
+        generation.incrementAndGet();
+        synchronized (entries) {
+            entries.values().removeIf(input -> accountId.equals(input.getInputs().getAccount().getId()));
+        }
+    }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        entries.clear();
+    }
+
+    public void checkConsistency(final AccountEventsStreams cached, final AccountEventsStreams fresh, final InternalTenantContext context) {
+        final String cachedDescription = describe(cached);
+        final String freshDescription = describe(fresh);
+        if (!cachedDescription.equals(freshDescription)) {
+            log.error("Stale events streams cache entry for accountRecordId='{}': cached='{}', fresh='{}'", context.getAccountRecordId(), cachedDescription, freshDescription);
+            throw new IllegalStateException(String.format("Stale events streams cache entry for accountRecordId='%s'", context.getAccountRecordId()));
+        }
+    }
+
+    @AllowConcurrentEvents
+    @Subscribe
+    public void handleSubscriptionEvent(final SubscriptionInternalEvent event) {
+        handleEvent(event);
+    }
+
+    @AllowConcurrentEvents
+    @Subscribe
+    public void handleBlockingStateTransition(final BlockingTransitionInternalEvent event) {
+        handleEvent(event);
+    }
+
+    @AllowConcurrentEvents
+    @Subscribe
+    public void handleAccountChange(final AccountChangeInternalEvent event) {
+        handleEvent(event);
+    }
+
+    // Charged through dates are updated by invoice
+    @AllowConcurrentEvents
+    @Subscribe
+    public void handleInvoiceCreation(final InvoiceCreationInternalEvent event) {
+        handleEvent(event);
+    }
+
+    private void handleEvent(final BusEvent event) {
+        invalidate(event.getSearchKey2(), event.getSearchKey1());
+    }
+
+    private boolean isMultiNode() {
+        if (multiNode || nodeInfoDao == null) {
+            return multiNode;
+        }
+
+        final long now = clock.getUTCNow().getMillis();
+        final long nextCheck = nextNodesCheckMillis.get();
+        if (now < nextCheck || !nextNodesCheckMillis.compareAndSet(nextCheck, now + NODES_CHECK_INTERVAL_MILLIS)) {
+            return false;
+        }
+
+        final int nbNodes = nodeInfoDao.getAll().size();
+        if (nbNodes > 1) {
+            log.error("Disabling the events streams cache: {} live nodes found, but its invalidations are local to each node", nbNodes);
+            multiNode = true;
+            invalidateAll();
+        }
+        return multiNode;
+    }
+
+    private DateTime computeExpirationDate(final AccountEventsStreamsInputs inputs, final DateTime builtAt) {
+        DateTime expirationDate = builtAt.plus(config.getEventsStreamCacheTTL().getMillis());
+        for (final BlockingState blockingState : inputs.getBlockingStates()) {
+            expirationDate = earliestFutureDate(expirationDate, blockingState.getEffectiveDate(), builtAt);
+        }
+        for (final List<SubscriptionBase> subscriptions : inputs.getSubscriptions().values()) {
+            for (final SubscriptionBase subscription : subscriptions) {
+                for (final SubscriptionBaseTransition transition : subscription.getAllTransitions(false)) {
+                    expirationDate = earliestFutureDate(expirationDate, transition.getEffectiveTransitionTime(), builtAt);
+                }
+            }
+        }
+        return expirationDate;
+    }
+
+    private static DateTime earliestFutureDate(final DateTime current, @Nullable final DateTime candidate, final DateTime builtAt) {
+        if (candidate == null || !candidate.isAfter(builtAt) || !candidate.isBefore(current)) {
+            return current;
+        }
+        return candidate;
+    }
+
+    // Summary of everything the entitlement APIs expose from the streams, used to compare cached and fresh results
+    private static String describe(final AccountEventsStreams accountEventsStreams) {
+        final List<String> eventsStreamDescriptions = new ArrayList<String>();
+        for (final Collection<EventsStream> eventsStreams : accountEventsStreams.getEventsStreams().values()) {
+            for (final EventsStream eventsStream : eventsStreams) {
+                final SubscriptionBase subscription = eventsStream.getSubscriptionBase();
+                final StringBuilder description = new StringBuilder();
+                description.append(eventsStream.getBundleId())
+                           .append("/").append(eventsStream.getBundleExternalKey())
+                           .append("/").append(eventsStream.getEntitlementId())
+                           .append("/").append(eventsStream.getExternalKey())
+                           .append("/").append(eventsStream.getEntitlementState())
+                           .append("/").append(eventsStream.getEntitlementEffectiveStartDateTime())
+                           .append("/").append(eventsStream.getEntitlementEffectiveEndDateTime())
+                           .append("/").append(subscription.getState())
+                           .append("/").append(subscription.getLastActivePlan() == null ? null : subscription.getLastActivePlan().getName())
+                           .append("/").append(subscription.getChargedThroughDate())
+                           .append("/").append(subscription.getBillCycleDayLocal())
+                           .append("/").append(subscription.getQuantity());
+                for (final SubscriptionBaseTransition transition : subscription.getAllTransitions(false)) {
+                    description.append("/").append(transition.getId()).append("@").append(transition.getEffectiveTransitionTime());
+                }
+                for (final BlockingState blockingState : eventsStream.getBlockingStates(false)) {
+                    description.append("/").append(blockingState.getId()).append("@").append(blockingState.getEffectiveDate());
+                }
+                eventsStreamDescriptions.add(description.toString());
+            }
+        }
+        Collections.sort(eventsStreamDescriptions);
+        return accountEventsStreams.getAccount().getId() + ":" + eventsStreamDescriptions;
+    }
+
+    private static final class CachedAccountEventsStreamsInputs {
+
+        private final AccountEventsStreamsInputs inputs;
+        private final VersionedCatalog catalog;
+        private final DateTime builtAt;
+        private final DateTime expirationDate;
+
+        private CachedAccountEventsStreamsInputs(final AccountEventsStreamsInputs inputs,
+                                                 final VersionedCatalog catalog,
+                                                 final DateTime builtAt,
+                                                 final DateTime expirationDate) {
+            this.inputs = inputs;
+            this.catalog = catalog;
+            this.builtAt = builtAt;
+            this.expirationDate = expirationDate;
+        }
+
+        public AccountEventsStreamsInputs getInputs() {
+            return inputs;
+        }
+
+        public boolean isValid(final VersionedCatalog currentCatalog, final DateTime now) {
+            // A new catalog version invalidates the entry, as does a clock going backwards (tests)
+            return isSameCatalog(catalog, currentCatalog) && !now.isBefore(builtAt) && now.isBefore(expirationDate);
+        }
+
+        // The catalog cache may not hand out the same instance, so compare the versions too
+        private static boolean isSameCatalog(final VersionedCatalog cachedCatalog, final VersionedCatalog currentCatalog) {
+            if (cachedCatalog == currentCatalog) {
+                return true;
+            }
+            final List<StaticCatalog> cachedVersions = cachedCatalog.getVersions();
+            final List<StaticCatalog> currentVersions = currentCatalog.getVersions();
+            return cachedVersions.size() == currentVersions.size() &&
+                   (cachedVersions.isEmpty() ||
+                    Objects.equals(cachedVersions.get(cachedVersions.size() - 1).getEffectiveDate(), currentVersions.get(currentVersions.size() - 1).getEffectiveDate()));
+        }
+    }
+
+    private static final class CacheKey {
+
+        private final Long tenantRecordId;
+        private final Long accountRecordId;
+
+        private CacheKey(final Long tenantRecordId, final Long accountRecordId) {
+            this.tenantRecordId = tenantRecordId;
+            this.accountRecordId = accountRecordId;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            final CacheKey cacheKey = (CacheKey) o;
+            return Objects.equals(tenantRecordId, cacheKey.tenantRecordId) &&
+                   Objects.equals(accountRecordId, cacheKey.accountRecordId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(tenantRecordId, accountRecordId);
+        }
+    }
+}
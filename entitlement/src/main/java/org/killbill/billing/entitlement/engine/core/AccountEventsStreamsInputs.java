@@ -0,0 +1,81 @@
+/*
+ * Copyright 2020-2022 Equinix, Inc
+ * Copyright 2014-2022 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.killbill.billing.entitlement.engine.core;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.killbill.billing.account.api.ImmutableAccountData;
+import org.killbill.billing.entitlement.api.BlockingState;
+import org.killbill.billing.subscription.api.SubscriptionBase;
+import org.killbill.billing.subscription.api.user.SubscriptionBaseBundle;
+
+/**
+ * Everything read from the database to build the {@link org.killbill.billing.entitlement.AccountEventsStreams} of an account.
+ * <p>
+ * Unlike the events streams (computed as of a given time), these can safely be shared across requests.
+ */
+public class AccountEventsStreamsInputs {
+
+    private final ImmutableAccountData account;
+    private final int accountBCD;
+    private final List<SubscriptionBaseBundle> bundles;
+    private final Map<UUID, List<SubscriptionBase>> subscriptions;
+    private final List<BlockingState> blockingStates;
+
+    public AccountEventsStreamsInputs(final ImmutableAccountData account,
+                                      final int accountBCD,
+                                      final List<SubscriptionBaseBundle> bundles,
+                                      final Map<UUID, List<SubscriptionBase>> subscriptions,
+                                      final List<BlockingState> blockingStates) {
+        this.account = account;
+        this.accountBCD = accountBCD;
+        this.bundles = List.copyOf(bundles);
+        // Preserve the bundles order
+        final Map<UUID, List<SubscriptionBase>> subscriptionsCopy = new LinkedHashMap<UUID, List<SubscriptionBase>>();
+        for (final Map.Entry<UUID, List<SubscriptionBase>> entry : subscriptions.entrySet()) {
+            subscriptionsCopy.put(entry.getKey(), List.copyOf(entry.getValue()));
+        }
+        this.subscriptions = Collections.unmodifiableMap(subscriptionsCopy);
+        this.blockingStates = List.copyOf(blockingStates);
+    }
+
+    public ImmutableAccountData getAccount() {
+        return account;
+    }
+
+    public int getAccountBCD() {
+        return accountBCD;
+    }
+
+    public List<SubscriptionBaseBundle> getBundles() {
+        return bundles;
+    }
+
+    public Map<UUID, List<SubscriptionBase>> getSubscriptions() {
+        return subscriptions;
+    }
+
+    public List<BlockingState> getBlockingStates() {
+        return blockingStates;
+    }
+}
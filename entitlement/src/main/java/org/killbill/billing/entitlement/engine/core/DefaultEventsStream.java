@@ -93,6 +93,21 @@ public class DefaultEventsStream implements EventsStream {
                                final Collection<SubscriptionBase> allSubscriptionsForBundle,
                                @Nullable final Integer defaultBillCycleDayLocal,
                                final InternalTenantContext contextWithValidAccountRecordId, final DateTime utcNow) {
+        this(account, bundle, blockingStates, blockingStatesWithDeletedEvents, blockingChecker, baseSubscription, subscription, allSubscriptionsForBundle, defaultBillCycleDayLocal, null, contextWithValidAccountRecordId, utcNow);
+    }
+
+    // currentStateBlockingAggregator, if specified, must have been computed from the same blocking states as of utcNow (see BlockingChecker#getBlockedStatusForSubscriptions)
+    public DefaultEventsStream(final ImmutableAccountData account,
+                               final SubscriptionBaseBundle bundle,
+                               final Collection<BlockingState> blockingStates,
+                               final Collection<BlockingState> blockingStatesWithDeletedEvents,
+                               final BlockingChecker blockingChecker,
+                               @Nullable final SubscriptionBase baseSubscription,
+                               final SubscriptionBase subscription,
+                               final Collection<SubscriptionBase> allSubscriptionsForBundle,
+                               @Nullable final Integer defaultBillCycleDayLocal,
+                               @Nullable final BlockingAggregator currentStateBlockingAggregator,
+                               final InternalTenantContext contextWithValidAccountRecordId, final DateTime utcNow) {
         sanityChecks(account, bundle, baseSubscription, subscription);
         this.account = account;
         this.bundle = bundle;
@@ -108,6 +123,7 @@ public class DefaultEventsStream implements EventsStream {
         this.blockingStates = blockingStates;
         this.blockingStatesWithDeletedEvents = blockingStatesWithDeletedEvents;
         this.includeDeletedEvents = !blockingStatesWithDeletedEvents.isEmpty();
+        this.currentStateBlockingAggregator = currentStateBlockingAggregator;
 
         setup();
     }
@@ -431,6 +447,10 @@ public class DefaultEventsStream implements EventsStream {
     }
 
     private void computeCurrentBlockingAggregator() {
+        if (currentStateBlockingAggregator != null) {
+            // Already computed in bulk by the builder
+            return;
+        }
         currentStateBlockingAggregator = getBlockingAggregator(null);
     }
 
@@ -45,14 +45,17 @@ public class EntitlementUtils {
 
     private final BlockingStateDao dao;
     private final SubscriptionBaseInternalApi subscriptionBaseInternalApi;
+    private final AccountEventsStreamsCache accountEventsStreamsCache;
 
     @Inject
     public EntitlementUtils(final BlockingStateDao dao,
                             final SubscriptionBaseInternalApi subscriptionBaseInternalApi,
-                            final NotificationQueueService notificationQueueService) {
+                            final NotificationQueueService notificationQueueService,
+                            final AccountEventsStreamsCache accountEventsStreamsCache) {
         this.dao = dao;
         this.subscriptionBaseInternalApi = subscriptionBaseInternalApi;
         this.notificationQueueService = notificationQueueService;
+        this.accountEventsStreamsCache = accountEventsStreamsCache;
     }
 
     public void setBlockingStatesAndPostBlockingTransitionEvent(final Iterable<BlockingState> blockingStates, @Nullable final UUID bundleId, final InternalCallContext internalCallContext) {
@@ -61,7 +64,7 @@ public class EntitlementUtils {
         for (final BlockingState blockingState : blockingStates) {
             states.put(blockingState, bundleIdOptional);
         }
-        dao.setBlockingStatesAndPostBlockingTransitionEvent(states, internalCallContext);
+        setBlockingStatesAndPostBlockingTransitionEvent(states, internalCallContext);
     }
 
     public void setBlockingStateAndPostBlockingTransitionEvent(final Map<BlockingState, UUID> blockingStates, final InternalCallContext internalCallContext) {
@@ -69,7 +72,7 @@ public class EntitlementUtils {
         for (final BlockingState blockingState : blockingStates.keySet()) {
             states.put(blockingState, Optional.ofNullable(blockingStates.get(blockingState)));
         }
-        dao.setBlockingStatesAndPostBlockingTransitionEvent(states, internalCallContext);
+        setBlockingStatesAndPostBlockingTransitionEvent(states, internalCallContext);
     }
 
     public void setBlockingStateAndPostBlockingTransitionEvent(final BlockingState state, final InternalCallContext context) {
@@ -82,7 +85,15 @@ public class EntitlementUtils {
                 throw new RuntimeException(e);
             }
         }
-        dao.setBlockingStatesAndPostBlockingTransitionEvent(Map.<BlockingState, Optional<UUID>>of(state, Optional.ofNullable(bundleId)), context);
+        setBlockingStatesAndPostBlockingTransitionEvent(Map.<BlockingState, Optional<UUID>>of(state, Optional.ofNullable(bundleId)), context);
+    }
+
+    private void setBlockingStatesAndPostBlockingTransitionEvent(final Map<BlockingState, Optional<UUID>> states, final InternalCallContext context) {
+        try {
+            dao.setBlockingStatesAndPostBlockingTransitionEvent(states, context);
+        } finally {
+            accountEventsStreamsCache.invalidate(context);
+        }
     }
 
     /**
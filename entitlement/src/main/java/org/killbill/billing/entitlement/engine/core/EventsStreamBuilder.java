@@ -36,10 +36,12 @@ import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
 
+import org.joda.time.DateTime;
 import org.killbill.billing.ObjectType;
 import org.killbill.billing.account.api.AccountApiException;
 import org.killbill.billing.account.api.AccountInternalApi;
 import org.killbill.billing.account.api.ImmutableAccountData;
+import org.killbill.billing.callcontext.InternalCallContext;
 import org.killbill.billing.callcontext.InternalTenantContext;
 import org.killbill.billing.catalog.api.BillingAlignment;
 import org.killbill.billing.catalog.api.CatalogApiException;
@@ -55,6 +57,7 @@ import org.killbill.billing.entitlement.api.BlockingStateType;
 import org.killbill.billing.entitlement.api.Entitlement.EntitlementState;
 import org.killbill.billing.entitlement.api.EntitlementApiException;
 import org.killbill.billing.entitlement.api.svcs.DefaultAccountEventsStreams;
+import org.killbill.billing.entitlement.block.BlockingChecker.BlockingAggregator;
 import org.killbill.billing.entitlement.block.BlockingChecker;
 import org.killbill.billing.entitlement.dao.DefaultBlockingStateDao;
 import org.killbill.billing.entitlement.dao.OptimizedProxyBlockingStateDao;
@@ -69,6 +72,7 @@ import org.killbill.billing.util.bcd.BillCycleDayCalculator;
 import org.killbill.billing.util.cache.CacheControllerDispatcher;
 import org.killbill.billing.util.callcontext.InternalCallContextFactory;
 import org.killbill.billing.util.callcontext.TenantContext;
+import org.killbill.billing.util.metrics.LatencyHistograms;
 import org.killbill.commons.utils.collect.Iterables;
 import org.killbill.billing.util.dao.NonEntityDao;
 import org.killbill.billing.util.optimizer.BusOptimizer;
@@ -89,6 +93,7 @@ public class EventsStreamBuilder {
     private final DefaultBlockingStateDao defaultBlockingStateDao;
     private final Clock clock;
     private final InternalCallContextFactory internalCallContextFactory;
+    private final AccountEventsStreamsCache accountEventsStreamsCache;
 
     @Inject
     public EventsStreamBuilder(final AccountInternalApi accountInternalApi,
@@ -103,15 +108,18 @@ public class EventsStreamBuilder {
                                final CacheControllerDispatcher cacheControllerDispatcher,
                                final NonEntityDao nonEntityDao,
                                final AuditDao auditDao,
-                               final InternalCallContextFactory internalCallContextFactory) {
+                               final InternalCallContextFactory internalCallContextFactory,
+                               final AccountEventsStreamsCache accountEventsStreamsCache,
+                               final LatencyHistograms latencyHistograms) {
         this.accountInternalApi = accountInternalApi;
         this.subscriptionInternalApi = subscriptionInternalApi;
         this.catalogInternalApi = catalogInternalApi;
         this.checker = checker;
         this.clock = clock;
         this.internalCallContextFactory = internalCallContextFactory;
-        this.defaultBlockingStateDao = new DefaultBlockingStateDao(dbi, roDbi, clock, notificationQueueService, eventBus, cacheControllerDispatcher, nonEntityDao, auditDao, internalCallContextFactory);
-        this.blockingStateDao = new OptimizedProxyBlockingStateDao(this, subscriptionInternalApi, dbi, roDbi, clock, notificationQueueService, eventBus, cacheControllerDispatcher, nonEntityDao, auditDao, internalCallContextFactory);
+        this.accountEventsStreamsCache = accountEventsStreamsCache;
+        this.defaultBlockingStateDao = new DefaultBlockingStateDao(dbi, roDbi, clock, notificationQueueService, eventBus, cacheControllerDispatcher, nonEntityDao, auditDao, internalCallContextFactory, latencyHistograms);
+        this.blockingStateDao = new OptimizedProxyBlockingStateDao(this, subscriptionInternalApi, dbi, roDbi, clock, notificationQueueService, eventBus, cacheControllerDispatcher, nonEntityDao, auditDao, internalCallContextFactory, latencyHistograms);
     }
 
     public EventsStream refresh(final EventsStream eventsStream, final TenantContext tenantContext) throws EntitlementApiException {
@@ -136,19 +144,57 @@ public class EventsStreamBuilder {
     }
 
     public AccountEventsStreams buildForAccount(final InternalTenantContext internalTenantContext) throws EntitlementApiException {
+        final VersionedCatalog catalog = getCatalog(internalTenantContext);
+
+        // Write paths always work off the latest state
+        if (!accountEventsStreamsCache.isEnabled() || internalTenantContext instanceof InternalCallContext) {
+            return buildForAccount(catalog, internalTenantContext);
+        }
+
+        // Only the database reads are cached: the streams themselves are computed as of now, on each call
+        final AccountEventsStreamsInputs cachedInputs = accountEventsStreamsCache.get(catalog, internalTenantContext);
+        if (cachedInputs != null && !accountEventsStreamsCache.isConsistencyCheckEnabled()) {
+            return buildForAccount(cachedInputs, catalog, internalTenantContext);
+        }
+
+        final long generation = accountEventsStreamsCache.getGeneration();
+        final DateTime builtAt = clock.getUTCNow();
+        final AccountEventsStreamsInputs inputs = getAccountEventsStreamsInputs(catalog, internalTenantContext);
+        if (cachedInputs != null) {
+            final AccountEventsStreams cachedAccountEventsStreams = buildForAccount(cachedInputs, catalog, internalTenantContext);
+            accountEventsStreamsCache.checkConsistency(cachedAccountEventsStreams, buildForAccount(inputs, catalog, internalTenantContext), internalTenantContext);
+            return cachedAccountEventsStreams;
+        }
+
+        accountEventsStreamsCache.put(inputs, catalog, builtAt, generation, internalTenantContext);
+        return buildForAccount(inputs, catalog, internalTenantContext);
+    }
+
+    public void invalidateAccountEventsStreams(final InternalTenantContext internalTenantContext) {
+        accountEventsStreamsCache.invalidate(internalTenantContext);
+    }
+
+    private AccountEventsStreams buildForAccount(final VersionedCatalog catalog, final InternalTenantContext internalTenantContext) throws EntitlementApiException {
+        return buildForAccount(getAccountEventsStreamsInputs(catalog, internalTenantContext), catalog, internalTenantContext);
+    }
+
+    private AccountEventsStreamsInputs getAccountEventsStreamsInputs(final VersionedCatalog catalog, final InternalTenantContext internalTenantContext) throws EntitlementApiException {
         // Retrieve the subscriptions (map bundle id -> subscriptions)
         final Map<UUID, List<SubscriptionBase>> subscriptions;
         try {
-            final VersionedCatalog catalog = getCatalog(internalTenantContext);
             subscriptions = subscriptionInternalApi.getSubscriptionsForAccount(catalog, null, internalTenantContext);
-            return buildForAccount(subscriptions, catalog, internalTenantContext);
         } catch (final SubscriptionBaseApiException e) {
             throw new EntitlementApiException(e);
         }
+        return getAccountEventsStreamsInputs(subscriptions, catalog, internalTenantContext);
     }
 
     // Special signature for ProxyBlockingStateDao to save a DAO call
     public AccountEventsStreams buildForAccount(final Map<UUID, List<SubscriptionBase>> subscriptions, final VersionedCatalog catalog, final InternalTenantContext internalTenantContext) throws EntitlementApiException {
+        return buildForAccount(getAccountEventsStreamsInputs(subscriptions, catalog, internalTenantContext), catalog, internalTenantContext);
+    }
+
+    private AccountEventsStreamsInputs getAccountEventsStreamsInputs(final Map<UUID, List<SubscriptionBase>> subscriptions, final VersionedCatalog catalog, final InternalTenantContext internalTenantContext) throws EntitlementApiException {
         // Retrieve the account
         final ImmutableAccountData account;
         final int accountBCD;
@@ -161,19 +207,42 @@ public class EventsStreamBuilder {
 
         if (subscriptions.isEmpty()) {
             // Bail early
-            return new DefaultAccountEventsStreams(account);
+            return new AccountEventsStreamsInputs(account, accountBCD, Collections.emptyList(), subscriptions, Collections.emptyList());
         }
 
         // Retrieve the bundles
         final List<SubscriptionBaseBundle> bundles = subscriptionInternalApi.getBundlesForAccount(account.getId(), internalTenantContext);
+
+        // Retrieve the blocking states
+        final List<BlockingState> blockingStatesForAccount = defaultBlockingStateDao.getBlockingAllForAccountRecordId(catalog, internalTenantContext);
+
+        return new AccountEventsStreamsInputs(account, accountBCD, bundles, subscriptions, blockingStatesForAccount);
+    }
+
+    private AccountEventsStreams buildForAccount(final AccountEventsStreamsInputs inputs, final VersionedCatalog catalog, final InternalTenantContext internalTenantContext) throws EntitlementApiException {
+        final ImmutableAccountData account = inputs.getAccount();
+        final int accountBCD = inputs.getAccountBCD();
+        final Map<UUID, List<SubscriptionBase>> subscriptions = inputs.getSubscriptions();
+        if (subscriptions.isEmpty()) {
+            // Bail early
+            return new DefaultAccountEventsStreams(account);
+        }
+
+        final List<SubscriptionBaseBundle> bundles = inputs.getBundles();
         // Map bundle id -> bundles
         final Map<UUID, SubscriptionBaseBundle> bundlesPerId = new HashMap<UUID, SubscriptionBaseBundle>();
         for (final SubscriptionBaseBundle bundle : bundles) {
             bundlesPerId.put(bundle.getId(), bundle);
         }
 
-        // Retrieve the blocking states
-        final List<BlockingState> blockingStatesForAccount = defaultBlockingStateDao.getBlockingAllForAccountRecordId(catalog, internalTenantContext);
+        final List<BlockingState> blockingStatesForAccount = inputs.getBlockingStates();
+
+        // Compute the current blocking status of all subscriptions in one pass
+        final DateTime utcNow = clock.getUTCNow();
+        final List<SubscriptionBase> allSubscriptions = subscriptions.values().stream()
+                                                                     .flatMap(Collection::stream)
+                                                                     .collect(Collectors.toList());
+        final Map<UUID, BlockingAggregator> blockingAggregators = checker.getBlockedStatusForSubscriptions(account.getId(), allSubscriptions, blockingStatesForAccount, utcNow);
 
         // Optimization: build lookup tables for blocking states states
         final Collection<BlockingState> accountBlockingStates = new LinkedList<>();
@@ -234,6 +303,8 @@ public class EventsStreamBuilder {
                                                                                      accountBCD,
                                                                                      catalog,
                                                                                      false, //includeDeletedEvents set to false since deleted events are not needed while building entitlements for account.
+                                                                                     blockingAggregators,
+                                                                                     utcNow,
                                                                                      internalTenantContext);
 
                 }
@@ -250,10 +321,12 @@ public class EventsStreamBuilder {
                                                                      subscription,
                                                                      allSubscriptionsForBundle,
                                                                      blockingStates,
+                                                                     Collections.emptyList(),
                                                                      accountBCD,
                                                                      bcdCache,
                                                                      catalog,
-                                                                     false, //includeDeletedEvents - set to false since it does not matter while building entitlements for account.
+                                                                     getCurrentStateBlockingAggregator(blockingAggregators, subscription, subscriptionBlockingStatesOnDisk, subscriptionBlockingStates),
+                                                                     utcNow,
                                                                      internalTenantContext);
                 eventsStreamPerBundle.get(bundleId).add(eventStream);
             }
@@ -273,8 +346,50 @@ public class EventsStreamBuilder {
         }
 
         final List<EventsStream> eventsStreams = new LinkedList<EventsStream>();
+        if (subscriptionsForBundle.isEmpty()) {
+            return eventsStreams;
+        }
+
+        final ImmutableAccountData account;
+        final int accountBCD;
+        try {
+            account = accountInternalApi.getImmutableAccountDataById(bundle.getAccountId(), internalTenantContext);
+            accountBCD = accountInternalApi.getBCD(internalTenantContext);
+        } catch (final AccountApiException e) {
+            throw new EntitlementApiException(e);
+        }
+
+        final VersionedCatalog catalog = getCatalog(internalTenantContext);
+
+        // Retrieve the blocking states of the account, the bundle and all its subscriptions at once
+        final Set<UUID> blockingStateIds = new LinkedHashSet<UUID>();
+        blockingStateIds.add(account.getId());
+        blockingStateIds.add(bundle.getId());
         for (final SubscriptionBase subscription : subscriptionsForBundle) {
-            eventsStreams.add(buildForEntitlement(bundle, subscription, subscriptionsForBundle, false, internalTenantContext)); //includeDeletedEvents is set to false since it does not matter while building entitlements for bundle.
+            blockingStateIds.add(subscription.getId());
+        }
+        final List<BlockingState> blockingStatesForBundle = defaultBlockingStateDao.getByBlockingIds(blockingStateIds, false, internalTenantContext);
+
+        // Compute the current blocking status of all subscriptions in one pass
+        final DateTime utcNow = clock.getUTCNow();
+        final Map<UUID, BlockingAggregator> blockingAggregators = checker.getBlockedStatusForSubscriptions(account.getId(), subscriptionsForBundle, blockingStatesForBundle, utcNow);
+
+        final SubscriptionBase baseSubscription = findBaseSubscription(subscriptionsForBundle);
+        final Map<UUID, Integer> bcdCache = new HashMap<>();
+        for (final SubscriptionBase subscription : subscriptionsForBundle) {
+            eventsStreams.add(buildForEntitlement(blockingStatesForBundle,
+                                                  account,
+                                                  bundle,
+                                                  baseSubscription,
+                                                  subscription,
+                                                  subscriptionsForBundle,
+                                                  accountBCD,
+                                                  bcdCache,
+                                                  catalog,
+                                                  false, //includeDeletedEvents is set to false since it does not matter while building entitlements for bundle.
+                                                  blockingAggregators,
+                                                  utcNow,
+                                                  internalTenantContext));
         }
         return eventsStreams;
     }
@@ -327,7 +442,7 @@ public class EventsStreamBuilder {
         final List<BlockingState> blockingStatesForAccount = defaultBlockingStateDao.getByBlockingIds(blockingStateIds, includeDeletedEvents, internalTenantContext);
 
         final Map<UUID, Integer> bcdCache = new HashMap<>();
-        return buildForEntitlement(blockingStatesForAccount, account, bundle, baseSubscription, subscription, allSubscriptionsForBundle, accountBCD, bcdCache, catalog, includeDeletedEvents, internalTenantContext);
+        return buildForEntitlement(blockingStatesForAccount, account, bundle, baseSubscription, subscription, allSubscriptionsForBundle, accountBCD, bcdCache, catalog, includeDeletedEvents, null, clock.getUTCNow(), internalTenantContext);
     }
 
     // Special signature for OptimizedProxyBlockingStateDao to save some DAO calls
@@ -339,9 +454,11 @@ public class EventsStreamBuilder {
                                             final int accountBCD,
                                             final VersionedCatalog catalog,
                                             final boolean includeDeletedEvents,
+                                            @Nullable final Map<UUID, BlockingAggregator> blockingAggregators,
+                                            final DateTime utcNow,
                                             final InternalTenantContext internalTenantContext) throws EntitlementApiException {
         final Map<UUID, Integer> bcdCache = new HashMap<>();
-        return buildForEntitlement(blockingStatesForAccount, account, bundle, baseSubscription, baseSubscription, allSubscriptionsForBundle, accountBCD, bcdCache, catalog, includeDeletedEvents, internalTenantContext);
+        return buildForEntitlement(blockingStatesForAccount, account, bundle, baseSubscription, baseSubscription, allSubscriptionsForBundle, accountBCD, bcdCache, catalog, includeDeletedEvents, blockingAggregators, utcNow, internalTenantContext);
     }
 
     private EventsStream buildForEntitlement(final Collection<BlockingState> blockingStatesForAccount,
@@ -354,6 +471,9 @@ public class EventsStreamBuilder {
                                              final Map<UUID, Integer> bcdCache,
                                              final VersionedCatalog catalog,
                                              final boolean includeDeletedEvents,
+                                             // Current blocking status computed in bulk from blockingStatesForAccount as of utcNow, if any
+                                             @Nullable final Map<UUID, BlockingAggregator> blockingAggregators,
+                                             final DateTime utcNow,
                                              final InternalTenantContext internalTenantContext) throws EntitlementApiException {
         // Optimization: build lookup tables for blocking states states
         final Collection<BlockingState> accountBlockingStates = new LinkedList<>();
@@ -402,6 +522,8 @@ public class EventsStreamBuilder {
                                                                              accountBCD,
                                                                              catalog,
                                                                              includeDeletedEvents,
+                                                                             blockingAggregators,
+                                                                             utcNow,
                                                                              internalTenantContext);
         }
 
@@ -412,27 +534,12 @@ public class EventsStreamBuilder {
         final List<BlockingState> blockingStates = ProxyBlockingStateDao.sortedCopy(blockingStateSet);
 
         if(includeDeletedEvents) {
-            return buildForEntitlement(account, bundle, baseSubscription, subscription, allSubscriptionsForBundle, blockingStates.stream().filter(state -> state.isActive()).collect(Collectors.toList()), blockingStates, accountBCD, bcdCache, catalog, internalTenantContext);
+            return buildForEntitlement(account, bundle, baseSubscription, subscription, allSubscriptionsForBundle, blockingStates.stream().filter(state -> state.isActive()).collect(Collectors.toList()), blockingStates, accountBCD, bcdCache, catalog, null, utcNow, internalTenantContext);
         } else {
-            return buildForEntitlement(account, bundle, baseSubscription, subscription, allSubscriptionsForBundle, blockingStates, Collections.emptyList(), accountBCD, bcdCache, catalog, internalTenantContext);
+            final BlockingAggregator currentStateBlockingAggregator = getCurrentStateBlockingAggregator(blockingAggregators, subscription, subscriptionBlockingStatesOnDisk, subscriptionBlockingStates);
+            return buildForEntitlement(account, bundle, baseSubscription, subscription, allSubscriptionsForBundle, blockingStates, Collections.emptyList(), accountBCD, bcdCache, catalog, currentStateBlockingAggregator, utcNow, internalTenantContext);
         }
     }
-    
-    private EventsStream buildForEntitlement(final ImmutableAccountData account,
-            final SubscriptionBaseBundle bundle,
-            @Nullable final SubscriptionBase baseSubscription,
-            final SubscriptionBase subscription,
-            final Collection<SubscriptionBase> allSubscriptionsForBundle,
-            final Collection<BlockingState> blockingStates,
-            final int accountBCD,
-            final Map<UUID, Integer> bcdCache,
-            final VersionedCatalog catalog,
-            final boolean includeDeletedEvents,
-            final InternalTenantContext internalTenantContext) throws EntitlementApiException {
-    	
-    	return buildForEntitlement(account, bundle, baseSubscription, subscription, allSubscriptionsForBundle, blockingStates, Collections.emptyList(), accountBCD, bcdCache, catalog, internalTenantContext);
-    	
-    }   
 
     private EventsStream buildForEntitlement(final ImmutableAccountData account,
                                              final SubscriptionBaseBundle bundle,
@@ -444,11 +551,13 @@ public class EventsStreamBuilder {
                                              final int accountBCD,
                                              final Map<UUID, Integer> bcdCache,
                                              final VersionedCatalog catalog,
+                                             @Nullable final BlockingAggregator currentStateBlockingAggregator,
+                                             final DateTime utcNow,
                                              final InternalTenantContext internalTenantContext) throws EntitlementApiException {
 
         try {
             Integer defaultAlignmentDay = null;
-            final BillingAlignment alignment = subscription.getBillingAlignment(createPlanPhaseSpecifier(subscription), clock.getUTCNow(), catalog);
+            final BillingAlignment alignment = subscription.getBillingAlignment(createPlanPhaseSpecifier(subscription), utcNow, catalog);
 
             if (alignment != BillingAlignment.ACCOUNT || accountBCD != 0) {
                 defaultAlignmentDay = BillCycleDayCalculator.calculateBcdForAlignment(bcdCache, subscription, baseSubscription, alignment, internalTenantContext, accountBCD);
@@ -462,8 +571,9 @@ public class EventsStreamBuilder {
                                            subscription,
                                            allSubscriptionsForBundle,
                                            defaultAlignmentDay,
+                                           currentStateBlockingAggregator,
                                            internalTenantContext,
-                                           clock.getUTCNow());
+                                           utcNow);
         } catch (final SubscriptionBaseApiException e) {
             throw new EntitlementApiException(e);
         }
@@ -482,6 +592,21 @@ public class EventsStreamBuilder {
         return buildForEntitlement(bundle, subscription, subscriptionsForBundle, includeDeletedEvents, internalTenantContext);
     }
 
+    // The bulk blocking status is computed from the blocking states on disk: it cannot be used for add-ons
+    // for which ProxyBlockingStateDao computed additional blocking states (e.g. future base cancellation)
+    @Nullable
+    private static BlockingAggregator getCurrentStateBlockingAggregator(@Nullable final Map<UUID, BlockingAggregator> blockingAggregators,
+                                                                        final SubscriptionBase subscription,
+                                                                        final Collection<BlockingState> subscriptionBlockingStatesOnDisk,
+                                                                        final Collection<BlockingState> subscriptionBlockingStates) {
+        if (blockingAggregators == null ||
+            (subscriptionBlockingStates != subscriptionBlockingStatesOnDisk &&
+             (subscriptionBlockingStates.size() != subscriptionBlockingStatesOnDisk.size() || !subscriptionBlockingStatesOnDisk.containsAll(subscriptionBlockingStates)))) {
+            return null;
+        }
+        return blockingAggregators.get(subscription.getId());
+    }
+
     private PlanPhaseSpecifier createPlanPhaseSpecifier(final SubscriptionBase subscription) {
         final String planName;
         final PhaseType phaseType;
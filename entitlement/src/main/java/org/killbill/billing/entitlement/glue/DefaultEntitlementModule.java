@@ -32,6 +32,7 @@ import org.killbill.billing.entitlement.block.BlockingChecker;
 import org.killbill.billing.entitlement.block.DefaultBlockingChecker;
 import org.killbill.billing.entitlement.dao.BlockingStateDao;
 import org.killbill.billing.entitlement.dao.ProxyBlockingStateDao;
+import org.killbill.billing.entitlement.engine.core.AccountEventsStreamsCache;
 import org.killbill.billing.entitlement.engine.core.EntitlementUtils;
 import org.killbill.billing.entitlement.engine.core.EventsStreamBuilder;
 import org.killbill.billing.entitlement.plugin.api.EntitlementPluginApi;
@@ -39,10 +40,14 @@ import org.killbill.billing.glue.EntitlementModule;
 import org.killbill.billing.junction.BlockingInternalApi;
 import org.killbill.billing.osgi.api.OSGIServiceRegistration;
 import org.killbill.billing.platform.api.KillbillConfigSource;
+import org.killbill.billing.util.config.definition.EntitlementConfig;
 import org.killbill.billing.util.glue.KillBillModule;
 import org.killbill.billing.util.glue.SecurityModule;
+import org.killbill.billing.util.nodes.dao.NodeInfoDao;
+import org.skife.config.ConfigurationObjectFactory;
 
 import com.google.inject.TypeLiteral;
+import com.google.inject.multibindings.OptionalBinder;
 
 public class DefaultEntitlementModule extends KillBillModule implements EntitlementModule {
 
@@ -55,8 +60,14 @@ public class DefaultEntitlementModule extends KillBillModule implements Entitlem
         bind(EntitlementPluginExecution.class).asEagerSingleton();
     }
 
+    protected void installConfig() {
+        final EntitlementConfig config = new ConfigurationObjectFactory(skifeConfigSource).build(EntitlementConfig.class);
+        bind(EntitlementConfig.class).toInstance(config);
+    }
+
     @Override
     protected void configure() {
+        installConfig();
         installBlockingStateDao();
         installBlockingApi();
         installEntitlementApi();
@@ -65,6 +76,9 @@ public class DefaultEntitlementModule extends KillBillModule implements Entitlem
         installBlockingChecker();
         bind(EntitlementService.class).to(DefaultEntitlementService.class).asEagerSingleton();
         bind(EntitlementUtils.class).asEagerSingleton();
+        // Bound by the nodes module, if installed: used to detect multi-node deployments
+        OptionalBinder.newOptionalBinder(binder(), NodeInfoDao.class);
+        bind(AccountEventsStreamsCache.class).asEagerSingleton();
         bind(EventsStreamBuilder.class).asEagerSingleton();
         installEntitlementPluginApi();
     }
@@ -333,6 +333,42 @@ public class TestBlockingStateOrdering extends EntitlementTestSuiteNoDB {
         Assert.assertEquals(allEvents.get(7).getSubscriptionEventType(), SubscriptionEventType.START_BILLING);
     }
 
+    @Test(groups = "fast")
+    public void testManyPauseResumeTransitions() throws Exception {
+        final DateTime now = clock.getUTCNow();
+        final UUID subscriptionId1 = UUID.randomUUID();
+        final int nbTransitions = 500;
+
+        final Collection<BlockingState> blockingStates = new LinkedList<BlockingState>();
+        blockingStates.add(createBlockingState(subscriptionId1, BlockingStateType.SUBSCRIPTION, DefaultEntitlementApi.ENT_STATE_START, KILLBILL_SERVICES.ENTITLEMENT_SERVICE.getServiceName(), false, false, now));
+        for (int i = 0; i < nbTransitions; i++) {
+            blockingStates.add(createBlockingState(subscriptionId1, BlockingStateType.SUBSCRIPTION, "paused", "svc1", true, true, now.plusDays(2 * i + 1)));
+            blockingStates.add(createBlockingState(subscriptionId1, BlockingStateType.SUBSCRIPTION, "resumed", "svc1", false, false, now.plusDays(2 * i + 2)));
+        }
+
+        final LinkedList<SubscriptionEvent> allEvents = new LinkedList<SubscriptionEvent>();
+        allEvents.add(createEvent(subscriptionId1, SubscriptionEventType.START_BILLING, now));
+        allEvents.add(createEvent(subscriptionId1, SubscriptionEventType.PHASE, now.plusDays(30).plusHours(1)));
+
+        computeEvents(allEvents, blockingStates);
+
+        Assert.assertEquals(allEvents.size(), 3 + 4 * nbTransitions);
+        Assert.assertEquals(allEvents.get(0).getSubscriptionEventType(), SubscriptionEventType.START_ENTITLEMENT);
+        Assert.assertEquals(allEvents.get(1).getSubscriptionEventType(), SubscriptionEventType.START_BILLING);
+        // The PHASE lands between the 15th and the 16th pause
+        Assert.assertEquals(allEvents.get(2 + 4 * 15).getSubscriptionEventType(), SubscriptionEventType.PHASE);
+        int i = 2;
+        for (int j = 0; j < nbTransitions; j++) {
+            if (j == 15) {
+                i++;
+            }
+            Assert.assertEquals(allEvents.get(i++).getSubscriptionEventType(), SubscriptionEventType.PAUSE_ENTITLEMENT);
+            Assert.assertEquals(allEvents.get(i++).getSubscriptionEventType(), SubscriptionEventType.PAUSE_BILLING);
+            Assert.assertEquals(allEvents.get(i++).getSubscriptionEventType(), SubscriptionEventType.RESUME_ENTITLEMENT);
+            Assert.assertEquals(allEvents.get(i++).getSubscriptionEventType(), SubscriptionEventType.RESUME_BILLING);
+        }
+    }
+
     private BlockingState createBlockingState(final UUID blockedId,
                                               final BlockingStateType blockingStateType,
                                               final String stateName,
@@ -22,6 +22,8 @@ import java.util.Collections;
 import java.util.List;
 import java.util.UUID;
 
+import javax.inject.Inject;
+
 import org.joda.time.DateTime;
 import org.joda.time.DateTimeZone;
 import org.joda.time.LocalDate;
@@ -35,9 +37,13 @@ import org.killbill.billing.catalog.api.PlanPhaseSpecifier;
 import org.killbill.billing.catalog.api.PriceListSet;
 import org.killbill.billing.catalog.api.ProductCategory;
 import org.killbill.billing.entitlement.EntitlementTestSuiteWithEmbeddedDB;
+import org.killbill.billing.entitlement.EventsStream;
 import org.killbill.billing.entitlement.api.Entitlement.EntitlementSourceType;
 import org.killbill.billing.entitlement.api.Entitlement.EntitlementState;
+import org.killbill.billing.junction.DefaultBlockingState;
 import org.killbill.billing.subscription.api.user.SubscriptionBaseApiException;
+import org.killbill.billing.util.metrics.LatencyHistogram;
+import org.killbill.billing.util.metrics.LatencyHistograms;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
@@ -47,6 +53,9 @@ import static org.testng.Assert.fail;
 
 public class TestDefaultEntitlementApi extends EntitlementTestSuiteWithEmbeddedDB {
 
+    @Inject
+    private LatencyHistograms latencyHistograms;
+
     @Test(groups = "slow")
     public void testAddOnCreationTiming() throws AccountApiException, EntitlementApiException {
 
@@ -321,6 +330,47 @@ public class TestDefaultEntitlementApi extends EntitlementTestSuiteWithEmbeddedD
         assertEquals(bundleEntitlements.size(), 2);
     }
 
+    @Test(groups = "slow")
+    public void testBuildForBundleReadsBlockingStatesOnce() throws AccountApiException, EntitlementApiException {
+        final LocalDate initialDate = new LocalDate(2013, 8, 7);
+        clock.setDay(initialDate);
+
+        final Account account = createAccount(getAccountData(7));
+
+        final PlanPhaseSpecifier spec = new PlanPhaseSpecifier("Shotgun", BillingPeriod.ANNUAL, PriceListSet.DEFAULT_PRICELIST_NAME, null);
+        testListener.pushExpectedEvents(NextEvent.CREATE, NextEvent.BLOCK);
+        final UUID baseEntitlementId = entitlementApi.createBaseEntitlement(account.getId(), new DefaultEntitlementSpecifier(spec), account.getExternalKey(), null, null, false, true, Collections.emptyList(), callContext);
+        assertListenerStatus();
+        final Entitlement baseEntitlement = entitlementApi.getEntitlementForId(baseEntitlementId, false, callContext);
+
+        final PlanPhaseSpecifier addOnSpec = new PlanPhaseSpecifier("Telescopic-Scope", BillingPeriod.MONTHLY, PriceListSet.DEFAULT_PRICELIST_NAME, null);
+        testListener.pushExpectedEvents(NextEvent.CREATE, NextEvent.BLOCK);
+        entitlementApi.addEntitlement(baseEntitlement.getBundleId(), new DefaultEntitlementSpecifier(addOnSpec), initialDate, initialDate, false, Collections.emptyList(), callContext);
+        assertListenerStatus();
+
+        clock.addDays(1);
+
+        testListener.pushExpectedEvent(NextEvent.BLOCK);
+        final BlockingState bundleBlockingState = new DefaultBlockingState(baseEntitlement.getBundleId(), BlockingStateType.SUBSCRIPTION_BUNDLE, "bundleBlock", "svc1", true, false, false, clock.getUTCNow());
+        subscriptionApi.addBlockingState(bundleBlockingState, (LocalDate) null, Collections.emptyList(), callContext);
+        assertListenerStatus();
+
+        final LatencyHistogram getByBlockingIdsHistogram = latencyHistograms.getHistogram(LatencyHistograms.DAO, "BlockingStateSqlDao.getByBlockingIds");
+        final long queriesBefore = getByBlockingIdsHistogram.getCount();
+        final List<EventsStream> eventsStreams = eventsStreamBuilder.buildForBundle(baseEntitlement.getBundleId(), internalCallContext);
+        // A single read of the blocking states for the whole bundle (it used to be one per subscription)
+        assertEquals(getByBlockingIdsHistogram.getCount() - queriesBefore, 1);
+
+        assertEquals(eventsStreams.size(), 2);
+        for (final EventsStream eventsStream : eventsStreams) {
+            // The bulk blocking status matches the one computed for a single entitlement
+            final EventsStream expected = eventsStreamBuilder.buildForEntitlement(eventsStream.getEntitlementId(), false, internalCallContext);
+            Assert.assertTrue(eventsStream.isBlockChange());
+            assertEquals(eventsStream.isBlockChange(), expected.isBlockChange());
+            assertEquals(eventsStream.getEntitlementState(), expected.getEntitlementState());
+        }
+    }
+
     @Test(groups = "slow")
     public void testAddEntitlementOnPendingBase() throws AccountApiException, EntitlementApiException {
         final LocalDate initialDate = new LocalDate(2013, 8, 7);
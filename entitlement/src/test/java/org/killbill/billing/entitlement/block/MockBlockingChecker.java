@@ -17,6 +17,7 @@
 package org.killbill.billing.entitlement.block;
 
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 import org.joda.time.DateTime;
@@ -25,6 +26,7 @@ import org.killbill.billing.entitlement.api.Blockable;
 import org.killbill.billing.entitlement.api.BlockingApiException;
 import org.killbill.billing.entitlement.api.BlockingState;
 import org.killbill.billing.entitlement.api.BlockingStateType;
+import org.killbill.billing.subscription.api.SubscriptionBase;
 
 public class MockBlockingChecker implements BlockingChecker {
 
@@ -38,6 +40,16 @@ public class MockBlockingChecker implements BlockingChecker {
         return null;
     }
 
+    @Override
+    public Map<UUID, BlockingAggregator> getBlockedStatusForSubscriptions(final Iterable<SubscriptionBase> subscriptions, final DateTime upToDate, final InternalTenantContext context) throws BlockingApiException {
+        return null;
+    }
+
+    @Override
+    public Map<UUID, BlockingAggregator> getBlockedStatusForSubscriptions(final UUID accountId, final Iterable<SubscriptionBase> subscriptions, final Iterable<BlockingState> allBlockingStatesOnDiskForAccount, final DateTime upToDate) {
+        return null;
+    }
+
     @Override
     public void checkBlockedChange(final Blockable blockable, final DateTime upToDate, final InternalTenantContext context) throws BlockingApiException {
     }
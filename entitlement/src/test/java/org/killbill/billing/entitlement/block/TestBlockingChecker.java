@@ -18,6 +18,7 @@
 
 package org.killbill.billing.entitlement.block;
 
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
@@ -28,6 +29,7 @@ import org.killbill.billing.entitlement.EntitlementTestSuiteNoDB;
 import org.killbill.billing.entitlement.api.BlockingApiException;
 import org.killbill.billing.entitlement.api.BlockingState;
 import org.killbill.billing.entitlement.api.BlockingStateType;
+import org.killbill.billing.entitlement.block.BlockingChecker.BlockingAggregator;
 import org.killbill.billing.entitlement.dao.MockBlockingStateDao;
 import org.killbill.billing.junction.DefaultBlockingState;
 import org.killbill.billing.subscription.api.SubscriptionBase;
@@ -334,4 +336,51 @@ public class TestBlockingChecker extends EntitlementTestSuiteNoDB {
             //Expected behavior
         }
     }
+
+    @Test(groups = "fast")
+    public void testBlockedStatusForSubscriptions() throws Exception {
+        final SubscriptionBase otherSubscription = Mockito.mock(SubscriptionBase.class);
+        Mockito.when(otherSubscription.getId()).thenReturn(UUID.randomUUID());
+        Mockito.when(otherSubscription.getBundleId()).thenReturn(bundle.getId());
+        final List<SubscriptionBase> subscriptions = List.of(subscription, otherSubscription);
+
+        Map<UUID, BlockingAggregator> blockedStatus = checkBlockedStatusForSubscriptions(subscriptions);
+        Assert.assertFalse(blockedStatus.get(subscription.getId()).isBlockChange());
+
+        setStateSubscription(true, false, false);
+        blockedStatus = checkBlockedStatusForSubscriptions(subscriptions);
+        Assert.assertTrue(blockedStatus.get(subscription.getId()).isBlockChange());
+        Assert.assertFalse(blockedStatus.get(otherSubscription.getId()).isBlockChange());
+
+        clock.addDays(1);
+        setStateBundle(false, true, false);
+        blockedStatus = checkBlockedStatusForSubscriptions(subscriptions);
+        Assert.assertTrue(blockedStatus.get(subscription.getId()).isBlockChange());
+        Assert.assertTrue(blockedStatus.get(otherSubscription.getId()).isBlockEntitlement());
+        Assert.assertFalse(blockedStatus.get(otherSubscription.getId()).isBlockBilling());
+
+        clock.addDays(1);
+        setStateAccount(false, false, true);
+        blockedStatus = checkBlockedStatusForSubscriptions(subscriptions);
+        Assert.assertTrue(blockedStatus.get(otherSubscription.getId()).isBlockBilling());
+
+        // Latest state per service wins
+        clock.addDays(1);
+        setStateSubscription(false, false, false);
+        setStateBundle(false, false, false);
+        blockedStatus = checkBlockedStatusForSubscriptions(subscriptions);
+        Assert.assertFalse(blockedStatus.get(subscription.getId()).isBlockChange());
+        Assert.assertFalse(blockedStatus.get(subscription.getId()).isBlockEntitlement());
+        Assert.assertTrue(blockedStatus.get(subscription.getId()).isBlockBilling());
+    }
+
+    // Verify the bulk results match the per-id path
+    private Map<UUID, BlockingAggregator> checkBlockedStatusForSubscriptions(final List<SubscriptionBase> subscriptions) throws BlockingApiException {
+        final Map<UUID, BlockingAggregator> blockedStatus = blockingChecker.getBlockedStatusForSubscriptions(subscriptions, clock.getUTCNow(), internalCallContext);
+        Assert.assertEquals(blockedStatus.size(), subscriptions.size());
+        for (final SubscriptionBase cur : subscriptions) {
+            Assert.assertEquals(blockedStatus.get(cur.getId()), blockingChecker.getBlockedStatus(cur.getId(), BlockingStateType.SUBSCRIPTION, clock.getUTCNow(), internalCallContext));
+        }
+        return blockedStatus;
+    }
 }
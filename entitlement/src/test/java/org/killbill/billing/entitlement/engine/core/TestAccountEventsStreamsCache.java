@@ -0,0 +1,159 @@
+/*
+ * Copyright 2020-2022 Equinix, Inc
+ * Copyright 2014-2022 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.billing.entitlement.engine.core;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import javax.inject.Inject;
+
+import org.joda.time.LocalDate;
+import org.killbill.billing.account.api.Account;
+import org.killbill.billing.api.TestApiListener.NextEvent;
+import org.killbill.billing.callcontext.InternalTenantContext;
+import org.killbill.billing.catalog.api.BillingPeriod;
+import org.killbill.billing.catalog.api.PlanPhaseSpecifier;
+import org.killbill.billing.catalog.api.PriceListSet;
+import org.killbill.billing.entitlement.AccountEventsStreams;
+import org.killbill.billing.entitlement.EntitlementTestSuiteWithEmbeddedDB;
+import org.killbill.billing.entitlement.EventsStream;
+import org.killbill.billing.entitlement.api.DefaultEntitlementSpecifier;
+import org.killbill.billing.entitlement.api.Entitlement;
+import org.killbill.billing.entitlement.api.Entitlement.EntitlementState;
+import org.killbill.billing.platform.api.KillbillConfigSource;
+import org.killbill.billing.util.config.definition.EntitlementConfig;
+import org.killbill.billing.util.nodes.dao.NodeInfoDao;
+import org.killbill.billing.util.nodes.dao.NodeInfoModelDao;
+import org.mockito.Mockito;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class TestAccountEventsStreamsCache extends EntitlementTestSuiteWithEmbeddedDB {
+
+    @Inject
+    private EntitlementConfig entitlementConfig;
+
+    @Override
+    protected KillbillConfigSource getConfigSource(final Map<String, String> extraProperties) {
+        final Map<String, String> allExtraProperties = new HashMap<String, String>(extraProperties);
+        allExtraProperties.put("org.killbill.entitlement.eventsStreamCache.enabled", "true");
+        // Every cache hit is checked against a freshly built result
+        allExtraProperties.put("org.killbill.entitlement.eventsStreamCache.consistencyCheck", "true");
+        return super.getConfigSource(allExtraProperties);
+    }
+
+    @Test(groups = "slow")
+    public void testCacheInvalidation() throws Exception {
+        clock.setDay(new LocalDate(2013, 8, 7));
+
+        final Account account = createAccount(getAccountData(7));
+        final InternalTenantContext tenantContext = internalCallContextFactory.createInternalTenantContext(account.getId(), callContext);
+
+        final PlanPhaseSpecifier spec = new PlanPhaseSpecifier("Shotgun", BillingPeriod.MONTHLY, PriceListSet.DEFAULT_PRICELIST_NAME, null);
+        testListener.pushExpectedEvents(NextEvent.CREATE, NextEvent.BLOCK);
+        final UUID entitlementId = entitlementApi.createBaseEntitlement(account.getId(), new DefaultEntitlementSpecifier(spec), account.getExternalKey(), null, null, false, true, List.of(), callContext);
+        assertListenerStatus();
+
+        final AccountEventsStreams initialEventsStreams = eventsStreamBuilder.buildForAccount(tenantContext);
+        Assert.assertEquals(getEventsStream(initialEventsStreams, entitlementId).getEntitlementState(), EntitlementState.ACTIVE);
+        Assert.assertNull(getEventsStream(initialEventsStreams, entitlementId).getEntitlementEffectiveEndDate());
+        // Built from the cached inputs, but never shared across calls
+        assertBuiltFromCache(eventsStreamBuilder.buildForAccount(tenantContext), initialEventsStreams);
+
+        // Future cancellation: the write path invalidates the entry
+        final Entitlement entitlement = entitlementApi.getEntitlementForId(entitlementId, false, callContext);
+        final LocalDate cancelDate = clock.getUTCToday().plusDays(5);
+        entitlement.cancelEntitlementWithDate(cancelDate, true, List.of(), callContext);
+        assertListenerStatus();
+
+        final AccountEventsStreams eventsStreamsAfterCancellation = eventsStreamBuilder.buildForAccount(tenantContext);
+        assertNotBuiltFromCache(eventsStreamsAfterCancellation, initialEventsStreams);
+        Assert.assertEquals(getEventsStream(eventsStreamsAfterCancellation, entitlementId).getEntitlementState(), EntitlementState.ACTIVE);
+        Assert.assertEquals(getEventsStream(eventsStreamsAfterCancellation, entitlementId).getEntitlementEffectiveEndDate(), cancelDate);
+        assertBuiltFromCache(eventsStreamBuilder.buildForAccount(tenantContext), eventsStreamsAfterCancellation);
+
+        // Reaching the cancellation date expires the entry
+        testListener.pushExpectedEvents(NextEvent.CANCEL, NextEvent.BLOCK);
+        clock.addDays(5);
+        assertListenerStatus();
+
+        final AccountEventsStreams eventsStreamsAfterCancellationDate = eventsStreamBuilder.buildForAccount(tenantContext);
+        assertNotBuiltFromCache(eventsStreamsAfterCancellationDate, eventsStreamsAfterCancellation);
+        Assert.assertEquals(getEventsStream(eventsStreamsAfterCancellationDate, entitlementId).getEntitlementState(), EntitlementState.CANCELLED);
+        Assert.assertEquals(entitlementApi.getAllEntitlementsForAccountId(account.getId(), callContext).get(0).getState(), EntitlementState.CANCELLED);
+    }
+
+    @Test(groups = "slow")
+    public void testDisabledWithMultipleNodes() throws Exception {
+        final NodeInfoDao nodeInfoDao = Mockito.mock(NodeInfoDao.class);
+        Mockito.when(nodeInfoDao.getAll()).thenReturn(List.of(new NodeInfoModelDao("node-1", clock.getUTCNow(), "{}")));
+
+        final AccountEventsStreamsCache cache = new AccountEventsStreamsCache(entitlementConfig, Optional.of(nodeInfoDao), clock);
+        Assert.assertTrue(cache.isEnabled());
+
+        // Another node shows up: the cache turns itself off once the nodes are checked again
+        Mockito.when(nodeInfoDao.getAll()).thenReturn(List.of(new NodeInfoModelDao("node-1", clock.getUTCNow(), "{}"),
+                                                              new NodeInfoModelDao("node-2", clock.getUTCNow(), "{}")));
+        Assert.assertTrue(cache.isEnabled());
+        clock.addDeltaFromReality(2 * 60 * 1000L);
+        Assert.assertFalse(cache.isEnabled());
+
+        // For good
+        Mockito.when(nodeInfoDao.getAll()).thenReturn(List.of(new NodeInfoModelDao("node-1", clock.getUTCNow(), "{}")));
+        clock.addDeltaFromReality(2 * 60 * 1000L);
+        Assert.assertFalse(cache.isEnabled());
+    }
+
+    private void assertBuiltFromCache(final AccountEventsStreams accountEventsStreams, final AccountEventsStreams previousAccountEventsStreams) {
+        Assert.assertNotSame(accountEventsStreams, previousAccountEventsStreams);
+        // Same cached subscriptions
+        Assert.assertEquals(accountEventsStreams.getSubscriptions().keySet(), previousAccountEventsStreams.getSubscriptions().keySet());
+        for (final UUID bundleId : accountEventsStreams.getSubscriptions().keySet()) {
+            Assert.assertSame(accountEventsStreams.getSubscriptions().get(bundleId), previousAccountEventsStreams.getSubscriptions().get(bundleId));
+        }
+        for (final Collection<EventsStream> eventsStreams : accountEventsStreams.getEventsStreams().values()) {
+            for (final EventsStream eventsStream : eventsStreams) {
+                final EventsStream previousEventsStream = getEventsStream(previousAccountEventsStreams, eventsStream.getEntitlementId());
+                Assert.assertNotSame(eventsStream, previousEventsStream);
+                Assert.assertEquals(eventsStream.getEntitlementState(), previousEventsStream.getEntitlementState());
+            }
+        }
+    }
+
+    private void assertNotBuiltFromCache(final AccountEventsStreams accountEventsStreams, final AccountEventsStreams previousAccountEventsStreams) {
+        for (final UUID bundleId : accountEventsStreams.getSubscriptions().keySet()) {
+            Assert.assertNotSame(accountEventsStreams.getSubscriptions().get(bundleId), previousAccountEventsStreams.getSubscriptions().get(bundleId));
+        }
+    }
+
+    private EventsStream getEventsStream(final AccountEventsStreams accountEventsStreams, final UUID entitlementId) {
+        for (final Collection<EventsStream> eventsStreams : accountEventsStreams.getEventsStreams().values()) {
+            for (final EventsStream eventsStream : eventsStreams) {
+                if (entitlementId.equals(eventsStream.getEntitlementId())) {
+                    return eventsStream;
+                }
+            }
+        }
+        Assert.fail("Unable to find events stream for entitlementId " + entitlementId);
+        return null;
+    }
+}
@@ -1304,7 +1304,8 @@ public class InvoiceDispatcher {
         final InternalCallContext parentContext = internalCallContextFactory.createInternalCallContext(parentAccountRecordId, context);
 
         final BigDecimal childInvoiceAmount = InvoiceCalculatorUtils.computeChildInvoiceAmount(childInvoice.getCurrency(), childInvoice.getInvoiceItems());
-        InvoiceModelDao draftParentInvoice = invoiceDao.getParentDraftInvoice(childAccount.getParentAccountId(), parentContext);
+        // PERF: only the summary item for this child account is needed, which keeps the work under the parent lock constant with the number of child accounts
+        InvoiceModelDao draftParentInvoice = invoiceDao.getParentDraftInvoiceForChildAccount(childAccount.getParentAccountId(), childAccount.getId(), parentContext);
 
         final String description = childAccount.getExternalKey().concat(" summary");
         if (draftParentInvoice != null) {
@@ -1321,12 +1322,17 @@ public class InvoiceDispatcher {
             // new item when the parent invoices does not have this child item yet
             final ParentInvoiceItem newParentInvoiceItem = new ParentInvoiceItem(UUID.randomUUID(), context.getCreatedDate(), draftParentInvoice.getId(), childAccount.getParentAccountId(), childAccount.getId(), childInvoiceAmount, childAccount.getCurrency(), description);
             final InvoiceItemModelDao parentInvoiceItem = new InvoiceItemModelDao(newParentInvoiceItem);
-            draftParentInvoice.addInvoiceItem(parentInvoiceItem);
-
-            final List<InvoiceModelDao> invoices = new ArrayList<InvoiceModelDao>();
-            invoices.add(draftParentInvoice);
             log.info("Adding new itemId='{}', amount='{}' on existing DRAFT invoiceId='{}'", parentInvoiceItem.getId(), childInvoiceAmount, draftParentInvoice.getId());
-            invoiceDao.createInvoices(invoices, null, Collections.emptySet(), null, null,false, parentContext);
+            if (childInvoiceAmount.compareTo(BigDecimal.ZERO) >= 0) {
+                invoiceDao.addParentDraftInvoiceItem(parentInvoiceItem, parentContext);
+            } else {
+                // A credit may require a CBA item on the parent invoice
+                draftParentInvoice.addInvoiceItem(parentInvoiceItem);
+
+                final List<InvoiceModelDao> invoices = new ArrayList<InvoiceModelDao>();
+                invoices.add(draftParentInvoice);
+                invoiceDao.createInvoices(invoices, null, Collections.emptySet(), null, null,false, parentContext);
+            }
         } else {
             if (shouldIgnoreChildInvoice(childInvoice, childInvoiceAmount)) {
                 return;
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2020-2022 Equinix, Inc
+ * Copyright 2014-2022 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.billing.invoice;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Lock-free circuit breaker for a single invoice plugin: after failureThreshold consecutive failures (or timeouts),
+// calls are rejected for openDurationMillis, after which a single trial call is let through to probe the plugin.
+class InvoicePluginCircuitBreaker {
+
+    private final AtomicInteger consecutiveFailures = new AtomicInteger(0);
+    private final AtomicLong openUntilMillis = new AtomicLong(0);
+
+    boolean allowCall(final int failureThreshold, final long openDurationMillis, final long nowMillis) {
+        if (failureThreshold <= 0 || consecutiveFailures.get() < failureThreshold) {
+            return true;
+        }
+
+        final long openUntil = openUntilMillis.get();
+        if (nowMillis < openUntil) {
+            return false;
+        }
+        // Half-open: only the thread winning the race gets to try, the others keep seeing the circuit open
+        return openUntilMillis.compareAndSet(openUntil, nowMillis + openDurationMillis);
+    }
+
+    void onSuccess() {
+        consecutiveFailures.set(0);
+        openUntilMillis.set(0);
+    }
+
+    void onFailure(final int failureThreshold, final long openDurationMillis, final long nowMillis) {
+        if (consecutiveFailures.incrementAndGet() >= failureThreshold && failureThreshold > 0) {
+            openUntilMillis.set(nowMillis + openDurationMillis);
+        }
+    }
+}
@@ -41,6 +41,7 @@ import org.joda.time.DateTime;
 import org.joda.time.LocalDate;
 import org.killbill.billing.ErrorCode;
 import org.killbill.billing.callcontext.InternalTenantContext;
+import org.killbill.billing.invoice.InvoicePluginExecutor.PluginCall;
 import org.killbill.billing.invoice.api.DefaultInvoiceContext;
 import org.killbill.billing.invoice.api.Invoice;
 import org.killbill.billing.invoice.api.InvoiceApiException;
@@ -83,12 +84,15 @@ public class InvoicePluginDispatcher {
 
     private final OSGIServiceRegistration<InvoicePluginApi> pluginRegistry;
     private final InvoiceConfig invoiceConfig;
+    private final InvoicePluginExecutor invoicePluginExecutor;
 
     @Inject
     public InvoicePluginDispatcher(final OSGIServiceRegistration<InvoicePluginApi> pluginRegistry,
-                                   final InvoiceConfig invoiceConfig) {
+                                   final InvoiceConfig invoiceConfig,
+                                   final InvoicePluginExecutor invoicePluginExecutor) {
         this.pluginRegistry = pluginRegistry;
         this.invoiceConfig = invoiceConfig;
+        this.invoicePluginExecutor = invoicePluginExecutor;
     }
 
     public static final class PriorCallResult {
@@ -119,40 +123,51 @@ public class InvoicePluginDispatcher {
                               final InternalTenantContext internalTenantContext) throws InvoiceApiException {
         log.debug("Invoking invoice plugins priorCall: targetDate='{}', isDryRun='{}', isRescheduled='{}'", targetDate, isDryRun, isRescheduled);
 
-        Iterable<PluginProperty> inputPluginProperties = pluginProperties;
         final Map<String, InvoicePluginApi> invoicePlugins = getInvoicePlugins(internalTenantContext);
         if (invoicePlugins.isEmpty()) {
-            return new PriorCallResult(null, inputPluginProperties);
+            return new PriorCallResult(null, pluginProperties);
         }
 
-        DateTime earliestRescheduleDate = null;
         final InvoiceContext invoiceContext = new DefaultInvoiceContext(targetDate, null, existingInvoices, isDryRun, isRescheduled, callContext);
-        for (final Entry<String, InvoicePluginApi> entry : invoicePlugins.entrySet()) {
-            final String invoicePluginName = entry.getKey();
-            final PriorInvoiceResult priorInvoiceResult = entry.getValue().priorCall(invoiceContext, inputPluginProperties);
-            log.debug("Invoice plugin {} returned priorInvoiceResult='{}'", invoicePluginName, priorInvoiceResult);
-            if (priorInvoiceResult == null) {
-                // Naughty plugin...
-                continue;
-            }
+        return invokePlugins(invoicePlugins, new PluginInvocation<PriorInvoiceResult, PriorCallResult>("priorCall", pluginProperties) {
 
-            if (priorInvoiceResult.getRescheduleDate() != null &&
-                (earliestRescheduleDate == null || earliestRescheduleDate.compareTo(priorInvoiceResult.getRescheduleDate()) > 0)) {
-                earliestRescheduleDate = priorInvoiceResult.getRescheduleDate();
-                log.info("Invoice plugin {} rescheduled invoice generation to {} for targetDate {}", invoicePluginName, earliestRescheduleDate, targetDate);
-            }
+            private DateTime earliestRescheduleDate = null;
 
-            if (priorInvoiceResult.isAborted()) {
-                log.info("Invoice plugin {} aborted invoice generation for targetDate {}", invoicePluginName, targetDate);
-                throw new InvoiceApiException(ErrorCode.INVOICE_PLUGIN_API_ABORTED, invoicePluginName);
+            @Override
+            public PriorInvoiceResult call(final String pluginName, final InvoicePluginApi plugin) {
+                return plugin.priorCall(invoiceContext, pluginProperties);
             }
 
-            if (priorInvoiceResult.getAdjustedPluginProperties() != null) {
-                inputPluginProperties = priorInvoiceResult.getAdjustedPluginProperties();
+            @Override
+            boolean onResult(final String invoicePluginName, final InvoicePluginApi plugin, @Nullable final PriorInvoiceResult priorInvoiceResult) throws InvoiceApiException {
+                log.debug("Invoice plugin {} returned priorInvoiceResult='{}'", invoicePluginName, priorInvoiceResult);
+                if (priorInvoiceResult == null) {
+                    // Naughty plugin...
+                    return true;
+                }
+
+                if (priorInvoiceResult.getRescheduleDate() != null &&
+                    (earliestRescheduleDate == null || earliestRescheduleDate.compareTo(priorInvoiceResult.getRescheduleDate()) > 0)) {
+                    earliestRescheduleDate = priorInvoiceResult.getRescheduleDate();
+                    log.info("Invoice plugin {} rescheduled invoice generation to {} for targetDate {}", invoicePluginName, earliestRescheduleDate, targetDate);
+                }
+
+                if (priorInvoiceResult.isAborted()) {
+                    log.info("Invoice plugin {} aborted invoice generation for targetDate {}", invoicePluginName, targetDate);
+                    throw new InvoiceApiException(ErrorCode.INVOICE_PLUGIN_API_ABORTED, invoicePluginName);
+                }
+
+                if (priorInvoiceResult.getAdjustedPluginProperties() != null) {
+                    pluginProperties = priorInvoiceResult.getAdjustedPluginProperties();
+                }
+                return true;
             }
-        }
 
-        return new PriorCallResult(earliestRescheduleDate, inputPluginProperties);
+            @Override
+            PriorCallResult getResult() {
+                return new PriorCallResult(earliestRescheduleDate, pluginProperties);
+            }
+        });
     }
 
     public void onSuccessCall(final LocalDate targetDate,
@@ -188,7 +203,7 @@ public class InvoicePluginDispatcher {
                                   final CallContext callContext,
                                   final Iterable<PluginProperty> pluginProperties,
                                   final InternalTenantContext internalTenantContext) {
-        final Collection<InvoicePluginApi> invoicePlugins = getInvoicePlugins(internalTenantContext).values();
+        final Map<String, InvoicePluginApi> invoicePlugins = getInvoicePlugins(internalTenantContext);
         if (invoicePlugins.isEmpty()) {
             return;
         }
@@ -197,19 +212,42 @@ public class InvoicePluginDispatcher {
         final Invoice clonedInvoice = originalInvoice == null ? null : (Invoice) originalInvoice.clone();
         final InvoiceContext invoiceContext = new DefaultInvoiceContext(targetDate, clonedInvoice, existingInvoices, isDryRun, isRescheduled, callContext);
 
-        Iterable<PluginProperty> inputPluginProperties = pluginProperties;
-        for (final InvoicePluginApi invoicePlugin : invoicePlugins) {
-            if (isSuccess) {
-                final OnSuccessInvoiceResult res1 = invoicePlugin.onSuccessCall(invoiceContext, inputPluginProperties);
-                if (res1 != null && res1.getAdjustedPluginProperties() != null) {
-                    inputPluginProperties = res1.getAdjustedPluginProperties();
+        final String operation = isSuccess ? "onSuccessCall" : "onFailureCall";
+        try {
+            invokePlugins(invoicePlugins, new PluginInvocation<Iterable<PluginProperty>, Void>(operation, pluginProperties) {
+
+                @Override
+                public Iterable<PluginProperty> call(final String pluginName, final InvoicePluginApi invoicePlugin) {
+                    if (isSuccess) {
+                        final OnSuccessInvoiceResult res1 = invoicePlugin.onSuccessCall(invoiceContext, pluginProperties);
+                        return res1 == null ? null : res1.getAdjustedPluginProperties();
+                    } else {
+                        final OnFailureInvoiceResult res2 = invoicePlugin.onFailureCall(invoiceContext, pluginProperties);
+                        return res2 == null ? null : res2.getAdjustedPluginProperties();
+                    }
+                }
+
+                @Override
+                boolean onResult(final String pluginName, final InvoicePluginApi invoicePlugin, @Nullable final Iterable<PluginProperty> adjustedPluginProperties) {
+                    if (adjustedPluginProperties != null) {
+                        pluginProperties = adjustedPluginProperties;
+                    }
+                    return true;
                 }
-            } else {
-                final OnFailureInvoiceResult res2 = invoicePlugin.onFailureCall(invoiceContext, inputPluginProperties);
-                if (res2 != null && res2.getAdjustedPluginProperties() != null) {
-                    inputPluginProperties = res2.getAdjustedPluginProperties();
+
+                @Override
+                boolean isBestEffort() {
+                    // Notifications only: a plugin timing out shouldn't prevent the other ones from being notified
+                    return true;
                 }
-            }
+
+                @Override
+                Void getResult() {
+                    return null;
+                }
+            });
+        } catch (final InvoiceApiException e) {
+            log.warn("Failed to invoke invoice plugins {}", operation, e);
         }
     }
 
@@ -239,58 +277,72 @@ public class InvoicePluginDispatcher {
                          					  final LocalDate targetDate,
                          					  final List<Invoice> existingInvoices,
                          					  final boolean isRescheduled,                                              
-                                              final InternalTenantContext tenantContext) {
+                                              final InternalTenantContext tenantContext) throws InvoiceApiException {
         log.debug("Invoking invoice plugins for splitInvoices operation: isDryRun='{}', originalInvoice='{}'", isDryRun, originalInvoice);
 
-        Iterable<PluginProperty> inputPluginProperties = pluginProperties;
-        final Collection<InvoicePluginApi> invoicePlugins = getInvoicePlugins(tenantContext).values();
-        final Invoice clonedInvoice = (Invoice) originalInvoice.clone();
-        for (final InvoicePluginApi invoicePlugin : invoicePlugins) {
-            final InvoiceContext invoiceContext = new DefaultInvoiceContext(targetDate, clonedInvoice, existingInvoices, isDryRun, isRescheduled, callContext);
-            final InvoiceGroupingResult grpResult = invoicePlugin.getInvoiceGrouping(clonedInvoice, isDryRun, inputPluginProperties, invoiceContext);
-            if (grpResult != null) {
+        final Map<String, InvoicePluginApi> invoicePlugins = getInvoicePlugins(tenantContext);
+        return invokePlugins(invoicePlugins, new PluginInvocation<InvoiceGroupingResult, SplitInvoiceResult>("getInvoiceGrouping", pluginProperties) {
+
+            private List<DefaultInvoice> result = Collections.singletonList(originalInvoice);
+
+            @Override
+            public InvoiceGroupingResult call(final String pluginName, final InvoicePluginApi invoicePlugin) {
+                final Invoice clonedInvoice = (Invoice) originalInvoice.clone();
+                final InvoiceContext invoiceContext = new DefaultInvoiceContext(targetDate, clonedInvoice, existingInvoices, isDryRun, isRescheduled, callContext);
+                return invoicePlugin.getInvoiceGrouping(clonedInvoice, isDryRun, pluginProperties, invoiceContext);
+            }
+
+            @Override
+            boolean onResult(final String pluginName, final InvoicePluginApi invoicePlugin, @Nullable final InvoiceGroupingResult grpResult) {
+                if (grpResult == null) {
+                    return true;
+                }
 
                 if (grpResult.getAdjustedPluginProperties() != null) {
-                    inputPluginProperties = grpResult.getAdjustedPluginProperties();
+                    pluginProperties = grpResult.getAdjustedPluginProperties();
                 }
 
-                if (grpResult.getInvoiceGroups() != null && grpResult.getInvoiceGroups().size() > 0) {
-
-                    final List<DefaultInvoice> result = new ArrayList<>();
-                    final Map<UUID, InvoiceItem> itemMap = originalInvoice.getInvoiceItems()
-                                                                          .stream()
-                                                                          .map(new Function<InvoiceItem, SimpleEntry<UUID, InvoiceItem>>() {
-                                                                              @Override
-                                                                              public SimpleEntry<UUID, InvoiceItem> apply(final InvoiceItem invoiceItem) {
-                                                                                  return new SimpleEntry<>(invoiceItem.getId(), invoiceItem);
-                                                                              }
-                                                                          }).collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
-
-                    final List<InvoiceGroup> groups = grpResult.getInvoiceGroups();
-                    for (final InvoiceGroup grp : groups) {
-                        final DefaultInvoice grpInvoice = new DefaultInvoice(UUIDs.randomUUID(),
-                                                                             originalInvoice.getAccountId(),
-                                                                             null,
-                                                                             originalInvoice.getInvoiceDate(),
-                                                                             originalInvoice.getTargetDate(),
-                                                                             originalInvoice.getCurrency(),
-                                                                             originalInvoice.isMigrationInvoice(),
-                                                                             originalInvoice.getStatus());
-                        for (final UUID itemId : grp.getInvoiceItemIds()) {
-                            final InvoiceItem item = itemMap.get(itemId);
-                            final DefaultInvoiceItem.Builder tmp = new Builder().source(item);
-                            tmp.withInvoiceId(grpInvoice.getId());
-                            grpInvoice.addInvoiceItem(tmp.build());
-                        }
-                        result.add(grpInvoice);
-                    }
-                    return new SplitInvoiceResult(result, inputPluginProperties);
+                if (grpResult.getInvoiceGroups() == null || grpResult.getInvoiceGroups().isEmpty()) {
+                    return true;
                 }
 
+                final Map<UUID, InvoiceItem> itemMap = originalInvoice.getInvoiceItems()
+                                                                      .stream()
+                                                                      .map(new Function<InvoiceItem, SimpleEntry<UUID, InvoiceItem>>() {
+                                                                          @Override
+                                                                          public SimpleEntry<UUID, InvoiceItem> apply(final InvoiceItem invoiceItem) {
+                                                                              return new SimpleEntry<>(invoiceItem.getId(), invoiceItem);
+                                                                          }
+                                                                      }).collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+
+                result = new ArrayList<>();
+                final List<InvoiceGroup> groups = grpResult.getInvoiceGroups();
+                for (final InvoiceGroup grp : groups) {
+                    final DefaultInvoice grpInvoice = new DefaultInvoice(UUIDs.randomUUID(),
+                                                                         originalInvoice.getAccountId(),
+                                                                         null,
+                                                                         originalInvoice.getInvoiceDate(),
+                                                                         originalInvoice.getTargetDate(),
+                                                                         originalInvoice.getCurrency(),
+                                                                         originalInvoice.isMigrationInvoice(),
+                                                                         originalInvoice.getStatus());
+                    for (final UUID itemId : grp.getInvoiceItemIds()) {
+                        final InvoiceItem item = itemMap.get(itemId);
+                        final DefaultInvoiceItem.Builder tmp = new Builder().source(item);
+                        tmp.withInvoiceId(grpInvoice.getId());
+                        grpInvoice.addInvoiceItem(tmp.build());
+                    }
+                    result.add(grpInvoice);
+                }
+                // First plugin to split the invoice wins
+                return false;
             }
 
-        }
-        return new SplitInvoiceResult(Collections.singletonList(originalInvoice), inputPluginProperties);
+            @Override
+            SplitInvoiceResult getResult() {
+                return new SplitInvoiceResult(result, pluginProperties);
+            }
+        });
     }
 
     public static final class AdditionalInvoiceItemsResult {
@@ -322,7 +374,7 @@ public class InvoicePluginDispatcher {
                                                                						final InternalTenantContext tenantContext) throws InvoiceApiException {
         log.debug("Invoking invoice plugins getAdditionalInvoiceItems: isDryRun='{}', originalInvoice='{}'", isDryRun, originalInvoice);
 
-        final Collection<InvoicePluginApi> invoicePlugins = getInvoicePlugins(tenantContext).values();
+        final Map<String, InvoicePluginApi> invoicePlugins = getInvoicePlugins(tenantContext);
         if (invoicePlugins.isEmpty()) {
             return new AdditionalInvoiceItemsResult(false, pluginProperties);
         }
@@ -333,15 +385,24 @@ public class InvoicePluginDispatcher {
             invoiceItemsByItemId.put(invoiceItem.getId(), invoiceItem);
         }
 
-        Iterable<PluginProperty> inputPluginProperties = pluginProperties;
-        boolean invoiceUpdated = false;
-        for (final InvoicePluginApi invoicePlugin : invoicePlugins) {
-            // We clone the original invoice so plugins don't remove/add items
-            final Invoice clonedInvoice = (Invoice) originalInvoice.clone();
-            final InvoiceContext invoiceContext = new DefaultInvoiceContext(targetDate, clonedInvoice, existingInvoices, isDryRun, isRescheduled, callContext);
-            final AdditionalItemsResult res = invoicePlugin.getAdditionalInvoiceItems(clonedInvoice, isDryRun, inputPluginProperties, invoiceContext);
+        return invokePlugins(invoicePlugins, new PluginInvocation<AdditionalItemsResult, AdditionalInvoiceItemsResult>("getAdditionalInvoiceItems", pluginProperties) {
+
+            private boolean invoiceUpdated = false;
+
+            @Override
+            public AdditionalItemsResult call(final String pluginName, final InvoicePluginApi invoicePlugin) {
+                // We clone the original invoice so plugins don't remove/add items
+                final Invoice clonedInvoice = (Invoice) originalInvoice.clone();
+                final InvoiceContext invoiceContext = new DefaultInvoiceContext(targetDate, clonedInvoice, existingInvoices, isDryRun, isRescheduled, callContext);
+                return invoicePlugin.getAdditionalInvoiceItems(clonedInvoice, isDryRun, pluginProperties, invoiceContext);
+            }
+
+            @Override
+            boolean onResult(final String pluginName, final InvoicePluginApi invoicePlugin, @Nullable final AdditionalItemsResult res) throws InvoiceApiException {
+                if (res == null) {
+                    return true;
+                }
 
-            if (res != null) {
                 if (res.getAdditionalItems() != null &&
                     !res.getAdditionalItems().isEmpty()) {
                     final Collection<InvoiceItem> additionalInvoiceItems = new LinkedList<InvoiceItem>();
@@ -356,11 +417,16 @@ public class InvoicePluginDispatcher {
                 }
 
                 if (res.getAdjustedPluginProperties() != null) {
-                    inputPluginProperties = res.getAdjustedPluginProperties();
+                    pluginProperties = res.getAdjustedPluginProperties();
                 }
+                return true;
             }
-        }
-        return new AdditionalInvoiceItemsResult(invoiceUpdated, inputPluginProperties);
+
+            @Override
+            AdditionalInvoiceItemsResult getResult() {
+                return new AdditionalInvoiceItemsResult(invoiceUpdated, pluginProperties);
+            }
+        });
     }
 
     private boolean updateOriginalInvoiceWithPluginInvoiceItems(final DefaultInvoice originalInvoice, final Collection<InvoiceItem> additionalInvoiceItems) {
@@ -455,6 +521,59 @@ public class InvoicePluginDispatcher {
         return existingValue;
     }
 
+    //
+    // Plugins are invoked one after another (each plugin seeing the plugin properties adjusted by the previous one), unless
+    // parallel dispatch is enabled, in which case all plugins are invoked concurrently with the same input plugin properties.
+    // In both cases, results are handled in the plugins ordering.
+    //
+    private <T, R> R invokePlugins(final Map<String, InvoicePluginApi> invoicePlugins, final PluginInvocation<T, R> invocation) throws InvoiceApiException {
+        if (invoicePluginExecutor.isParallelDispatchEnabled() && invoicePlugins.size() > 1) {
+            final Map<String, T> results = invoicePluginExecutor.invokeAll(invoicePlugins, invocation.operation, invocation.isBestEffort(), invocation);
+            for (final Entry<String, T> entry : results.entrySet()) {
+                if (!invocation.onResult(entry.getKey(), invoicePlugins.get(entry.getKey()), entry.getValue())) {
+                    break;
+                }
+            }
+        } else {
+            for (final Entry<String, InvoicePluginApi> entry : invoicePlugins.entrySet()) {
+                final T result;
+                try {
+                    result = invoicePluginExecutor.invoke(entry.getKey(), entry.getValue(), invocation.operation, invocation);
+                } catch (final InvoiceApiException e) {
+                    if (!invocation.isBestEffort()) {
+                        throw e;
+                    }
+                    log.warn("Skipping invoice plugin {} for operation {}: {}", entry.getKey(), invocation.operation, e.getMessage());
+                    continue;
+                }
+                if (!invocation.onResult(entry.getKey(), entry.getValue(), result)) {
+                    break;
+                }
+            }
+        }
+        return invocation.getResult();
+    }
+
+    private abstract static class PluginInvocation<T, R> implements PluginCall<T> {
+
+        private final String operation;
+        protected Iterable<PluginProperty> pluginProperties;
+
+        PluginInvocation(final String operation, final Iterable<PluginProperty> pluginProperties) {
+            this.operation = operation;
+            this.pluginProperties = pluginProperties;
+        }
+
+        // Return false to stop invoking the remaining plugins
+        abstract boolean onResult(final String pluginName, final InvoicePluginApi invoicePlugin, @Nullable final T result) throws InvoiceApiException;
+
+        abstract R getResult();
+
+        boolean isBestEffort() {
+            return false;
+        }
+    }
+
     @VisibleForTesting
     Map<String, InvoicePluginApi> getInvoicePlugins(final InternalTenantContext tenantContext) {
         final Collection<String> resultingPluginList = getResultingPluginNameList(tenantContext);
@@ -0,0 +1,383 @@
+/*
+ * Copyright 2020-2022 Equinix, Inc
+ * Copyright 2014-2022 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.billing.invoice;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import javax.inject.Inject;
+
+import org.apache.shiro.mgt.SecurityManager;
+import org.apache.shiro.subject.Subject;
+import org.apache.shiro.util.ThreadContext;
+import org.killbill.billing.ErrorCode;
+import org.killbill.billing.invoice.api.InvoiceApiException;
+import org.killbill.billing.invoice.plugin.api.InvoicePluginApi;
+import org.killbill.billing.util.UUIDs;
+import org.killbill.billing.util.callcontext.CallableWithRequestData;
+import org.killbill.billing.util.config.definition.InvoiceConfig;
+import org.killbill.commons.concurrent.WithProfilingThreadPoolExecutor;
+import org.killbill.commons.metrics.api.MetricRegistry;
+import org.killbill.commons.profiling.Profiling;
+import org.killbill.commons.profiling.Profiling.WithProfilingCallback;
+import org.killbill.commons.profiling.ProfilingData;
+import org.killbill.commons.profiling.ProfilingFeature.ProfilingFeatureType;
+import org.killbill.commons.request.Request;
+import org.killbill.commons.request.RequestData;
+import org.killbill.commons.utils.annotation.VisibleForTesting;
+import org.skife.config.TimeSpan;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+
+//
+// Invokes the InvoicePluginApi methods on behalf of the InvoicePluginDispatcher:
+// - calls are made inline on the invoice thread unless a timeout or parallel dispatch is configured
+// - each plugin has its own circuit breaker, so that a plugin which keeps failing or timing out fails fast
+//   instead of stretching every invoice run while the account lock is held
+// - each call is recorded in a per-plugin latency histogram and in the per-request profiling data
+//
+public class InvoicePluginExecutor {
+
+    private static final Logger log = LoggerFactory.getLogger(InvoicePluginExecutor.class);
+
+    private static final long TIMEOUT_EXECUTOR_SEC = 3L;
+    private static final String INVOICE_PLUGIN_THREAD_PREFIX = "InvoicePlugin-th-";
+    private static final String INVOICE_PLUGIN_TH_GROUP_NAME = "inv-plugin-grp";
+    private static final String METRIC_NAME_PREFIX = "kb_invoice_plugin_";
+
+    private final InvoiceConfig invoiceConfig;
+    private final MetricRegistry metricRegistry;
+    private final Map<String, TimeSpan> timeoutOverrides;
+    private final Map<String, InvoicePluginCircuitBreaker> circuitBreakers = new ConcurrentHashMap<String, InvoicePluginCircuitBreaker>();
+
+    private volatile ExecutorService executorService;
+
+    public interface PluginCall<T> {
+
+        T call(String pluginName, InvoicePluginApi plugin) throws Exception;
+    }
+
+    @Inject
+    public InvoicePluginExecutor(final InvoiceConfig invoiceConfig, final MetricRegistry metricRegistry) {
+        this.invoiceConfig = invoiceConfig;
+        this.metricRegistry = metricRegistry;
+        this.timeoutOverrides = parseTimeoutOverrides(invoiceConfig.getInvoicePluginTimeouts());
+    }
+
+    public boolean isParallelDispatchEnabled() {
+        return invoiceConfig.isInvoicePluginParallelDispatchEnabled();
+    }
+
+    //
+    // Invoke a single plugin, on the current thread if no timeout is configured for it
+    //
+    public <T> T invoke(final String pluginName, final InvoicePluginApi plugin, final String operation, final PluginCall<T> pluginCall) throws InvoiceApiException {
+        final long timeoutMillis = getTimeoutMillis(pluginName);
+        if (timeoutMillis <= 0) {
+            checkCircuitBreaker(pluginName, operation);
+            final long startNano = System.nanoTime();
+            try {
+                final T result = invokeWithProfiling(pluginName, plugin, operation, pluginCall);
+                onSuccess(pluginName, operation, startNano);
+                return result;
+            } catch (final RuntimeException e) {
+                onFailure(pluginName, operation, startNano);
+                throw e;
+            } catch (final InvoiceApiException e) {
+                onFailure(pluginName, operation, startNano);
+                throw e;
+            }
+        } else {
+            final Map<String, InvoicePluginApi> plugins = new HashMap<String, InvoicePluginApi>();
+            plugins.put(pluginName, plugin);
+            return invokeAll(plugins, operation, false, pluginCall).get(pluginName);
+        }
+    }
+
+    //
+    // Invoke all plugins concurrently and return their results, in the plugins ordering. When isBestEffort is set,
+    // plugins which time out or whose circuit breaker is open are logged and left out of the results.
+    //
+    public <T> Map<String, T> invokeAll(final Map<String, InvoicePluginApi> plugins, final String operation, final boolean isBestEffort, final PluginCall<T> pluginCall) throws InvoiceApiException {
+        // Check all circuit breakers first, to avoid leaving calls running in the background if we have to bail
+        final Map<String, InvoicePluginApi> pluginsToInvoke = new LinkedHashMap<String, InvoicePluginApi>();
+        for (final Entry<String, InvoicePluginApi> entry : plugins.entrySet()) {
+            try {
+                checkCircuitBreaker(entry.getKey(), operation);
+                pluginsToInvoke.put(entry.getKey(), entry.getValue());
+            } catch (final InvoiceApiException e) {
+                if (!isBestEffort) {
+                    throw e;
+                }
+                log.warn("Skipping invoice plugin {} for operation {}: {}", entry.getKey(), operation, e.getMessage());
+            }
+        }
+
+        // Keep the original requestId, Shiro subject and logging context on the plugin threads
+        final RequestData requestData = Request.getPerThreadRequestData();
+        final SecurityManager securityManager = ThreadContext.getSecurityManager();
+        final Subject subject = ThreadContext.getSubject();
+        final Map<String, String> mdcContextMap = MDC.getCopyOfContextMap();
+
+        final List<PendingCall<T>> pendingCalls = new ArrayList<PendingCall<T>>(pluginsToInvoke.size());
+        final Map<String, T> results = new LinkedHashMap<String, T>();
+        try {
+            for (final Entry<String, InvoicePluginApi> entry : pluginsToInvoke.entrySet()) {
+                final String pluginName = entry.getKey();
+                final InvoicePluginApi plugin = entry.getValue();
+                final Callable<PluginCallResult<T>> task = new Callable<PluginCallResult<T>>() {
+                    @Override
+                    public PluginCallResult<T> call() throws Exception {
+                        final T result = invokeWithProfiling(pluginName, plugin, operation, pluginCall);
+                        return new PluginCallResult<T>(result, Profiling.getPerThreadProfilingData());
+                    }
+                };
+                final long startNano = System.nanoTime();
+                try {
+                    pendingCalls.add(new PendingCall<T>(pluginName, startNano, getExecutorService().submit(new CallableWithRequestData<PluginCallResult<T>>(requestData,
+                                                                                                                                                           UUIDs.getRandom(),
+                                                                                                                                                           securityManager,
+                                                                                                                                                           subject,
+                                                                                                                                                           mdcContextMap,
+                                                                                                                                                           task))));
+                } catch (final RejectedExecutionException e) {
+                    // The pool is saturated: this says nothing about the plugin, so its circuit breaker is left alone
+                    metricRegistry.counter(METRIC_NAME_PREFIX + "rejected_" + pluginName).inc(1);
+                    if (!isBestEffort) {
+                        throw new InvoiceApiException(e, ErrorCode.UNEXPECTED_ERROR, String.format("Too many pending invoice plugin calls, rejected plugin %s for operation %s", pluginName, operation));
+                    }
+                    log.warn("Skipping invoice plugin {} for operation {}: too many pending invoice plugin calls", pluginName, operation);
+                }
+            }
+
+            for (final PendingCall<T> pendingCall : pendingCalls) {
+                try {
+                    results.put(pendingCall.pluginName, waitForResult(pendingCall, operation));
+                } catch (final InvoiceApiException e) {
+                    if (!isBestEffort) {
+                        throw e;
+                    }
+                    log.warn("Skipping invoice plugin {} for operation {}: {}", pendingCall.pluginName, operation, e.getMessage());
+                }
+            }
+        } finally {
+            // Don't leave calls running in the background if one of the plugins failed
+            for (final PendingCall<T> pendingCall : pendingCalls) {
+                pendingCall.future.cancel(true);
+            }
+        }
+        return results;
+    }
+
+    public void stop() throws InterruptedException {
+        final ExecutorService toStop = executorService;
+        if (toStop == null) {
+            return;
+        }
+        toStop.shutdownNow();
+        toStop.awaitTermination(TIMEOUT_EXECUTOR_SEC, TimeUnit.SECONDS);
+        executorService = null;
+    }
+
+    private <T> T waitForResult(final PendingCall<T> pendingCall, final String operation) throws InvoiceApiException {
+        final String pluginName = pendingCall.pluginName;
+        final long timeoutMillis = getTimeoutMillis(pluginName);
+        try {
+            final PluginCallResult<T> pluginCallResult;
+            if (timeoutMillis > 0) {
+                final long remainingNanos = TimeUnit.MILLISECONDS.toNanos(timeoutMillis) - (System.nanoTime() - pendingCall.startNano);
+                pluginCallResult = pendingCall.future.get(Math.max(remainingNanos, 0), TimeUnit.NANOSECONDS);
+            } else {
+                pluginCallResult = pendingCall.future.get();
+            }
+
+            // Transfer state from dispatch thread into current one
+            final ProfilingData currentThreadProfilingData = Profiling.getPerThreadProfilingData();
+            if (currentThreadProfilingData != null && pluginCallResult.profilingData != null) {
+                currentThreadProfilingData.merge(pluginCallResult.profilingData);
+            }
+
+            onSuccess(pluginName, operation, pendingCall.startNano);
+            return pluginCallResult.result;
+        } catch (final TimeoutException e) {
+            onFailure(pluginName, operation, pendingCall.startNano);
+            log.warn("Invoice plugin {} timed out after {} ms for operation {}", pluginName, timeoutMillis, operation);
+            throw new InvoiceApiException(e, ErrorCode.UNEXPECTED_ERROR, String.format("Invoice plugin %s timed out for operation %s", pluginName, operation));
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InvoiceApiException(e, ErrorCode.UNEXPECTED_ERROR, String.format("Interrupted while waiting for invoice plugin %s for operation %s", pluginName, operation));
+        } catch (final ExecutionException e) {
+            onFailure(pluginName, operation, pendingCall.startNano);
+            // Preserve the behavior of inline calls
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            } else if (e.getCause() instanceof InvoiceApiException) {
+                throw (InvoiceApiException) e.getCause();
+            } else {
+                throw new InvoiceApiException(e.getCause(), ErrorCode.UNEXPECTED_ERROR, String.format("Invoice plugin %s failed for operation %s", pluginName, operation));
+            }
+        }
+    }
+
+    private <T> T invokeWithProfiling(final String pluginName, final InvoicePluginApi plugin, final String operation, final PluginCall<T> pluginCall) throws InvoiceApiException {
+        final Profiling<T, Exception> prof = new Profiling<T, Exception>();
+        try {
+            return prof.executeWithProfiling(ProfilingFeatureType.PLUGIN, "InvoicePluginApi#" + operation + " (plugin = " + pluginName + ")", new WithProfilingCallback<T, Exception>() {
+                @Override
+                public T execute() throws Exception {
+                    return pluginCall.call(pluginName, plugin);
+                }
+            });
+        } catch (final RuntimeException e) {
+            throw e;
+        } catch (final InvoiceApiException e) {
+            throw e;
+        } catch (final Exception e) {
+            throw new InvoiceApiException(e, ErrorCode.UNEXPECTED_ERROR, String.format("Invoice plugin %s failed for operation %s", pluginName, operation));
+        }
+    }
+
+    private void checkCircuitBreaker(final String pluginName, final String operation) throws InvoiceApiException {
+        final int failureThreshold = invoiceConfig.getInvoicePluginCircuitBreakerFailureThreshold();
+        if (!getCircuitBreaker(pluginName).allowCall(failureThreshold, invoiceConfig.getInvoicePluginCircuitBreakerOpenDuration().getMillis(), System.currentTimeMillis())) {
+            metricRegistry.counter(METRIC_NAME_PREFIX + "short_circuited_" + pluginName).inc(1);
+            throw new InvoiceApiException(ErrorCode.UNEXPECTED_ERROR, String.format("Circuit breaker open for invoice plugin %s, skipping operation %s", pluginName, operation));
+        }
+    }
+
+    private void onSuccess(final String pluginName, final String operation, final long startNano) {
+        recordLatency(pluginName, operation, startNano);
+        getCircuitBreaker(pluginName).onSuccess();
+    }
+
+    private void onFailure(final String pluginName, final String operation, final long startNano) {
+        recordLatency(pluginName, operation, startNano);
+        metricRegistry.counter(METRIC_NAME_PREFIX + "failures_" + pluginName).inc(1);
+        getCircuitBreaker(pluginName).onFailure(invoiceConfig.getInvoicePluginCircuitBreakerFailureThreshold(),
+                                                invoiceConfig.getInvoicePluginCircuitBreakerOpenDuration().getMillis(),
+                                                System.currentTimeMillis());
+    }
+
+    private void recordLatency(final String pluginName, final String operation, final long startNano) {
+        metricRegistry.histogram(METRIC_NAME_PREFIX + operation + "_" + pluginName).update(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNano));
+    }
+
+    private InvoicePluginCircuitBreaker getCircuitBreaker(final String pluginName) {
+        return circuitBreakers.computeIfAbsent(pluginName, k -> new InvoicePluginCircuitBreaker());
+    }
+
+    @VisibleForTesting
+    long getTimeoutMillis(final String pluginName) {
+        final TimeSpan override = timeoutOverrides.get(pluginName);
+        if (override != null) {
+            return override.getMillis();
+        }
+        return invoiceConfig.getInvoicePluginTimeout().getMillis();
+    }
+
+    private ExecutorService getExecutorService() {
+        ExecutorService result = executorService;
+        if (result == null) {
+            synchronized (this) {
+                result = executorService;
+                if (result == null) {
+                    result = createExecutorService();
+                    executorService = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    private ExecutorService createExecutorService() {
+        final int threadNb = invoiceConfig.getInvoicePluginThreadNb();
+        final ThreadPoolExecutor result = new WithProfilingThreadPoolExecutor(threadNb,
+                                                                              threadNb,
+                                                                              10,
+                                                                              TimeUnit.MINUTES,
+                                                                              new ArrayBlockingQueue<Runnable>(invoiceConfig.getInvoicePluginQueueSize()),
+                                                                              new ThreadFactory() {
+
+                                                                                  @Override
+                                                                                  public Thread newThread(final Runnable r) {
+                                                                                      final Thread th = new Thread(new ThreadGroup(INVOICE_PLUGIN_TH_GROUP_NAME), r);
+                                                                                      th.setName(INVOICE_PLUGIN_THREAD_PREFIX + th.getId());
+                                                                                      return th;
+                                                                                  }
+                                                                              });
+        // Fail fast rather than queuing calls which would likely time out anyway (see invokeAll)
+        result.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        return result;
+    }
+
+    private static Map<String, TimeSpan> parseTimeoutOverrides(final List<String> timeouts) {
+        final Map<String, TimeSpan> result = new HashMap<String, TimeSpan>();
+        if (timeouts == null) {
+            return result;
+        }
+        for (final String timeout : timeouts) {
+            final int separatorIndex = timeout.lastIndexOf(':');
+            if (separatorIndex <= 0) {
+                log.warn("Ignoring invalid invoice plugin timeout '{}', expected pluginName:timeSpan", timeout);
+                continue;
+            }
+            result.put(timeout.substring(0, separatorIndex).trim(), new TimeSpan(timeout.substring(separatorIndex + 1).trim()));
+        }
+        return result;
+    }
+
+    private static final class PendingCall<T> {
+
+        private final String pluginName;
+        private final long startNano;
+        private final Future<PluginCallResult<T>> future;
+
+        private PendingCall(final String pluginName, final long startNano, final Future<PluginCallResult<T>> future) {
+            this.pluginName = pluginName;
+            this.startNano = startNano;
+            this.future = future;
+        }
+    }
+
+    private static final class PluginCallResult<T> {
+
+        private final T result;
+        private final ProfilingData profilingData;
+
+        private PluginCallResult(final T result, final ProfilingData profilingData) {
+            this.result = result;
+            this.profilingData = profilingData;
+        }
+    }
+}
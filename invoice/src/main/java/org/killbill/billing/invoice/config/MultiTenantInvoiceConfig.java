@@ -178,6 +178,41 @@ public class MultiTenantInvoiceConfig extends MultiTenantConfigBase implements I
         return getInvoicePluginNames();
     }
 
+    @Override
+    public TimeSpan getInvoicePluginTimeout() {
+        return staticConfig.getInvoicePluginTimeout();
+    }
+
+    @Override
+    public List<String> getInvoicePluginTimeouts() {
+        return staticConfig.getInvoicePluginTimeouts();
+    }
+
+    @Override
+    public boolean isInvoicePluginParallelDispatchEnabled() {
+        return staticConfig.isInvoicePluginParallelDispatchEnabled();
+    }
+
+    @Override
+    public int getInvoicePluginThreadNb() {
+        return staticConfig.getInvoicePluginThreadNb();
+    }
+
+    @Override
+    public int getInvoicePluginQueueSize() {
+        return staticConfig.getInvoicePluginQueueSize();
+    }
+
+    @Override
+    public int getInvoicePluginCircuitBreakerFailureThreshold() {
+        return staticConfig.getInvoicePluginCircuitBreakerFailureThreshold();
+    }
+
+    @Override
+    public TimeSpan getInvoicePluginCircuitBreakerOpenDuration() {
+        return staticConfig.getInvoicePluginCircuitBreakerOpenDuration();
+    }
+
     @Override
     public boolean isInvoicingSystemEnabled() {
         return staticConfig.isInvoicingSystemEnabled();
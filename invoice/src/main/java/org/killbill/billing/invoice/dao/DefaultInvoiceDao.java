@@ -70,6 +70,7 @@ import org.killbill.billing.invoice.notification.NextBillingDatePoster;
 import org.killbill.billing.invoice.notification.ParentInvoiceCommitmentPoster;
 import org.killbill.billing.junction.BillingEventSet;
 import org.killbill.billing.tag.TagInternalApi;
+import org.killbill.billing.util.metrics.LatencyHistograms;
 import org.killbill.commons.utils.Preconditions;
 import org.killbill.billing.util.UUIDs;
 import org.killbill.commons.utils.annotation.VisibleForTesting;
@@ -146,8 +147,9 @@ public class DefaultInvoiceDao extends EntityDaoBase<InvoiceModelDao, Invoice, I
                              final CBADao cbaDao,
                              final ParentInvoiceCommitmentPoster parentInvoiceCommitmentPoster,
                              final AuditDao auditDao,
-                             final InternalCallContextFactory internalCallContextFactory) {
-        super(nonEntityDao, cacheControllerDispatcher, new EntitySqlDaoTransactionalJdbiWrapper(dbi, roDbi, clock, cacheControllerDispatcher, nonEntityDao, internalCallContextFactory), InvoiceSqlDao.class);
+                             final InternalCallContextFactory internalCallContextFactory,
+                             final LatencyHistograms latencyHistograms) {
+        super(nonEntityDao, cacheControllerDispatcher, new EntitySqlDaoTransactionalJdbiWrapper(dbi, roDbi, clock, cacheControllerDispatcher, nonEntityDao, internalCallContextFactory, latencyHistograms), InvoiceSqlDao.class);
         this.tagInternalApi = tagInternalApi;
         this.nextBillingDatePoster = nextBillingDatePoster;
         this.eventBus = eventBus;
@@ -180,7 +182,7 @@ public class DefaultInvoiceDao extends EntityDaoBase<InvoiceModelDao, Invoice, I
                                                                             .collect(Collectors.toUnmodifiableList());
 
             if (includeInvoiceComponents) {
-                invoiceDaoHelper.populateChildren(invoices, invoicesTags, entitySqlDaoWrapperFactory, context);
+                invoiceDaoHelper.populateChildren(invoices, true, invoicesTags, entitySqlDaoWrapperFactory, context);
             }
 
             return invoices;
@@ -1303,6 +1305,43 @@ public class DefaultInvoiceDao extends EntityDaoBase<InvoiceModelDao, Invoice, I
         });
     }
 
+    @Override
+    public InvoiceModelDao getParentDraftInvoiceForChildAccount(final UUID parentAccountId, final UUID childAccountId, final InternalCallContext context) throws InvoiceApiException {
+        // PERF: a parent DRAFT invoice can carry one summary item per child account, so avoid loading all of them (and the payments, tags, ...)
+        // when a single child invoice is being rolled up
+        return transactionalSqlDao.execute(true, InvoiceApiException.class, entitySqlDaoWrapperFactory -> {
+            final InvoiceSqlDao invoiceSqlDao = entitySqlDaoWrapperFactory.become(InvoiceSqlDao.class);
+            final InvoiceModelDao invoice = invoiceSqlDao.getParentDraftInvoice(parentAccountId.toString(), context);
+            if (invoice != null) {
+                final InvoiceItemSqlDao invoiceItemSqlDao = entitySqlDaoWrapperFactory.become(InvoiceItemSqlDao.class);
+                invoice.addInvoiceItems(invoiceItemSqlDao.getInvoiceItemsByChildAccountId(invoice.getId().toString(), childAccountId.toString(), context));
+            }
+            return invoice;
+        });
+    }
+
+    @Override
+    public void addParentDraftInvoiceItem(final InvoiceItemModelDao parentInvoiceItem, final InternalCallContext context) throws InvoiceApiException {
+        Preconditions.checkArgument(parentInvoiceItem.getAmount().compareTo(BigDecimal.ZERO) >= 0, "Negative parent invoice item amount: " + parentInvoiceItem);
+
+        transactionalSqlDao.execute(false, InvoiceApiException.class, entitySqlDaoWrapperFactory -> {
+            final InvoiceSqlDao invoiceSqlDao = entitySqlDaoWrapperFactory.become(InvoiceSqlDao.class);
+            final InvoiceModelDao invoice = invoiceSqlDao.getById(parentInvoiceItem.getInvoiceId().toString(), context);
+            if (invoice == null) {
+                throw new InvoiceApiException(ErrorCode.INVOICE_NOT_FOUND, parentInvoiceItem.getInvoiceId());
+            }
+            if (invoice.getStatus() != InvoiceStatus.DRAFT) {
+                throw new InvoiceApiException(ErrorCode.INVOICE_INVALID_STATUS, InvoiceStatus.DRAFT, invoice.getId(), invoice.getStatus());
+            }
+
+            // Unlike createInvoices, the CBA logic isn't run: a DRAFT invoice with a non-negative item added can neither generate nor use any credit,
+            // and the credit of the parent account is re-applied when the invoice gets committed
+            final InvoiceItemSqlDao invoiceItemSqlDao = entitySqlDaoWrapperFactory.become(InvoiceItemSqlDao.class);
+            createInvoiceItemsFromTransaction(invoiceItemSqlDao, List.of(parentInvoiceItem), context);
+            return null;
+        });
+    }
+
     @Override
     public void updateInvoiceItemAmount(final UUID invoiceItemId, final BigDecimal amount, final InternalCallContext context) throws InvoiceApiException {
         transactionalSqlDao.execute(false, InvoiceApiException.class, entitySqlDaoWrapperFactory -> {
@@ -208,6 +208,26 @@ public interface InvoiceDao extends EntityDao<InvoiceModelDao, Invoice, InvoiceA
      */
     InvoiceModelDao getParentDraftInvoice(UUID parentAccountId, InternalCallContext context) throws InvoiceApiException;
 
+    /**
+     * Retrieve parent invoice by the parent account id, only populated with the items of a given child account
+     *
+     * @param parentAccountId the parent account id
+     * @param childAccountId the child account id
+     * @param context the tenant context
+     * @return a parent invoice in DRAFT status
+     * @throws InvoiceApiException if any unexpected error occurs
+     */
+    InvoiceModelDao getParentDraftInvoiceForChildAccount(UUID parentAccountId, UUID childAccountId, InternalCallContext context) throws InvoiceApiException;
+
+    /**
+     * Add a child summary item on an existing parent invoice in DRAFT status
+     *
+     * @param parentInvoiceItem the PARENT_SUMMARY item, with a non-negative amount
+     * @param context the tenant context
+     * @throws InvoiceApiException if any unexpected error occurs
+     */
+    void addParentDraftInvoiceItem(InvoiceItemModelDao parentInvoiceItem, InternalCallContext context) throws InvoiceApiException;
+
     /**
      * Update invoice item amount
      *
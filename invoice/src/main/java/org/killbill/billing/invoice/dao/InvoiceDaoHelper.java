@@ -60,6 +60,10 @@ public class InvoiceDaoHelper {
 
     private static final Logger log = LoggerFactory.getLogger(InvoiceDaoHelper.class);
 
+    // When (at least) that many invoices making up the whole context account are populated, children are fetched for the account
+    // and joined in memory instead of being looked up through (ever growing) lists of invoice ids
+    static final int ACCOUNT_SCOPED_FETCH_MIN_INVOICES = 50;
+
     private final InternalCallContextFactory internalCallContextFactory;
 
     @Inject
@@ -247,16 +251,26 @@ public class InvoiceDaoHelper {
     }
 
     public void populateChildren(final Iterable<InvoiceModelDao> invoices, final List<Tag> invoicesTags, final EntitySqlDaoWrapperFactory entitySqlDaoWrapperFactory, final InternalTenantContext context) {
+        populateChildren(invoices, false, invoicesTags, entitySqlDaoWrapperFactory, context);
+    }
+
+    /**
+     * @param wholeAccount whether invoices are (modulo filtering of voided or migrated ones) all the invoices of the context account,
+     *                     in which case children can be fetched for the account instead of by invoice ids. Pass false for any subset
+     *                     (date window, subscription, group, ...): an account-scoped fetch would read the children of the whole account.
+     */
+    public void populateChildren(final Iterable<InvoiceModelDao> invoices, final boolean wholeAccount, final List<Tag> invoicesTags, final EntitySqlDaoWrapperFactory entitySqlDaoWrapperFactory, final InternalTenantContext context) {
         // !!! Anything updated here needs to also be reflected in   void populateChildren(final InvoiceModelDao invoice,...)
         if (Iterables.isEmpty(invoices)) {
             return;
         }
 
-        setInvoiceItemsWithinTransaction(invoices, entitySqlDaoWrapperFactory, context);
-        setInvoicePaymentsWithinTransaction(invoices, entitySqlDaoWrapperFactory, context);
-        setTrackingIdsFromTransaction(invoices, entitySqlDaoWrapperFactory, context);
+        final boolean accountScoped = wholeAccount && isAccountScopedFetch(invoices, context);
+        setInvoiceItemsWithinTransaction(invoices, accountScoped, entitySqlDaoWrapperFactory, context);
+        setInvoicePaymentsWithinTransaction(invoices, accountScoped, entitySqlDaoWrapperFactory, context);
+        setTrackingIdsFromTransaction(invoices, accountScoped, entitySqlDaoWrapperFactory, context);
         setInvoicesWrittenOff(invoices, invoicesTags);
-        setInvoicesRepaired(invoices, entitySqlDaoWrapperFactory, context);
+        setInvoicesRepaired(invoices, accountScoped, entitySqlDaoWrapperFactory, context);
 
         final Iterable<InvoiceModelDao> nonParentInvoices = Iterables.toStream(invoices)
                 .filter(invoice -> !invoice.isParentInvoice())
@@ -267,6 +281,20 @@ public class InvoiceDaoHelper {
         }
     }
 
+    private static boolean isAccountScopedFetch(final Iterable<InvoiceModelDao> invoices, final InternalTenantContext context) {
+        if (context.getAccountRecordId() == null) {
+            return false;
+        }
+        int nbInvoices = 0;
+        for (final InvoiceModelDao invoice : invoices) {
+            if (!context.getAccountRecordId().equals(invoice.getAccountRecordId())) {
+                return false;
+            }
+            nbInvoices++;
+        }
+        return nbInvoices >= ACCOUNT_SCOPED_FETCH_MIN_INVOICES;
+    }
+
     public List<InvoiceModelDao> getAllInvoicesByAccountFromTransaction(final Boolean includeVoidedInvoices,
     																	final Boolean includeInvoiceComponents, 
                                                                         final List<Tag> invoicesTags,
@@ -277,7 +305,7 @@ public class InvoiceDaoHelper {
                                                        .filter(invoice -> includeVoidedInvoices || !InvoiceStatus.VOID.equals(invoice.getStatus()))
                                                        .collect(Collectors.toUnmodifiableList());
         if (includeInvoiceComponents) {
-            populateChildren(filtered, invoicesTags, entitySqlDaoWrapperFactory, context);
+            populateChildren(filtered, true, invoicesTags, entitySqlDaoWrapperFactory, context);
         }
         return invoices;
     }
@@ -305,10 +333,11 @@ public class InvoiceDaoHelper {
     }
 
 
-    private void setInvoiceItemsWithinTransaction(final Iterable<InvoiceModelDao> invoices, final EntitySqlDaoWrapperFactory entitySqlDaoWrapperFactory, final InternalTenantContext context) {
+    private void setInvoiceItemsWithinTransaction(final Iterable<InvoiceModelDao> invoices, final boolean accountScoped, final EntitySqlDaoWrapperFactory entitySqlDaoWrapperFactory, final InternalTenantContext context) {
         final InvoiceItemSqlDao invoiceItemSqlDao = entitySqlDaoWrapperFactory.become(InvoiceItemSqlDao.class);
-        final Iterable<UUID> invoiceIds = mapInvoicesToInvoiceIds(invoices);
-        final List<InvoiceItemModelDao> invoiceItemsForAccount = invoiceItemSqlDao.getInvoiceItemsForInvoices(invoiceIds, context);
+        final List<InvoiceItemModelDao> invoiceItemsForAccount = accountScoped ?
+                                                                 invoiceItemSqlDao.getByAccountRecordId(context) :
+                                                                 invoiceItemSqlDao.getInvoiceItemsForInvoices(mapInvoicesToInvoiceIds(invoices), context);
 
         final Map<UUID, List<InvoiceItemModelDao>> invoiceItemsPerInvoiceId = new HashMap<>();
         for (final InvoiceItemModelDao item : invoiceItemsForAccount) {
@@ -341,10 +370,11 @@ public class InvoiceDaoHelper {
         }
     }
 
-    private void setInvoicePaymentsWithinTransaction(final Iterable<InvoiceModelDao> invoices, final EntitySqlDaoWrapperFactory entitySqlDaoWrapperFactory, final InternalTenantContext context) {
+    private void setInvoicePaymentsWithinTransaction(final Iterable<InvoiceModelDao> invoices, final boolean accountScoped, final EntitySqlDaoWrapperFactory entitySqlDaoWrapperFactory, final InternalTenantContext context) {
         final InvoicePaymentSqlDao invoicePaymentSqlDao = entitySqlDaoWrapperFactory.become(InvoicePaymentSqlDao.class);
-        final Iterable<UUID> invoiceIds = mapInvoicesToInvoiceIds(invoices);
-        final List<InvoicePaymentModelDao> invoicePaymentsForAccount = invoicePaymentSqlDao.getPaymentsForInvoices(invoiceIds, context);
+        final List<InvoicePaymentModelDao> invoicePaymentsForAccount = accountScoped ?
+                                                                       invoicePaymentSqlDao.getPaymentsForAccount(context) :
+                                                                       invoicePaymentSqlDao.getPaymentsForInvoices(mapInvoicesToInvoiceIds(invoices), context);
 
         final Map<UUID, List<InvoicePaymentModelDao>> invoicePaymentsPerInvoiceId = new HashMap<>();
         for (final InvoicePaymentModelDao invoicePayment : invoicePaymentsForAccount) {
@@ -375,28 +405,37 @@ public class InvoiceDaoHelper {
     }
 
     private void setInvoiceRepaired(final InvoiceModelDao invoice, final EntitySqlDaoWrapperFactory entitySqlDaoWrapperFactory, final InternalTenantContext context) {
-        setInvoicesRepaired(List.of(invoice), entitySqlDaoWrapperFactory, context);
+        setInvoicesRepaired(List.of(invoice), false, entitySqlDaoWrapperFactory, context);
     }
 
     private void setInvoicesWrittenOff(final Iterable<InvoiceModelDao> invoices, final List<Tag> invoicesTags) {
-        filterForWrittenOff(invoicesTags).forEach(tag -> Iterables.toStream(invoices)
-                                                                  .filter(input -> input.getId().equals(tag.getObjectId()))
-                                                                  .findFirst()
-                                                                  .ifPresent(foundInvoice -> foundInvoice.setIsWrittenOff(true)));
+        final Set<UUID> writtenOffInvoiceIds = Iterables.toStream(filterForWrittenOff(invoicesTags))
+                                                        .map(Tag::getObjectId)
+                                                        .collect(Collectors.toUnmodifiableSet());
+        if (writtenOffInvoiceIds.isEmpty()) {
+            return;
+        }
+        for (final InvoiceModelDao invoice : invoices) {
+            if (writtenOffInvoiceIds.contains(invoice.getId())) {
+                invoice.setIsWrittenOff(true);
+            }
+        }
     }
 
     private Stream<String> mapInvoicesToInvoiceIdsStream(final Iterable<InvoiceModelDao> invoices) {
         return Iterables.toStream(invoices).map(input -> input.getId().toString());
     }
 
-    private void setInvoicesRepaired(final Iterable<InvoiceModelDao> invoices, final EntitySqlDaoWrapperFactory entitySqlDaoWrapperFactory, final InternalTenantContext context) {
+    private void setInvoicesRepaired(final Iterable<InvoiceModelDao> invoices, final boolean accountScoped, final EntitySqlDaoWrapperFactory entitySqlDaoWrapperFactory, final InternalTenantContext context) {
         final InvoiceItemSqlDao invoiceItemSqlDao = entitySqlDaoWrapperFactory.become(InvoiceItemSqlDao.class);
         final Iterable<String> invoiceIds = mapInvoicesToInvoiceIdsStream(invoices).collect(Collectors.toUnmodifiableList());
         if (Iterables.isEmpty(invoiceIds)) {
             return;
         }
 
-        final Iterable<CounterMappings> repairedMapRes = invoiceItemSqlDao.getRepairMap(invoiceIds, context);
+        final Iterable<CounterMappings> repairedMapRes = accountScoped ?
+                                                         invoiceItemSqlDao.getRepairMapForAccount(context) :
+                                                         invoiceItemSqlDao.getRepairMap(invoiceIds, context);
         final Map<String, Integer> repairedMap = CounterMappings.toMap(repairedMapRes);
         for (final InvoiceModelDao cur : invoices) {
             final Integer repairedItems = repairedMap.get(cur.getId().toString());
@@ -408,14 +447,14 @@ public class InvoiceDaoHelper {
 
 
     private void setTrackingIdsFromTransaction(final InvoiceModelDao invoice, final EntitySqlDaoWrapperFactory entitySqlDaoWrapperFactory, final InternalTenantContext context) {
-        setTrackingIdsFromTransaction(List.of(invoice), entitySqlDaoWrapperFactory, context);
+        setTrackingIdsFromTransaction(List.of(invoice), false, entitySqlDaoWrapperFactory, context);
     }
 
-    private void setTrackingIdsFromTransaction(final Iterable<InvoiceModelDao> invoices, final EntitySqlDaoWrapperFactory entitySqlDaoWrapperFactory, final InternalTenantContext context) {
-        final Set<String> invoiceIds = mapInvoicesToInvoiceIdsStream(invoices).collect(Collectors.toUnmodifiableSet());
-
+    private void setTrackingIdsFromTransaction(final Iterable<InvoiceModelDao> invoices, final boolean accountScoped, final EntitySqlDaoWrapperFactory entitySqlDaoWrapperFactory, final InternalTenantContext context) {
         final InvoiceTrackingSqlDao invoiceTrackingidSqlDao = entitySqlDaoWrapperFactory.become(InvoiceTrackingSqlDao.class);
-        final List<InvoiceTrackingModelDao> trackingIds = invoiceTrackingidSqlDao.getTrackingsForInvoices(invoiceIds, context);
+        final List<InvoiceTrackingModelDao> trackingIds = accountScoped ?
+                                                          invoiceTrackingidSqlDao.getTrackingsForAccount(context) :
+                                                          invoiceTrackingidSqlDao.getTrackingsForInvoices(mapInvoicesToInvoiceIdsStream(invoices).collect(Collectors.toUnmodifiableSet()), context);
 
         final Map<UUID, List<InvoiceTrackingModelDao>> invoiceTrackingIdsPerInvoiceId = new HashMap<>();
         for (final InvoiceTrackingModelDao cur : trackingIds) {
@@ -499,10 +538,17 @@ public class InvoiceDaoHelper {
             parentInvoiceByParentInvoiceId.put(parentInvoice.getId(), parentInvoice);
         }
 
+        // Resolve the record ids of all parent accounts at once
+        final Map<UUID, ObjectType> parentAccountIds = new HashMap<UUID, ObjectType>();
+        for (final UUID parentAccountId : parentInvoicesGroupedByParentAccountId.keySet()) {
+            parentAccountIds.put(parentAccountId, ObjectType.ACCOUNT);
+        }
+        final Map<UUID, Long> parentAccountRecordIds = internalCallContextFactory.getAccountRecordIds(parentAccountIds, internalCallContextFactory.createTenantContext(childContext));
+
         // DAO: populate the parent invoices in bulk
         for (final Entry<UUID, List<InvoiceModelDao>> entry : parentInvoicesGroupedByParentAccountId.entrySet()) {
             final List<InvoiceModelDao> parentInvoicesForOneParentAccountId = entry.getValue();
-            final Long parentAccountRecordId = internalCallContextFactory.getRecordIdFromObject(entry.getKey(), ObjectType.ACCOUNT, internalCallContextFactory.createTenantContext(childContext));
+            final Long parentAccountRecordId = parentAccountRecordIds.get(entry.getKey());
             final InternalTenantContext parentContext = internalCallContextFactory.createInternalTenantContext(childContext.getTenantRecordId(), parentAccountRecordId);
             // Note the misnomer here, populateChildren simply populates the content of these invoices (unrelated to HA)
             populateChildren(parentInvoicesForOneParentAccountId, invoicesTags, entitySqlDaoWrapperFactory, parentContext);
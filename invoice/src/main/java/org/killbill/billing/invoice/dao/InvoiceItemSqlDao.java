@@ -59,6 +59,11 @@ public interface InvoiceItemSqlDao extends EntitySqlDao<InvoiceItemModelDao, Inv
                           @Bind("itemDetails") String itemDetails,
                           @SmartBindBean final InternalCallContext context);
 
+    @SqlQuery
+    List<InvoiceItemModelDao> getInvoiceItemsByChildAccountId(@Bind("invoiceId") final String invoiceId,
+                                                              @Bind("childAccountId") final String childAccountId,
+                                                              @SmartBindBean final InternalTenantContext context);
+
     @SqlQuery
     List<InvoiceItemModelDao> getInvoiceItemsByParentInvoice(@Bind("parentInvoiceId") final String parentInvoiceId,
                                                              @SmartBindBean final InternalTenantContext context);
@@ -72,4 +77,7 @@ public interface InvoiceItemSqlDao extends EntitySqlDao<InvoiceItemModelDao, Inv
 
     @SqlQuery
     Iterable<CounterMappings> getRepairMap(@BindIn("ids") final Iterable<String> invoiceIds, @SmartBindBean final InternalTenantContext context);
+
+    @SqlQuery
+    Iterable<CounterMappings> getRepairMapForAccount(@SmartBindBean final InternalTenantContext context);
 }
@@ -47,6 +47,9 @@ public interface InvoicePaymentSqlDao extends EntitySqlDao<InvoicePaymentModelDa
     List<InvoicePaymentModelDao> getPaymentsForInvoices(@BindIn("invoiceIds") final Iterable<UUID> invoiceIds,
                                                          @SmartBindBean final InternalTenantContext context);
 
+    @SqlQuery
+    List<InvoicePaymentModelDao> getPaymentsForAccount(@SmartBindBean final InternalTenantContext context);
+
 
     @SqlQuery
     public List<InvoicePaymentModelDao> getAllPaymentsForInvoiceIncludedInit(@Bind("invoiceId") final String invoiceId,
@@ -50,5 +50,8 @@ public interface InvoiceTrackingSqlDao extends EntitySqlDao<InvoiceTrackingModel
     @SqlQuery
     List<InvoiceTrackingModelDao> getTrackingsForInvoices(@BindIn("invoiceIds") final Collection<String> invoiceIds,
                                                           @SmartBindBean final InternalTenantContext context);
+
+    @SqlQuery
+    List<InvoiceTrackingModelDao> getTrackingsForAccount(@SmartBindBean final InternalTenantContext context);
 }
 
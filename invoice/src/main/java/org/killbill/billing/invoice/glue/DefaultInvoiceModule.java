@@ -21,6 +21,7 @@ package org.killbill.billing.invoice.glue;
 import org.killbill.billing.glue.InvoiceModule;
 import org.killbill.billing.invoice.InvoiceDispatcher;
 import org.killbill.billing.invoice.InvoiceListener;
+import org.killbill.billing.invoice.InvoicePluginExecutor;
 import org.killbill.billing.invoice.InvoiceTagHandler;
 import org.killbill.billing.invoice.ParkedAccountsManager;
 import org.killbill.billing.invoice.api.DefaultInvoiceService;
@@ -132,6 +133,7 @@ public class DefaultInvoiceModule extends KillBillModule implements InvoiceModul
 
     protected void installInvoicePluginApi() {
         bind(new TypeLiteral<OSGIServiceRegistration<InvoicePluginApi>>() {}).toProvider(DefaultInvoiceProviderPluginRegistryProvider.class).asEagerSingleton();
+        bind(InvoicePluginExecutor.class).asEagerSingleton();
     }
 
     protected void installInvoiceOptimizer() {
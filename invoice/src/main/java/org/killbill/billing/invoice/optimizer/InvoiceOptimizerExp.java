@@ -17,12 +17,16 @@
 
 package org.killbill.billing.invoice.optimizer;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.NavigableSet;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
@@ -122,6 +126,25 @@ public class InvoiceOptimizerExp extends InvoiceOptimizerBase {
                 final Map<String, BillingMode> billingModes = new HashMap<>();
                 // Comes from the PlanPhase
                 final Map<String, BillingPeriod> billingPeriods = new HashMap<>();
+
+                // Billing events per subscription, most recent first
+                final Map<UUID, List<BillingEvent>> billingEventsPerSubscription = new HashMap<>();
+                final Iterator<BillingEvent> it = ((NavigableSet<BillingEvent>) eventSet).descendingIterator();
+                while (it.hasNext()) {
+                    final BillingEvent be = it.next();
+                    billingEventsPerSubscription.computeIfAbsent(be.getSubscriptionId(), k -> new ArrayList<>()).add(be);
+                }
+
+                // Start dates of the existing RECURRING items per subscription
+                final Map<UUID, Set<LocalDate>> existingRecurringStartDates = new HashMap<>();
+                for (final Invoice inv : invoices) {
+                    for (final InvoiceItem item : inv.getInvoiceItems()) {
+                        if (item.getInvoiceItemType() == InvoiceItemType.RECURRING && item.getSubscriptionId() != null) {
+                            existingRecurringStartDates.computeIfAbsent(item.getSubscriptionId(), k -> new HashSet<>()).add(item.getStartDate());
+                        }
+                    }
+                }
+
                 final List<InvoiceItem> filtered = proposedItems.stream().filter(invoiceItem -> {
                     if (invoiceItem.getInvoiceItemType() == InvoiceItemType.FIXED) {
                         return invoiceItem.getStartDate().compareTo(cutoffDate) >= 0;
@@ -139,11 +162,9 @@ public class InvoiceOptimizerExp extends InvoiceOptimizerBase {
                         // we could end up with the wrong billing event (and therefore billing mode). Therefore, the complexity.
                         // (all this because catalog is not available in this layer)
                         //
-                        final Iterator<BillingEvent> it = ((NavigableSet<BillingEvent>) eventSet).descendingIterator();
-                        while (it.hasNext()) {
-                            final BillingEvent be = it.next();
-                            if (!be.getSubscriptionId().equals(invoiceItem.getSubscriptionId()) /* wrong subscription ID */ ||
-                                    /* Not the correct plan */
+                        final List<BillingEvent> subscriptionBillingEvents = billingEventsPerSubscription.getOrDefault(invoiceItem.getSubscriptionId(), Collections.emptyList());
+                        for (final BillingEvent be : subscriptionBillingEvents) {
+                            if (/* Not the correct plan */
                                 !(be.getPlan() != null && be.getPlan().getName().equals(invoiceItem.getPlanName())) ||
                                     /* Whether in-advance or in-arrear (what we are trying to find out), the 'be' we want is the one where ii.endDate >= be.effDt */
                                 invoiceItem.getEndDate().compareTo(internalCallContext.toLocalDate(be.getEffectiveDate())) < 0) {
@@ -162,19 +183,11 @@ public class InvoiceOptimizerExp extends InvoiceOptimizerBase {
                         (billingMode == BillingMode.IN_ARREAR && invoiceItem.getEndDate().compareTo(cutoffDate) >= 0)) {
                         return true;
                     } else {
-                        for (final Invoice inv : invoices) {
-                            final boolean existingItemExists = inv.getInvoiceItems().stream()
-                                    // If we find a similar item in the 'existing' list, i.e same subscription, same start date,
-                                    // we keep it so it cancels out in the tree later.
-                                    // We don't include the end date to catch trailing pro-ration (early cancellation)
-                                    .anyMatch(item -> (item.getInvoiceItemType() == InvoiceItemType.RECURRING &&
-                                                       item.getSubscriptionId().equals(invoiceItem.getSubscriptionId()) &&
-                                                       item.getStartDate().compareTo(invoiceItem.getStartDate()) == 0));
-                            if (existingItemExists) {
-                                return true;
-                            }
-                        }
-                        return false;
+                        // If we find a similar item in the 'existing' list, i.e same subscription, same start date,
+                        // we keep it so it cancels out in the tree later.
+                        // We don't include the end date to catch trailing pro-ration (early cancellation)
+                        final Set<LocalDate> startDates = existingRecurringStartDates.get(invoiceItem.getSubscriptionId());
+                        return startDates != null && startDates.contains(invoiceItem.getStartDate());
                     }
                 }).collect(Collectors.toUnmodifiableList());
 
@@ -94,7 +94,7 @@ public class HtmlInvoiceGenerator {
 
         invoiceData.setSubject(invoiceTranslator.getInvoiceEmailSubject());
         final String templateText = getTemplateText(locale, manualPay, context);
-        invoiceData.setBody(templateEngine.executeTemplateText(templateText, data));
+        invoiceData.setBody(templateEngine.executeTemplateText(context.getTenantRecordId(), templateText, data));
         return invoiceData;
     }
 
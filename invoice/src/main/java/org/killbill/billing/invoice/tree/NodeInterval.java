@@ -19,6 +19,9 @@
 
 package org.killbill.billing.invoice.tree;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import javax.annotation.Nullable;
 
 import org.joda.time.LocalDate;
@@ -28,12 +31,19 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 
 public class NodeInterval {
 
+    // Number of children above which we maintain an index over them (e.g. daily items over a long period)
+    private static final int CHILDREN_INDEX_THRESHOLD = 16;
+
     protected NodeInterval parent;
     protected NodeInterval leftChild;
     protected NodeInterval rightSibling;
     protected LocalDate start;
     protected LocalDate end;
 
+    private int nbChildren;
+    // Ordered children (same order as the leftChild/rightSibling chain), only set once there are more than CHILDREN_INDEX_THRESHOLD children
+    private List<NodeInterval> childrenIndex;
+
     public NodeInterval() {
         this(null, null, null);
     }
@@ -44,6 +54,8 @@ public class NodeInterval {
         this.parent = parent;
         this.leftChild = null;
         this.rightSibling = null;
+        this.nbChildren = 0;
+        this.childrenIndex = null;
     }
 
     /**
@@ -80,8 +92,8 @@ public class NodeInterval {
         return;
     }
 
-    // Convenient (static) method to insert a node that belongs below parent, right to prevNode (if not null) and before nextNode (if not null)
-    private static boolean insertNode(final NodeInterval parentNode, @Nullable final NodeInterval prevNode, @Nullable final NodeInterval nextNode, final NodeInterval newNode, final AddNodeCallback callback) {
+    // Convenient (static) method to insert a node that belongs below parent, right to prevNode (if not null) and before nextNode (if not null), i.e. at the given position among the children
+    private static boolean insertNode(final NodeInterval parentNode, @Nullable final NodeInterval prevNode, @Nullable final NodeInterval nextNode, final NodeInterval newNode, final int position, final AddNodeCallback callback) {
         if (!callback.shouldInsertNode(parentNode, (ItemsNodeInterval) newNode)) {
             return false;
         }
@@ -92,9 +104,43 @@ public class NodeInterval {
             prevNode.rightSibling = newNode;
         }
         newNode.rightSibling = nextNode;
+        parentNode.onChildInserted(newNode, position);
         return true;
     }
 
+    private void onChildInserted(final NodeInterval newChild, final int position) {
+        nbChildren++;
+        if (childrenIndex != null) {
+            childrenIndex.add(position, newChild);
+        } else if (nbChildren > CHILDREN_INDEX_THRESHOLD) {
+            childrenIndex = new ArrayList<NodeInterval>(2 * nbChildren);
+            NodeInterval curChild = leftChild;
+            while (curChild != null) {
+                childrenIndex.add(curChild);
+                curChild = curChild.rightSibling;
+            }
+        }
+    }
+
+    //
+    // Return the position of the first child which is not strictly before newNode (i.e. which would not be skipped in addNode).
+    // Children don't overlap and are ordered, so their start and end dates are both increasing and a binary search can be used.
+    //
+    private int findFirstChildNotBefore(final NodeInterval newNode) {
+        int low = 0;
+        int high = childrenIndex.size();
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            final NodeInterval curChild = childrenIndex.get(mid);
+            if (curChild.getEnd().compareTo(newNode.getStart()) <= 0 && curChild.getEnd().compareTo(newNode.getEnd()) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
 
     /**
      * Add a new node in the tree.
@@ -118,7 +164,7 @@ public class NodeInterval {
 
         // No leftChild, insert as the leftChild
         if (leftChild == null) {
-            return insertNode(this, null, null, newNode, callback);
+            return insertNode(this, null, null, newNode, 0, callback);
         }
 
         //
@@ -128,6 +174,13 @@ public class NodeInterval {
         //
         NodeInterval prevChild = null;
         NodeInterval curChild = leftChild;
+        int curPosition = 0;
+        if (childrenIndex != null) {
+            // Jump directly over all the children located before newNode
+            curPosition = findFirstChildNotBefore(newNode);
+            prevChild = curPosition > 0 ? childrenIndex.get(curPosition - 1) : null;
+            curChild = curPosition < childrenIndex.size() ? childrenIndex.get(curPosition) : null;
+        }
         while (curChild != null) {
             if (newNode.getStart().compareTo(curChild.getStart()) < 0) {
                 if (newNode.getEnd().compareTo(curChild.getStart()) <= 0) {
@@ -135,7 +188,7 @@ public class NodeInterval {
                     //         |------| curChild
                     // |-------|    newNode
                     // |----|     newNode
-                    return insertNode(this, prevChild, curChild, newNode, callback);
+                    return insertNode(this, prevChild, curChild, newNode, curPosition, callback);
                 } else {
                     // newNode starts prior curChild, but overlaps, split on the curChild#start
                     // Note that it does not matter what happens with newNode#end, and whether it even spans multiple children,
@@ -170,27 +223,17 @@ public class NodeInterval {
                 // Go to next child and try again...
                 prevChild = curChild;
                 curChild = curChild.rightSibling;
+                curPosition++;
             }
         }
         // We reached to end, this node belongs after the last child, insert
         //         |------| curChild (last one)
         //                |---------|   newNode
         //                     |---------|   newNode
-        return insertNode(this, prevChild, null, newNode, callback);
+        return insertNode(this, prevChild, null, newNode, curPosition, callback);
     }
 
 
-    private void adjustRightMostChildSibling(final NodeInterval curNode) {
-        NodeInterval tmpChild = curNode.getLeftChild();
-        NodeInterval preTmpChild = null;
-        while (tmpChild != null) {
-            preTmpChild = tmpChild;
-            tmpChild = tmpChild.getRightSibling();
-        }
-        preTmpChild.rightSibling = curNode.getRightSibling();
-    }
-    
-
     /**
      * Return the first node satisfying the date and match callback.
      *
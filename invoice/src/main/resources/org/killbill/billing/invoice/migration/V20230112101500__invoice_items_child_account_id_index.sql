@@ -0,0 +1 @@
+CREATE INDEX invoice_items_invoice_id_child_account_id ON invoice_items(invoice_id, child_account_id);
@@ -0,0 +1,180 @@
+/*
+ * Copyright 2020-2022 Equinix, Inc
+ * Copyright 2014-2022 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.billing.invoice;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.killbill.billing.invoice.api.InvoiceApiException;
+import org.killbill.billing.invoice.plugin.api.InvoicePluginApi;
+import org.killbill.billing.util.config.definition.InvoiceConfig;
+import org.killbill.commons.metrics.impl.NoOpMetricRegistry;
+import org.mockito.Mockito;
+import org.skife.config.TimeSpan;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+public class TestInvoicePluginExecutor extends InvoiceTestSuiteNoDB {
+
+    private InvoicePluginExecutor invoicePluginExecutor;
+
+    @AfterMethod(groups = "fast")
+    public void stopInvoicePluginExecutor() throws Exception {
+        if (invoicePluginExecutor != null) {
+            invoicePluginExecutor.stop();
+        }
+    }
+
+    @Test(groups = "fast")
+    public void testInvokeAllRunsPluginsConcurrently() throws Exception {
+        invoicePluginExecutor = createExecutor("0s", List.of(), 0);
+
+        final Map<String, InvoicePluginApi> plugins = new LinkedHashMap<String, InvoicePluginApi>();
+        plugins.put("plugin1", Mockito.mock(InvoicePluginApi.class));
+        plugins.put("plugin2", Mockito.mock(InvoicePluginApi.class));
+        plugins.put("plugin3", Mockito.mock(InvoicePluginApi.class));
+
+        // Each call only returns once all plugins have been invoked
+        final CountDownLatch latch = new CountDownLatch(plugins.size());
+        final Map<String, String> results = invoicePluginExecutor.invokeAll(plugins, "test", false, (pluginName, plugin) -> {
+            latch.countDown();
+            Assert.assertTrue(latch.await(5, TimeUnit.SECONDS));
+            return pluginName.toUpperCase();
+        });
+
+        // Results are returned in the plugins ordering
+        Assert.assertEquals(List.copyOf(results.keySet()), List.of("plugin1", "plugin2", "plugin3"));
+        Assert.assertEquals(List.copyOf(results.values()), List.of("PLUGIN1", "PLUGIN2", "PLUGIN3"));
+    }
+
+    @Test(groups = "fast")
+    public void testTimeoutAndCircuitBreaker() throws Exception {
+        invoicePluginExecutor = createExecutor("0s", List.of("slow-plugin:50ms"), 2);
+        Assert.assertEquals(invoicePluginExecutor.getTimeoutMillis("slow-plugin"), 50L);
+        Assert.assertEquals(invoicePluginExecutor.getTimeoutMillis("other-plugin"), 0L);
+
+        final InvoicePluginApi plugin = Mockito.mock(InvoicePluginApi.class);
+        final AtomicInteger nbCalls = new AtomicInteger(0);
+        for (int i = 0; i < 2; i++) {
+            try {
+                invoicePluginExecutor.invoke("slow-plugin", plugin, "test", (pluginName, p) -> {
+                    nbCalls.incrementAndGet();
+                    Thread.sleep(5000);
+                    return "too late";
+                });
+                Assert.fail("Plugin call should have timed out");
+            } catch (final InvoiceApiException e) {
+                Assert.assertTrue(e.getMessage().contains("timed out"));
+            }
+        }
+        Assert.assertEquals(nbCalls.get(), 2);
+
+        // The circuit is now open: the plugin isn't invoked anymore
+        try {
+            invoicePluginExecutor.invoke("slow-plugin", plugin, "test", (pluginName, p) -> nbCalls.incrementAndGet());
+            Assert.fail("Circuit breaker should be open");
+        } catch (final InvoiceApiException e) {
+            Assert.assertTrue(e.getMessage().contains("Circuit breaker open"));
+        }
+        Assert.assertEquals(nbCalls.get(), 2);
+
+        // Other plugins aren't impacted and are invoked inline
+        Assert.assertEquals(invoicePluginExecutor.invoke("other-plugin", plugin, "test", (pluginName, p) -> Thread.currentThread().getName()), Thread.currentThread().getName());
+    }
+
+    @Test(groups = "fast")
+    public void testInvokeAllBestEffort() throws Exception {
+        invoicePluginExecutor = createExecutor("50ms", List.of(), 0);
+
+        final Map<String, InvoicePluginApi> plugins = new LinkedHashMap<String, InvoicePluginApi>();
+        plugins.put("slow-plugin", Mockito.mock(InvoicePluginApi.class));
+        plugins.put("fast-plugin", Mockito.mock(InvoicePluginApi.class));
+
+        final Map<String, Boolean> results = invoicePluginExecutor.invokeAll(plugins, "test", true, (pluginName, plugin) -> {
+            if ("slow-plugin".equals(pluginName)) {
+                Thread.sleep(5000);
+            }
+            return Boolean.TRUE;
+        });
+        Assert.assertEquals(results.size(), 1);
+        Assert.assertTrue(results.get("fast-plugin"));
+
+        try {
+            invoicePluginExecutor.invokeAll(plugins, "test", false, (pluginName, plugin) -> {
+                if ("slow-plugin".equals(pluginName)) {
+                    Thread.sleep(5000);
+                }
+                return Boolean.TRUE;
+            });
+            Assert.fail("Plugin call should have timed out");
+        } catch (final InvoiceApiException e) {
+            Assert.assertTrue(e.getMessage().contains("slow-plugin"));
+        }
+    }
+
+    @Test(groups = "fast")
+    public void testInvokeAllRejectsWhenSaturated() throws Exception {
+        // One call running, one waiting in the queue: the third one is rejected
+        invoicePluginExecutor = createExecutor("0s", List.of(), 1, 1, 1);
+
+        final Map<String, InvoicePluginApi> plugins = new LinkedHashMap<String, InvoicePluginApi>();
+        plugins.put("plugin1", Mockito.mock(InvoicePluginApi.class));
+        plugins.put("plugin2", Mockito.mock(InvoicePluginApi.class));
+        plugins.put("plugin3", Mockito.mock(InvoicePluginApi.class));
+
+        final Map<String, Boolean> results = invoicePluginExecutor.invokeAll(plugins, "test", true, (pluginName, plugin) -> {
+            Thread.sleep(200);
+            return Boolean.TRUE;
+        });
+        Assert.assertEquals(List.copyOf(results.keySet()), List.of("plugin1", "plugin2"));
+
+        try {
+            invoicePluginExecutor.invokeAll(plugins, "test", false, (pluginName, plugin) -> {
+                Thread.sleep(200);
+                return Boolean.TRUE;
+            });
+            Assert.fail("Plugin call should have been rejected");
+        } catch (final InvoiceApiException e) {
+            Assert.assertTrue(e.getMessage().contains("plugin3"));
+        }
+
+        // Rejections don't trip the circuit breaker
+        Assert.assertTrue(invoicePluginExecutor.invoke("plugin3", plugins.get("plugin3"), "test", (pluginName, plugin) -> Boolean.TRUE));
+    }
+
+    private InvoicePluginExecutor createExecutor(final String timeout, final List<String> timeouts, final int failureThreshold) {
+        return createExecutor(timeout, timeouts, failureThreshold, 5, 100);
+    }
+
+    private InvoicePluginExecutor createExecutor(final String timeout, final List<String> timeouts, final int failureThreshold, final int threadNb, final int queueSize) {
+        final InvoiceConfig config = Mockito.mock(InvoiceConfig.class);
+        Mockito.when(config.getInvoicePluginTimeout()).thenReturn(new TimeSpan(timeout));
+        Mockito.when(config.getInvoicePluginTimeouts()).thenReturn(timeouts);
+        Mockito.when(config.isInvoicePluginParallelDispatchEnabled()).thenReturn(true);
+        Mockito.when(config.getInvoicePluginThreadNb()).thenReturn(threadNb);
+        Mockito.when(config.getInvoicePluginQueueSize()).thenReturn(queueSize);
+        Mockito.when(config.getInvoicePluginCircuitBreakerFailureThreshold()).thenReturn(failureThreshold);
+        Mockito.when(config.getInvoicePluginCircuitBreakerOpenDuration()).thenReturn(new TimeSpan("1h"));
+        return new InvoicePluginExecutor(config, new NoOpMetricRegistry());
+    }
+}
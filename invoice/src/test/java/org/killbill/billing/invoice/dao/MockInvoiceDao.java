@@ -457,6 +457,16 @@ public class MockInvoiceDao extends MockEntityDaoBase<InvoiceModelDao, Invoice,
         throw new UnsupportedOperationException();
     }
 
+    @Override
+    public InvoiceModelDao getParentDraftInvoiceForChildAccount(final UUID parentAccountId, final UUID childAccountId, final InternalCallContext context) throws InvoiceApiException {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void addParentDraftInvoiceItem(final InvoiceItemModelDao parentInvoiceItem, final InternalCallContext context) throws InvoiceApiException {
+        throw new UnsupportedOperationException();
+    }
+
     @Override
     public List<InvoiceParentChildModelDao> getChildInvoicesByParentInvoiceId(final UUID parentInvoiceId, final InternalCallContext context) throws InvoiceApiException {
         throw new UnsupportedOperationException();
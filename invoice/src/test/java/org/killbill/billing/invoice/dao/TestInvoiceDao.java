@@ -1987,6 +1987,53 @@ public class TestInvoiceDao extends InvoiceTestSuiteWithEmbeddedDB {
 
     }
 
+    @Test(groups = "slow")
+    public void testParentDraftInvoiceForChildAccountWithManyChildren() throws InvoiceApiException {
+        final UUID parentAccountId = UUID.randomUUID();
+        final DateTime today = clock.getNow(account.getTimeZone());
+        final int nbChildAccounts = 1000;
+
+        final List<UUID> childAccountIds = new ArrayList<UUID>();
+        for (int i = 0; i < nbChildAccounts; i++) {
+            childAccountIds.add(UUID.randomUUID());
+        }
+
+        final InvoiceModelDao parentInvoice = new InvoiceModelDao(parentAccountId, today.toLocalDate(), account.getCurrency(), InvoiceStatus.DRAFT, true);
+        final InvoiceItem firstParentInvoiceItem = new ParentInvoiceItem(UUID.randomUUID(), today, parentInvoice.getId(), parentAccountId, childAccountIds.get(0), BigDecimal.TEN, account.getCurrency(), "");
+        parentInvoice.addInvoiceItem(new InvoiceItemModelDao(firstParentInvoiceItem));
+        invoiceDao.createInvoices(List.of(parentInvoice), null, Collections.emptySet(), null, null, false, context);
+
+        for (int i = 1; i < nbChildAccounts; i++) {
+            final InvoiceItem parentInvoiceItem = new ParentInvoiceItem(UUID.randomUUID(), today, parentInvoice.getId(), parentAccountId, childAccountIds.get(i), BigDecimal.ONE, account.getCurrency(), "");
+            invoiceDao.addParentDraftInvoiceItem(new InvoiceItemModelDao(parentInvoiceItem), context);
+        }
+
+        // Subsequent child invoice for an existing child account
+        final InvoiceModelDao draftForLastChild = invoiceDao.getParentDraftInvoiceForChildAccount(parentAccountId, childAccountIds.get(nbChildAccounts - 1), context);
+        assertEquals(draftForLastChild.getId(), parentInvoice.getId());
+        assertEquals(draftForLastChild.getInvoiceItems().size(), 1);
+        assertEquals(draftForLastChild.getInvoiceItems().get(0).getChildAccountId(), childAccountIds.get(nbChildAccounts - 1));
+        invoiceDao.updateInvoiceItemAmount(draftForLastChild.getInvoiceItems().get(0).getId(), new BigDecimal("2"), context);
+
+        final InvoiceModelDao draftForUnknownChild = invoiceDao.getParentDraftInvoiceForChildAccount(parentAccountId, UUID.randomUUID(), context);
+        assertEquals(draftForUnknownChild.getId(), parentInvoice.getId());
+        assertTrue(draftForUnknownChild.getInvoiceItems().isEmpty());
+
+        assertNull(invoiceDao.getParentDraftInvoiceForChildAccount(UUID.randomUUID(), childAccountIds.get(0), context));
+
+        final InvoiceModelDao parentDraftInvoice = invoiceDao.getParentDraftInvoice(parentAccountId, context);
+        assertEquals(parentDraftInvoice.getInvoiceItems().size(), nbChildAccounts);
+        assertEquals(InvoiceModelDaoHelper.getRawBalanceForRegularInvoice(parentDraftInvoice).compareTo(new BigDecimal(10 + nbChildAccounts)), 0);
+
+        try {
+            final InvoiceItem creditItem = new ParentInvoiceItem(UUID.randomUUID(), today, parentInvoice.getId(), parentAccountId, UUID.randomUUID(), BigDecimal.ONE.negate(), account.getCurrency(), "");
+            invoiceDao.addParentDraftInvoiceItem(new InvoiceItemModelDao(creditItem), context);
+            Assert.fail();
+        } catch (final IllegalArgumentException e) {
+            // Credits need to go through createInvoices to run the CBA logic
+        }
+    }
+
     @Test(groups = "slow")
     public void testRetrieveInvoiceItemsByParentInvoice() throws InvoiceApiException, EntityPersistenceException {
         final UUID childAccountId = account.getId();
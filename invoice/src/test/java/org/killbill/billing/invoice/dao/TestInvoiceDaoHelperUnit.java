@@ -17,17 +17,28 @@
 package org.killbill.billing.invoice.dao;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
+import org.joda.time.LocalDate;
+
 import org.mockito.Mockito;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
 import org.killbill.billing.ErrorCode;
+import org.killbill.billing.callcontext.InternalTenantContext;
+import org.killbill.billing.catalog.api.Currency;
 import org.killbill.billing.invoice.InvoiceTestSuiteNoDB;
 import org.killbill.billing.invoice.api.InvoiceApiException;
+import org.killbill.billing.invoice.api.InvoiceStatus;
+import org.killbill.billing.util.dao.CounterMappings;
+import org.killbill.billing.util.entity.dao.EntitySqlDaoWrapperFactory;
+import org.killbill.billing.util.tag.ControlTagType;
+import org.killbill.billing.util.tag.Tag;
 
 public class TestInvoiceDaoHelperUnit extends InvoiceTestSuiteNoDB {
 
@@ -59,6 +70,109 @@ public class TestInvoiceDaoHelperUnit extends InvoiceTestSuiteNoDB {
         }
     }
 
+    @Test(groups = "fast")
+    public void testPopulateChildrenQueryCount() throws Exception {
+        for (final int nbInvoices : new int[]{1, InvoiceDaoHelper.ACCOUNT_SCOPED_FETCH_MIN_INVOICES - 1, InvoiceDaoHelper.ACCOUNT_SCOPED_FETCH_MIN_INVOICES, 10000}) {
+            verifyPopulateChildren(nbInvoices, true, nbInvoices >= InvoiceDaoHelper.ACCOUNT_SCOPED_FETCH_MIN_INVOICES);
+        }
+    }
+
+    @Test(groups = "fast")
+    public void testPopulateChildrenForAccountSubset() throws Exception {
+        // Subsets of the account invoices (e.g. date windowed reads, invoices by subscription or group) must keep
+        // using the invoice ids queries, however large they are: an account-scoped fetch would read all the account children
+        for (final int nbInvoices : new int[]{InvoiceDaoHelper.ACCOUNT_SCOPED_FETCH_MIN_INVOICES, 10000}) {
+            verifyPopulateChildren(nbInvoices, false, false);
+        }
+    }
+
+    private void verifyPopulateChildren(final int nbInvoices, final boolean wholeAccount, final boolean expectAccountScoped) throws Exception {
+        final Long accountRecordId = 42L;
+        final InternalTenantContext context = Mockito.mock(InternalTenantContext.class);
+        Mockito.when(context.getAccountRecordId()).thenReturn(accountRecordId);
+        Mockito.when(context.getTenantRecordId()).thenReturn(1L);
+
+        final UUID accountId = UUID.randomUUID();
+        final List<InvoiceModelDao> invoices = new ArrayList<InvoiceModelDao>();
+        final List<InvoiceItemModelDao> items = new ArrayList<InvoiceItemModelDao>();
+        final List<InvoicePaymentModelDao> payments = new ArrayList<InvoicePaymentModelDao>();
+        final List<InvoiceTrackingModelDao> trackings = new ArrayList<InvoiceTrackingModelDao>();
+        for (int i = 0; i < nbInvoices; i++) {
+            final InvoiceModelDao invoice = new InvoiceModelDao(accountId, new LocalDate(2026, 10, 19), Currency.USD, InvoiceStatus.COMMITTED, false);
+            invoice.setAccountRecordId(accountRecordId);
+            invoices.add(invoice);
+            for (int j = 0; j < 2; j++) {
+                final InvoiceItemModelDao item = new InvoiceItemModelDao();
+                item.setInvoiceId(invoice.getId());
+                items.add(item);
+            }
+            final InvoicePaymentModelDao payment = new InvoicePaymentModelDao();
+            payment.setInvoiceId(invoice.getId());
+            payment.setCurrency(Currency.USD);
+            payment.setProcessedCurrency(Currency.USD);
+            payments.add(payment);
+            trackings.add(new InvoiceTrackingModelDao("tracking-" + i, invoice.getId(), UUID.randomUUID(), "unit", new LocalDate(2026, 10, 19)));
+        }
+        // Children of an invoice of the account which isn't part of the set (e.g. a voided one) must be ignored
+        final InvoiceItemModelDao otherItem = new InvoiceItemModelDao();
+        otherItem.setInvoiceId(UUID.randomUUID());
+        items.add(otherItem);
+
+        final InvoiceItemSqlDao invoiceItemSqlDao = Mockito.mock(InvoiceItemSqlDao.class);
+        Mockito.when(invoiceItemSqlDao.getByAccountRecordId(context)).thenReturn(items);
+        Mockito.when(invoiceItemSqlDao.getInvoiceItemsForInvoices(Mockito.any(), Mockito.eq(context))).thenReturn(items);
+        final List<CounterMappings> repairMap = List.of(new CounterMappings(invoices.get(0).getId().toString(), 1));
+        Mockito.when(invoiceItemSqlDao.getRepairMapForAccount(context)).thenReturn(repairMap);
+        Mockito.when(invoiceItemSqlDao.getRepairMap(Mockito.any(), Mockito.eq(context))).thenReturn(repairMap);
+        final InvoicePaymentSqlDao invoicePaymentSqlDao = Mockito.mock(InvoicePaymentSqlDao.class);
+        Mockito.when(invoicePaymentSqlDao.getPaymentsForAccount(context)).thenReturn(payments);
+        Mockito.when(invoicePaymentSqlDao.getPaymentsForInvoices(Mockito.any(), Mockito.eq(context))).thenReturn(payments);
+        final InvoiceTrackingSqlDao invoiceTrackingSqlDao = Mockito.mock(InvoiceTrackingSqlDao.class);
+        Mockito.when(invoiceTrackingSqlDao.getTrackingsForAccount(context)).thenReturn(trackings);
+        Mockito.when(invoiceTrackingSqlDao.getTrackingsForInvoices(Mockito.any(), Mockito.eq(context))).thenReturn(trackings);
+        final InvoiceParentChildrenSqlDao invoiceParentChildrenSqlDao = Mockito.mock(InvoiceParentChildrenSqlDao.class);
+        Mockito.when(invoiceParentChildrenSqlDao.getParentChildMappingsByChildInvoiceIds(Mockito.any(), Mockito.eq(context))).thenReturn(Collections.emptyList());
+
+        final EntitySqlDaoWrapperFactory entitySqlDaoWrapperFactory = Mockito.mock(EntitySqlDaoWrapperFactory.class);
+        Mockito.when(entitySqlDaoWrapperFactory.become(InvoiceItemSqlDao.class)).thenReturn(invoiceItemSqlDao);
+        Mockito.when(entitySqlDaoWrapperFactory.become(InvoicePaymentSqlDao.class)).thenReturn(invoicePaymentSqlDao);
+        Mockito.when(entitySqlDaoWrapperFactory.become(InvoiceTrackingSqlDao.class)).thenReturn(invoiceTrackingSqlDao);
+        Mockito.when(entitySqlDaoWrapperFactory.become(InvoiceParentChildrenSqlDao.class)).thenReturn(invoiceParentChildrenSqlDao);
+
+        final Tag writtenOffTag = Mockito.mock(Tag.class);
+        Mockito.when(writtenOffTag.getTagDefinitionId()).thenReturn(ControlTagType.WRITTEN_OFF.getId());
+        Mockito.when(writtenOffTag.getObjectId()).thenReturn(invoices.get(nbInvoices - 1).getId());
+
+        if (wholeAccount) {
+            invoiceDaoHelper.populateChildren(invoices, true, List.of(writtenOffTag), entitySqlDaoWrapperFactory, context);
+        } else {
+            // Same entry point as the date windowed getInvoicesByAccount
+            invoiceDaoHelper.populateChildren(invoices, List.of(writtenOffTag), entitySqlDaoWrapperFactory, context);
+        }
+
+        // Items, payments, tracking ids, repairs and parent mappings: one query each, whatever the number of invoices
+        final int nbQueries = Mockito.mockingDetails(invoiceItemSqlDao).getInvocations().size() +
+                              Mockito.mockingDetails(invoicePaymentSqlDao).getInvocations().size() +
+                              Mockito.mockingDetails(invoiceTrackingSqlDao).getInvocations().size() +
+                              Mockito.mockingDetails(invoiceParentChildrenSqlDao).getInvocations().size();
+        Assert.assertEquals(nbQueries, 5);
+        Mockito.verify(invoiceItemSqlDao, Mockito.times(expectAccountScoped ? 1 : 0)).getByAccountRecordId(context);
+        Mockito.verify(invoicePaymentSqlDao, Mockito.times(expectAccountScoped ? 1 : 0)).getPaymentsForAccount(context);
+        Mockito.verify(invoiceTrackingSqlDao, Mockito.times(expectAccountScoped ? 1 : 0)).getTrackingsForAccount(context);
+        Mockito.verify(invoiceItemSqlDao, Mockito.times(expectAccountScoped ? 1 : 0)).getRepairMapForAccount(context);
+        Mockito.verify(invoiceItemSqlDao, Mockito.times(expectAccountScoped ? 0 : 1)).getInvoiceItemsForInvoices(Mockito.any(), Mockito.eq(context));
+        Mockito.verify(invoicePaymentSqlDao, Mockito.times(expectAccountScoped ? 0 : 1)).getPaymentsForInvoices(Mockito.any(), Mockito.eq(context));
+
+        for (int i = 0; i < nbInvoices; i++) {
+            final InvoiceModelDao invoice = invoices.get(i);
+            Assert.assertEquals(invoice.getInvoiceItems().size(), 2);
+            Assert.assertEquals(invoice.getInvoicePayments().size(), 1);
+            Assert.assertEquals(invoice.getTrackingIds(), List.of("tracking-" + i));
+            Assert.assertEquals(invoice.isRepaired(), i == 0);
+            Assert.assertEquals(invoice.isWrittenOff(), i == nbInvoices - 1);
+        }
+    }
+
     private void verifyComputedRefundAmount(final BigDecimal paymentAmount,
                                             final BigDecimal requestedAmount,
                                             final Map<UUID, BigDecimal> invoiceItemIdsWithAmounts,
@@ -19,12 +19,19 @@ package org.killbill.billing.invoice.optimizer;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Random;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 import org.joda.time.LocalDate;
 import org.killbill.billing.account.api.Account;
 import org.killbill.billing.account.api.AccountApiException;
+import org.killbill.billing.callcontext.InternalCallContext;
 import org.killbill.billing.catalog.DefaultPrice;
 import org.killbill.billing.catalog.MockInternationalPrice;
 import org.killbill.billing.catalog.MockPlan;
@@ -38,14 +45,18 @@ import org.killbill.billing.catalog.api.PlanPhase;
 import org.killbill.billing.invoice.InvoiceTestSuiteNoDB;
 import org.killbill.billing.invoice.api.Invoice;
 import org.killbill.billing.invoice.api.InvoiceItem;
+import org.killbill.billing.invoice.api.InvoiceItemType;
 import org.killbill.billing.invoice.model.DefaultInvoice;
+import org.killbill.billing.invoice.model.FixedPriceInvoiceItem;
 import org.killbill.billing.invoice.model.RecurringInvoiceItem;
 import org.killbill.billing.invoice.optimizer.InvoiceOptimizerExp.AccountInvoicesExp;
 import org.killbill.billing.junction.BillingEvent;
+import org.killbill.billing.junction.BillingEventSet;
 import org.killbill.billing.junction.plumbing.billing.DefaultBillingEventSet;
 import org.killbill.billing.subscription.api.SubscriptionBase;
 import org.killbill.billing.subscription.api.SubscriptionBaseTransitionType;
 import org.killbill.billing.subscription.api.user.SubscriptionBaseApiException;
+import org.killbill.commons.utils.Preconditions;
 import org.testng.Assert;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Test;
@@ -478,6 +489,117 @@ public class TestInvoiceOptimizerExp extends InvoiceTestSuiteNoDB {
     }
 
 
+    @Test(groups = "fast")
+    public void testFilterProposedItemsAgainstReferenceImplementation() throws Exception {
+        final Random random = new Random(23);
+        final LocalDate firstDate = new LocalDate(2021, 1, 1);
+        final String[] planNames = {"foo-monthly", "bar-monthly", "baz-monthly"};
+
+        for (int run = 0; run < 50; run++) {
+            final List<SubscriptionBase> subscriptions = new ArrayList<SubscriptionBase>();
+            final int nbSubscriptions = 1 + random.nextInt(4);
+            for (int i = 0; i < nbSubscriptions; i++) {
+                subscriptions.add(invoiceUtil.createSubscription());
+            }
+
+            // Billing events: a few plan changes per subscription (the billing mode is not necessarily the same across runs)
+            final DefaultBillingEventSet billingEvents = new DefaultBillingEventSet(false, false, false);
+            long totalOrdering = 0;
+            for (final SubscriptionBase cur : subscriptions) {
+                final int nbBillingEvents = 1 + random.nextInt(3);
+                for (int i = 0; i < nbBillingEvents; i++) {
+                    final String curPlanName = planNames[random.nextInt(planNames.length)];
+                    final BillingMode billingMode = random.nextBoolean() ? BillingMode.IN_ADVANCE : BillingMode.IN_ARREAR;
+                    billingEvents.add(createBillingEvent(cur, curPlanName, firstDate.plusDays(random.nextInt(180)), billingMode, totalOrdering++));
+                }
+            }
+
+            final List<Invoice> existing = new ArrayList<Invoice>();
+            final int nbInvoices = random.nextInt(5);
+            for (int i = 0; i < nbInvoices; i++) {
+                final Invoice invoice = createInvoice(firstDate.plusMonths(i));
+                final int nbItems = random.nextInt(20);
+                for (int j = 0; j < nbItems; j++) {
+                    invoice.addInvoiceItem(createRandomItem(random, invoice.getId(), subscriptions, planNames, firstDate));
+                }
+                existing.add(invoice);
+            }
+
+            final List<InvoiceItem> proposedItems = new ArrayList<InvoiceItem>();
+            final int nbProposedItems = random.nextInt(100);
+            for (int i = 0; i < nbProposedItems; i++) {
+                proposedItems.add(createRandomItem(random, null, subscriptions, planNames, firstDate));
+            }
+
+            final LocalDate cutoffDate = firstDate.plusDays(random.nextInt(365));
+            final List<InvoiceItem> expected = filterProposedItemsReference(cutoffDate, existing, proposedItems, billingEvents, internalCallContext);
+
+            final AccountInvoicesExp test = new AccountInvoicesExp(cutoffDate, null, existing);
+            test.filterProposedItems(proposedItems, billingEvents, internalCallContext);
+            Assert.assertEquals(proposedItems, expected, "run " + run);
+        }
+    }
+
+    // Former (nested iteration) implementation of AccountInvoicesExp#filterProposedItems
+    private static List<InvoiceItem> filterProposedItemsReference(final LocalDate cutoffDate, final List<Invoice> invoices, final List<InvoiceItem> proposedItems, final BillingEventSet eventSet, final InternalCallContext internalCallContext) {
+        final Map<String, BillingMode> billingModes = new HashMap<>();
+        final Map<String, BillingPeriod> billingPeriods = new HashMap<>();
+        return proposedItems.stream().filter(invoiceItem -> {
+            if (invoiceItem.getInvoiceItemType() == InvoiceItemType.FIXED) {
+                return invoiceItem.getStartDate().compareTo(cutoffDate) >= 0;
+            }
+            Preconditions.checkState(invoiceItem.getInvoiceItemType() == InvoiceItemType.RECURRING, "Expected (proposed) item %s to be a RECURRING invoice item", invoiceItem);
+
+            BillingMode billingMode = billingModes.get(invoiceItem.getPlanName());
+            BillingPeriod billingPeriod = billingPeriods.get(invoiceItem.getPhaseName());
+            if (billingMode == null || billingPeriod == null) {
+                final Iterator<BillingEvent> it = ((NavigableSet<BillingEvent>) eventSet).descendingIterator();
+                while (it.hasNext()) {
+                    final BillingEvent be = it.next();
+                    if (!be.getSubscriptionId().equals(invoiceItem.getSubscriptionId()) ||
+                        !(be.getPlan() != null && be.getPlan().getName().equals(invoiceItem.getPlanName())) ||
+                        invoiceItem.getEndDate().compareTo(internalCallContext.toLocalDate(be.getEffectiveDate())) < 0) {
+                        continue;
+                    }
+                    billingMode = be.getPlan().getRecurringBillingMode();
+                    billingModes.put(invoiceItem.getPlanName(), billingMode);
+
+                    billingPeriod = be.getPlanPhase().getRecurring().getBillingPeriod();
+                    billingPeriods.put(invoiceItem.getPhaseName(), billingPeriod);
+                    break;
+                }
+            }
+
+            if ((billingMode == BillingMode.IN_ADVANCE && invoiceItem.getStartDate().compareTo(cutoffDate) >= 0) ||
+                (billingMode == BillingMode.IN_ARREAR && invoiceItem.getEndDate().compareTo(cutoffDate) >= 0)) {
+                return true;
+            } else {
+                for (final Invoice inv : invoices) {
+                    final boolean existingItemExists = inv.getInvoiceItems().stream()
+                                                          .anyMatch(item -> (item.getInvoiceItemType() == InvoiceItemType.RECURRING &&
+                                                                             item.getSubscriptionId().equals(invoiceItem.getSubscriptionId()) &&
+                                                                             item.getStartDate().compareTo(invoiceItem.getStartDate()) == 0));
+                    if (existingItemExists) {
+                        return true;
+                    }
+                }
+                return false;
+            }
+        }).collect(Collectors.toUnmodifiableList());
+    }
+
+    private InvoiceItem createRandomItem(final Random random, final UUID invoiceId, final List<SubscriptionBase> subscriptions, final String[] planNames, final LocalDate firstDate) {
+        final SubscriptionBase cur = subscriptions.get(random.nextInt(subscriptions.size()));
+        final String curPlanName = planNames[random.nextInt(planNames.length)];
+        final LocalDate startDate = firstDate.plusDays(random.nextInt(365));
+        if (random.nextInt(10) == 0) {
+            return new FixedPriceInvoiceItem(invoiceId, account.getId(), cur.getBundleId(), cur.getId(), productName, curPlanName, curPlanName + "-trial", null,
+                                             startDate, BigDecimal.TEN, Currency.USD);
+        }
+        return new RecurringInvoiceItem(invoiceId, account.getId(), cur.getBundleId(), cur.getId(), productName, curPlanName, curPlanName + "-evergreen", null,
+                                        startDate, startDate.plusDays(1 + random.nextInt(31)), BigDecimal.TEN, BigDecimal.TEN, Currency.USD);
+    }
+
     private InvoiceItem createItem(final UUID invoiceId, final BigDecimal amount, final BigDecimal rate, final LocalDate startDate, final LocalDate endDate) {
         final RecurringInvoiceItem item = new RecurringInvoiceItem(invoiceId, account.getId(), subscription.getBundleId(), subscription.getId(), productName, planName, phaseName, null, startDate, endDate,
                                                                    amount, rate, Currency.USD);
@@ -494,6 +616,21 @@ public class TestInvoiceOptimizerExp extends InvoiceTestSuiteNoDB {
     }
 
 
+    private BillingEvent createBillingEvent(final SubscriptionBase subscription, final String planName, final LocalDate eventDate, final BillingMode billingMode, final long totalOrdering) {
+        final Plan plan = new MockPlan(planName).setRecurringBillingMode(billingMode);
+
+        final MockInternationalPrice zeroPrice = new MockInternationalPrice(new DefaultPrice(ZERO, Currency.USD));
+        final MockInternationalPrice recurringPrice = new MockInternationalPrice(new DefaultPrice(ONE, Currency.USD));
+
+        final PlanPhase phase = new MockPlanPhase(recurringPrice, zeroPrice, BillingPeriod.MONTHLY, PhaseType.EVERGREEN);
+
+        return invoiceUtil.createMockBillingEvent(account, subscription, eventDate.toDateTimeAtStartOfDay(),
+                                                  plan, phase,
+                                                  ZERO, BigDecimal.TEN, Currency.USD, BillingPeriod.MONTHLY, 1,
+                                                  BillingMode.IN_ARREAR, "Test Event", totalOrdering,
+                                                  SubscriptionBaseTransitionType.CHANGE);
+    }
+
     private BillingEvent createBillingEvent(final LocalDate eventDate, final BillingMode billingMode, final SubscriptionBaseTransitionType transitionType) {
         final Plan plan = new MockPlan(planName).setRecurringBillingMode(billingMode);
 
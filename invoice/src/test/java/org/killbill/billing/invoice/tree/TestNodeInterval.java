@@ -19,8 +19,11 @@
 
 package org.killbill.billing.invoice.tree;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Random;
 import java.util.UUID;
 
 import org.joda.time.LocalDate;
@@ -383,6 +386,76 @@ public class TestNodeInterval extends InvoiceTestSuiteNoDB {
     }
 
 
+    @Test(groups = "fast")
+    public void testManyChildren() {
+        final DummyNodeInterval root = new DummyNodeInterval();
+
+        final LocalDate startDate = new LocalDate("2014-01-01");
+        final int nbDays = 365;
+        final DummyNodeInterval top = createNodeInterval(startDate, startDate.plusDays(nbDays));
+        root.addNode(top, CALLBACK);
+
+        // Insert one node every other day, in random order
+        final List<DummyNodeInterval> evenDays = new ArrayList<DummyNodeInterval>();
+        final List<DummyNodeInterval> oddDays = new ArrayList<DummyNodeInterval>();
+        for (int i = 0; i < nbDays; i++) {
+            final DummyNodeInterval day = createNodeInterval(startDate.plusDays(i), startDate.plusDays(i + 1));
+            if (i % 2 == 0) {
+                evenDays.add(day);
+            } else {
+                oddDays.add(day);
+            }
+        }
+        final Random random = new Random(42);
+        Collections.shuffle(evenDays, random);
+        for (final DummyNodeInterval day : evenDays) {
+            root.addNode(day, CALLBACK);
+        }
+        assertEquals(top.getNbChildren(), evenDays.size());
+
+        final List<NodeInterval> missing = new LinkedList<NodeInterval>();
+        final BuildNodeCallback buildCallback = new BuildNodeCallback() {
+            @Override
+            public void onMissingInterval(final NodeInterval curNode, final LocalDate startDate, final LocalDate endDate) {
+                missing.add(createNodeInterval(startDate, endDate));
+            }
+
+            @Override
+            public void onLastNode(final NodeInterval curNode) {
+            }
+        };
+        root.build(buildCallback);
+        assertEquals(missing.size(), oddDays.size());
+        for (int i = 0; i < missing.size(); i++) {
+            checkInterval(missing.get(i), createNodeInterval(startDate.plusDays(2 * i + 1), startDate.plusDays(2 * i + 2)));
+        }
+
+        // Fill the gaps, in random order, with nodes overlapping the next day (split on insertion)
+        Collections.shuffle(oddDays, random);
+        for (final DummyNodeInterval day : oddDays) {
+            root.addNode(createNodeInterval(day.getStart(), day.getEnd().plusDays(1)), CALLBACK);
+        }
+        assertEquals(top.getNbChildren(), nbDays);
+
+        missing.clear();
+        root.build(buildCallback);
+        assertEquals(missing.size(), 0);
+
+        final List<NodeInterval> result = new LinkedList<NodeInterval>();
+        root.walkTree(new WalkCallback() {
+            @Override
+            public void onCurrentNode(final int depth, final NodeInterval curNode, final NodeInterval parent) {
+                if (depth == 2) {
+                    result.add(curNode);
+                }
+            }
+        });
+        assertEquals(result.size(), nbDays);
+        for (int i = 0; i < nbDays; i++) {
+            checkInterval(result.get(i), createNodeInterval(startDate.plusDays(i), startDate.plusDays(i + 1)));
+        }
+    }
+
     private void checkInterval(final NodeInterval real, final NodeInterval expected) {
         assertEquals(real.getStart(), expected.getStart());
         assertEquals(real.getEnd(), expected.getEnd());
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2020-2022 Equinix, Inc
+ * Copyright 2014-2022 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.billing.jaxrs.json;
+
+import java.util.UUID;
+
+import javax.annotation.Nullable;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.annotations.ApiModel;
+
+@ApiModel(value="BulkPaymentResult")
+public class BulkPaymentResultJson {
+
+    private final UUID accountId;
+    private final String transactionExternalKey;
+    private final PaymentJson payment;
+    private final BillingExceptionJson error;
+
+    @JsonCreator
+    public BulkPaymentResultJson(@JsonProperty("accountId") final UUID accountId,
+                                 @JsonProperty("transactionExternalKey") final String transactionExternalKey,
+                                 @JsonProperty("payment") @Nullable final PaymentJson payment,
+                                 @JsonProperty("error") @Nullable final BillingExceptionJson error) {
+        this.accountId = accountId;
+        this.transactionExternalKey = transactionExternalKey;
+        this.payment = payment;
+        this.error = error;
+    }
+
+    public UUID getAccountId() {
+        return accountId;
+    }
+
+    public String getTransactionExternalKey() {
+        return transactionExternalKey;
+    }
+
+    public PaymentJson getPayment() {
+        return payment;
+    }
+
+    public BillingExceptionJson getError() {
+        return error;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("BulkPaymentResultJson{");
+        sb.append("accountId=").append(accountId);
+        sb.append(", transactionExternalKey='").append(transactionExternalKey).append('\'');
+        sb.append(", payment=").append(payment);
+        sb.append(", error=").append(error);
+        sb.append('}');
+        return sb.toString();
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+
+        final BulkPaymentResultJson that = (BulkPaymentResultJson) o;
+
+        if (accountId != null ? !accountId.equals(that.accountId) : that.accountId != null) {
+            return false;
+        }
+        if (transactionExternalKey != null ? !transactionExternalKey.equals(that.transactionExternalKey) : that.transactionExternalKey != null) {
+            return false;
+        }
+        if (payment != null ? !payment.equals(that.payment) : that.payment != null) {
+            return false;
+        }
+        return error != null ? error.equals(that.error) : that.error == null;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = accountId != null ? accountId.hashCode() : 0;
+        result = 31 * result + (transactionExternalKey != null ? transactionExternalKey.hashCode() : 0);
+        result = 31 * result + (payment != null ? payment.hashCode() : 0);
+        result = 31 * result + (error != null ? error.hashCode() : 0);
+        return result;
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2020-2022 Equinix, Inc
+ * Copyright 2014-2022 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.billing.jaxrs.json;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.annotations.ApiModel;
+
+@ApiModel(value="LatencyHistogram", parent = JsonBase.class)
+public class LatencyHistogramJson extends JsonBase {
+
+    private final String name;
+    private final Long count;
+    private final Long meanMicros;
+    private final Long p50Micros;
+    private final Long p99Micros;
+    private final Long maxMicros;
+
+    @JsonCreator
+    public LatencyHistogramJson(@JsonProperty("name") final String name,
+                                @JsonProperty("count") final Long count,
+                                @JsonProperty("meanMicros") final Long meanMicros,
+                                @JsonProperty("p50Micros") final Long p50Micros,
+                                @JsonProperty("p99Micros") final Long p99Micros,
+                                @JsonProperty("maxMicros") final Long maxMicros) {
+        this.name = name;
+        this.count = count;
+        this.meanMicros = meanMicros;
+        this.p50Micros = p50Micros;
+        this.p99Micros = p99Micros;
+        this.maxMicros = maxMicros;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Long getCount() {
+        return count;
+    }
+
+    public Long getMeanMicros() {
+        return meanMicros;
+    }
+
+    public Long getP50Micros() {
+        return p50Micros;
+    }
+
+    public Long getP99Micros() {
+        return p99Micros;
+    }
+
+    public Long getMaxMicros() {
+        return maxMicros;
+    }
+}
@@ -127,6 +127,7 @@ import org.killbill.billing.util.api.TagDefinitionApiException;
 import org.killbill.billing.util.api.TagUserApi;
 import org.killbill.billing.util.audit.AccountAuditLogs;
 import org.killbill.billing.util.audit.AuditLogWithHistory;
+import org.killbill.billing.util.audit.api.DefaultAuditUserApi;
 import org.killbill.billing.util.callcontext.CallContext;
 import org.killbill.billing.util.callcontext.TenantContext;
 import org.killbill.commons.utils.collect.Iterables;
@@ -164,6 +165,7 @@ public class AccountResource extends JaxRsResourceBase {
     private final JaxrsConfig jaxrsConfig;
     private final RecordIdApi recordIdApi;
     private final NotificationQueueService notificationQueueService;
+    private final DefaultAuditUserApi defaultAuditUserApi;
 
     @Inject
     public AccountResource(final JaxrsUriBuilder uriBuilder,
@@ -181,7 +183,8 @@ public class AccountResource extends JaxRsResourceBase {
                            final JaxrsConfig jaxrsConfig,
                            final Context context,
                            final RecordIdApi recordIdApi,
-                           final NotificationQueueService notificationQueueService) {
+                           final NotificationQueueService notificationQueueService,
+                           final DefaultAuditUserApi defaultAuditUserApi) {
         super(uriBuilder, tagUserApi, customFieldUserApi, auditUserApi, accountApi, paymentApi, invoicePaymentApi, subscriptionApi, clock, context);
         this.subscriptionApi = subscriptionApi;
         this.invoiceApi = invoiceApi;
@@ -191,6 +194,7 @@ public class AccountResource extends JaxRsResourceBase {
         this.jaxrsConfig = jaxrsConfig;
         this.recordIdApi = recordIdApi;
         this.notificationQueueService = notificationQueueService;
+        this.defaultAuditUserApi = defaultAuditUserApi;
     }
 
     @TimedResource
@@ -1598,9 +1602,12 @@ public class AccountResource extends JaxRsResourceBase {
     @ApiOperation(value = "Retrieve audit logs by account id", response = AuditLogJson.class, responseContainer = "List")
     @ApiResponses(value = {@ApiResponse(code = 404, message = "Account not found")})
     public Response getAccountAuditLogs(@PathParam("accountId") final UUID accountId,
-                               @javax.ws.rs.core.Context final HttpServletRequest request) throws AccountApiException {
+                                        @QueryParam(QUERY_START_DATE) final String startDate,
+                                        @QueryParam(QUERY_END_DATE) final String endDate,
+                                        @javax.ws.rs.core.Context final HttpServletRequest request) throws AccountApiException {
         final TenantContext tenantContext = context.createTenantContextWithAccountId(accountId, request);
-        final AccountAuditLogs accountAuditLogs = auditUserApi.getAccountAuditLogs(accountId, AuditLevel.FULL, tenantContext);
+        // Audit logs created in [startDate, endDate), the range is applied by the database
+        final AccountAuditLogs accountAuditLogs = defaultAuditUserApi.getAccountAuditLogs(accountId, AuditLevel.FULL, toDateTime(startDate), toDateTime(endDate), tenantContext);
         return Response.status(Status.OK).entity(getAuditLogs(accountAuditLogs)).build();
     }
 
@@ -20,9 +20,11 @@ package org.killbill.billing.jaxrs.resources;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.net.URI;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map.Entry;
 import java.util.UUID;
 import java.util.function.Function;
 
@@ -56,6 +58,7 @@ import org.killbill.billing.catalog.api.VersionedCatalog;
 import org.killbill.billing.invoice.api.InvoiceApiException;
 import org.killbill.billing.invoice.api.InvoiceUserApi;
 import org.killbill.billing.jaxrs.json.AdminPaymentJson;
+import org.killbill.billing.jaxrs.json.LatencyHistogramJson;
 import org.killbill.billing.jaxrs.util.Context;
 import org.killbill.billing.jaxrs.util.JaxrsUriBuilder;
 import org.killbill.billing.payment.api.AdminPaymentApi;
@@ -83,7 +86,10 @@ import org.killbill.billing.util.callcontext.TenantContext;
 import org.killbill.commons.utils.collect.Iterables;
 import org.killbill.billing.util.config.tenant.PerTenantConfig;
 import org.killbill.billing.util.entity.Pagination;
+import org.killbill.billing.util.metrics.LatencyHistogram;
+import org.killbill.billing.util.metrics.LatencyHistograms;
 import org.killbill.billing.util.tag.Tag;
+import org.killbill.billing.util.tag.dao.AccountTagsSnapshot;
 import org.killbill.billing.util.tag.dao.SystemTags;
 import org.killbill.bus.api.BusEvent;
 import org.killbill.bus.api.BusEventWithMetadata;
@@ -119,6 +125,7 @@ public class AdminResource extends JaxRsResourceBase {
     private final PersistentBus persistentBus;
     private final NotificationQueueService notificationQueueService;
     private final KillbillHealthcheck killbillHealthcheck;
+    private final LatencyHistograms latencyHistograms;
 
     @Inject
     public AdminResource(final JaxrsUriBuilder uriBuilder,
@@ -136,6 +143,7 @@ public class AdminResource extends JaxRsResourceBase {
                          final PersistentBus persistentBus,
                          final NotificationQueueService notificationQueueService,
                          final KillbillHealthcheck killbillHealthcheck,
+                         final LatencyHistograms latencyHistograms,
                          final Clock clock,
                          final Context context) {
         super(uriBuilder, tagUserApi, customFieldUserApi, auditUserApi, accountUserApi, paymentApi, invoicePaymentApi, null, clock, context);
@@ -147,6 +155,7 @@ public class AdminResource extends JaxRsResourceBase {
         this.persistentBus = persistentBus;
         this.notificationQueueService = notificationQueueService;
         this.killbillHealthcheck = killbillHealthcheck;
+        this.latencyHistograms = latencyHistograms;
     }
 
     @GET
@@ -372,6 +381,10 @@ public class AdminResource extends JaxRsResourceBase {
         final CacheController<UUID, Integer> accountBCDCacheController = cacheControllerDispatcher.getCacheController(CacheType.ACCOUNT_BCD);
         accountBCDCacheController.remove(accountId);
 
+        // clear account-tags cache by account record id
+        final CacheController<Long, AccountTagsSnapshot> accountTagsCacheController = cacheControllerDispatcher.getCacheController(CacheType.ACCOUNT_TAGS);
+        accountTagsCacheController.remove(accountRecordId);
+
         return Response.status(Status.NO_CONTENT).build();
     }
 
@@ -443,6 +456,35 @@ public class AdminResource extends JaxRsResourceBase {
         return Response.status(Status.NO_CONTENT).build();
     }
 
+    @GET
+    @Path("/" + LATENCIES)
+    @Produces(APPLICATION_JSON)
+    @ApiOperation(value = "Get DAO, cache and bus latency histograms", response = LatencyHistogramJson.class, responseContainer = "List")
+    @ApiResponses(value = {@ApiResponse(code = 200, message = "Successful operation")})
+    public Response getLatencyHistograms(@javax.ws.rs.core.Context final HttpServletRequest request) {
+        final List<LatencyHistogramJson> result = new ArrayList<>();
+        for (final Entry<String, LatencyHistogram> entry : latencyHistograms.getHistograms().entrySet()) {
+            final LatencyHistogram histogram = entry.getValue();
+            result.add(new LatencyHistogramJson(entry.getKey(),
+                                                histogram.getCount(),
+                                                histogram.getMeanMicros(),
+                                                histogram.getValueAtPercentile(50),
+                                                histogram.getValueAtPercentile(99),
+                                                histogram.getMaxMicros()));
+        }
+        return Response.status(Status.OK).entity(result).build();
+    }
+
+    @DELETE
+    @Path("/" + LATENCIES)
+    @Produces(APPLICATION_JSON)
+    @ApiOperation(value = "Reset the DAO, cache and bus latency histograms")
+    @ApiResponses(value = {@ApiResponse(code = 204, message = "Successful operation")})
+    public Response resetLatencyHistograms(@javax.ws.rs.core.Context final HttpServletRequest request) {
+        latencyHistograms.reset();
+        return Response.status(Status.NO_CONTENT).build();
+    }
+
     private Iterable<NotificationEventWithMetadata<NotificationEvent>> getNotifications(@Nullable final String queueName,
                                                                                         @Nullable final String serviceName,
                                                                                         final boolean includeInProcessing,
@@ -293,6 +293,7 @@ public interface JaxrsResource {
     String VOID_INVOICE = "voidInvoice";
 
     String COMBO = "combo";
+    String BULK = "bulk";
     String MIGRATION = "migration";
 
     String CHILDREN = "children";
@@ -303,6 +304,7 @@ public interface JaxrsResource {
 
     String CACHE = "cache";
     String HEALTHCHECK = "healthcheck";
+    String LATENCIES = "latencies";
 
     String QUERY_INCLUDED_DELETED = "includedDeleted";
     String AUDIT_LOG = "auditLogs";
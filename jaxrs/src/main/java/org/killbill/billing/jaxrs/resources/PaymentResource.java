@@ -17,7 +17,10 @@
 
 package org.killbill.billing.jaxrs.resources;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.net.URI;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -40,8 +43,10 @@ import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
+import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.Response.Status;
+import javax.ws.rs.core.StreamingOutput;
 import javax.ws.rs.core.UriInfo;
 
 import org.killbill.billing.ObjectType;
@@ -50,6 +55,9 @@ import org.killbill.billing.account.api.AccountApiException;
 import org.killbill.billing.account.api.AccountUserApi;
 import org.killbill.billing.catalog.api.Currency;
 import org.killbill.billing.jaxrs.json.AuditLogJson;
+import org.killbill.billing.jaxrs.json.BillingExceptionJson;
+import org.killbill.billing.jaxrs.json.BulkPaymentResultJson;
+import org.killbill.billing.jaxrs.json.BulkPaymentTransactionJson;
 import org.killbill.billing.jaxrs.json.ComboPaymentTransactionJson;
 import org.killbill.billing.jaxrs.json.CustomFieldJson;
 import org.killbill.billing.jaxrs.json.PaymentJson;
@@ -57,6 +65,8 @@ import org.killbill.billing.jaxrs.json.PaymentTransactionJson;
 import org.killbill.billing.jaxrs.json.TagJson;
 import org.killbill.billing.jaxrs.util.Context;
 import org.killbill.billing.jaxrs.util.JaxrsUriBuilder;
+import org.killbill.billing.payment.api.BulkPaymentApi;
+import org.killbill.billing.payment.api.BulkPaymentRequest;
 import org.killbill.billing.payment.api.InvoicePaymentApi;
 import org.killbill.billing.payment.api.Payment;
 import org.killbill.billing.payment.api.PaymentApi;
@@ -83,6 +93,7 @@ import org.killbill.clock.Clock;
 import org.killbill.commons.metrics.api.annotation.MetricTag;
 import org.killbill.commons.metrics.api.annotation.TimedResource;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiParam;
@@ -98,6 +109,8 @@ public class PaymentResource extends ComboPaymentResource {
 
     private static final String ID_PARAM_NAME = "paymentId";
 
+    private final BulkPaymentApi bulkPaymentApi;
+
     @Inject
     public PaymentResource(final JaxrsUriBuilder uriBuilder,
                            final TagUserApi tagUserApi,
@@ -105,10 +118,12 @@ public class PaymentResource extends ComboPaymentResource {
                            final AuditUserApi auditUserApi,
                            final AccountUserApi accountUserApi,
                            final PaymentApi paymentApi,
+                           final BulkPaymentApi bulkPaymentApi,
                            final InvoicePaymentApi invoicePaymentApi,
                            final Clock clock,
                            final Context context) {
         super(uriBuilder, tagUserApi, customFieldUserApi, auditUserApi, accountUserApi, paymentApi, invoicePaymentApi, clock, context);
+        this.bulkPaymentApi = bulkPaymentApi;
     }
 
     @TimedResource(name = "getPayment")
@@ -754,6 +769,79 @@ public class PaymentResource extends ComboPaymentResource {
         return createPaymentResponse(uriInfo, result, transactionType, paymentTransactionJson.getTransactionExternalKey(), request);
     }
 
+    @TimedResource(name = "createBulkPurchases")
+    @POST
+    @Consumes(APPLICATION_JSON)
+    @Produces(APPLICATION_JSON)
+    @Path("/" + BULK)
+    @ApiOperation(value = "Create purchases for many accounts at once, results are streamed back as each payment completes", response = BulkPaymentResultJson.class, responseContainer = "List")
+    @ApiResponses(value = {@ApiResponse(code = 200, message = "Successful operation"),
+                           @ApiResponse(code = 400, message = "Invalid data for the payment requests")})
+    public Response createBulkPurchases(final List<BulkPaymentTransactionJson> json,
+                                        @QueryParam(QUERY_PAYMENT_CONTROL_PLUGIN_NAME) final List<String> paymentControlPluginNames,
+                                        @HeaderParam(HDR_CREATED_BY) final String createdBy,
+                                        @HeaderParam(HDR_REASON) final String reason,
+                                        @HeaderParam(HDR_COMMENT) final String comment,
+                                        @javax.ws.rs.core.Context final HttpServletRequest request) {
+        verifyNonNullOrEmpty(json, "BulkPaymentTransactionJson body should be specified");
+
+        final List<BulkPaymentRequest> bulkPaymentRequests = new ArrayList<BulkPaymentRequest>(json.size());
+        for (final BulkPaymentTransactionJson cur : json) {
+            verifyNonNullOrEmpty(cur.getAccountId(), "BulkPaymentTransactionJson accountId needs to be set",
+                                 cur.getAmount(), "BulkPaymentTransactionJson amount needs to be set");
+            bulkPaymentRequests.add(new BulkPaymentRequest(cur.getAccountId(),
+                                                           cur.getPaymentMethodId(),
+                                                           cur.getAmount(),
+                                                           cur.getCurrency(),
+                                                           cur.getPaymentExternalKey(),
+                                                           cur.getTransactionExternalKey(),
+                                                           extractPluginProperties(cur.getProperties())));
+        }
+
+        final CallContext callContext = context.createCallContextNoAccountId(createdBy, reason, comment, request);
+        final PaymentOptions paymentOptions = createControlPluginApiPaymentOptions(paymentControlPluginNames);
+
+        final StreamingOutput output = new StreamingOutput() {
+            @Override
+            public void write(final OutputStream outputStream) throws IOException, WebApplicationException {
+                final JsonGenerator generator = mapper.getFactory().createGenerator(outputStream);
+                generator.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+                generator.writeStartArray();
+
+                // Results are produced concurrently by the bulk payment workers
+                final AtomicReference<IOException> writeException = new AtomicReference<IOException>();
+                bulkPaymentApi.createPurchasesWithPaymentControl(bulkPaymentRequests,
+                                                                 paymentOptions,
+                                                                 (bulkPaymentRequest, payment, exception) -> {
+                                                                     final BulkPaymentResultJson result = new BulkPaymentResultJson(bulkPaymentRequest.getAccountId(),
+                                                                                                                                    bulkPaymentRequest.getPaymentTransactionExternalKey(),
+                                                                                                                                    payment == null ? null : new PaymentJson(payment, null),
+                                                                                                                                    exception == null ? null : new BillingExceptionJson(exception, false));
+                                                                     synchronized (generator) {
+                                                                         // The client went away, keep processing the payments but stop writing
+                                                                         if (writeException.get() != null) {
+                                                                             return;
+                                                                         }
+                                                                         try {
+                                                                             generator.writeObject(result);
+                                                                             generator.flush();
+                                                                         } catch (final IOException e) {
+                                                                             writeException.set(e);
+                                                                         }
+                                                                     }
+                                                                 },
+                                                                 callContext);
+
+                if (writeException.get() != null) {
+                    throw writeException.get();
+                }
+                generator.writeEndArray();
+                generator.close();
+            }
+        };
+        return Response.status(Status.OK).entity(output).build();
+    }
+
     @TimedResource(name = "cancelScheduledPaymentTransaction")
     @DELETE
     @Path("/{paymentTransactionId:" + UUID_PATTERN + "}/" + CANCEL_SCHEDULED_PAYMENT_TRANSACTION)
@@ -20,6 +20,7 @@
 package org.killbill.billing.junction.plumbing.billing;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
@@ -27,6 +28,7 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.RandomAccess;
 import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
@@ -119,10 +121,15 @@ public class BlockingCalculator {
             perSubscriptionBillingEvents.get(event.getSubscriptionId()).add(event);
         }
 
+        // PERF: subscriptions without blocking states of their own share the same disabled durations for a given end date:
+        // these are computed once per bundle (or once per account when the bundle isn't blocked either)
+        final Map<DateTime, List<DisabledDuration>> accountDisabledDurationsPerEndDate = new HashMap<>();
+
         for (final Entry<UUID, List<SubscriptionBase>> entry : subscriptionsForAccount.entrySet()) {
             final UUID bundleId = entry.getKey();
 
             final List<BlockingState> bundleBlockingEvents = perBundleBlockingEvents.get(bundleId) != null ? perBundleBlockingEvents.get(bundleId) : Collections.emptyList();
+            final Map<DateTime, List<DisabledDuration>> bundleDisabledDurationsPerEndDate = bundleBlockingEvents.isEmpty() ? accountDisabledDurationsPerEndDate : new HashMap<>();
 
             for (final SubscriptionBase subscription : entry.getValue()) {
                 // Avoid inserting additional events for subscriptions that don't even have a START event
@@ -131,8 +138,17 @@ public class BlockingCalculator {
                 }
 
                 final List<BlockingState> subscriptionBlockingEvents = perSubscriptionBlockingEvents.get(subscription.getId()) != null ? perSubscriptionBlockingEvents.get(subscription.getId()) : Collections.emptyList();
-                final List<BlockingState> aggregateSubscriptionBlockingEvents = getAggregateBlockingEventsPerSubscription(subscription.getEndDate(), subscriptionBlockingEvents, bundleBlockingEvents, accountBlockingEvents);
-                final List<DisabledDuration> accountBlockingDurations = createBlockingDurations(aggregateSubscriptionBlockingEvents);
+                final List<DisabledDuration> accountBlockingDurations;
+                if (subscriptionBlockingEvents.isEmpty()) {
+                    accountBlockingDurations = bundleDisabledDurationsPerEndDate.computeIfAbsent(subscription.getEndDate(),
+                                                                                                 endDate -> createBlockingDurations(getAggregateBlockingEventsPerSubscription(endDate, subscriptionBlockingEvents, bundleBlockingEvents, accountBlockingEvents)));
+                } else {
+                    final List<BlockingState> aggregateSubscriptionBlockingEvents = getAggregateBlockingEventsPerSubscription(subscription.getEndDate(), subscriptionBlockingEvents, bundleBlockingEvents, accountBlockingEvents);
+                    accountBlockingDurations = createBlockingDurations(aggregateSubscriptionBlockingEvents);
+                }
+                if (accountBlockingDurations.isEmpty()) {
+                    continue;
+                }
 
                 final SortedSet<BillingEvent> subscriptionBillingEvents = perSubscriptionBillingEvents.getOrDefault(subscription.getId(), Collections.emptySortedSet());
 
@@ -172,15 +188,16 @@ public class BlockingCalculator {
                                                      final Iterable<BillingEvent> subscriptionBillingEvents) {
         final SortedSet<BillingEvent> result = new TreeSet<BillingEvent>();
 
+        final List<BillingEvent> events = toList(subscriptionBillingEvents);
         for (final DisabledDuration duration : disabledDuration) {
-            for (final BillingEvent event : subscriptionBillingEvents) {
-                if (duration.getEnd() == null || event.getEffectiveDate().isBefore(duration.getEnd())) {
-                    if (!event.getEffectiveDate().isBefore(duration.getStart())) {
-                        result.add(event);
-                    }
-                } else { //after the last event of the pair no need to keep checking
+            // Remove all events in [start, end)
+            for (int i = nbEventsBefore(duration.getStart(), events); i < events.size(); i++) {
+                final BillingEvent event = events.get(i);
+                if (duration.getEnd() != null && !event.getEffectiveDate().isBefore(duration.getEnd())) {
+                    //after the last event of the pair no need to keep checking
                     break;
                 }
+                result.add(event);
             }
         }
         return result;
@@ -193,11 +210,12 @@ public class BlockingCalculator {
 
         final SortedSet<BillingEvent> result = new TreeSet<BillingEvent>();
 
+        final List<BillingEvent> events = toList(subscriptionBillingEvents);
         for (final DisabledDuration duration : disabledDuration) {
             // The first one before the blocked duration
-            final BillingEvent precedingInitialEvent = precedingActiveBillingEventForSubscription(duration.getStart(), subscriptionBillingEvents);
+            final BillingEvent precedingInitialEvent = precedingActiveBillingEventForSubscription(duration.getStart(), events);
             // The last one during of before the duration
-            final BillingEvent precedingFinalEvent = precedingActiveBillingEventForSubscription(duration.getEnd(), subscriptionBillingEvents);
+            final BillingEvent precedingFinalEvent = precedingActiveBillingEventForSubscription(duration.getEnd(), events);
 
             if (precedingInitialEvent != null) { // there is a preceding billing event
                 result.add(createNewDisableEvent(duration.getStart(), precedingInitialEvent));
@@ -214,18 +232,20 @@ public class BlockingCalculator {
 
     protected BillingEvent precedingActiveBillingEventForSubscription(final DateTime disabledDurationStart,
                                                                       final Iterable<BillingEvent> subscriptionBillingEvents) {
+        return precedingActiveBillingEventForSubscription(disabledDurationStart, toList(subscriptionBillingEvents));
+    }
+
+    private BillingEvent precedingActiveBillingEventForSubscription(final DateTime disabledDurationStart,
+                                                                    final List<BillingEvent> subscriptionBillingEvents) {
         if (disabledDurationStart == null) {
             return null;
         }
 
         // We look for the first billingEvent strictly prior our disabledDurationStart or null if none
-        BillingEvent prev = null;
-        for (final BillingEvent event : subscriptionBillingEvents) {
-            if (!event.getEffectiveDate().isBefore(disabledDurationStart)) {
-                return prev;
-            } else {
-                prev = event;
-            }
+        final int nbEventsBefore = nbEventsBefore(disabledDurationStart, subscriptionBillingEvents);
+        final BillingEvent prev = nbEventsBefore == 0 ? null : subscriptionBillingEvents.get(nbEventsBefore - 1);
+        if (nbEventsBefore < subscriptionBillingEvents.size()) {
+            return prev;
         }
 
         // We ignore anything beyond the final event
@@ -237,6 +257,30 @@ public class BlockingCalculator {
         return prev;
     }
 
+    // Number of events strictly prior to the specified date (the events are sorted by effective date)
+    private static int nbEventsBefore(final DateTime date, final List<BillingEvent> subscriptionBillingEvents) {
+        int low = 0;
+        int high = subscriptionBillingEvents.size();
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            if (subscriptionBillingEvents.get(mid).getEffectiveDate().isBefore(date)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static List<BillingEvent> toList(final Iterable<BillingEvent> subscriptionBillingEvents) {
+        if (subscriptionBillingEvents instanceof List && subscriptionBillingEvents instanceof RandomAccess) {
+            return (List<BillingEvent>) subscriptionBillingEvents;
+        }
+        final List<BillingEvent> result = new ArrayList<>();
+        subscriptionBillingEvents.forEach(result::add);
+        return result;
+    }
+
     protected BillingEvent createNewDisableEvent(final DateTime disabledDurationStart,
                                                  final BillingEvent previousEvent) {
         final int billCycleDay = previousEvent.getBillCycleDayLocal();
@@ -27,7 +27,6 @@ import java.util.Map;
 import java.util.Set;
 import java.util.SortedSet;
 import java.util.UUID;
-import java.util.stream.Collectors;
 
 import javax.annotation.Nullable;
 import javax.inject.Inject;
@@ -59,7 +58,6 @@ import org.killbill.commons.utils.Preconditions;
 import org.killbill.billing.util.UUIDs;
 import org.killbill.billing.util.bcd.BillCycleDayCalculator;
 import org.killbill.billing.util.tag.ControlTagType;
-import org.killbill.billing.util.tag.Tag;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -97,11 +95,9 @@ public class DefaultInternalBillingApi implements BillingInternalApi {
         final VersionedCatalog fullCatalog = catalogInternalApi.getFullCatalog(true, true, context);
 
         // Check to see if billing is off for the account
-        final List<Tag> tagsForAccount = tagApi.getTagsForAccount(false, context);
-        final List<Tag> accountTags = getTagsForObjectType(ObjectType.ACCOUNT, tagsForAccount, null);
-        final boolean found_AUTO_INVOICING_OFF = is_AUTO_INVOICING_OFF(accountTags);
-        final boolean found_INVOICING_DRAFT = is_AUTO_INVOICING_DRAFT(accountTags);
-        final boolean found_INVOICING_REUSE_DRAFT = is_AUTO_INVOICING_REUSE_DRAFT(accountTags);
+        final boolean found_AUTO_INVOICING_OFF = tagApi.hasControlTag(accountId, ObjectType.ACCOUNT, ControlTagType.AUTO_INVOICING_OFF, context);
+        final boolean found_INVOICING_DRAFT = tagApi.hasControlTag(accountId, ObjectType.ACCOUNT, ControlTagType.AUTO_INVOICING_DRAFT, context);
+        final boolean found_INVOICING_REUSE_DRAFT = tagApi.hasControlTag(accountId, ObjectType.ACCOUNT, ControlTagType.AUTO_INVOICING_REUSE_DRAFT, context);
 
         final Set<UUID> skippedSubscriptions = new HashSet<>();
         final DefaultBillingEventSet result;
@@ -112,7 +108,7 @@ public class DefaultInternalBillingApi implements BillingInternalApi {
 
         final ImmutableAccountData account = accountApi.getImmutableAccountDataById(accountId, context);
         result = new DefaultBillingEventSet(found_AUTO_INVOICING_OFF, found_INVOICING_DRAFT, found_INVOICING_REUSE_DRAFT);
-        addBillingEventsForBundles(account, dryRunArguments, context, result, skippedSubscriptions, subscriptionsForAccount, fullCatalog, tagsForAccount);
+        addBillingEventsForBundles(account, dryRunArguments, context, result, skippedSubscriptions, subscriptionsForAccount, fullCatalog);
         if (result.isEmpty()) {
             log.info("No billing event for accountId='{}'", accountId);
             return result;
@@ -159,8 +155,7 @@ public class DefaultInternalBillingApi implements BillingInternalApi {
                                             final DefaultBillingEventSet result,
                                             final Set<UUID> skipSubscriptionsSet,
                                             final Map<UUID, List<SubscriptionBase>> subscriptionsForAccount,
-                                            final VersionedCatalog catalog,
-                                            final List<Tag> tagsForAccount) throws AccountApiException, CatalogApiException, SubscriptionBaseApiException {
+                                            final VersionedCatalog catalog) throws AccountApiException, CatalogApiException, SubscriptionBaseApiException {
         final int currentAccountBCD = accountApi.getBCD(context);
         addBillingEventsForBundles(account,
                                    dryRunArguments,
@@ -169,7 +164,6 @@ public class DefaultInternalBillingApi implements BillingInternalApi {
                                    skipSubscriptionsSet,
                                    subscriptionsForAccount,
                                    catalog,
-                                   tagsForAccount,
                                    currentAccountBCD);
     }
 
@@ -180,7 +174,6 @@ public class DefaultInternalBillingApi implements BillingInternalApi {
                                             final Set<UUID> skipSubscriptionsSet,
                                             final Map<UUID, List<SubscriptionBase>> subscriptionsForAccount,
                                             final VersionedCatalog catalog,
-                                            final List<Tag> tagsForAccount,
                                             final int currentAccountBCD) throws AccountApiException, CatalogApiException, SubscriptionBaseApiException {
         // In dryRun mode, when we care about invoice generated for new BASE subscription, no such bundle exists yet; we still
         // want to tap into subscriptionBase logic, so we make up a bundleId
@@ -206,8 +199,7 @@ public class DefaultInternalBillingApi implements BillingInternalApi {
             }
 
             // Check if billing is off for the bundle
-            final List<Tag> bundleTags = getTagsForObjectType(ObjectType.BUNDLE, tagsForAccount, bundleId);
-            final boolean found_AUTO_INVOICING_OFF = is_AUTO_INVOICING_OFF(bundleTags);
+            final boolean found_AUTO_INVOICING_OFF = tagApi.hasControlTag(bundleId, ObjectType.BUNDLE, ControlTagType.AUTO_INVOICING_OFF, context);
             if (found_AUTO_INVOICING_OFF) {
                 for (final SubscriptionBase subscription : subscriptions) { // billing is off so list sub ids in set to be excluded
                     result.getSubscriptionIdsWithAutoInvoiceOff().add(subscription.getId());
@@ -228,7 +220,7 @@ public class DefaultInternalBillingApi implements BillingInternalApi {
             // Because we now have computed the real BCD, we need to re-compute the BillingEvents BCD for ACCOUNT alignments (see BillCycleDayCalculator#calculateBcdForAlignment).
             // The code could maybe be optimized (no need to re-run the full function?), but since it's run once per account, it's probably not worth it.
             result.clear();
-            addBillingEventsForBundles(account, dryRunArguments, context, result, skipSubscriptionsSet, subscriptionsForAccount, catalog, tagsForAccount, accountBCDCandidate);
+            addBillingEventsForBundles(account, dryRunArguments, context, result, skipSubscriptionsSet, subscriptionsForAccount, catalog, accountBCDCandidate);
 
             final boolean dryRunMode = dryRunArguments != null;
             if (!dryRunMode) {
@@ -333,35 +325,6 @@ public class DefaultInternalBillingApi implements BillingInternalApi {
         return BillCycleDayCalculator.calculateBcdForAlignment(bcdCache, subscription, baseSubscription, alignment, internalTenantContext, accountBillCycleDayLocal);
     }
 
-    private boolean is_AUTO_INVOICING_OFF(final List<Tag> tags) {
-        final List<UUID> definitionIds = tags.stream()
-                .map(Tag::getTagDefinitionId)
-                .collect(Collectors.toUnmodifiableList());
-        return ControlTagType.isAutoInvoicingOff(definitionIds);
-    }
-
-    private boolean is_AUTO_INVOICING_DRAFT(final List<Tag> tags) {
-        return tags.stream()
-                .anyMatch(input -> input.getTagDefinitionId().equals(ControlTagType.AUTO_INVOICING_DRAFT.getId()));
-    }
-
-    private boolean is_AUTO_INVOICING_REUSE_DRAFT(final List<Tag> tags) {
-        return tags.stream()
-                .anyMatch(input -> input.getTagDefinitionId().equals(ControlTagType.AUTO_INVOICING_REUSE_DRAFT.getId()));
-    }
-
-    private List<Tag> getTagsForObjectType(final ObjectType objectType, final List<Tag> tags, @Nullable final UUID objectId) {
-        return tags.stream()
-                .filter(input -> {
-                    if (objectId == null) {
-                        return objectType == input.getObjectType();
-                    } else {
-                        return objectType == input.getObjectType() && objectId.equals(input.getObjectId());
-                    }
-                })
-                .collect(Collectors.toUnmodifiableList());
-    }
-
     private List<SubscriptionBase> getSubscriptionsForAccountByBundleId(final Map<UUID, List<SubscriptionBase>> subscriptionsForAccount, final UUID bundleId) {
         return subscriptionsForAccount.containsKey(bundleId) ? subscriptionsForAccount.get(bundleId) : Collections.emptyList();
     }
@@ -21,12 +21,16 @@ package org.killbill.billing.junction.plumbing.billing;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
 import java.util.UUID;
@@ -844,6 +848,162 @@ public class TestBlockingCalculator extends JunctionTestSuiteNoDB {
         assertEquals(events.get(4).getTransitionType(), SubscriptionBaseTransitionType.CHANGE);
     }
 
+    @Test(groups = "fast")
+    public void testInsertBlockingEventsAgainstReferenceImplementation() throws Exception {
+        final DateTime referenceDate = new LocalDate(2012, 5, 1).toDateTimeAtStartOfDay(DateTimeZone.UTC);
+        final String[] services = {"svc1", "svc2"};
+
+        for (int seed = 0; seed < 50; seed++) {
+            final Random random = new Random(seed);
+            ((MockBlockingStateDao) blockingStateDao).clear();
+
+            long totalOrdering = 1;
+            final Map<UUID, List<SubscriptionBase>> subscriptionsPerBundle = new HashMap<>();
+            final SortedSet<BillingEvent> billingEvents = new TreeSet<>();
+            final Map<BlockingState, Optional<UUID>> blockingStates = new HashMap<>();
+            final int nbBundles = 1 + random.nextInt(4);
+            for (int i = 0; i < nbBundles; i++) {
+                final UUID bundleId = UUID.randomUUID();
+                final List<SubscriptionBase> subscriptions = new ArrayList<>();
+                final int nbSubscriptions = 1 + random.nextInt(4);
+                for (int j = 0; j < nbSubscriptions; j++) {
+                    final SubscriptionBase subscription = Mockito.mock(SubscriptionBase.class);
+                    Mockito.when(subscription.getId()).thenReturn(UUID.randomUUID());
+                    Mockito.when(subscription.getBundleId()).thenReturn(bundleId);
+                    // Subscriptions share a handful of end dates
+                    Mockito.when(subscription.getEndDate()).thenReturn(random.nextInt(3) == 0 ? referenceDate.plusDays(30 * (1 + random.nextInt(3))) : null);
+                    subscriptions.add(subscription);
+
+                    DateTime effectiveDate = referenceDate.plusDays(random.nextInt(10));
+                    final int nbEvents = 1 + random.nextInt(5);
+                    for (int k = 0; k < nbEvents; k++) {
+                        final SubscriptionBaseTransitionType type = k == 0 ? SubscriptionBaseTransitionType.CREATE :
+                                                                    (k == nbEvents - 1 && random.nextBoolean()) ? SubscriptionBaseTransitionType.CANCEL :
+                                                                    SubscriptionBaseTransitionType.CHANGE;
+                        billingEvents.add(createRealEvent(subscription, effectiveDate, type, totalOrdering++));
+                        effectiveDate = effectiveDate.plusDays(1 + random.nextInt(20));
+                    }
+
+                    if (random.nextInt(3) == 0) {
+                        addRandomBlockingStates(random, subscription.getId(), BlockingStateType.SUBSCRIPTION, services, referenceDate, blockingStates);
+                    }
+                }
+                subscriptionsPerBundle.put(bundleId, subscriptions);
+
+                if (random.nextBoolean()) {
+                    addRandomBlockingStates(random, bundleId, BlockingStateType.SUBSCRIPTION_BUNDLE, services, referenceDate, blockingStates);
+                }
+            }
+            if (random.nextBoolean()) {
+                addRandomBlockingStates(random, account.getId(), BlockingStateType.ACCOUNT, services, referenceDate, blockingStates);
+            }
+            blockingStateDao.setBlockingStatesAndPostBlockingTransitionEvent(blockingStates, internalCallContext);
+
+            final Set<UUID> skippedSubscriptions = new HashSet<>();
+            final SortedSet<BillingEvent> expectedBillingEvents = new TreeSet<>(billingEvents);
+            final boolean expectedResult = referenceInsertBlockingEvents(expectedBillingEvents, skippedSubscriptions, subscriptionsPerBundle);
+            final SortedSet<BillingEvent> actualBillingEvents = new TreeSet<>(billingEvents);
+            final boolean actualResult = blockingCalculator.insertBlockingEvents(actualBillingEvents, skippedSubscriptions, subscriptionsPerBundle, catalog, null, internalCallContext);
+
+            assertEquals(actualResult, expectedResult, "seed=" + seed);
+            assertEquals(toSignatures(actualBillingEvents), toSignatures(expectedBillingEvents), "seed=" + seed);
+        }
+    }
+
+    private void addRandomBlockingStates(final Random random, final UUID blockedId, final BlockingStateType type, final String[] services, final DateTime referenceDate, final Map<BlockingState, Optional<UUID>> blockingStates) {
+        final int nbBlockingStates = 1 + random.nextInt(4);
+        for (int i = 0; i < nbBlockingStates; i++) {
+            final boolean blockBilling = random.nextBoolean();
+            final String service = services[random.nextInt(services.length)];
+            final DateTime effectiveDate = referenceDate.plusDays(random.nextInt(90));
+            blockingStates.put(new DefaultBlockingState(blockedId, type, blockBilling ? DISABLED_BUNDLE : CLEAR_BUNDLE, service, blockBilling, blockBilling, blockBilling, effectiveDate), Optional.empty());
+        }
+    }
+
+    // The synthetic events totalOrdering is global, so ignore it
+    private List<String> toSignatures(final Iterable<BillingEvent> billingEvents) {
+        final List<String> result = new ArrayList<>();
+        for (final BillingEvent billingEvent : billingEvents) {
+            result.add(billingEvent.getSubscriptionId() + "|" + billingEvent.getEffectiveDate() + "|" + billingEvent.getTransitionType() + "|" +
+                       billingEvent.getBillingPeriod() + "|" + billingEvent.getRecurringPrice());
+        }
+        return result;
+    }
+
+    // Previous implementation, which recomputes the disabled durations for each subscription and scans all billing events for each duration
+    private boolean referenceInsertBlockingEvents(final SortedSet<BillingEvent> billingEvents,
+                                                  final Set<UUID> skippedSubscriptions,
+                                                  final Map<UUID, List<SubscriptionBase>> subscriptionsForAccount) throws CatalogApiException {
+        final Collection<BillingEvent> billingEventsToAdd = new TreeSet<>();
+        final Collection<BillingEvent> billingEventsToRemove = new TreeSet<>();
+
+        final List<BlockingState> blockingEvents = blockingStateDao.getBlockingActiveForAccount(catalog, null, internalCallContext);
+        for (final Entry<UUID, List<SubscriptionBase>> entry : subscriptionsForAccount.entrySet()) {
+            for (final SubscriptionBase subscription : entry.getValue()) {
+                if (skippedSubscriptions.contains(subscription.getId())) {
+                    continue;
+                }
+
+                final List<BlockingState> subscriptionBlockingEvents = blockingEvents.stream().filter(input -> input.getType() == BlockingStateType.SUBSCRIPTION && input.getBlockedId().equals(subscription.getId())).collect(Collectors.toList());
+                final List<BlockingState> bundleBlockingEvents = blockingEvents.stream().filter(input -> input.getType() == BlockingStateType.SUBSCRIPTION_BUNDLE && input.getBlockedId().equals(entry.getKey())).collect(Collectors.toList());
+                final List<BlockingState> accountBlockingEvents = blockingEvents.stream().filter(input -> input.getType() == BlockingStateType.ACCOUNT).collect(Collectors.toList());
+                final List<BlockingState> aggregateSubscriptionBlockingEvents = blockingCalculator.getAggregateBlockingEventsPerSubscription(subscription.getEndDate(), subscriptionBlockingEvents, bundleBlockingEvents, accountBlockingEvents);
+                final List<DisabledDuration> disabledDurations = blockingCalculator.createBlockingDurations(aggregateSubscriptionBlockingEvents);
+
+                final SortedSet<BillingEvent> subscriptionBillingEvents = billingEvents.stream()
+                                                                                       .filter(input -> input.getSubscriptionId().equals(subscription.getId()))
+                                                                                       .collect(Collectors.toCollection(TreeSet::new));
+
+                for (final DisabledDuration duration : disabledDurations) {
+                    final BillingEvent precedingInitialEvent = referencePrecedingActiveBillingEventForSubscription(duration.getStart(), subscriptionBillingEvents);
+                    final BillingEvent precedingFinalEvent = referencePrecedingActiveBillingEventForSubscription(duration.getEnd(), subscriptionBillingEvents);
+                    if (precedingInitialEvent != null) {
+                        billingEventsToAdd.add(blockingCalculator.createNewDisableEvent(duration.getStart(), precedingInitialEvent));
+                        if (duration.getEnd() != null && precedingFinalEvent != null) {
+                            billingEventsToAdd.add(blockingCalculator.createNewReenableEvent(duration.getEnd(), precedingFinalEvent));
+                        }
+                    } else if (precedingFinalEvent != null) {
+                        billingEventsToAdd.add(blockingCalculator.createNewReenableEvent(duration.getEnd(), precedingFinalEvent));
+                    }
+
+                    for (final BillingEvent event : subscriptionBillingEvents) {
+                        if (duration.getEnd() == null || event.getEffectiveDate().isBefore(duration.getEnd())) {
+                            if (!event.getEffectiveDate().isBefore(duration.getStart())) {
+                                billingEventsToRemove.add(event);
+                            }
+                        } else {
+                            break;
+                        }
+                    }
+                }
+            }
+        }
+
+        billingEvents.addAll(billingEventsToAdd);
+        billingEvents.removeAll(billingEventsToRemove);
+        return !(billingEventsToAdd.isEmpty() && billingEventsToRemove.isEmpty());
+    }
+
+    private BillingEvent referencePrecedingActiveBillingEventForSubscription(final DateTime disabledDurationStart, final Iterable<BillingEvent> subscriptionBillingEvents) {
+        if (disabledDurationStart == null) {
+            return null;
+        }
+
+        BillingEvent prev = null;
+        for (final BillingEvent event : subscriptionBillingEvents) {
+            if (!event.getEffectiveDate().isBefore(disabledDurationStart)) {
+                return prev;
+            } else {
+                prev = event;
+            }
+        }
+
+        if (prev == null || prev.getTransitionType() == SubscriptionBaseTransitionType.CANCEL) {
+            return null;
+        }
+        return prev;
+    }
+
     private BillingEvent createBillingEvent(final SubscriptionBase subscription, final Long totalOrdering) {
         return createRealEvent(subscription, new DateTime(), SubscriptionBaseTransitionType.CREATE, totalOrdering);
     }
@@ -18,7 +18,9 @@
 
 package org.killbill.billing.overdue.listener;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 import javax.inject.Inject;
@@ -189,14 +191,20 @@ public class OverdueListener {
             // Refresh children
             final List<Account> childrenAccounts = accountApi.getChildrenAccounts(accountId, callContext);
             if (childrenAccounts != null) {
+                final Map<UUID, ObjectType> childrenAccountIds = new LinkedHashMap<UUID, ObjectType>();
                 for (final Account childAccount : childrenAccounts) {
                     if (childAccount.isPaymentDelegatedToParent()) {
-                        final InternalTenantContext internalTenantContext = internalCallContextFactory.createInternalTenantContext(childAccount.getId(), callContext);
-                        final InternalCallContext accountContext = internalCallContextFactory.createInternalCallContext(internalTenantContext.getAccountRecordId(), callContext);
-                        notificationKey = new OverdueAsyncBusNotificationKey(childAccount.getId(), action);
-                        asyncPoster.insertOverdueNotification(childAccount.getId(), callContext.getCreatedDate(), OverdueAsyncBusNotifier.OVERDUE_ASYNC_BUS_NOTIFIER_QUEUE, notificationKey, accountContext);
+                        childrenAccountIds.put(childAccount.getId(), ObjectType.ACCOUNT);
                     }
                 }
+
+                // Resolve the record ids of all children accounts at once
+                final Map<UUID, Long> childrenAccountRecordIds = internalCallContextFactory.getAccountRecordIds(childrenAccountIds, callContext);
+                for (final UUID childAccountId : childrenAccountIds.keySet()) {
+                    final InternalCallContext accountContext = internalCallContextFactory.createInternalCallContext(childrenAccountRecordIds.get(childAccountId), callContext);
+                    notificationKey = new OverdueAsyncBusNotificationKey(childAccountId, action);
+                    asyncPoster.insertOverdueNotification(childAccountId, callContext.getCreatedDate(), OverdueAsyncBusNotifier.OVERDUE_ASYNC_BUS_NOTIFIER_QUEUE, notificationKey, accountContext);
+                }
             }
         } catch (final Exception e) {
             log.error("Error loading child accounts from accountId='{}'", accountId);
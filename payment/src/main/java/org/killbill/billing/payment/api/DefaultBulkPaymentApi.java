@@ -0,0 +1,215 @@
+/*
+ * Copyright 2020-2022 Equinix, Inc
+ * Copyright 2014-2022 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.billing.payment.api;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.inject.Inject;
+
+import org.apache.shiro.mgt.SecurityManager;
+import org.apache.shiro.subject.Subject;
+import org.apache.shiro.util.ThreadContext;
+import org.killbill.billing.ErrorCode;
+import org.killbill.billing.account.api.Account;
+import org.killbill.billing.account.api.AccountApiException;
+import org.killbill.billing.account.api.AccountInternalApi;
+import org.killbill.billing.callcontext.InternalTenantContext;
+import org.killbill.billing.catalog.api.Currency;
+import org.killbill.billing.payment.core.PaymentExecutors;
+import org.killbill.billing.util.UUIDs;
+import org.killbill.billing.util.callcontext.CallContext;
+import org.killbill.billing.util.callcontext.CallableWithRequestData;
+import org.killbill.billing.util.callcontext.InternalCallContextFactory;
+import org.killbill.billing.util.config.definition.PaymentConfig;
+import org.killbill.commons.request.Request;
+import org.killbill.commons.request.RequestData;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+
+public class DefaultBulkPaymentApi extends DefaultApiBase implements BulkPaymentApi {
+
+    private static final Logger log = LoggerFactory.getLogger(DefaultBulkPaymentApi.class);
+
+    private final PaymentApi paymentApi;
+    private final AccountInternalApi accountInternalApi;
+    private final PaymentExecutors paymentExecutors;
+
+    @Inject
+    public DefaultBulkPaymentApi(final PaymentConfig paymentConfig,
+                                 final PaymentApi paymentApi,
+                                 final AccountInternalApi accountInternalApi,
+                                 final PaymentExecutors paymentExecutors,
+                                 final InternalCallContextFactory internalCallContextFactory) {
+        super(paymentConfig, internalCallContextFactory);
+        this.paymentApi = paymentApi;
+        this.accountInternalApi = accountInternalApi;
+        this.paymentExecutors = paymentExecutors;
+    }
+
+    @Override
+    public void createPurchasesWithPaymentControl(final Iterable<BulkPaymentRequest> requests,
+                                                  final PaymentOptions paymentOptions,
+                                                  final BulkPaymentResultHandler resultHandler,
+                                                  final CallContext callContext) {
+        // Group the requests by account, preserving the submission order within each account
+        final Map<UUID, List<PendingRequest>> requestsByAccount = new LinkedHashMap<UUID, List<PendingRequest>>();
+        for (final BulkPaymentRequest request : requests) {
+            requestsByAccount.computeIfAbsent(request.getAccountId(), k -> new LinkedList<PendingRequest>()).add(new PendingRequest(request));
+        }
+
+        // Keep the original requestId, Shiro subject and logging context on the worker threads (permissions are checked there)
+        final RequestData requestData = Request.getPerThreadRequestData();
+        final SecurityManager securityManager = ThreadContext.getSecurityManager();
+        final Subject subject = ThreadContext.getSubject();
+        final Map<String, String> mdcContextMap = MDC.getCopyOfContextMap();
+
+        final List<Future<?>> futures = new ArrayList<Future<?>>(requestsByAccount.size());
+        for (final List<PendingRequest> accountRequests : requestsByAccount.values()) {
+            final Callable<Void> task = () -> {
+                processAccountRequests(accountRequests, paymentOptions, resultHandler, callContext);
+                return null;
+            };
+            futures.add(paymentExecutors.getBulkPaymentExecutorService().submit(new CallableWithRequestData<Void>(requestData,
+                                                                                                                  UUIDs.getRandom(),
+                                                                                                                  securityManager,
+                                                                                                                  subject,
+                                                                                                                  mdcContextMap,
+                                                                                                                  task)));
+        }
+
+        final Iterator<List<PendingRequest>> accountRequestsIterator = requestsByAccount.values().iterator();
+        for (final Future<?> future : futures) {
+            final List<PendingRequest> accountRequests = accountRequestsIterator.next();
+            try {
+                future.get();
+                // The worker stops early if its thread is interrupted (e.g. executor shutdown)
+                reportUnprocessed(accountRequests, resultHandler, interruptedException());
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                log.warn("Interrupted while waiting for bulk payments to complete");
+                for (final Future<?> toCancel : futures) {
+                    toCancel.cancel(true);
+                }
+                // Payments already started are reported by their worker, all others are reported as interrupted
+                final PaymentApiException exception = interruptedException();
+                for (final List<PendingRequest> pendingRequests : requestsByAccount.values()) {
+                    reportUnprocessed(pendingRequests, resultHandler, exception);
+                }
+                return;
+            } catch (final CancellationException e) {
+                reportUnprocessed(accountRequests, resultHandler, interruptedException());
+            } catch (final ExecutionException e) {
+                log.warn("Unexpected error during bulk payment", e.getCause());
+                final PaymentApiException exception = new PaymentApiException(e.getCause(), ErrorCode.PAYMENT_INTERNAL_ERROR, Objects.requireNonNullElse(e.getCause().getMessage(), ""));
+                reportUnprocessed(accountRequests, resultHandler, exception);
+            }
+        }
+    }
+
+    private static PaymentApiException interruptedException() {
+        return new PaymentApiException(ErrorCode.PAYMENT_INTERNAL_ERROR, "Bulk payment was interrupted before the payment was attempted");
+    }
+
+    private static void reportUnprocessed(final Iterable<PendingRequest> pendingRequests,
+                                          final BulkPaymentResultHandler resultHandler,
+                                          final PaymentApiException exception) {
+        for (final PendingRequest pendingRequest : pendingRequests) {
+            if (pendingRequest.claim()) {
+                resultHandler.onResult(pendingRequest.request, null, exception);
+            }
+        }
+    }
+
+    private void processAccountRequests(final List<PendingRequest> accountRequests,
+                                        final PaymentOptions paymentOptions,
+                                        final BulkPaymentResultHandler resultHandler,
+                                        final CallContext callContext) {
+        final UUID accountId = accountRequests.get(0).request.getAccountId();
+
+        // Retrieve the account once for all its payments
+        final Account account;
+        try {
+            final InternalTenantContext internalTenantContext = internalCallContextFactory.createInternalTenantContext(accountId, callContext);
+            account = accountInternalApi.getAccountById(accountId, internalTenantContext);
+        } catch (final AccountApiException e) {
+            reportUnprocessed(accountRequests, resultHandler, new PaymentApiException(e));
+            return;
+        }
+
+        for (final PendingRequest pendingRequest : accountRequests) {
+            // Remaining requests are reported by the caller thread
+            if (Thread.currentThread().isInterrupted() || !pendingRequest.claim()) {
+                return;
+            }
+
+            final BulkPaymentRequest request = pendingRequest.request;
+
+            Payment payment = null;
+            PaymentApiException exception = null;
+            try {
+                checkNotNullParameter(request.getAmount(), "amount");
+                final UUID paymentMethodId = request.getPaymentMethodId() != null ? request.getPaymentMethodId() : account.getPaymentMethodId();
+                final Currency currency = request.getCurrency() != null ? request.getCurrency() : account.getCurrency();
+                payment = paymentApi.createPurchaseWithPaymentControl(account,
+                                                                      paymentMethodId,
+                                                                      null,
+                                                                      request.getAmount(),
+                                                                      currency,
+                                                                      null,
+                                                                      request.getPaymentExternalKey(),
+                                                                      request.getPaymentTransactionExternalKey(),
+                                                                      request.getProperties(),
+                                                                      paymentOptions,
+                                                                      callContext);
+            } catch (final PaymentApiException e) {
+                exception = e;
+            } catch (final RuntimeException e) {
+                exception = new PaymentApiException(e, ErrorCode.PAYMENT_INTERNAL_ERROR, e.getMessage() == null ? "" : e.getMessage());
+            }
+            resultHandler.onResult(request, payment, exception);
+        }
+    }
+
+    // Each request is reported exactly once, either by its worker or by the caller thread if the worker never got to it
+    private static final class PendingRequest {
+
+        private final BulkPaymentRequest request;
+        private final AtomicBoolean claimed = new AtomicBoolean(false);
+
+        private PendingRequest(final BulkPaymentRequest request) {
+            this.request = request;
+        }
+
+        private boolean claim() {
+            return claimed.compareAndSet(false, true);
+        }
+    }
+}
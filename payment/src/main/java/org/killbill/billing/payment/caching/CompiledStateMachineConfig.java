@@ -0,0 +1,113 @@
+/*
+ * Copyright 2020-2022 Equinix, Inc
+ * Copyright 2014-2022 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.billing.payment.caching;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.killbill.automaton.DefaultStateMachineConfig;
+import org.killbill.automaton.Operation;
+import org.killbill.automaton.State;
+import org.killbill.automaton.StateMachine;
+import org.killbill.automaton.StateMachineConfig;
+
+/**
+ * Pre-computed lookup tables for a parsed (and initialized) {@link StateMachineConfig}.
+ * <p>
+ * The automaton resolves states and state machines by walking its arrays and comparing names: instead,
+ * we index everything once when the config is loaded in the cache, so that each payment operation
+ * only does a couple of hash lookups. Instances are what the state machine config cache holds (so they share the lifecycle
+ * of the cache entries, and survive serialization with the config they index) and are safe to share across threads.
+ */
+public class CompiledStateMachineConfig implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final StateMachineConfig stateMachineConfig;
+    private final Map<String, State> statesByName;
+    private final Map<String, StateMachine> stateMachinesByName;
+    private final Map<String, Operation> firstOperationByStateMachineName;
+
+    // Not serialized: configs coming out of a remote cache (e.g. Redis) have to be initialized again
+    private transient volatile boolean initialized;
+
+    public CompiledStateMachineConfig(final StateMachineConfig stateMachineConfig) {
+        this.stateMachineConfig = stateMachineConfig;
+
+        final StateMachine[] stateMachines = stateMachineConfig.getStateMachines();
+        final int nbStateMachines = stateMachines == null ? 0 : stateMachines.length;
+        this.stateMachinesByName = new HashMap<>(2 * nbStateMachines);
+        this.firstOperationByStateMachineName = new HashMap<>(2 * nbStateMachines);
+        this.statesByName = new HashMap<>();
+        for (int i = 0; i < nbStateMachines; i++) {
+            final StateMachine stateMachine = stateMachines[i];
+            final String stateMachineName = stateMachine.getName();
+            stateMachinesByName.putIfAbsent(stateMachineName, stateMachine);
+
+            final Operation[] operations = stateMachine.getOperations();
+            if (operations != null && operations.length > 0) {
+                firstOperationByStateMachineName.putIfAbsent(stateMachineName, operations[0]);
+            }
+
+            final State[] states = stateMachine.getStates();
+            if (states != null) {
+                for (final State state : states) {
+                    // Same semantics as StateMachineConfig#getStateMachineForState: first match wins
+                    statesByName.putIfAbsent(state.getName(), state);
+                }
+            }
+        }
+    }
+
+    /**
+     * Links the config to the default one (see DefaultStateMachineConfig#initialize), once per instance
+     */
+    public CompiledStateMachineConfig initialize(final DefaultStateMachineConfig defaultStateMachineConfig) {
+        if (!initialized) {
+            ((DefaultStateMachineConfig) stateMachineConfig).initialize(defaultStateMachineConfig);
+            initialized = true;
+        }
+        return this;
+    }
+
+    public StateMachineConfig getStateMachineConfig() {
+        return stateMachineConfig;
+    }
+
+    /**
+     * @return the state or null if it isn't defined in this config
+     */
+    public State getState(final String stateName) {
+        return statesByName.get(stateName);
+    }
+
+    /**
+     * @return the state machine or null if it isn't defined in this config
+     */
+    public StateMachine getStateMachine(final String stateMachineName) {
+        return stateMachinesByName.get(stateMachineName);
+    }
+
+    /**
+     * @return the first operation of the state machine or null if the state machine isn't defined in this config
+     */
+    public Operation getFirstOperation(final String stateMachineName) {
+        return firstOperationByStateMachineName.get(stateMachineName);
+    }
+}
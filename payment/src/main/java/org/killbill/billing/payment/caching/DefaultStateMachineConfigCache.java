@@ -48,10 +48,12 @@ public class DefaultStateMachineConfigCache implements StateMachineConfigCache {
 
     private static final Logger logger = LoggerFactory.getLogger(DefaultStateMachineConfigCache.class);
 
-    private final CacheController<String, StateMachineConfig> cacheController;
+    // Per-tenant configs are cached compiled
+    private final CacheController<String, CompiledStateMachineConfig> cacheController;
     private final LoaderCallback loaderCallback;
 
     private DefaultStateMachineConfig defaultPaymentStateMachineConfig;
+    private CompiledStateMachineConfig compiledDefaultPaymentStateMachineConfig;
 
     @Inject
     public DefaultStateMachineConfigCache(final TenantInternalApi tenantInternalApi,
@@ -65,7 +67,7 @@ public class DefaultStateMachineConfigCache implements StateMachineConfigCache {
 
                 try {
                     final InputStream stream = new ByteArrayInputStream(stateMachineConfigXML.getBytes());
-                    return XMLLoader.getObjectFromStream(stream, DefaultStateMachineConfig.class);
+                    return new CompiledStateMachineConfig(XMLLoader.getObjectFromStream(stream, DefaultStateMachineConfig.class));
                 } catch (final Exception e) {
                     throw new PaymentApiException(e, ErrorCode.PAYMENT_STATE_MACHINE_FAILURE);
                 }
@@ -78,6 +80,7 @@ public class DefaultStateMachineConfigCache implements StateMachineConfigCache {
         if (url != null) {
             try {
                 defaultPaymentStateMachineConfig = XMLLoader.getObjectFromString(Resources.getResource(url).toExternalForm(), DefaultStateMachineConfig.class);
+                compiledDefaultPaymentStateMachineConfig = new CompiledStateMachineConfig(defaultPaymentStateMachineConfig);
             } catch (final Exception e) {
                 throw new PaymentApiException(e, ErrorCode.PAYMENT_STATE_MACHINE_FAILURE);
             }
@@ -86,22 +89,34 @@ public class DefaultStateMachineConfigCache implements StateMachineConfigCache {
 
     @Override
     public StateMachineConfig getPaymentStateMachineConfig(final String pluginName, final InternalTenantContext tenantContext) throws PaymentApiException {
+        return getCompiledPaymentStateMachineConfig(pluginName, tenantContext).getStateMachineConfig();
+    }
+
+    @Override
+    public CompiledStateMachineConfig getCompiledPaymentStateMachineConfig(final String pluginName, final InternalTenantContext tenantContext) throws PaymentApiException {
         if (InternalCallContextFactory.INTERNAL_TENANT_RECORD_ID.equals(tenantContext.getTenantRecordId()) || cacheController == null) {
-            return defaultPaymentStateMachineConfig;
+            return compiledDefaultPaymentStateMachineConfig;
         }
 
         final String pluginConfigKey = getCacheKeyName(pluginName, tenantContext);
+        final CompiledStateMachineConfig compiledStateMachineConfig = getCompiledPaymentStateMachineConfigFromCache(pluginConfigKey, pluginName);
+        if (compiledStateMachineConfig == compiledDefaultPaymentStateMachineConfig) {
+            return compiledDefaultPaymentStateMachineConfig;
+        }
+        // No-op unless the config was just loaded (or deserialized)
+        return compiledStateMachineConfig.initialize(defaultPaymentStateMachineConfig);
+    }
+
+    private CompiledStateMachineConfig getCompiledPaymentStateMachineConfigFromCache(final String pluginConfigKey, final String pluginName) throws PaymentApiException {
         final CacheLoaderArgument cacheLoaderArgument = createCacheLoaderArgument(pluginName);
         try {
-            StateMachineConfig pluginPaymentStateMachineConfig = cacheController.get(pluginConfigKey, cacheLoaderArgument);
+            CompiledStateMachineConfig compiledStateMachineConfig = cacheController.get(pluginConfigKey, cacheLoaderArgument);
             // It means we are using the default state machine config in a multi-tenant deployment
-            if (pluginPaymentStateMachineConfig == null) {
-                pluginPaymentStateMachineConfig = defaultPaymentStateMachineConfig;
-                cacheController.putIfAbsent(pluginConfigKey, pluginPaymentStateMachineConfig);
+            if (compiledStateMachineConfig == null) {
+                compiledStateMachineConfig = compiledDefaultPaymentStateMachineConfig;
+                cacheController.putIfAbsent(pluginConfigKey, compiledStateMachineConfig);
             }
-
-            ((DefaultStateMachineConfig)pluginPaymentStateMachineConfig).initialize(defaultPaymentStateMachineConfig);
-            return pluginPaymentStateMachineConfig;
+            return compiledStateMachineConfig;
         } catch (final IllegalStateException e) {
             throw new PaymentApiException(e, ErrorCode.PAYMENT_STATE_MACHINE_FAILURE);
         }
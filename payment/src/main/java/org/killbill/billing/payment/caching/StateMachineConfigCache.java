@@ -27,5 +27,7 @@ public interface StateMachineConfigCache {
 
     public StateMachineConfig getPaymentStateMachineConfig(String pluginName, InternalTenantContext tenantContext) throws PaymentApiException;
 
+    public CompiledStateMachineConfig getCompiledPaymentStateMachineConfig(String pluginName, InternalTenantContext tenantContext) throws PaymentApiException;
+
     public void clearPaymentStateMachineConfig(String pluginName, InternalTenantContext tenantContext);
 }
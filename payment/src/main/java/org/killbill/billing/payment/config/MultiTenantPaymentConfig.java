@@ -164,6 +164,21 @@ public class MultiTenantPaymentConfig extends MultiTenantConfigBase implements P
         return staticConfig.getPaymentPluginThreadNb();
     }
 
+    @Override
+    public int getBulkPaymentThreadNb() {
+        return staticConfig.getBulkPaymentThreadNb();
+    }
+
+    @Override
+    public int getRetryPluginRateLimit() {
+        return staticConfig.getRetryPluginRateLimit();
+    }
+
+    @Override
+    public TimeSpan getRetryJitter() {
+        return staticConfig.getRetryJitter();
+    }
+
     @Override
     public int getMaxGlobalLockRetries() {
         return staticConfig.getMaxGlobalLockRetries();
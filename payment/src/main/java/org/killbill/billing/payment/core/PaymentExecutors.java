@@ -41,11 +41,13 @@ public class PaymentExecutors {
 
     public static final String JANITOR_EXECUTOR_NAMED = "JanitorExecutor";
     public static final String PLUGIN_EXECUTOR_NAMED = "PluginExecutor";
+    public static final String BULK_PAYMENT_EXECUTOR_NAMED = "BulkPaymentExecutor";
 
     private final PaymentConfig paymentConfig;
 
     private volatile ThreadPoolExecutor pluginExecutorService;
     private volatile ScheduledExecutorService janitorExecutorService;
+    private volatile ExecutorService bulkPaymentExecutorService;
 
     @Inject
     public PaymentExecutors(PaymentConfig paymentConfig) {
@@ -57,18 +59,23 @@ public class PaymentExecutors {
         this.pluginExecutorService = createPluginExecutorService();
         this.pluginExecutorService.prestartAllCoreThreads();
         this.janitorExecutorService = createJanitorExecutorService();
+        this.bulkPaymentExecutorService = createBulkPaymentExecutorService();
     }
 
 
     public void stop() throws InterruptedException {
         pluginExecutorService.shutdownNow();
         janitorExecutorService.shutdownNow();
+        bulkPaymentExecutorService.shutdownNow();
 
         pluginExecutorService.awaitTermination(TIMEOUT_EXECUTOR_SEC, TimeUnit.SECONDS);
         pluginExecutorService = null;
 
         janitorExecutorService.awaitTermination(TIMEOUT_EXECUTOR_SEC, TimeUnit.SECONDS);
         janitorExecutorService = null;
+
+        bulkPaymentExecutorService.awaitTermination(TIMEOUT_EXECUTOR_SEC, TimeUnit.SECONDS);
+        bulkPaymentExecutorService = null;
     }
 
     public ExecutorService getPluginExecutorService() {
@@ -79,6 +86,10 @@ public class PaymentExecutors {
         return janitorExecutorService;
     }
 
+    public ExecutorService getBulkPaymentExecutorService() {
+        return bulkPaymentExecutorService;
+    }
+
     private ThreadPoolExecutor createPluginExecutorService() {
         final int minThreadNb = DEFAULT_MIN_PLUGIN_THREADS < paymentConfig.getPaymentPluginThreadNb() ? DEFAULT_MIN_PLUGIN_THREADS : paymentConfig.getPaymentPluginThreadNb();
         return new WithProfilingThreadPoolExecutor(minThreadNb,
@@ -101,4 +112,8 @@ public class PaymentExecutors {
     private ScheduledExecutorService createJanitorExecutorService() {
         return Executors.newSingleThreadScheduledExecutor("PaymentJanitor");
     }
+
+    private ExecutorService createBulkPaymentExecutorService() {
+        return Executors.newFixedThreadPool(paymentConfig.getBulkPaymentThreadNb(), BULK_PAYMENT_EXECUTOR_NAMED);
+    }
 }
@@ -34,6 +34,7 @@ import javax.annotation.Nullable;
 import javax.inject.Inject;
 
 import org.killbill.billing.ErrorCode;
+import org.killbill.billing.ObjectType;
 import org.killbill.billing.account.api.AccountInternalApi;
 import org.killbill.billing.callcontext.InternalTenantContext;
 import org.killbill.billing.invoice.api.InvoiceInternalApi;
@@ -416,9 +417,18 @@ public class PaymentRefresher extends ProcessorBase {
             }
         }
 
+        // Resolve the account contexts of all payments at once, instead of once per payment in toPayment
+        final Map<UUID, ObjectType> paymentIds = new HashMap<UUID, ObjectType>();
+        for (final UUID paymentId : payments.keySet()) {
+            paymentIds.put(paymentId, ObjectType.PAYMENT);
+        }
+        final Map<UUID, InternalTenantContext> paymentContexts = internalCallContextFactory.createInternalTenantContexts(paymentIds, tenantContext);
+
         final Collection<Payment> results = new LinkedList<>();
         for (final UUID paymentId : payments.keySet()) {
-            final Payment result = toPayment(paymentId, withPluginInfo ? payments.get(paymentId) : Collections.emptyList(), withAttempts, isApiPayment, internalTenantContext);
+            // Unknown payments are reported by toPayment
+            final InternalTenantContext paymentContext = paymentContexts.getOrDefault(paymentId, internalTenantContext);
+            final Payment result = toPayment(paymentId, withPluginInfo ? payments.get(paymentId) : Collections.emptyList(), withAttempts, isApiPayment, paymentContext);
             if (result != null) {
                 results.add(result);
             }
@@ -17,15 +17,20 @@
 
 package org.killbill.billing.payment.core.sm;
 
+import java.util.EnumMap;
+import java.util.Map;
+
 import javax.inject.Inject;
 
 import org.killbill.automaton.MissingEntryException;
 import org.killbill.automaton.Operation;
+import org.killbill.automaton.State;
 import org.killbill.automaton.StateMachine;
 import org.killbill.automaton.StateMachineConfig;
 import org.killbill.billing.callcontext.InternalCallContext;
 import org.killbill.billing.payment.api.PaymentApiException;
 import org.killbill.billing.payment.api.TransactionType;
+import org.killbill.billing.payment.caching.CompiledStateMachineConfig;
 import org.killbill.billing.payment.caching.StateMachineConfigCache;
 
 /**
@@ -76,6 +81,18 @@ public class PaymentStateMachineHelper {
     private static final String VOID_ERRORED = "VOID_ERRORED";
     private static final String CHARGEBACK_ERRORED = "CHARGEBACK_ERRORED";
 
+    private static final Map<TransactionType, String> STATE_MACHINE_NAMES = new EnumMap<TransactionType, String>(TransactionType.class);
+
+    static {
+        STATE_MACHINE_NAMES.put(TransactionType.AUTHORIZE, AUTHORIZE_STATE_MACHINE_NAME);
+        STATE_MACHINE_NAMES.put(TransactionType.CAPTURE, CAPTURE_STATE_MACHINE_NAME);
+        STATE_MACHINE_NAMES.put(TransactionType.PURCHASE, PURCHASE_STATE_MACHINE_NAME);
+        STATE_MACHINE_NAMES.put(TransactionType.REFUND, REFUND_STATE_MACHINE_NAME);
+        STATE_MACHINE_NAMES.put(TransactionType.CREDIT, CREDIT_STATE_MACHINE_NAME);
+        STATE_MACHINE_NAMES.put(TransactionType.VOID, VOID_STATE_MACHINE_NAME);
+        STATE_MACHINE_NAMES.put(TransactionType.CHARGEBACK, CHARGEBACK_STATE_MACHINE_NAME);
+    }
+
     private final StateMachineConfigCache stateMachineConfigCache;
 
     public static final String[] STATE_NAMES = {AUTHORIZE_ERRORED,
@@ -204,6 +221,29 @@ public class PaymentStateMachineHelper {
         return stateMachineConfigCache.getPaymentStateMachineConfig(pluginName, internalCallContext);
     }
 
+    public CompiledStateMachineConfig getCompiledStateMachineConfig(final String pluginName, final InternalCallContext internalCallContext) throws PaymentApiException {
+        return stateMachineConfigCache.getCompiledPaymentStateMachineConfig(pluginName, internalCallContext);
+    }
+
+    public State getState(final CompiledStateMachineConfig compiledStateMachineConfig, final String stateName) throws MissingEntryException {
+        final State state = compiledStateMachineConfig.getState(stateName);
+        if (state != null) {
+            return state;
+        }
+        // Let the automaton generate the proper exception
+        return compiledStateMachineConfig.getStateMachineConfig().getStateMachineForState(stateName).getState(stateName);
+    }
+
+    public Operation getOperationForTransaction(final CompiledStateMachineConfig compiledStateMachineConfig, final TransactionType transactionType) throws MissingEntryException {
+        final String stateMachineName = STATE_MACHINE_NAMES.get(transactionType);
+        final Operation operation = stateMachineName == null ? null : compiledStateMachineConfig.getFirstOperation(stateMachineName);
+        if (operation != null) {
+            return operation;
+        }
+        // Let the automaton generate the proper exception
+        return getOperationForTransaction(compiledStateMachineConfig.getStateMachineConfig(), transactionType);
+    }
+
     public Operation getOperationForTransaction(final StateMachineConfig stateMachineConfig, final TransactionType transactionType) throws MissingEntryException {
         final StateMachine stateMachine = getStateMachineForTransaction(stateMachineConfig, transactionType);
         // Only one operation defined, this is the current PaymentStates.xml model
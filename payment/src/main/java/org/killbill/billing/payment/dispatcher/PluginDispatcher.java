@@ -28,6 +28,7 @@ import java.util.concurrent.TimeoutException;
 import org.apache.shiro.util.ThreadContext;
 import org.killbill.billing.payment.core.PaymentExecutors;
 import org.killbill.billing.util.UUIDs;
+import org.killbill.billing.util.callcontext.CallableWithRequestData;
 import org.killbill.commons.utils.annotation.VisibleForTesting;
 import org.killbill.commons.profiling.Profiling;
 import org.killbill.commons.profiling.ProfilingData;
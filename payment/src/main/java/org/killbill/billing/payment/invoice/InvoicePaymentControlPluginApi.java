@@ -69,15 +69,13 @@ import org.killbill.billing.payment.retry.BaseRetryService.RetryServiceScheduler
 import org.killbill.billing.payment.retry.DefaultFailureCallResult;
 import org.killbill.billing.payment.retry.DefaultOnSuccessPaymentControlResult;
 import org.killbill.billing.payment.retry.DefaultPriorPaymentControlResult;
+import org.killbill.billing.tag.TagInternalApi;
 import org.killbill.commons.utils.Preconditions;
 import org.killbill.commons.utils.annotation.VisibleForTesting;
-import org.killbill.billing.util.api.TagUserApi;
-import org.killbill.billing.util.callcontext.CallContext;
 import org.killbill.billing.util.callcontext.InternalCallContextFactory;
 import org.killbill.commons.utils.collect.Iterables;
 import org.killbill.billing.util.config.definition.PaymentConfig;
 import org.killbill.billing.util.tag.ControlTagType;
-import org.killbill.billing.util.tag.Tag;
 import org.killbill.clock.Clock;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -95,7 +93,7 @@ public final class InvoicePaymentControlPluginApi implements PaymentControlPlugi
 
     private final PaymentConfig paymentConfig;
     private final InvoiceInternalApi invoiceApi;
-    private final TagUserApi tagApi;
+    private final TagInternalApi tagApi;
     private final PaymentDao paymentDao;
     private final InvoicePaymentControlDao controlDao;
     private final RetryServiceScheduler retryServiceScheduler;
@@ -107,7 +105,7 @@ public final class InvoicePaymentControlPluginApi implements PaymentControlPlugi
 
     @Inject
     public InvoicePaymentControlPluginApi(final PaymentConfig paymentConfig,
-                                          final InvoiceInternalApi invoiceApi, final TagUserApi tagApi,
+                                          final InvoiceInternalApi invoiceApi, final TagInternalApi tagApi,
                                           final PaymentDao paymentDao, final InvoicePaymentControlDao invoicePaymentControlDao,
                                           @Named(PaymentModule.RETRYABLE_NAMED) final RetryServiceScheduler retryServiceScheduler,
                                           final InternalCallContextFactory internalCallContextFactory, final Clock clock,
@@ -359,7 +357,7 @@ public final class InvoicePaymentControlPluginApi implements PaymentControlPlugi
             }
 
             // Are we in auto-payoff (do the check as soon as possible -- https://github.com/killbill/killbill/issues/812)?
-            if (insert_AUTO_PAY_OFF_ifRequired(paymentControlPluginContext, requestedAmount)) {
+            if (insert_AUTO_PAY_OFF_ifRequired(paymentControlPluginContext, requestedAmount, internalContext)) {
                 log.info("Aborting payment: invoiceId='{}' is AUTO_PAY_OFF", invoice.getId());
                 return new DefaultPriorPaymentControlResult(true);
             }
@@ -712,8 +710,8 @@ public final class InvoicePaymentControlPluginApi implements PaymentControlPlugi
         return (inputAmount == null || invoice.getBalance().compareTo(inputAmount) < 0) ? invoice.getBalance() : inputAmount;
     }
 
-    private boolean insert_AUTO_PAY_OFF_ifRequired(final PaymentControlContext paymentControlContext, final BigDecimal computedAmount) {
-        if (paymentControlContext.isApiPayment() || !isAccountAutoPayOff(paymentControlContext.getAccountId(), paymentControlContext)) {
+    private boolean insert_AUTO_PAY_OFF_ifRequired(final PaymentControlContext paymentControlContext, final BigDecimal computedAmount, final InternalCallContext internalContext) {
+        if (paymentControlContext.isApiPayment() || !isAccountAutoPayOff(paymentControlContext.getAccountId(), internalContext)) {
             return false;
         }
         final PluginAutoPayOffModelDao data = new PluginAutoPayOffModelDao(paymentControlContext.getAttemptPaymentId(), paymentControlContext.getPaymentExternalKey(), paymentControlContext.getTransactionExternalKey(),
@@ -724,8 +722,7 @@ public final class InvoicePaymentControlPluginApi implements PaymentControlPlugi
         return true;
     }
 
-    private boolean isAccountAutoPayOff(final UUID accountId, final CallContext callContext) {
-        final List<Tag> accountTags = tagApi.getTagsForAccount(accountId, false, callContext);
-        return ControlTagType.isAutoPayOff(accountTags.stream().map(Tag::getTagDefinitionId).collect(Collectors.toUnmodifiableList()));
+    private boolean isAccountAutoPayOff(final UUID accountId, final InternalCallContext internalContext) {
+        return tagApi.hasControlTag(accountId, ObjectType.ACCOUNT, ControlTagType.AUTO_PAY_OFF, internalContext);
     }
 }
@@ -23,6 +23,7 @@ import java.io.IOException;
 import java.util.List;
 import java.util.UUID;
 
+import javax.annotation.Nullable;
 import javax.inject.Inject;
 
 import org.joda.time.DateTime;
@@ -71,6 +72,9 @@ public abstract class BaseRetryService implements RetryService {
                                                                                   return;
                                                                               }
                                                                               final PaymentRetryNotificationKey key = (PaymentRetryNotificationKey) notificationKey;
+                                                                              if (rescheduleIfThrottled(key, userToken, accountRecordId, tenantRecordId)) {
+                                                                                  return;
+                                                                              }
                                                                               final InternalCallContext callContext = internalCallContextFactory.createInternalCallContext(tenantRecordId, accountRecordId, paymentRetryService, CallOrigin.INTERNAL, UserType.SYSTEM, userToken);
                                                                               retryPaymentTransaction(key.getAttemptId(), key.getPaymentControlPluginNames(), callContext);
                                                                           }
@@ -78,6 +82,36 @@ public abstract class BaseRetryService implements RetryService {
                                                                      );
     }
 
+    private boolean rescheduleIfThrottled(final PaymentRetryNotificationKey key, final UUID userToken, final Long accountRecordId, final Long tenantRecordId) {
+        final DateTime reservedSlot = getReservedSlot(key.getAttemptId(), key.getPaymentControlPluginNames(), key.getReservedSlot());
+        if (reservedSlot == null) {
+            return false;
+        }
+
+        try {
+            // Keep track of the reservation, so that the retry doesn't compete for a new slot when it comes back
+            final PaymentRetryNotificationKey rescheduledKey = new PaymentRetryNotificationKey(key.getAttemptId(), key.getPaymentControlPluginNames(), reservedSlot);
+            final DateTime throttledTimeOfRetry = getThrottledTimeOfRetry(key.getAttemptId(), reservedSlot);
+            log.debug("Rescheduling throttled retry timeOfRetry={}, key={}", throttledTimeOfRetry, rescheduledKey);
+            retryQueue.recordFutureNotification(throttledTimeOfRetry, rescheduledKey, userToken, accountRecordId, tenantRecordId);
+            return true;
+        } catch (final IOException e) {
+            log.warn("Failed to reschedule throttled retry for attemptId='{}', processing it now", key.getAttemptId(), e);
+            return false;
+        }
+    }
+
+    // Returns the slot reserved for the retry, or null to process it now
+    @Nullable
+    protected DateTime getReservedSlot(final UUID attemptId, final List<String> paymentControlPluginNames, @Nullable final DateTime previouslyReservedSlot) {
+        return null;
+    }
+
+    // Returns the time at which a retry with a reserved slot should be rescheduled
+    protected DateTime getThrottledTimeOfRetry(final UUID attemptId, final DateTime reservedSlot) {
+        return reservedSlot;
+    }
+
     @Override
     public void start() {
         retryQueue.startQueue();
@@ -114,13 +148,14 @@ public abstract class BaseRetryService implements RetryService {
         }
 
 
-        private boolean scheduleRetryInternal(final ObjectType objectType, final UUID objectId, final UUID attemptId, final Long tenantRecordId, final List<String> paymentControlPluginNames, final DateTime timeOfRetry, final EntitySqlDaoWrapperFactory transactionalDao) {
+        private boolean scheduleRetryInternal(final ObjectType objectType, final UUID objectId, final UUID attemptId, final Long tenantRecordId, final List<String> paymentControlPluginNames, final DateTime initialTimeOfRetry, final EntitySqlDaoWrapperFactory transactionalDao) {
             final InternalCallContext context = createCallContextFromPaymentId(objectType, objectId, tenantRecordId);
 
             try {
                 final NotificationQueue retryQueue = notificationQueueService.getNotificationQueue(KILLBILL_SERVICES.PAYMENT_SERVICE.getServiceName(), getQueueName());
                 final NotificationEvent key = new PaymentRetryNotificationKey(attemptId, paymentControlPluginNames);
                 if (retryQueue != null) {
+                    final DateTime timeOfRetry = computeTimeOfRetry(attemptId, initialTimeOfRetry);
                     log.debug("Scheduling retry timeOfRetry={}, key={}", timeOfRetry, key);
                     if (transactionalDao == null) {
                         retryQueue.recordFutureNotification(timeOfRetry, key, context.getUserToken(), context.getAccountRecordId(), context.getTenantRecordId());
@@ -139,6 +174,10 @@ public abstract class BaseRetryService implements RetryService {
         }
 
 
+        protected DateTime computeTimeOfRetry(final UUID attemptId, final DateTime timeOfRetry) {
+            return timeOfRetry;
+        }
+
         protected InternalCallContext createCallContextFromPaymentId(final ObjectType objectType, final UUID objectId, final Long tenantRecordId) {
             final String paymentRetryService = KILLBILL_SERVICES.PAYMENT_SERVICE.getServiceName() + "-" + getQueueName();
             return internalCallContextFactory.createInternalCallContext(objectId, objectType, paymentRetryService, CallOrigin.INTERNAL, UserType.SYSTEM, null, tenantRecordId);
@@ -20,6 +20,7 @@ package org.killbill.billing.payment.retry;
 import java.util.List;
 import java.util.UUID;
 
+import org.joda.time.DateTime;
 import org.killbill.billing.callcontext.InternalCallContext;
 import org.killbill.billing.payment.core.PluginControlPaymentProcessor;
 import org.killbill.billing.util.callcontext.InternalCallContextFactory;
@@ -32,11 +33,13 @@ public class DefaultRetryService extends BaseRetryService implements RetryServic
     public static final String QUEUE_NAME = "retry";
 
     private final PluginControlPaymentProcessor processor;
+    private final RetryThrottler retryThrottler;
 
     @Inject
-    public DefaultRetryService(final NotificationQueueService notificationQueueService, final InternalCallContextFactory internalCallContextFactory, final PluginControlPaymentProcessor processor) {
+    public DefaultRetryService(final NotificationQueueService notificationQueueService, final InternalCallContextFactory internalCallContextFactory, final PluginControlPaymentProcessor processor, final RetryThrottler retryThrottler) {
         super(notificationQueueService, internalCallContextFactory);
         this.processor = processor;
+        this.retryThrottler = retryThrottler;
     }
 
     @Override
@@ -49,11 +52,29 @@ public class DefaultRetryService extends BaseRetryService implements RetryServic
         processor.retryPaymentTransaction(attemptId, paymentControlPluginNames, context);
     }
 
+    @Override
+    protected DateTime getReservedSlot(final UUID attemptId, final List<String> paymentControlPluginNames, final DateTime previouslyReservedSlot) {
+        return retryThrottler.tryAcquire(paymentControlPluginNames, previouslyReservedSlot);
+    }
+
+    @Override
+    protected DateTime getThrottledTimeOfRetry(final UUID attemptId, final DateTime reservedSlot) {
+        return retryThrottler.computeTimeOfRetry(attemptId, reservedSlot);
+    }
+
     public static class DefaultRetryServiceScheduler extends RetryServiceScheduler {
 
+        private final RetryThrottler retryThrottler;
+
         @Inject
-        public DefaultRetryServiceScheduler(final NotificationQueueService notificationQueueService, final InternalCallContextFactory internalCallContextFactory) {
+        public DefaultRetryServiceScheduler(final NotificationQueueService notificationQueueService, final InternalCallContextFactory internalCallContextFactory, final RetryThrottler retryThrottler) {
             super(notificationQueueService, internalCallContextFactory);
+            this.retryThrottler = retryThrottler;
+        }
+
+        @Override
+        protected DateTime computeTimeOfRetry(final UUID attemptId, final DateTime timeOfRetry) {
+            return retryThrottler.computeTimeOfRetry(attemptId, timeOfRetry);
         }
 
         @Override
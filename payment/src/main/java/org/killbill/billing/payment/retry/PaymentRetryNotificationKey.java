@@ -21,6 +21,9 @@ package org.killbill.billing.payment.retry;
 import java.util.List;
 import java.util.UUID;
 
+import javax.annotation.Nullable;
+
+import org.joda.time.DateTime;
 import org.killbill.notificationq.api.NotificationEvent;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
@@ -30,12 +33,20 @@ public class PaymentRetryNotificationKey implements NotificationEvent {
 
     private final UUID attemptId;
     private final List<String> paymentControlPluginNames;
+    // Set when the retry was throttled: slot reserved for it by the RetryThrottler
+    private final DateTime reservedSlot;
+
+    public PaymentRetryNotificationKey(final UUID attemptId, final List<String> paymentControlPluginNames) {
+        this(attemptId, paymentControlPluginNames, null);
+    }
 
     @JsonCreator
     public PaymentRetryNotificationKey(@JsonProperty("attemptId") UUID attemptId,
-                                       @JsonProperty("paymentControlPluginNames") List<String> paymentControlPluginNames) {
+                                       @JsonProperty("paymentControlPluginNames") List<String> paymentControlPluginNames,
+                                       @JsonProperty("reservedSlot") @Nullable DateTime reservedSlot) {
         this.attemptId = attemptId;
         this.paymentControlPluginNames = paymentControlPluginNames;
+        this.reservedSlot = reservedSlot;
     }
 
     public UUID getAttemptId() {
@@ -46,11 +57,17 @@ public class PaymentRetryNotificationKey implements NotificationEvent {
         return paymentControlPluginNames;
     }
 
+    @Nullable
+    public DateTime getReservedSlot() {
+        return reservedSlot;
+    }
+
     @Override
     public String toString() {
         final StringBuilder sb = new StringBuilder("PaymentRetryNotificationKey{");
         sb.append("attemptId=").append(attemptId);
         sb.append(", paymentControlPluginNames=").append(paymentControlPluginNames);
+        sb.append(", reservedSlot=").append(reservedSlot);
         sb.append('}');
         return sb.toString();
     }
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2020-2022 Equinix, Inc
+ * Copyright 2014-2022 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.killbill.billing.payment.retry;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.annotation.Nullable;
+import javax.inject.Inject;
+
+import org.joda.time.DateTime;
+import org.killbill.billing.util.config.definition.PaymentConfig;
+import org.killbill.clock.Clock;
+
+/**
+ * Spreads payment retries over time: retries are scheduled with a jitter derived from the attempt id and,
+ * when they become ready, each payment control plugin only accepts a bounded number of them per second.
+ * Retries over the limit are given a slot, reserved on every plugin, and rescheduled: when they come back
+ * (possibly late, the retry queue being polled), they are processed without competing for new permits.
+ * <p>
+ * Note that the limit applies per node: with N nodes processing retries, a plugin may see up to N times the configured rate.
+ */
+public class RetryThrottler {
+
+    private final PaymentConfig paymentConfig;
+    private final Clock clock;
+    private final ConcurrentMap<String, PluginRateLimiter> rateLimiters = new ConcurrentHashMap<String, PluginRateLimiter>();
+
+    @Inject
+    public RetryThrottler(final PaymentConfig paymentConfig, final Clock clock) {
+        this.paymentConfig = paymentConfig;
+        this.clock = clock;
+    }
+
+    public DateTime computeTimeOfRetry(final UUID attemptId, final DateTime timeOfRetry) {
+        final long jitterMillis = paymentConfig.getRetryJitter().getMillis();
+        if (jitterMillis <= 0) {
+            return timeOfRetry;
+        }
+        return timeOfRetry.plus(jitter(attemptId, jitterMillis));
+    }
+
+    /**
+     * @param reservedSlot slot previously returned for that retry, if any
+     * @return null if the retry can be processed now, the slot reserved for it otherwise
+     */
+    @Nullable
+    public DateTime tryAcquire(@Nullable final List<String> paymentControlPluginNames, @Nullable final DateTime reservedSlot) {
+        final int permitsPerSecond = paymentConfig.getRetryPluginRateLimit();
+        if (permitsPerSecond <= 0 || paymentControlPluginNames == null || paymentControlPluginNames.isEmpty()) {
+            return null;
+        }
+
+        final DateTime now = clock.getUTCNow();
+        if (reservedSlot != null) {
+            // The permits were taken when the slot was reserved
+            return now.isBefore(reservedSlot) ? reservedSlot : null;
+        }
+
+        final long nowMillis = now.getMillis();
+        long slotMillis = nowMillis;
+        for (final String pluginName : paymentControlPluginNames) {
+            slotMillis = Math.max(slotMillis, getRateLimiter(pluginName, permitsPerSecond).acquire(nowMillis));
+        }
+        return slotMillis == nowMillis ? null : now.plus(slotMillis - nowMillis);
+    }
+
+    private PluginRateLimiter getRateLimiter(final String pluginName, final int permitsPerSecond) {
+        final PluginRateLimiter rateLimiter = rateLimiters.get(pluginName);
+        if (rateLimiter != null && rateLimiter.permitsPerSecond == permitsPerSecond) {
+            return rateLimiter;
+        }
+        // First use or limit changed: start over with a full bucket
+        return rateLimiters.compute(pluginName, (name, existing) -> (existing != null && existing.permitsPerSecond == permitsPerSecond) ?
+                                                                    existing :
+                                                                    new PluginRateLimiter(permitsPerSecond, clock.getUTCNow().getMillis()));
+    }
+
+    private static long jitter(final UUID attemptId, final long jitterMillis) {
+        return Math.floorMod(attemptId.getLeastSignificantBits() ^ attemptId.getMostSignificantBits(), jitterMillis);
+    }
+
+    // Token bucket holding up to one second worth of permits. Once empty, permits are taken in advance (the bucket goes
+    // into debt): each caller is handed the time at which its permit is refilled, and nobody else can take it in the meantime.
+    private static final class PluginRateLimiter {
+
+        private static final long MILLIS_PER_SECOND = 1000L;
+
+        private final int permitsPerSecond;
+        private final double intervalMillis;
+
+        private double availablePermits;
+        private long lastRefillMillis;
+
+        private PluginRateLimiter(final int permitsPerSecond, final long nowMillis) {
+            this.permitsPerSecond = permitsPerSecond;
+            this.intervalMillis = (double) MILLIS_PER_SECOND / permitsPerSecond;
+            this.availablePermits = permitsPerSecond;
+            this.lastRefillMillis = nowMillis;
+        }
+
+        // Returns nowMillis if a permit was available, the time at which the permit taken in advance is refilled otherwise
+        private synchronized long acquire(final long nowMillis) {
+            if (nowMillis > lastRefillMillis) {
+                availablePermits = Math.min(permitsPerSecond, availablePermits + (nowMillis - lastRefillMillis) / intervalMillis);
+                lastRefillMillis = nowMillis;
+            }
+            final double permitsBefore = availablePermits;
+            availablePermits -= 1;
+            if (permitsBefore >= 1) {
+                return nowMillis;
+            }
+            return nowMillis + (long) Math.ceil((1 - permitsBefore) * intervalMillis);
+        }
+    }
+}
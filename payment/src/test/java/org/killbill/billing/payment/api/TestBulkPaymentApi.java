@@ -0,0 +1,136 @@
+/*
+ * Copyright 2020-2022 Equinix, Inc
+ * Copyright 2014-2022 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.billing.payment.api;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Inject;
+
+import org.awaitility.Awaitility;
+import org.killbill.billing.ErrorCode;
+import org.killbill.billing.account.api.Account;
+import org.killbill.billing.catalog.api.Currency;
+import org.killbill.billing.payment.PaymentTestSuiteWithEmbeddedDB;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class TestBulkPaymentApi extends PaymentTestSuiteWithEmbeddedDB {
+
+    private static final PaymentOptions NO_CONTROL_PLUGIN_OPTIONS = new PaymentOptions() {
+        @Override
+        public boolean isExternalPayment() {
+            return false;
+        }
+
+        @Override
+        public List<String> getPaymentControlPluginNames() {
+            return Collections.emptyList();
+        }
+    };
+
+    @Inject
+    private BulkPaymentApi bulkPaymentApi;
+
+    @Test(groups = "slow")
+    public void testCreatePurchasesForMultipleAccounts() throws Exception {
+        final Account account1 = testHelper.createTestAccount(UUID.randomUUID().toString(), true);
+        final Account account2 = testHelper.createTestAccount(UUID.randomUUID().toString(), true);
+
+        final String duplicateTransactionExternalKey = UUID.randomUUID().toString();
+        final BulkPaymentRequest request1 = new BulkPaymentRequest(account1.getId(), null, BigDecimal.TEN, null, null, UUID.randomUUID().toString(), null);
+        final BulkPaymentRequest request2 = new BulkPaymentRequest(account2.getId(), account2.getPaymentMethodId(), BigDecimal.ONE, Currency.USD, null, duplicateTransactionExternalKey, null);
+        final BulkPaymentRequest request3 = new BulkPaymentRequest(account1.getId(), account1.getPaymentMethodId(), new BigDecimal("5"), Currency.EUR, null, UUID.randomUUID().toString(), null);
+        // Same transaction external key on the same account: processed after request2, so it must fail
+        final BulkPaymentRequest request4 = new BulkPaymentRequest(account2.getId(), null, BigDecimal.ONE, null, null, duplicateTransactionExternalKey, null);
+
+        final Map<BulkPaymentRequest, Payment> payments = new ConcurrentHashMap<BulkPaymentRequest, Payment>();
+        final Map<BulkPaymentRequest, PaymentApiException> exceptions = new ConcurrentHashMap<BulkPaymentRequest, PaymentApiException>();
+        bulkPaymentApi.createPurchasesWithPaymentControl(List.of(request1, request2, request3, request4),
+                                                         NO_CONTROL_PLUGIN_OPTIONS,
+                                                         (request, payment, exception) -> {
+                                                             if (payment != null) {
+                                                                 payments.put(request, payment);
+                                                             } else {
+                                                                 exceptions.put(request, exception);
+                                                             }
+                                                         },
+                                                         callContext);
+
+        Assert.assertEquals(payments.size(), 3);
+        Assert.assertEquals(exceptions.size(), 1);
+        Assert.assertNotNull(exceptions.get(request4));
+
+        Assert.assertEquals(payments.get(request1).getAccountId(), account1.getId());
+        Assert.assertEquals(payments.get(request1).getPaymentMethodId(), account1.getPaymentMethodId());
+        Assert.assertEquals(payments.get(request1).getCurrency(), account1.getCurrency());
+        Assert.assertEquals(payments.get(request1).getPurchasedAmount().compareTo(BigDecimal.TEN), 0);
+        Assert.assertEquals(payments.get(request2).getAccountId(), account2.getId());
+        Assert.assertEquals(payments.get(request2).getTransactions().get(0).getTransactionStatus(), TransactionStatus.SUCCESS);
+        Assert.assertEquals(payments.get(request3).getCurrency(), Currency.EUR);
+
+        Assert.assertEquals(paymentApi.getAccountPayments(account1.getId(), false, false, Collections.emptyList(), callContext).size(), 2);
+        Assert.assertEquals(paymentApi.getAccountPayments(account2.getId(), false, false, Collections.emptyList(), callContext).size(), 1);
+    }
+
+    @Test(groups = "slow")
+    public void testInterruptedCallerReportsEveryRequest() throws Exception {
+        final Account account1 = testHelper.createTestAccount(UUID.randomUUID().toString(), true);
+        final Account account2 = testHelper.createTestAccount(UUID.randomUUID().toString(), true);
+
+        final List<BulkPaymentRequest> requests = new ArrayList<BulkPaymentRequest>();
+        for (int i = 0; i < 5; i++) {
+            requests.add(new BulkPaymentRequest(account1.getId(), null, BigDecimal.ONE, null, null, UUID.randomUUID().toString(), null));
+            requests.add(new BulkPaymentRequest(account2.getId(), null, BigDecimal.ONE, null, null, UUID.randomUUID().toString(), null));
+        }
+
+        final Map<BulkPaymentRequest, Integer> reports = new ConcurrentHashMap<BulkPaymentRequest, Integer>();
+        final Map<BulkPaymentRequest, PaymentApiException> exceptions = new ConcurrentHashMap<BulkPaymentRequest, PaymentApiException>();
+        // The caller gives up as soon as it starts waiting on the workers
+        Thread.currentThread().interrupt();
+        try {
+            bulkPaymentApi.createPurchasesWithPaymentControl(requests,
+                                                             NO_CONTROL_PLUGIN_OPTIONS,
+                                                             (request, payment, exception) -> {
+                                                                 reports.merge(request, 1, Integer::sum);
+                                                                 if (exception != null) {
+                                                                     exceptions.put(request, exception);
+                                                                 }
+                                                             },
+                                                             callContext);
+            Assert.assertTrue(Thread.currentThread().isInterrupted());
+        } finally {
+            Thread.interrupted();
+        }
+
+        // Requests already started by a worker are reported by that worker, once it completes
+        Awaitility.await().atMost(10, TimeUnit.SECONDS).until(() -> reports.size() == requests.size());
+        for (final BulkPaymentRequest request : requests) {
+            Assert.assertEquals(reports.get(request), (Integer) 1);
+        }
+        for (final PaymentApiException exception : exceptions.values()) {
+            Assert.assertEquals(exception.getCode(), ErrorCode.PAYMENT_INTERNAL_ERROR.getCode());
+        }
+    }
+}
@@ -0,0 +1,188 @@
+/*
+ * Copyright 2020-2022 Equinix, Inc
+ * Copyright 2014-2022 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.billing.payment.api;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.inject.Inject;
+
+import org.apache.shiro.SecurityUtils;
+import org.apache.shiro.config.Ini;
+import org.apache.shiro.config.IniSecurityManagerFactory;
+import org.apache.shiro.mgt.SecurityManager;
+import org.apache.shiro.util.Factory;
+import org.apache.shiro.util.ThreadContext;
+import org.killbill.billing.ErrorCode;
+import org.killbill.billing.account.api.Account;
+import org.killbill.billing.payment.PaymentTestSuiteWithEmbeddedDB;
+import org.killbill.billing.payment.glue.TestPaymentModuleWithEmbeddedDB;
+import org.killbill.billing.security.api.SecurityApi;
+import org.killbill.billing.util.glue.KillBillShiroAopModule;
+import org.killbill.billing.util.glue.SecurityModule;
+import org.killbill.billing.util.glue.TestUtilModuleNoDB.ShiroModuleNoDB;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+
+// Permissions are enforced on the bulk payment worker threads, against the subject of the caller
+public class TestBulkPaymentApiWithPermissions extends PaymentTestSuiteWithEmbeddedDB {
+
+    private static final PaymentOptions NO_CONTROL_PLUGIN_OPTIONS = new PaymentOptions() {
+        @Override
+        public boolean isExternalPayment() {
+            return false;
+        }
+
+        @Override
+        public List<String> getPaymentControlPluginNames() {
+            return Collections.emptyList();
+        }
+    };
+
+    @Inject
+    private BulkPaymentApi bulkPaymentApi;
+    @Inject
+    private SecurityApi securityApi;
+
+    @Override
+    @BeforeClass(groups = "slow")
+    protected void beforeClass() throws Exception {
+        if (hasFailed()) {
+            return;
+        }
+
+        final Injector injector = Guice.createInjector(new TestPaymentModuleWithEmbeddedDB(configSource, clock),
+                                                       new ShiroModuleNoDB(configSource),
+                                                       new KillBillShiroAopModule(configSource),
+                                                       new SecurityModule(configSource));
+        injector.injectMembers(this);
+    }
+
+    @Override
+    @BeforeMethod(groups = "slow")
+    public void beforeMethod() throws Exception {
+        if (hasFailed()) {
+            return;
+        }
+
+        super.beforeMethod();
+        configureShiro();
+    }
+
+    @Override
+    @AfterMethod(groups = "slow")
+    public void afterMethod() throws Exception {
+        if (hasFailed()) {
+            return;
+        }
+
+        securityApi.logout();
+        // Reset the security manager
+        ThreadContext.unbindSecurityManager();
+        super.afterMethod();
+    }
+
+    @Test(groups = "slow")
+    public void testCreatePurchasesWithPaymentPermissions() throws Exception {
+        final List<Account> accounts = createAccounts();
+
+        securityApi.login("payer", "password");
+        final Map<BulkPaymentRequest, Payment> payments = new ConcurrentHashMap<BulkPaymentRequest, Payment>();
+        final Map<BulkPaymentRequest, PaymentApiException> exceptions = new ConcurrentHashMap<BulkPaymentRequest, PaymentApiException>();
+        createPurchases(accounts, payments, exceptions);
+
+        Assert.assertEquals(exceptions.size(), 0, exceptions.toString());
+        Assert.assertEquals(payments.size(), accounts.size());
+    }
+
+    @Test(groups = "slow")
+    public void testCreatePurchasesWithoutPaymentPermissions() throws Exception {
+        final List<Account> accounts = createAccounts();
+
+        securityApi.login("viewer", "password");
+        final Map<BulkPaymentRequest, Payment> payments = new ConcurrentHashMap<BulkPaymentRequest, Payment>();
+        final Map<BulkPaymentRequest, PaymentApiException> exceptions = new ConcurrentHashMap<BulkPaymentRequest, PaymentApiException>();
+        createPurchases(accounts, payments, exceptions);
+
+        Assert.assertEquals(payments.size(), 0);
+        Assert.assertEquals(exceptions.size(), accounts.size());
+        for (final PaymentApiException exception : exceptions.values()) {
+            Assert.assertEquals(exception.getCode(), ErrorCode.PAYMENT_INTERNAL_ERROR.getCode());
+        }
+    }
+
+    private List<Account> createAccounts() throws Exception {
+        securityApi.login("root", "password");
+        try {
+            return List.of(testHelper.createTestAccount(UUID.randomUUID().toString(), true),
+                           testHelper.createTestAccount(UUID.randomUUID().toString(), true),
+                           testHelper.createTestAccount(UUID.randomUUID().toString(), true));
+        } finally {
+            securityApi.logout();
+        }
+    }
+
+    private void createPurchases(final List<Account> accounts,
+                                 final Map<BulkPaymentRequest, Payment> payments,
+                                 final Map<BulkPaymentRequest, PaymentApiException> exceptions) {
+        final List<BulkPaymentRequest> requests = new ArrayList<BulkPaymentRequest>();
+        for (final Account account : accounts) {
+            requests.add(new BulkPaymentRequest(account.getId(), null, BigDecimal.TEN, null, null, UUID.randomUUID().toString(), null));
+        }
+        bulkPaymentApi.createPurchasesWithPaymentControl(requests,
+                                                         NO_CONTROL_PLUGIN_OPTIONS,
+                                                         (request, payment, exception) -> {
+                                                             if (payment != null) {
+                                                                 payments.put(request, payment);
+                                                             } else {
+                                                                 exceptions.put(request, exception);
+                                                             }
+                                                         },
+                                                         callContext);
+    }
+
+    private void configureShiro() {
+        final Ini config = new Ini();
+        config.addSection("users");
+        config.getSection("users").put("root", "password, root");
+        config.getSection("users").put("payer", "password, payer");
+        config.getSection("users").put("viewer", "password, viewer");
+        config.addSection("roles");
+        config.getSection("roles").put("root", "*");
+        config.getSection("roles").put("payer", "payment:*");
+        config.getSection("roles").put("viewer", "account:*");
+
+        // Reset the security manager
+        ThreadContext.unbindSecurityManager();
+
+        final Factory<SecurityManager> factory = new IniSecurityManagerFactory(config);
+        final SecurityManager securityManager = factory.getInstance();
+        SecurityUtils.setSecurityManager(securityManager);
+    }
+}
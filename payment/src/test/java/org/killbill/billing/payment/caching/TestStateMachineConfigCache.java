@@ -17,17 +17,28 @@
 
 package org.killbill.billing.payment.caching;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.net.URISyntaxException;
 import java.util.UUID;
 import java.util.concurrent.atomic.AtomicBoolean;
 
+import org.killbill.automaton.State;
+import org.killbill.automaton.StateMachine;
 import org.killbill.automaton.StateMachineConfig;
 import org.killbill.billing.callcontext.InternalCallContext;
 import org.killbill.billing.callcontext.InternalTenantContext;
 import org.killbill.billing.payment.PaymentTestSuiteNoDB;
 import org.killbill.billing.payment.api.PaymentApiException;
+import org.killbill.billing.payment.api.TransactionType;
 import org.killbill.billing.payment.glue.PaymentModule;
+import org.killbill.billing.tenant.api.TenantKV.TenantKey;
+import org.killbill.billing.util.cache.Cachable.CacheType;
+import org.killbill.billing.util.cache.CacheController;
+import org.killbill.billing.util.cache.CacheControllerDispatcher;
 import org.killbill.commons.utils.io.ByteStreams;
 import org.killbill.commons.utils.io.Resources;
 import org.killbill.xmlloader.UriAccessor;
@@ -146,4 +157,75 @@ public class TestStateMachineConfigCache extends PaymentTestSuiteNoDB {
             Assert.assertEquals(exception.getCause().getMessage(), "For test purposes");
         }
     }
+
+    @Test(groups = "fast")
+    public void testCompiledStateMachineConfig() throws Exception {
+        final String pluginName = UUID.randomUUID().toString();
+        final Long multiTenantRecordId = multiTenantContext.getTenantRecordId();
+        Mockito.when(tenantInternalApi.getPluginPaymentStateMachineConfig(Mockito.eq(pluginName), Mockito.any(InternalTenantContext.class))).thenAnswer(new Answer<String>() {
+            @Override
+            public String answer(final InvocationOnMock invocation) throws Throwable {
+                final InternalTenantContext internalContext = (InternalTenantContext) invocation.getArguments()[1];
+                if (multiTenantRecordId.equals(internalContext.getTenantRecordId())) {
+                    return new String(ByteStreams.toByteArray(UriAccessor.accessUri(Resources.getResource(PaymentModule.DEFAULT_STATE_MACHINE_PAYMENT_XML).toExternalForm())));
+                } else {
+                    return null;
+                }
+            }
+        });
+
+        // Tenants without a specific config share the compiled default config
+        final CompiledStateMachineConfig compiledDefault = stateMachineConfigCache.getCompiledPaymentStateMachineConfig(pluginName, otherMultiTenantContext);
+        Assert.assertSame(stateMachineConfigCache.getCompiledPaymentStateMachineConfig(pluginName, internalCallContext), compiledDefault);
+
+        final CompiledStateMachineConfig compiled = stateMachineConfigCache.getCompiledPaymentStateMachineConfig(pluginName, multiTenantContext);
+        Assert.assertNotSame(compiled, compiledDefault);
+        // Compiled once
+        Assert.assertSame(stateMachineConfigCache.getCompiledPaymentStateMachineConfig(pluginName, multiTenantContext), compiled);
+        Assert.assertSame(compiled.getStateMachineConfig(), stateMachineConfigCache.getPaymentStateMachineConfig(pluginName, multiTenantContext));
+
+        // Verify the lookups match the automaton ones
+        final StateMachineConfig stateMachineConfig = compiled.getStateMachineConfig();
+        for (final StateMachine stateMachine : stateMachineConfig.getStateMachines()) {
+            Assert.assertSame(compiled.getStateMachine(stateMachine.getName()), stateMachineConfig.getStateMachine(stateMachine.getName()));
+            Assert.assertSame(compiled.getFirstOperation(stateMachine.getName()), stateMachine.getOperations()[0]);
+            for (final State state : stateMachine.getStates()) {
+                Assert.assertSame(compiled.getState(state.getName()), stateMachineConfig.getStateMachineForState(state.getName()).getState(state.getName()));
+            }
+        }
+        for (final TransactionType transactionType : TransactionType.values()) {
+            Assert.assertSame(paymentSMHelper.getOperationForTransaction(compiled, transactionType), paymentSMHelper.getOperationForTransaction(stateMachineConfig, transactionType));
+        }
+        Assert.assertNull(compiled.getState(UUID.randomUUID().toString()));
+
+        // Verify invalidation
+        stateMachineConfigCache.clearPaymentStateMachineConfig(pluginName, multiTenantContext);
+        final CompiledStateMachineConfig recompiled = stateMachineConfigCache.getCompiledPaymentStateMachineConfig(pluginName, multiTenantContext);
+        Assert.assertNotSame(recompiled, compiled);
+        Assert.assertNotNull(recompiled.getState(paymentSMHelper.getSuccessfulStateForTransaction(TransactionType.PURCHASE)));
+
+        // The compiled config is the cache entry: evicting it (e.g. AdminResource, tenant deletion) drops it
+        final CacheController<String, Object> cacheController = cacheControllerDispatcher.getCacheController(CacheType.TENANT_PAYMENT_STATE_MACHINE_CONFIG);
+        final String cacheKey = TenantKey.PLUGIN_PAYMENT_STATE_MACHINE_ + pluginName + CacheControllerDispatcher.CACHE_KEY_SEPARATOR + multiTenantRecordId;
+        Assert.assertSame(cacheController.get(cacheKey, null), recompiled);
+        cacheController.remove(cacheKey);
+        Assert.assertNotSame(stateMachineConfigCache.getCompiledPaymentStateMachineConfig(pluginName, multiTenantContext), recompiled);
+
+        // Remote caches (Redis) serialize entries: the lookup tables come along and point to the deserialized config
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (final ObjectOutputStream oos = new ObjectOutputStream(out)) {
+            oos.writeObject(recompiled);
+        }
+        final CompiledStateMachineConfig deserialized;
+        try (final ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            deserialized = (CompiledStateMachineConfig) ois.readObject();
+        }
+        final StateMachineConfig deserializedStateMachineConfig = deserialized.getStateMachineConfig();
+        for (final StateMachine stateMachine : deserializedStateMachineConfig.getStateMachines()) {
+            Assert.assertSame(deserialized.getStateMachine(stateMachine.getName()), stateMachine);
+            for (final State state : stateMachine.getStates()) {
+                Assert.assertSame(deserialized.getState(state.getName()), deserializedStateMachineConfig.getStateMachineForState(state.getName()).getState(state.getName()));
+            }
+        }
+    }
 }
@@ -28,6 +28,7 @@ import org.killbill.billing.payment.PaymentTestSuiteNoDB;
 import org.killbill.billing.payment.api.PaymentApiException;
 import org.killbill.billing.payment.dispatcher.PluginDispatcher.PluginDispatcherReturnType;
 import org.killbill.billing.util.UUIDs;
+import org.killbill.billing.util.callcontext.CallableWithRequestData;
 import org.killbill.commons.request.Request;
 import org.killbill.commons.request.RequestData;
 import org.slf4j.MDC;
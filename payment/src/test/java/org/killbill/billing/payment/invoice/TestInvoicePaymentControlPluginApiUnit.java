@@ -29,7 +29,7 @@ import org.killbill.billing.payment.dao.PaymentDao;
 import org.killbill.billing.payment.dao.PaymentTransactionModelDao;
 import org.killbill.billing.payment.invoice.dao.InvoicePaymentControlDao;
 import org.killbill.billing.payment.retry.BaseRetryService.RetryServiceScheduler;
-import org.killbill.billing.util.api.TagUserApi;
+import org.killbill.billing.tag.TagInternalApi;
 import org.killbill.billing.util.callcontext.InternalCallContextFactory;
 import org.killbill.billing.util.config.definition.PaymentConfig;
 import org.killbill.clock.Clock;
@@ -42,7 +42,7 @@ public class TestInvoicePaymentControlPluginApiUnit extends PaymentTestSuiteNoDB
     private InvoicePaymentControlPluginApi createInvoicePaymentControlApi() {
         final PaymentConfig paymentConfig = Mockito.mock(PaymentConfig.class);
         final InvoiceInternalApi internalApi = Mockito.mock(InvoiceInternalApi.class);
-        final TagUserApi tagUserApi = Mockito.mock(TagUserApi.class);
+        final TagInternalApi tagInternalApi = Mockito.mock(TagInternalApi.class);
         final PaymentDao paymentDao = Mockito.mock(PaymentDao.class);
         final InvoicePaymentControlDao invoicePaymentControlDao = Mockito.mock(InvoicePaymentControlDao.class);
         final RetryServiceScheduler retryServiceScheduler = Mockito.mock(RetryServiceScheduler.class);
@@ -52,7 +52,7 @@ public class TestInvoicePaymentControlPluginApiUnit extends PaymentTestSuiteNoDB
 
         return new InvoicePaymentControlPluginApi(paymentConfig,
                                                   internalApi,
-                                                  tagUserApi,
+                                                  tagInternalApi,
                                                   paymentDao,
                                                   invoicePaymentControlDao,
                                                   retryServiceScheduler,
@@ -0,0 +1,292 @@
+/*
+ * Copyright 2020-2022 Equinix, Inc
+ * Copyright 2014-2022 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.killbill.billing.payment.retry;
+
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.killbill.billing.payment.PaymentTestSuiteNoDB;
+import org.killbill.billing.payment.core.PluginControlPaymentProcessor;
+import org.killbill.billing.util.callcontext.InternalCallContextFactory;
+import org.killbill.billing.util.config.definition.PaymentConfig;
+import org.killbill.clock.Clock;
+import org.killbill.notificationq.api.NotificationEvent;
+import org.killbill.notificationq.api.NotificationQueue;
+import org.killbill.notificationq.api.NotificationQueueService;
+import org.killbill.notificationq.api.NotificationQueueService.NotificationQueueHandler;
+import org.mockito.ArgumentCaptor;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.skife.config.TimeSpan;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+public class TestRetryThrottler extends PaymentTestSuiteNoDB {
+
+    private static final String STUB_PLUGIN = "stub-control-plugin";
+    private static final int NB_RETRIES = 100000;
+    private static final int PERMITS_PER_SECOND = 100;
+
+    private final AtomicReference<DateTime> now = new AtomicReference<DateTime>();
+
+    @Test(groups = "fast")
+    public void testJitterIsBoundedAndStablePerAttempt() {
+        final RetryThrottler retryThrottler = new RetryThrottler(createPaymentConfig(0, "1h"), createClock());
+        final DateTime timeOfRetry = new DateTime(2026, 10, 19, 0, 0, DateTimeZone.UTC);
+
+        boolean hasJitter = false;
+        for (int i = 0; i < 1000; i++) {
+            final UUID attemptId = UUID.randomUUID();
+            final DateTime jittered = retryThrottler.computeTimeOfRetry(attemptId, timeOfRetry);
+            Assert.assertFalse(jittered.isBefore(timeOfRetry));
+            Assert.assertTrue(jittered.isBefore(timeOfRetry.plusHours(1)));
+            Assert.assertEquals(retryThrottler.computeTimeOfRetry(attemptId, timeOfRetry), jittered);
+            hasJitter = hasJitter || jittered.isAfter(timeOfRetry);
+        }
+        Assert.assertTrue(hasJitter);
+
+        final RetryThrottler noJitterThrottler = new RetryThrottler(createPaymentConfig(0, "0s"), createClock());
+        Assert.assertEquals(noJitterThrottler.computeTimeOfRetry(UUID.randomUUID(), timeOfRetry), timeOfRetry);
+        Assert.assertNull(noJitterThrottler.tryAcquire(List.of(STUB_PLUGIN), null));
+    }
+
+    @Test(groups = "fast")
+    public void testSimultaneousRetriesAreDrainedAtPluginRate() throws Exception {
+        final DateTime start = new DateTime(2026, 10, 19, 0, 0, DateTimeZone.UTC);
+        now.set(start);
+
+        final ConcurrentLinkedQueue<PendingRetry> rescheduled = new ConcurrentLinkedQueue<PendingRetry>();
+        final Map<UUID, AtomicInteger> processedAttempts = new ConcurrentHashMap<UUID, AtomicInteger>();
+        final Map<Long, AtomicInteger> processedPerSecond = new ConcurrentHashMap<Long, AtomicInteger>();
+        final NotificationQueueHandler handler = initializeRetryService(rescheduled, processedAttempts, processedPerSecond);
+
+        // All retries become ready at the same instant (e.g. after a gateway outage)
+        final List<String> pluginNames = List.of(STUB_PLUGIN);
+        final ExecutorService executor = Executors.newFixedThreadPool(16);
+        try {
+            for (int i = 0; i < NB_RETRIES; i++) {
+                final PaymentRetryNotificationKey key = new PaymentRetryNotificationKey(UUID.randomUUID(), pluginNames);
+                executor.submit(new Runnable() {
+                    @Override
+                    public void run() {
+                        handler.handleReadyNotification(key, start, null, 1L, 1L);
+                    }
+                });
+            }
+        } finally {
+            executor.shutdown();
+            Assert.assertTrue(executor.awaitTermination(5, TimeUnit.MINUTES));
+        }
+
+        Assert.assertEquals(processedAttempts.size(), PERMITS_PER_SECOND);
+        Assert.assertEquals(rescheduled.size(), NB_RETRIES - PERMITS_PER_SECOND);
+
+        // Replay the notification queue: fire each rescheduled retry when it becomes due
+        final PriorityQueue<PendingRetry> pending = new PriorityQueue<PendingRetry>(new Comparator<PendingRetry>() {
+            @Override
+            public int compare(final PendingRetry o1, final PendingRetry o2) {
+                return o1.timeOfRetry.compareTo(o2.timeOfRetry);
+            }
+        });
+        int nbReschedulings = 0;
+        while (true) {
+            nbReschedulings += rescheduled.size();
+            pending.addAll(rescheduled);
+            rescheduled.clear();
+            final PendingRetry next = pending.poll();
+            if (next == null) {
+                break;
+            }
+            Assert.assertTrue(nbReschedulings < 2 * NB_RETRIES, "Retries are not making progress");
+            Assert.assertFalse(next.timeOfRetry.isBefore(now.get()));
+            now.set(next.timeOfRetry);
+            handler.handleReadyNotification(next.key, next.timeOfRetry, null, 1L, 1L);
+        }
+
+        // Every attempt went through the processor exactly once, at no more than the plugin rate (plus the initial burst)
+        Assert.assertEquals(nbReschedulings, NB_RETRIES - PERMITS_PER_SECOND);
+        Assert.assertEquals(processedAttempts.size(), NB_RETRIES);
+        for (final AtomicInteger count : processedAttempts.values()) {
+            Assert.assertEquals(count.get(), 1);
+        }
+        for (final AtomicInteger count : processedPerSecond.values()) {
+            Assert.assertTrue(count.get() <= 2 * PERMITS_PER_SECOND);
+        }
+        Assert.assertTrue(now.get().isAfter(start.plusSeconds((NB_RETRIES / PERMITS_PER_SECOND) - 2)));
+    }
+
+    @Test(groups = "fast")
+    public void testLateRescheduledRetriesKeepTheirSlot() throws Exception {
+        final DateTime start = new DateTime(2026, 10, 19, 0, 0, DateTimeZone.UTC);
+        now.set(start);
+
+        final ConcurrentLinkedQueue<PendingRetry> rescheduled = new ConcurrentLinkedQueue<PendingRetry>();
+        final Map<UUID, AtomicInteger> processedAttempts = new ConcurrentHashMap<UUID, AtomicInteger>();
+        final Map<Long, AtomicInteger> processedPerSecond = new ConcurrentHashMap<Long, AtomicInteger>();
+        final NotificationQueueHandler handler = initializeRetryService(rescheduled, processedAttempts, processedPerSecond);
+
+        final int nbRetries = 10000;
+        final List<String> pluginNames = List.of(STUB_PLUGIN);
+        for (int i = 0; i < nbRetries; i++) {
+            handler.handleReadyNotification(new PaymentRetryNotificationKey(UUID.randomUUID(), pluginNames), start, null, 1L, 1L);
+        }
+        Assert.assertEquals(processedAttempts.size(), PERMITS_PER_SECOND);
+
+        // Replay the notification queue the way it is polled: every few seconds, a bounded batch of due retries
+        // is delivered at once, i.e. (for most of them) well after their reserved slot. New retries keep coming in.
+        final long pollMillis = 3000;
+        final int batchSize = 500;
+        final int nbNewRetriesPerPoll = 10;
+        final PriorityQueue<PendingRetry> pending = new PriorityQueue<PendingRetry>(new Comparator<PendingRetry>() {
+            @Override
+            public int compare(final PendingRetry o1, final PendingRetry o2) {
+                return o1.timeOfRetry.compareTo(o2.timeOfRetry);
+            }
+        });
+        final Set<UUID> rescheduledAttempts = new HashSet<UUID>();
+        int nbReschedulings = 0;
+        int nbNewRetries = 0;
+        int nbProcessed = processedAttempts.size();
+        while (!rescheduled.isEmpty() || !pending.isEmpty()) {
+            nbReschedulings += rescheduled.size();
+            for (final PendingRetry pendingRetry : rescheduled) {
+                Assert.assertNotNull(pendingRetry.key.getReservedSlot());
+                rescheduledAttempts.add(pendingRetry.key.getAttemptId());
+            }
+            pending.addAll(rescheduled);
+            rescheduled.clear();
+
+            now.set(now.get().plus(pollMillis));
+            for (int i = 0; i < batchSize && !pending.isEmpty() && !pending.peek().timeOfRetry.isAfter(now.get()); i++) {
+                final PendingRetry next = pending.poll();
+                handler.handleReadyNotification(next.key, next.timeOfRetry, null, 1L, 1L);
+            }
+            if (nbNewRetries < nbRetries) {
+                for (int i = 0; i < nbNewRetriesPerPoll; i++) {
+                    handler.handleReadyNotification(new PaymentRetryNotificationKey(UUID.randomUUID(), pluginNames), now.get(), null, 1L, 1L);
+                }
+                nbNewRetries += nbNewRetriesPerPoll;
+            }
+
+            // Whatever the delivery delays, the plugin never got more than its rate since the start (plus the initial burst)
+            nbProcessed = processedAttempts.size();
+            Assert.assertTrue(nbProcessed <= PERMITS_PER_SECOND + (now.get().getMillis() - start.getMillis()) * PERMITS_PER_SECOND / 1000 + 1);
+        }
+
+        // Rescheduled retries were processed when they came back, instead of being rescheduled again
+        Assert.assertEquals(nbProcessed, nbRetries + nbNewRetries);
+        Assert.assertEquals(rescheduledAttempts.size(), nbReschedulings);
+        for (final AtomicInteger count : processedAttempts.values()) {
+            Assert.assertEquals(count.get(), 1);
+        }
+    }
+
+    private NotificationQueueHandler initializeRetryService(final ConcurrentLinkedQueue<PendingRetry> rescheduled,
+                                                            final Map<UUID, AtomicInteger> processedAttempts,
+                                                            final Map<Long, AtomicInteger> processedPerSecond) throws Exception {
+        final NotificationQueue retryQueue = mock(NotificationQueue.class, withSettings().stubOnly());
+        doAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(final InvocationOnMock invocation) {
+                rescheduled.add(new PendingRetry(invocation.getArgument(0), invocation.getArgument(1)));
+                return null;
+            }
+        }).when(retryQueue).recordFutureNotification(any(DateTime.class), any(NotificationEvent.class), any(), anyLong(), anyLong());
+
+        final NotificationQueueService notificationQueueService = mock(NotificationQueueService.class);
+        when(notificationQueueService.createNotificationQueue(anyString(), anyString(), any(NotificationQueueHandler.class))).thenReturn(retryQueue);
+
+        // Stub plugin: the retry processing is where the payment attempt transitions happen, record each call
+        final PluginControlPaymentProcessor processor = mock(PluginControlPaymentProcessor.class, withSettings().stubOnly());
+        doAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(final InvocationOnMock invocation) {
+                processedAttempts.computeIfAbsent(invocation.getArgument(0), k -> new AtomicInteger()).incrementAndGet();
+                processedPerSecond.computeIfAbsent(now.get().getMillis() / 1000, k -> new AtomicInteger()).incrementAndGet();
+                return null;
+            }
+        }).when(processor).retryPaymentTransaction(any(UUID.class), anyList(), any());
+
+        final RetryThrottler retryThrottler = new RetryThrottler(createPaymentConfig(PERMITS_PER_SECOND, "0s"), createClock());
+        final DefaultRetryService retryService = new DefaultRetryService(notificationQueueService,
+                                                                         mock(InternalCallContextFactory.class, withSettings().stubOnly()),
+                                                                         processor,
+                                                                         retryThrottler);
+        retryService.initialize();
+        final ArgumentCaptor<NotificationQueueHandler> handlerCaptor = ArgumentCaptor.forClass(NotificationQueueHandler.class);
+        verify(notificationQueueService).createNotificationQueue(anyString(), anyString(), handlerCaptor.capture());
+        return handlerCaptor.getValue();
+    }
+
+    private PaymentConfig createPaymentConfig(final int permitsPerSecond, final String jitter) {
+        final PaymentConfig config = mock(PaymentConfig.class, withSettings().stubOnly());
+        when(config.getRetryPluginRateLimit()).thenReturn(permitsPerSecond);
+        when(config.getRetryJitter()).thenReturn(new TimeSpan(jitter));
+        return config;
+    }
+
+    private Clock createClock() {
+        if (now.get() == null) {
+            now.set(new DateTime(DateTimeZone.UTC));
+        }
+        final Clock testClock = mock(Clock.class, withSettings().stubOnly());
+        when(testClock.getUTCNow()).thenAnswer(new Answer<DateTime>() {
+            @Override
+            public DateTime answer(final InvocationOnMock invocation) {
+                return now.get();
+            }
+        });
+        return testClock;
+    }
+
+    private static final class PendingRetry {
+
+        private final DateTime timeOfRetry;
+        private final PaymentRetryNotificationKey key;
+
+        private PendingRetry(final DateTime timeOfRetry, final NotificationEvent key) {
+            this.timeOfRetry = timeOfRetry;
+            this.key = (PaymentRetryNotificationKey) key;
+        }
+    }
+}
@@ -88,6 +88,7 @@ import org.killbill.billing.subscription.events.user.ApiEventCancel;
 import org.killbill.billing.subscription.events.user.ApiEventChange;
 import org.killbill.billing.subscription.events.user.ApiEventType;
 import org.killbill.billing.subscription.exceptions.SubscriptionBaseError;
+import org.killbill.billing.util.metrics.LatencyHistograms;
 import org.killbill.commons.utils.Preconditions;
 import org.killbill.billing.util.api.AuditLevel;
 import org.killbill.billing.util.audit.AuditLogWithHistory;
@@ -137,8 +138,8 @@ public class DefaultSubscriptionDao extends EntityDaoBase<SubscriptionBundleMode
                                   final NotificationQueueService notificationQueueService, final BusOptimizer eventBus,
                                   final CacheControllerDispatcher cacheControllerDispatcher, final NonEntityDao nonEntityDao,
                                   final AuditDao auditDao,
-                                  final InternalCallContextFactory internalCallContextFactory) {
-        super(nonEntityDao, cacheControllerDispatcher, new EntitySqlDaoTransactionalJdbiWrapper(dbi, roDbi, clock, cacheControllerDispatcher, nonEntityDao, internalCallContextFactory), BundleSqlDao.class);
+                                  final InternalCallContextFactory internalCallContextFactory, final LatencyHistograms latencyHistograms) {
+        super(nonEntityDao, cacheControllerDispatcher, new EntitySqlDaoTransactionalJdbiWrapper(dbi, roDbi, clock, cacheControllerDispatcher, nonEntityDao, internalCallContextFactory, latencyHistograms), BundleSqlDao.class);
         this.clock = clock;
         this.notificationQueueService = notificationQueueService;
         this.addonUtils = addonUtils;
@@ -508,20 +509,32 @@ public class DefaultSubscriptionDao extends EntityDaoBase<SubscriptionBundleMode
         return transactionalSqlDao.execute(false, entitySqlDaoWrapperFactory -> {
             final SubscriptionSqlDao transactional = entitySqlDaoWrapperFactory.become(SubscriptionSqlDao.class);
             final SubscriptionEventSqlDao eventsDaoFromSameTransaction = entitySqlDaoWrapperFactory.become(SubscriptionEventSqlDao.class);
+
+            // PERF: insert all subscriptions and events (and their audit and history rows) using batches, instead of one round trip per entity.
+            // The batch is executed in order, so the events record_id (i.e. totalOrdering) are assigned as if they were inserted one by one.
+            final List<SubscriptionModelDao> subscriptionModels = new ArrayList<SubscriptionModelDao>();
+            final List<SubscriptionEventModelDao> eventModels = new ArrayList<SubscriptionEventModelDao>();
+            for (final SubscriptionBaseWithAddOns subscription : subscriptions) {
+                for (final SubscriptionBase subscriptionBase : subscription.getSubscriptionBaseList()) {
+                    subscriptionModels.add(new SubscriptionModelDao((DefaultSubscriptionBase) subscriptionBase));
+                    for (final SubscriptionBaseEvent cur : initialEventsMap.get(subscriptionBase.getId())) {
+                        eventModels.add(new SubscriptionEventModelDao(cur));
+                    }
+                }
+            }
+            bulkCreate(transactional, subscriptionModels, context);
+            final List<SubscriptionEventModelDao> createdEvents = bulkCreateAndRefreshEvents(eventsDaoFromSameTransaction, eventModels, context);
+
+            // Record the notifications and bus events once everything is on disk (the bus events are built from the rehydrated subscriptions)
             int busEffSeqId = 0;
             int busReqSeqId = 0;
-            final List<SubscriptionEventModelDao> createdEvents = new LinkedList<SubscriptionEventModelDao>();
             for (final SubscriptionBaseWithAddOns subscription : subscriptions) {
                 for (final SubscriptionBase subscriptionBase : subscription.getSubscriptionBaseList()) {
                     // Safe cast
                     final DefaultSubscriptionBase defaultSubscriptionBase = (DefaultSubscriptionBase) subscriptionBase;
-                    createAndRefresh(transactional, new SubscriptionModelDao(defaultSubscriptionBase), context);
-
                     final List<SubscriptionBaseEvent> initialEvents = initialEventsMap.get(defaultSubscriptionBase.getId());
 
                     for (final SubscriptionBaseEvent cur : initialEvents) {
-                        createdEvents.add(createAndRefresh(eventsDaoFromSameTransaction, new SubscriptionEventModelDao(cur), context));
-
                         final boolean isBusEvent = cur.getEffectiveDate().compareTo(context.getCreatedDate()) <= 0 && (cur.getType() == EventType.API_USER || cur.getType() == EventType.BCD_UPDATE || cur.getType() == EventType.QUANTITY_UPDATE);
                         final int seqId = isBusEvent ? busEffSeqId++ : 0;
                         if (!isBusEvent || !groupBusEvents || seqId == 0) {
@@ -541,6 +554,33 @@ public class DefaultSubscriptionDao extends EntityDaoBase<SubscriptionBundleMode
         });
     }
 
+    // Returns the rehydrated events, in the same order as the input
+    private List<SubscriptionEventModelDao> bulkCreateAndRefreshEvents(final SubscriptionEventSqlDao eventSqlDao,
+                                                                       final List<SubscriptionEventModelDao> eventModels,
+                                                                       final InternalCallContext context) {
+        if (eventModels.size() <= 1) {
+            final List<SubscriptionEventModelDao> createdEvents = new ArrayList<SubscriptionEventModelDao>(eventModels.size());
+            for (final SubscriptionEventModelDao eventModel : eventModels) {
+                createdEvents.add(createAndRefresh(eventSqlDao, eventModel, context));
+            }
+            return createdEvents;
+        }
+
+        // Note that the ordering of the generated keys isn't guaranteed
+        final List<Long> recordIds = eventSqlDao.create(eventModels, context);
+        final Map<UUID, SubscriptionEventModelDao> createdEventsById = new HashMap<UUID, SubscriptionEventModelDao>();
+        for (final SubscriptionEventModelDao createdEvent : eventSqlDao.getByRecordIds(recordIds, context)) {
+            createdEventsById.put(createdEvent.getId(), createdEvent);
+        }
+        Preconditions.checkState(createdEventsById.size() == eventModels.size(), "Wrong number of created events=%s (expected %s)", createdEventsById.size(), eventModels.size());
+
+        final List<SubscriptionEventModelDao> createdEvents = new ArrayList<SubscriptionEventModelDao>(eventModels.size());
+        for (final SubscriptionEventModelDao eventModel : eventModels) {
+            createdEvents.add(createdEventsById.get(eventModel.getId()));
+        }
+        return createdEvents;
+    }
+
     @Override
     public void cancelOrExpireSubscriptionOnNotification(final DefaultSubscriptionBase subscription, final SubscriptionBaseEvent event, final List<DefaultSubscriptionBase> subscriptions, final List<SubscriptionBaseEvent> cancelOrExpireEvents, final SubscriptionCatalog catalog, final InternalCallContext context) {
         transactionalSqlDao.execute(false, entitySqlDaoWrapperFactory -> {
@@ -26,6 +26,7 @@ import org.killbill.billing.util.audit.dao.AuditDao;
 import org.killbill.billing.util.cache.CacheControllerDispatcher;
 import org.killbill.billing.util.callcontext.InternalCallContextFactory;
 import org.killbill.billing.util.dao.NonEntityDao;
+import org.killbill.billing.util.metrics.LatencyHistograms;
 import org.killbill.billing.util.optimizer.BusOptimizer;
 import org.killbill.clock.Clock;
 import org.killbill.notificationq.api.NotificationQueueService;
@@ -41,11 +42,13 @@ public class MockSubscriptionDaoSql extends DefaultSubscriptionDao {
                                   final Clock clock, final AddonUtils addonUtils,
                                   final NotificationQueueService notificationQueueService, final BusOptimizer eventBus,
                                   final CacheControllerDispatcher cacheControllerDispatcher, final NonEntityDao nonEntityDao,
-                                  final AuditDao auditDao, final InternalCallContextFactory internalCallContextFactory) {
+                                  final AuditDao auditDao, final InternalCallContextFactory internalCallContextFactory,
+                                  final LatencyHistograms latencyHistograms) {
         super(dbi, roDbi,
               clock, addonUtils,
               notificationQueueService, eventBus,
               cacheControllerDispatcher, nonEntityDao,
-              auditDao, internalCallContextFactory);
+              auditDao, internalCallContextFactory,
+              latencyHistograms);
     }
 }
@@ -17,6 +17,8 @@
 
 package org.killbill.billing.subscription.engine.dao;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -71,6 +73,7 @@ import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
 
 public class TestSubscriptionDao extends SubscriptionTestSuiteWithEmbeddedDB {
 
@@ -322,6 +325,67 @@ public class TestSubscriptionDao extends SubscriptionTestSuiteWithEmbeddedDB {
         assertEquals(s.getExternalKey(), externalKey);
     }
 
+    @Test(groups = "slow")
+    public void testCreateMultipleSubscriptionsWithAddOns() throws Exception {
+        final DateTime startDate = clock.getUTCNow();
+        final DateTime createdDate = startDate.plusSeconds(10);
+
+        final List<SubscriptionBaseWithAddOns> subscriptionsWithAddOns = new ArrayList<SubscriptionBaseWithAddOns>();
+        final Map<UUID, List<SubscriptionBaseEvent>> initialEventsMap = new HashMap<UUID, List<SubscriptionBaseEvent>>();
+        final List<UUID> subscriptionIds = new ArrayList<UUID>();
+        for (int i = 0; i < 5; i++) {
+            final DefaultSubscriptionBaseBundle bundleDef = new DefaultSubscriptionBaseBundle("bulk-" + i, accountId, startDate, startDate, createdDate, createdDate);
+            final SubscriptionBaseBundle bundle = dao.createSubscriptionBundle(bundleDef, catalog, true, internalCallContext);
+
+            final SubscriptionBuilder builder = new SubscriptionBuilder()
+                    .setId(UUIDs.randomUUID())
+                    .setBundleId(bundle.getId())
+                    .setBundleExternalKey(bundle.getExternalKey())
+                    .setCategory(ProductCategory.BASE)
+                    .setBundleStartDate(startDate)
+                    .setAlignStartDate(startDate)
+                    .setMigrated(false);
+
+            final ApiEventBuilder createBuilder = new ApiEventBuilder()
+                    .setSubscriptionId(builder.getId())
+                    .setEventPlan("shotgun-monthly")
+                    .setEventPlanPhase("shotgun-monthly-trial")
+                    .setEventPriceList(DefaultPriceListSet.DEFAULT_PRICELIST_NAME)
+                    .setEffectiveDate(startDate)
+                    .setFromDisk(true);
+            final SubscriptionBaseEvent creationEvent = new ApiEventCreate(createBuilder);
+
+            final DefaultSubscriptionBase subscription = new DefaultSubscriptionBase(builder);
+            subscriptionsWithAddOns.add(new DefaultSubscriptionBaseWithAddOns(bundle, List.of(subscription)));
+            initialEventsMap.put(subscription.getId(), List.of(creationEvent));
+            subscriptionIds.add(subscription.getId());
+        }
+
+        testListener.pushExpectedEvents(NextEvent.CREATE, NextEvent.CREATE, NextEvent.CREATE, NextEvent.CREATE, NextEvent.CREATE);
+        final List<SubscriptionBaseEvent> createdEvents = dao.createSubscriptionsWithAddOns(subscriptionsWithAddOns, initialEventsMap, catalog, internalCallContext);
+        assertListenerStatus();
+
+        // Events are returned in the input order, with increasing record ids
+        assertEquals(createdEvents.size(), subscriptionIds.size());
+        for (int i = 0; i < createdEvents.size(); i++) {
+            final SubscriptionBaseEvent createdEvent = createdEvents.get(i);
+            assertEquals(createdEvent.getSubscriptionId(), subscriptionIds.get(i));
+            assertEquals(createdEvent.getId(), initialEventsMap.get(subscriptionIds.get(i)).get(0).getId());
+            assertTrue(createdEvent.getTotalOrdering() > 0);
+            if (i > 0) {
+                assertTrue(createdEvent.getTotalOrdering() > createdEvents.get(i - 1).getTotalOrdering());
+            }
+
+            final List<AuditLogWithHistory> subscriptionHistory = dao.getSubscriptionAuditLogsWithHistoryForId(subscriptionIds.get(i), AuditLevel.FULL, internalCallContext);
+            assertEquals(subscriptionHistory.size(), 1);
+            assertEquals(subscriptionHistory.get(0).getChangeType(), ChangeType.INSERT);
+
+            final List<AuditLogWithHistory> subscriptionEventHistory = dao.getSubscriptionEventAuditLogsWithHistoryForId(createdEvent.getId(), AuditLevel.FULL, internalCallContext);
+            assertEquals(subscriptionEventHistory.size(), 1);
+            assertEquals(subscriptionEventHistory.get(0).getChangeType(), ChangeType.INSERT);
+        }
+    }
+
 
 
     @Test(groups = "slow")
@@ -377,7 +441,8 @@ public class TestSubscriptionDao extends SubscriptionTestSuiteWithEmbeddedDB {
                                                                            controlCacheDispatcher,
                                                                            nonEntityDao,
                                                                            auditDao,
-                                                                           internalCallContextFactory);
+                                                                           internalCallContextFactory,
+                                                                           null);
         Mockito.verify(dbiSpy, Mockito.times(0)).open();
         Mockito.verify(roDbiSpy, Mockito.times(0)).open();
 
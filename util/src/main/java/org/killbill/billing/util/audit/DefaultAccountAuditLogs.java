@@ -22,6 +22,8 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 import org.killbill.billing.ObjectType;
 import org.killbill.commons.utils.Preconditions;
@@ -34,7 +36,11 @@ public class DefaultAccountAuditLogs implements AccountAuditLogs {
 
     private final UUID accountId;
     private final AuditLevel auditLevel;
-    private final List<AuditLog> accountAuditLogs;
+    private final Function<ObjectType, Iterator<AuditLog>> auditLogsForObjectTypeLoader;
+    private final Supplier<Iterator<AuditLog>> allAuditLogsLoader;
+
+    // Only loaded if all audit logs are asked for
+    private List<AuditLog> accountAuditLogs;
 
     private final Map<ObjectType, DefaultAccountAuditLogsForObjectType> auditLogsCache = new HashMap<ObjectType, DefaultAccountAuditLogsForObjectType>();
 
@@ -45,13 +51,26 @@ public class DefaultAccountAuditLogs implements AccountAuditLogs {
     public DefaultAccountAuditLogs(final UUID accountId, final AuditLevel auditLevel, final Iterator<AuditLog> accountAuditLogsOrderedByTableName) {
         this.accountId = accountId;
         this.auditLevel = auditLevel;
-        // TODO pierre - lame, we should be smarter to avoid loading all entries in memory. It's a bit tricky though...
+        this.auditLogsForObjectTypeLoader = null;
+        this.allAuditLogsLoader = null;
         this.accountAuditLogs = Iterators.toUnmodifiableList(accountAuditLogsOrderedByTableName);
     }
 
+    // Audit logs are fetched lazily, per object type: old accounts can have hundreds of thousands of entries
+    public DefaultAccountAuditLogs(final UUID accountId,
+                                   final AuditLevel auditLevel,
+                                   final Function<ObjectType, Iterator<AuditLog>> auditLogsForObjectTypeLoader,
+                                   final Supplier<Iterator<AuditLog>> allAuditLogsLoader) {
+        this.accountId = accountId;
+        this.auditLevel = auditLevel;
+        this.auditLogsForObjectTypeLoader = auditLogsForObjectTypeLoader;
+        this.allAuditLogsLoader = allAuditLogsLoader;
+        this.accountAuditLogs = null;
+    }
+
     public void close() {
         // Make sure to go through the results to close the connection
-        // no-op for now, see TODO above
+        // no-op: the loaders only open a connection once iterated, and the results are always fully consumed
     }
 
     @Override
@@ -127,7 +146,13 @@ public class DefaultAccountAuditLogs implements AccountAuditLogs {
     @Override
     public AccountAuditLogsForObjectType getAuditLogs(final ObjectType objectType) {
         if (auditLogsCache.get(objectType) == null) {
-            auditLogsCache.put(objectType, new DefaultAccountAuditLogsForObjectType(auditLevel, new ObjectTypeFilter(objectType, accountAuditLogs.iterator())));
+            final Iterator<AuditLog> auditLogsForObjectType;
+            if (accountAuditLogs != null) {
+                auditLogsForObjectType = new ObjectTypeFilter(objectType, accountAuditLogs.iterator());
+            } else {
+                auditLogsForObjectType = auditLogsForObjectTypeLoader.apply(objectType);
+            }
+            auditLogsCache.put(objectType, new DefaultAccountAuditLogsForObjectType(auditLevel, auditLogsForObjectType));
         }
 
         // Should never be null
@@ -136,6 +161,9 @@ public class DefaultAccountAuditLogs implements AccountAuditLogs {
 
     @Override
     public List<AuditLog> getAuditLogs() {
+        if (accountAuditLogs == null) {
+            accountAuditLogs = Iterators.toUnmodifiableList(allAuditLogsLoader.get());
+        }
         return accountAuditLogs;
     }
 
@@ -20,8 +20,10 @@ import java.util.Collections;
 import java.util.List;
 import java.util.UUID;
 
+import javax.annotation.Nullable;
 import javax.inject.Inject;
 
+import org.joda.time.DateTime;
 import org.killbill.billing.ObjectType;
 import org.killbill.billing.util.api.AuditLevel;
 import org.killbill.billing.util.api.AuditUserApi;
@@ -48,12 +50,17 @@ public class DefaultAuditUserApi implements AuditUserApi {
 
     @Override
     public AccountAuditLogs getAccountAuditLogs(final UUID accountId, final AuditLevel auditLevel, final TenantContext tenantContext) {
+        return getAccountAuditLogs(accountId, auditLevel, null, null, tenantContext);
+    }
+
+    // Not (yet) part of the AuditUserApi: only the audit logs created in [fromDate, toDate) are returned
+    public AccountAuditLogs getAccountAuditLogs(final UUID accountId, final AuditLevel auditLevel, @Nullable final DateTime fromDate, @Nullable final DateTime toDate, final TenantContext tenantContext) {
         // Optimization - bail early
         if (AuditLevel.NONE.equals(auditLevel)) {
             return new DefaultAccountAuditLogs(accountId);
         }
 
-        return auditDao.getAuditLogsForAccountRecordId(auditLevel, internalCallContextFactory.createInternalTenantContext(accountId, tenantContext));
+        return auditDao.getAuditLogsForAccountRecordId(auditLevel, fromDate, toDate, internalCallContextFactory.createInternalTenantContext(accountId, tenantContext));
     }
 
     @Override
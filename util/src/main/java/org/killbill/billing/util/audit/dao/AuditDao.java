@@ -19,6 +19,9 @@ package org.killbill.billing.util.audit.dao;
 import java.util.List;
 import java.util.UUID;
 
+import javax.annotation.Nullable;
+
+import org.joda.time.DateTime;
 import org.killbill.billing.callcontext.InternalTenantContext;
 import org.killbill.billing.util.api.AuditLevel;
 import org.killbill.billing.util.audit.AuditLog;
@@ -33,6 +36,9 @@ public interface AuditDao {
     // Make sure to consume all or call close() when done to release the connection
     public DefaultAccountAuditLogs getAuditLogsForAccountRecordId(AuditLevel auditLevel, InternalTenantContext context);
 
+    // Audit logs are fetched lazily per object type, optionally only those created in [fromDate, toDate)
+    public DefaultAccountAuditLogs getAuditLogsForAccountRecordId(AuditLevel auditLevel, @Nullable DateTime fromDate, @Nullable DateTime toDate, InternalTenantContext context);
+
     // Make sure to consume all or call close() when done to release the connection
     public DefaultAccountAuditLogsForObjectType getAuditLogsForAccountRecordId(TableName tableName, AuditLevel auditLevel, InternalTenantContext context);
 
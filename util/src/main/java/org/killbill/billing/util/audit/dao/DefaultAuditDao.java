@@ -18,17 +18,23 @@
 
 package org.killbill.billing.util.audit.dao;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
+import javax.annotation.Nullable;
 import javax.inject.Inject;
 import javax.inject.Named;
 
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
 import org.killbill.billing.ObjectType;
 import org.killbill.billing.callcontext.InternalTenantContext;
 import org.killbill.billing.util.api.AuditLevel;
@@ -41,6 +47,8 @@ import org.killbill.billing.util.audit.DefaultAuditLog;
 import org.killbill.billing.util.audit.DefaultAuditLogWithHistory;
 import org.killbill.billing.util.cache.CacheControllerDispatcher;
 import org.killbill.billing.util.callcontext.InternalCallContextFactory;
+import org.killbill.billing.util.metrics.LatencyHistograms;
+import org.killbill.commons.utils.collect.AbstractIterator;
 import org.killbill.commons.utils.collect.Iterators;
 import org.killbill.billing.util.dao.EntityHistoryModelDao;
 import org.killbill.billing.util.dao.HistorySqlDao;
@@ -58,46 +66,88 @@ import static org.killbill.billing.util.glue.IDBISetup.MAIN_RO_IDBI_NAMED;
 
 public class DefaultAuditDao implements AuditDao {
 
+    private static final DateTime MIN_CREATED_DATE = new DateTime(0, DateTimeZone.UTC);
+    private static final DateTime MAX_CREATED_DATE = new DateTime(9999, 12, 31, 0, 0, DateTimeZone.UTC);
+
     private final DBRouter<NonEntitySqlDao> dbRouter;
     private final EntitySqlDaoTransactionalJdbiWrapper transactionalSqlDao;
 
     @Inject
-    public DefaultAuditDao(final IDBI dbi, @Named(MAIN_RO_IDBI_NAMED) final IDBI roDbi, final Clock clock, final CacheControllerDispatcher cacheControllerDispatcher, final NonEntityDao nonEntityDao, final InternalCallContextFactory internalCallContextFactory) {
+    public DefaultAuditDao(final IDBI dbi, @Named(MAIN_RO_IDBI_NAMED) final IDBI roDbi, final Clock clock, final CacheControllerDispatcher cacheControllerDispatcher, final NonEntityDao nonEntityDao, final InternalCallContextFactory internalCallContextFactory, final LatencyHistograms latencyHistograms) {
         this.dbRouter = new DBRouter<NonEntitySqlDao>(dbi, roDbi, NonEntitySqlDao.class);
-        this.transactionalSqlDao = new EntitySqlDaoTransactionalJdbiWrapper(dbi, roDbi, clock, cacheControllerDispatcher, nonEntityDao, internalCallContextFactory);
+        this.transactionalSqlDao = new EntitySqlDaoTransactionalJdbiWrapper(dbi, roDbi, clock, cacheControllerDispatcher, nonEntityDao, internalCallContextFactory, latencyHistograms);
     }
 
     @Override
     public DefaultAccountAuditLogs getAuditLogsForAccountRecordId(final AuditLevel auditLevel, final InternalTenantContext context) {
-        final UUID accountId = dbRouter.onDemand(true).getIdFromObject(context.getAccountRecordId(), TableName.ACCOUNT.getTableName());
+        return getAuditLogsForAccountRecordId(auditLevel, null, null, context);
+    }
 
-        // Lazy evaluate records to minimize the memory footprint (these can yield a lot of results)
-        // We usually always want to wrap our queries in an EntitySqlDaoTransactionWrapper... except here.
-        // Since we want to stream the results out, we don't want to auto-commit when this method returns.
-        final EntitySqlDao auditSqlDao = transactionalSqlDao.onDemandForStreamingResults(EntitySqlDao.class);
-        final Iterator<AuditLogModelDao> auditLogsForAccountRecordId = auditSqlDao.getAuditLogsForAccountRecordId(context);
-        final Iterator<AuditLog> allAuditLogs = buildAuditLogsFromModelDao(auditLogsForAccountRecordId, context);
+    @Override
+    public DefaultAccountAuditLogs getAuditLogsForAccountRecordId(final AuditLevel auditLevel,
+                                                                  @Nullable final DateTime fromDate,
+                                                                  @Nullable final DateTime toDate,
+                                                                  final InternalTenantContext context) {
+        final UUID accountId = dbRouter.onDemand(true).getIdFromObject(context.getAccountRecordId(), TableName.ACCOUNT.getTableName());
 
-        return new DefaultAccountAuditLogs(accountId, auditLevel, allAuditLogs);
+        // Lazy evaluate records to minimize the memory footprint (these can yield a lot of results):
+        // only the object types asked for are fetched, each through its own streaming query
+        return new DefaultAccountAuditLogs(accountId,
+                                           auditLevel,
+                                           objectType -> getAuditLogsForObjectType(objectType, fromDate, toDate, context),
+                                           () -> getAllAuditLogs(fromDate, toDate, context));
     }
 
     @Override
     public DefaultAccountAuditLogsForObjectType getAuditLogsForAccountRecordId(final TableName tableName, final AuditLevel auditLevel, final InternalTenantContext context) {
-        final String actualTableName;
+        final TableName auditedTableName = tableName.hasHistoryTable() ? tableName.getHistoryTableName() : tableName;
+        final Iterator<AuditLog> allAuditLogs = new LazyConcatenatingIterator(List.of(() -> streamAuditLogs(auditedTableName, null, null, context)));
+        return new DefaultAccountAuditLogsForObjectType(auditLevel, allAuditLogs);
+    }
+
+    private Iterator<AuditLog> getAuditLogsForObjectType(final ObjectType objectType, @Nullable final DateTime fromDate, @Nullable final DateTime toDate, final InternalTenantContext context) {
+        final TableName tableName = TableName.fromObjectType(objectType);
+        if (tableName == null) {
+            return Collections.emptyIterator();
+        }
+
+        // For folks migrating to 0.22.x, entries can point either to the table or to its history table (see https://github.com/killbill/killbill/issues/1252).
+        // Same order as in the full account query, i.e. by table name. Queries are only issued once the previous one is exhausted, to hold a single connection.
+        final List<Supplier<Iterator<AuditLog>>> auditLogs = new ArrayList<>(2);
+        auditLogs.add(() -> streamAuditLogs(tableName, fromDate, toDate, context));
         if (tableName.hasHistoryTable()) {
-            actualTableName = tableName.getHistoryTableName().name(); // upper cased
-        } else {
-            actualTableName = tableName.getTableName();
+            auditLogs.add(() -> streamAuditLogs(tableName.getHistoryTableName(), fromDate, toDate, context));
         }
+        return new LazyConcatenatingIterator(auditLogs);
+    }
 
-        // Lazy evaluate records to minimize the memory footprint (these can yield a lot of results)
+    private Iterator<AuditLog> streamAuditLogs(final TableName auditedTableName, @Nullable final DateTime fromDate, @Nullable final DateTime toDate, final InternalTenantContext context) {
         // We usually always want to wrap our queries in an EntitySqlDaoTransactionWrapper... except here.
         // Since we want to stream the results out, we don't want to auto-commit when this method returns.
         final EntitySqlDao auditSqlDao = transactionalSqlDao.onDemandForStreamingResults(EntitySqlDao.class);
-        final Iterator<AuditLogModelDao> auditLogsForTableNameAndAccountRecordId = auditSqlDao.getAuditLogsForTableNameAndAccountRecordId(actualTableName, context);
-        final Iterator<AuditLog> allAuditLogs = buildAuditLogsFromModelDao(auditLogsForTableNameAndAccountRecordId, context);
+        final Iterator<AuditLogModelDao> auditLogsForTableNameAndAccountRecordId;
+        if (fromDate == null && toDate == null) {
+            auditLogsForTableNameAndAccountRecordId = auditSqlDao.getAuditLogsForTableNameAndAccountRecordId(auditedTableName.name(), context);
+        } else {
+            auditLogsForTableNameAndAccountRecordId = auditSqlDao.getAuditLogsForTableNameAndAccountRecordIdAndCreatedDate(auditedTableName.name(),
+                                                                                                                           fromDate == null ? MIN_CREATED_DATE : fromDate,
+                                                                                                                           toDate == null ? MAX_CREATED_DATE : toDate,
+                                                                                                                           context);
+        }
+        return buildAuditLogsFromModelDao(auditLogsForTableNameAndAccountRecordId, context);
+    }
 
-        return new DefaultAccountAuditLogsForObjectType(auditLevel, allAuditLogs);
+    private Iterator<AuditLog> getAllAuditLogs(@Nullable final DateTime fromDate, @Nullable final DateTime toDate, final InternalTenantContext context) {
+        final EntitySqlDao auditSqlDao = transactionalSqlDao.onDemandForStreamingResults(EntitySqlDao.class);
+        final Iterator<AuditLogModelDao> auditLogsForAccountRecordId;
+        if (fromDate == null && toDate == null) {
+            auditLogsForAccountRecordId = auditSqlDao.getAuditLogsForAccountRecordId(context);
+        } else {
+            auditLogsForAccountRecordId = auditSqlDao.getAuditLogsForAccountRecordIdAndCreatedDate(fromDate == null ? MIN_CREATED_DATE : fromDate,
+                                                                                                   toDate == null ? MAX_CREATED_DATE : toDate,
+                                                                                                   context);
+        }
+        return buildAuditLogsFromModelDao(auditLogsForAccountRecordId, context);
     }
 
     private Iterator<AuditLog> buildAuditLogsFromModelDao(final Iterator<AuditLogModelDao> auditLogsForAccountRecordId, final InternalTenantContext tenantContext) {
@@ -137,6 +187,27 @@ public class DefaultAuditDao implements AuditDao {
         });
     }
 
+    private static final class LazyConcatenatingIterator extends AbstractIterator<AuditLog> {
+
+        private final Iterator<Supplier<Iterator<AuditLog>>> suppliers;
+        private Iterator<AuditLog> current = Collections.emptyIterator();
+
+        private LazyConcatenatingIterator(final List<Supplier<Iterator<AuditLog>>> suppliers) {
+            this.suppliers = suppliers.iterator();
+        }
+
+        @Override
+        protected AuditLog computeNext() {
+            while (!current.hasNext()) {
+                if (!suppliers.hasNext()) {
+                    return endOfData();
+                }
+                current = suppliers.next().get();
+            }
+            return current.next();
+        }
+    }
+
     private TableName findTableNameForHistoryTableName(final TableName historyTableName) {
         for (final TableName tableName : TableName.values()) {
             if (historyTableName.equals(tableName.getHistoryTableName())) {
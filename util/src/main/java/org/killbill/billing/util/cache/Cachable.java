@@ -29,6 +29,7 @@ import org.killbill.billing.catalog.api.Plan;
 import org.killbill.billing.catalog.api.VersionedCatalog;
 import org.killbill.billing.tenant.api.Tenant;
 import org.killbill.billing.util.config.tenant.PerTenantConfig;
+import org.killbill.billing.util.tag.dao.AccountTagsSnapshot;
 
 @Retention(RetentionPolicy.RUNTIME)
 @Target({ElementType.METHOD})
@@ -47,6 +48,7 @@ public @interface Cachable {
     String OVERRIDDEN_PLAN_CACHE_NAME = "overridden-plan";
     String ACCOUNT_IMMUTABLE_CACHE_NAME = "account-immutable";
     String ACCOUNT_BCD_CACHE_NAME = "account-bcd";
+    String ACCOUNT_TAGS_CACHE_NAME = "account-tags";
     String ACCOUNT_ID_FROM_BUNDLE_ID_CACHE_NAME = "account-id-from-bundle-id";
     String BUNDLE_ID_FROM_SUBSCRIPTION_ID_CACHE_NAME = "bundle-id-from-subscription-id";
 
@@ -94,6 +96,9 @@ public @interface Cachable {
         /* Account BCD config cache */
         ACCOUNT_BCD(ACCOUNT_BCD_CACHE_NAME, UUID.class, Integer.class, false),
 
+        /* Mapping from account 'recordId (Long)' -> snapshot of all active tags for that account */
+        ACCOUNT_TAGS(ACCOUNT_TAGS_CACHE_NAME, Long.class, AccountTagsSnapshot.class, false),
+
         /* Bundle id to Account id cache */
         ACCOUNT_ID_FROM_BUNDLE_ID(ACCOUNT_ID_FROM_BUNDLE_ID_CACHE_NAME, UUID.class, UUID.class, false),
 
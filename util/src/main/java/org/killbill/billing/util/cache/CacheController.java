@@ -17,6 +17,8 @@
 package org.killbill.billing.util.cache;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.function.Function;
 
 import org.killbill.billing.util.cache.Cachable.CacheType;
@@ -29,12 +31,17 @@ public interface CacheController<K, V> {
 
     V get(K key, CacheLoaderArgument objectType);
 
+    // Return the cached values for the keys present in the cache (does not trigger the cache loader)
+    Map<K, V> getAll(Set<K> keys);
+
     boolean remove(K key);
 
     void remove(Function<K, Boolean> keyMatcher);
 
     void putIfAbsent(final K key, V value);
 
+    void putAll(Map<K, V> values);
+
     int size();
 
     void removeAll();
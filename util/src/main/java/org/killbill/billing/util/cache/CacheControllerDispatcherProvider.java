@@ -23,6 +23,7 @@ import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Set;
 
+import javax.annotation.Nullable;
 import javax.cache.Cache;
 import javax.cache.CacheManager;
 import javax.inject.Inject;
@@ -31,6 +32,8 @@ import javax.inject.Provider;
 import org.killbill.commons.utils.Preconditions;
 import org.killbill.billing.util.cache.Cachable.CacheType;
 import org.killbill.billing.util.config.definition.CacheConfig;
+import org.killbill.billing.util.config.definition.RedisCacheConfig;
+import org.killbill.billing.util.metrics.LatencyHistograms;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -42,14 +45,23 @@ public class CacheControllerDispatcherProvider implements Provider<CacheControll
     private final CacheManager cacheManager;
     private final Set<BaseCacheLoader> cacheLoaders;
     private final CacheConfig cacheConfig;
+    private final RedisCacheConfig redisCacheConfig;
+    private final NearCacheInvalidationChannel nearCacheInvalidationChannel;
+    private final LatencyHistograms latencyHistograms;
 
     @Inject
     public CacheControllerDispatcherProvider(final CacheManager cacheManager,
                                              final Set<BaseCacheLoader> cacheLoaders,
-                                             final CacheConfig cacheConfig) {
+                                             final CacheConfig cacheConfig,
+                                             final RedisCacheConfig redisCacheConfig,
+                                             @Nullable final NearCacheInvalidationChannel nearCacheInvalidationChannel,
+                                             final LatencyHistograms latencyHistograms) {
         this.cacheManager = cacheManager;
         this.cacheLoaders = cacheLoaders;
         this.cacheConfig = cacheConfig;
+        this.redisCacheConfig = redisCacheConfig;
+        this.nearCacheInvalidationChannel = nearCacheInvalidationChannel;
+        this.latencyHistograms = latencyHistograms;
     }
 
     @SuppressWarnings({"rawtypes", "unchecked"})
@@ -71,7 +83,7 @@ public class CacheControllerDispatcherProvider implements Provider<CacheControll
                 }
                 Preconditions.checkState(!cache.isClosed(), "Cache '%s' should not be closed", cacheType.getCacheName());
 
-                cacheController = new KillBillCacheController<Object, Object>(cache, cacheLoader);
+                cacheController = wrapWithNearCacheIfNeeded(cacheType, new KillBillCacheController<Object, Object>(cache, cacheLoader, latencyHistograms));
             }
 
             cacheControllers.put(cacheType, cacheController);
@@ -79,4 +91,19 @@ public class CacheControllerDispatcherProvider implements Provider<CacheControll
 
         return new CacheControllerDispatcher(cacheControllers);
     }
+
+    private CacheController<Object, Object> wrapWithNearCacheIfNeeded(final CacheType cacheType, final CacheController<Object, Object> cacheController) {
+        // The channel is only bound when Redis caching and near caches are enabled
+        if (nearCacheInvalidationChannel == null ||
+            redisCacheConfig.getNearCaches() == null ||
+            !redisCacheConfig.getNearCaches().contains(cacheType.getCacheName())) {
+            return cacheController;
+        }
+
+        logger.info("Enabling near cache for cacheName='{}'", cacheType.getCacheName());
+        return new NearCacheController<Object, Object>(cacheController,
+                                                       nearCacheInvalidationChannel,
+                                                       redisCacheConfig.getNearCacheMaxSize(),
+                                                       redisCacheConfig.getNearCacheTtl().getMillis());
+    }
 }
@@ -18,8 +18,11 @@
 
 package org.killbill.billing.util.cache;
 
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.function.Function;
 import java.util.stream.Collectors;
@@ -29,6 +32,8 @@ import javax.cache.Cache.Entry;
 import javax.cache.CacheException;
 
 import org.killbill.billing.util.cache.Cachable.CacheType;
+import org.killbill.billing.util.metrics.LatencyHistogram;
+import org.killbill.billing.util.metrics.LatencyHistograms;
 import org.killbill.commons.utils.collect.Iterables;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -39,10 +44,14 @@ public class KillBillCacheController<K, V> implements CacheController<K, V> {
 
     private final Cache<K, V> cache;
     private final BaseCacheLoader<K, V> baseCacheLoader;
+    private final LatencyHistogram getLatencyHistogram;
+    private final LatencyHistogram loadLatencyHistogram;
 
-    public KillBillCacheController(final Cache<K, V> cache, final BaseCacheLoader<K, V> baseCacheLoader) {
+    public KillBillCacheController(final Cache<K, V> cache, final BaseCacheLoader<K, V> baseCacheLoader, final LatencyHistograms latencyHistograms) {
         this.cache = cache;
         this.baseCacheLoader = baseCacheLoader;
+        this.getLatencyHistogram = latencyHistograms.getHistogram(LatencyHistograms.CACHE, baseCacheLoader.getCacheType().getCacheName() + ".get");
+        this.loadLatencyHistogram = latencyHistograms.getHistogram(LatencyHistograms.CACHE, baseCacheLoader.getCacheType().getCacheName() + ".load");
     }
 
     @Override
@@ -63,6 +72,7 @@ public class KillBillCacheController<K, V> implements CacheController<K, V> {
             return null;
         }
 
+        final long startNano = System.nanoTime();
         V value;
         try {
             if (!isKeyInCache(key)) {
@@ -79,6 +89,8 @@ public class KillBillCacheController<K, V> implements CacheController<K, V> {
         } catch (final CacheException e) {
             logger.warn("Unable to retrieve cached value for key='{}' and cacheLoaderArgument='{}'", key, cacheLoaderArgument, e);
             value = computeValue(key, cacheLoaderArgument);
+        } finally {
+            getLatencyHistogram.record(System.nanoTime() - startNano);
         }
 
         if (value == null || value.equals(BaseCacheLoader.EMPTY_VALUE_PLACEHOLDER)) {
@@ -88,11 +100,41 @@ public class KillBillCacheController<K, V> implements CacheController<K, V> {
         }
     }
 
+    @Override
+    public Map<K, V> getAll(final Set<K> keys) {
+        if (keys.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        final Map<K, V> values;
+        try {
+            values = cache.getAll(keys);
+        } catch (final CacheException e) {
+            logger.warn("Unable to retrieve cached values for keys='{}'", keys, e);
+            return Collections.emptyMap();
+        }
+
+        final Map<K, V> result = new HashMap<K, V>(values.size());
+        for (final Map.Entry<K, V> entry : values.entrySet()) {
+            if (entry.getValue() != null && !entry.getValue().equals(BaseCacheLoader.EMPTY_VALUE_PLACEHOLDER)) {
+                result.put(entry.getKey(), entry.getValue());
+            }
+        }
+        return result;
+    }
+
     @Override
     public void putIfAbsent(final K key, final V value) {
         cache.putIfAbsent(key, value);
     }
 
+    @Override
+    public void putAll(final Map<K, V> values) {
+        if (!values.isEmpty()) {
+            cache.putAll(values);
+        }
+    }
+
     @Override
     public boolean remove(final K key) {
         if (isKeyInCache(key)) {
@@ -141,6 +183,7 @@ public class KillBillCacheController<K, V> implements CacheController<K, V> {
     }
 
     private V computeValue(final K key, final CacheLoaderArgument cacheLoaderArgument) {
+        final long startNano = System.nanoTime();
         final V value;
         try {
             value = baseCacheLoader.compute(key, cacheLoaderArgument);
@@ -148,6 +191,8 @@ public class KillBillCacheController<K, V> implements CacheController<K, V> {
             // Remove noisy log (might be expected, see https://github.com/killbill/killbill/issues/842)
             //logger.warn("Unable to compute cached value for key='{}' and cacheLoaderArgument='{}'", key, cacheLoaderArgument, e);
             throw new RuntimeException(e);
+        } finally {
+            loadLatencyHistogram.record(System.nanoTime() - startNano);
         }
         return value;
     }
@@ -0,0 +1,262 @@
+/*
+ * Copyright 2020-2022 Equinix, Inc
+ * Copyright 2014-2022 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.billing.util.cache;
+
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+import javax.annotation.Nullable;
+
+import org.killbill.billing.util.cache.Cachable.CacheType;
+import org.killbill.commons.utils.annotation.VisibleForTesting;
+
+// On-heap L1 tier in front of a remote (Redis) cache, to avoid a network round trip for hot keys.
+//
+// Mappings in IMMUTABLE_CACHE_TYPES never change once computed, so local entries are only bounded in size.
+// Other caches are kept coherent by broadcasting every eviction to the other nodes, and their local entries
+// also expire after the configured TTL as a safety net against lost invalidation messages.
+public class NearCacheController<K, V> implements CacheController<K, V>, NearCacheInvalidationChannel.Listener {
+
+    public static final Set<CacheType> IMMUTABLE_CACHE_TYPES = EnumSet.of(CacheType.RECORD_ID,
+                                                                          CacheType.ACCOUNT_RECORD_ID,
+                                                                          CacheType.TENANT_RECORD_ID,
+                                                                          CacheType.OBJECT_ID);
+
+    private final CacheController<K, V> delegate;
+    private final NearCacheInvalidationChannel invalidationChannel;
+    private final boolean immutable;
+    private final long ttlNanos;
+    private final LongSupplier nanoTicker;
+    private final Map<K, LocalEntry<V>> localEntries;
+
+    // Bumped on every local invalidation: a value read from the remote tier is only kept locally if no invalidation
+    // raced with the read (otherwise we could resurrect a stale value until the TTL kicks in)
+    private long generation = 0;
+
+    public NearCacheController(final CacheController<K, V> delegate,
+                               final NearCacheInvalidationChannel invalidationChannel,
+                               final int maxSize,
+                               final long ttlMillis) {
+        this(delegate, invalidationChannel, maxSize, ttlMillis, System::nanoTime);
+    }
+
+    @VisibleForTesting
+    NearCacheController(final CacheController<K, V> delegate,
+                        final NearCacheInvalidationChannel invalidationChannel,
+                        final int maxSize,
+                        final long ttlMillis,
+                        final LongSupplier nanoTicker) {
+        this.delegate = delegate;
+        this.invalidationChannel = invalidationChannel;
+        this.immutable = IMMUTABLE_CACHE_TYPES.contains(delegate.getCacheType());
+        this.ttlNanos = ttlMillis * 1000000L;
+        this.nanoTicker = nanoTicker;
+        this.localEntries = new LinkedHashMap<K, LocalEntry<V>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(final Entry<K, LocalEntry<V>> eldest) {
+                return size() > maxSize;
+            }
+        };
+        invalidationChannel.subscribe(this);
+    }
+
+    @Override
+    public List<K> getKeys() {
+        return delegate.getKeys();
+    }
+
+    @Override
+    public boolean isKeyInCache(final K key) {
+        return getLocal(key) != null || delegate.isKeyInCache(key);
+    }
+
+    @Override
+    public V get(final K key, final CacheLoaderArgument cacheLoaderArgument) {
+        if (key == null) {
+            return null;
+        }
+
+        final V localValue = getLocal(key);
+        if (localValue != null) {
+            return localValue;
+        }
+
+        final long generationBeforeRead = currentGeneration();
+        final V value = delegate.get(key, cacheLoaderArgument);
+        putLocal(key, value, generationBeforeRead);
+        return value;
+    }
+
+    @Override
+    public Map<K, V> getAll(final Set<K> keys) {
+        final Map<K, V> result = new HashMap<K, V>();
+        final Set<K> missingKeys = new HashSet<K>();
+        for (final K key : keys) {
+            final V localValue = getLocal(key);
+            if (localValue != null) {
+                result.put(key, localValue);
+            } else {
+                missingKeys.add(key);
+            }
+        }
+
+        if (!missingKeys.isEmpty()) {
+            final long generationBeforeRead = currentGeneration();
+            final Map<K, V> remoteValues = delegate.getAll(missingKeys);
+            for (final Entry<K, V> entry : remoteValues.entrySet()) {
+                putLocal(entry.getKey(), entry.getValue(), generationBeforeRead);
+            }
+            result.putAll(remoteValues);
+        }
+        return result;
+    }
+
+    @Override
+    public boolean remove(final K key) {
+        invalidateLocal(key);
+        final boolean removed = delegate.remove(key);
+        invalidationChannel.publish(getCacheType(), key);
+        return removed;
+    }
+
+    @Override
+    public void remove(final Function<K, Boolean> keyMatcher) {
+        synchronized (localEntries) {
+            generation++;
+            localEntries.keySet().removeIf(keyMatcher::apply);
+        }
+        delegate.remove(keyMatcher);
+        // The matcher cannot be shipped to other nodes
+        invalidationChannel.publish(getCacheType(), null);
+    }
+
+    @Override
+    public void putIfAbsent(final K key, final V value) {
+        // The remote tier may already hold a different value: let the next read populate the local tier
+        delegate.putIfAbsent(key, value);
+    }
+
+    @Override
+    public void putAll(final Map<K, V> values) {
+        delegate.putAll(values);
+        if (immutable) {
+            final long currentGeneration = currentGeneration();
+            for (final Entry<K, V> entry : values.entrySet()) {
+                putLocal(entry.getKey(), entry.getValue(), currentGeneration);
+            }
+        } else {
+            // Values may have been overwritten: make sure nobody keeps serving the old ones
+            for (final K key : values.keySet()) {
+                invalidateLocal(key);
+                invalidationChannel.publish(getCacheType(), key);
+            }
+        }
+    }
+
+    @Override
+    public int size() {
+        return delegate.size();
+    }
+
+    @Override
+    public void removeAll() {
+        invalidateLocal(null);
+        delegate.removeAll();
+        invalidationChannel.publish(getCacheType(), null);
+    }
+
+    @Override
+    public CacheType getCacheType() {
+        return delegate.getCacheType();
+    }
+
+    @Override
+    public void onInvalidation(final CacheType cacheType, @Nullable final Object key) {
+        if (cacheType == getCacheType()) {
+            invalidateLocal(key);
+        }
+    }
+
+    @VisibleForTesting
+    int localSize() {
+        synchronized (localEntries) {
+            return localEntries.size();
+        }
+    }
+
+    private V getLocal(final K key) {
+        synchronized (localEntries) {
+            final LocalEntry<V> localEntry = localEntries.get(key);
+            if (localEntry == null) {
+                return null;
+            }
+            if (!immutable && nanoTicker.getAsLong() - localEntry.createdNanos >= ttlNanos) {
+                localEntries.remove(key);
+                return null;
+            }
+            return localEntry.value;
+        }
+    }
+
+    private void putLocal(final K key, @Nullable final V value, final long expectedGeneration) {
+        if (key == null || value == null) {
+            return;
+        }
+        synchronized (localEntries) {
+            if (generation == expectedGeneration) {
+                localEntries.put(key, new LocalEntry<V>(value, nanoTicker.getAsLong()));
+            }
+        }
+    }
+
+    private void invalidateLocal(@Nullable final Object key) {
+        synchronized (localEntries) {
+            generation++;
+            if (key == null) {
+                localEntries.clear();
+            } else {
+                localEntries.remove(key);
+            }
+        }
+    }
+
+    private long currentGeneration() {
+        synchronized (localEntries) {
+            return generation;
+        }
+    }
+
+    private static final class LocalEntry<V> {
+
+        private final V value;
+        private final long createdNanos;
+
+        private LocalEntry(final V value, final long createdNanos) {
+            this.value = value;
+            this.createdNanos = createdNanos;
+        }
+    }
+}
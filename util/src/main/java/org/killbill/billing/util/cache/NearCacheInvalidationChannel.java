@@ -0,0 +1,37 @@
+/*
+ * Copyright 2020-2022 Equinix, Inc
+ * Copyright 2014-2022 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.billing.util.cache;
+
+import javax.annotation.Nullable;
+
+import org.killbill.billing.util.cache.Cachable.CacheType;
+
+// Propagates near cache evictions across nodes, see NearCacheController
+public interface NearCacheInvalidationChannel {
+
+    // A null key means all entries of that cache
+    void publish(CacheType cacheType, @Nullable Object key);
+
+    // Only invalidations published by other nodes are delivered
+    void subscribe(Listener listener);
+
+    interface Listener {
+
+        void onInvalidation(CacheType cacheType, @Nullable Object key);
+    }
+}
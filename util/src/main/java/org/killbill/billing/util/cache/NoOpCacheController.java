@@ -19,6 +19,8 @@ package org.killbill.billing.util.cache;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.function.Function;
 
 import org.killbill.billing.util.cache.Cachable.CacheType;
@@ -56,6 +58,11 @@ public class NoOpCacheController<K, V> implements CacheController<K, V> {
         }
     }
 
+    @Override
+    public Map<K, V> getAll(final Set<K> keys) {
+        return Collections.emptyMap();
+    }
+
     @Override
     public boolean remove(final K key) {
         return false;
@@ -69,6 +76,10 @@ public class NoOpCacheController<K, V> implements CacheController<K, V> {
     public void putIfAbsent(final K key, final V value) {
     }
 
+    @Override
+    public void putAll(final Map<K, V> values) {
+    }
+
     @Override
     public int size() {
         return 0;
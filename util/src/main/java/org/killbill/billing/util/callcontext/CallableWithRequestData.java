@@ -15,7 +15,7 @@
  * under the License.
  */
 
-package org.killbill.billing.payment.dispatcher;
+package org.killbill.billing.util.callcontext;
 
 import java.util.Map;
 import java.util.Random;
@@ -30,6 +30,7 @@ import org.killbill.commons.request.Request;
 import org.killbill.commons.request.RequestData;
 import org.slf4j.MDC;
 
+// Runs the delegate on another thread with the requestId, random generator, Shiro subject and logging context of the caller
 public class CallableWithRequestData<T> implements Callable<T> {
 
     private final RequestData requestData;
@@ -65,7 +66,9 @@ public class CallableWithRequestData<T> implements Callable<T> {
             UUIDs.setRandom(random);
             ThreadContext.bind(securityManager);
             ThreadContext.bind(subject);
-            MDC.setContextMap(mdcContextMap);
+            if (mdcContextMap != null) {
+                MDC.setContextMap(mdcContextMap);
+            }
             return delegate.call();
         } finally {
             Request.resetPerThreadRequestData();
@@ -18,7 +18,16 @@
 
 package org.killbill.billing.util.callcontext;
 
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
 
 import javax.annotation.Nullable;
@@ -146,6 +155,42 @@ public class InternalCallContextFactory {
         return createInternalTenantContext(tenantRecordId, accountRecordId);
     }
 
+    /**
+     * Batch version of {@link #createInternalTenantContext(UUID, ObjectType, TenantContext)}: the account_record_id
+     * of all objects is retrieved with (at most) one query per object type, after looking up the caches
+     *
+     * @param objects object id -> object type pointed by this objectId
+     * @param context original tenant callcontext
+     * @return object id -> internal tenant callcontext (objects which don't exist are absent)
+     */
+    public Map<UUID, InternalTenantContext> createInternalTenantContexts(final Map<UUID, ObjectType> objects, final TenantContext context) {
+        final Long tenantRecordId = getTenantRecordIdSafe(context);
+        populateMDCContext(null, null, tenantRecordId);
+
+        final Set<UUID> existingObjectIds = new HashSet<UUID>();
+        final Map<UUID, Long> accountRecordIds = getAccountRecordIdsSafe(objects, tenantRecordId, existingObjectIds);
+
+        final InternalTenantContext contextWithoutAccountRecordId = new InternalTenantContext(tenantRecordId);
+        final Map<Long, InternalTenantContext> contextsByAccountRecordId = new HashMap<Long, InternalTenantContext>();
+        final Map<UUID, InternalTenantContext> result = new LinkedHashMap<UUID, InternalTenantContext>();
+        for (final UUID objectId : objects.keySet()) {
+            if (!existingObjectIds.contains(objectId)) {
+                continue;
+            }
+
+            final Long accountRecordId = accountRecordIds.get(objectId);
+            if (accountRecordId == null) {
+                result.put(objectId, contextWithoutAccountRecordId);
+            } else {
+                result.put(objectId, contextsByAccountRecordId.computeIfAbsent(accountRecordId, k -> {
+                    final ImmutableAccountData immutableAccountData = getImmutableAccountData(accountRecordId, tenantRecordId);
+                    return new InternalTenantContext(tenantRecordId, accountRecordId, immutableAccountData.getFixedOffsetTimeZone(), immutableAccountData.getReferenceTime());
+                }));
+            }
+        }
+        return result;
+    }
+
     /**
      * Create an internal tenant callcontext
      *
@@ -366,10 +411,37 @@ public class InternalCallContextFactory {
         }
     }
 
+    // Safe method to retrieve the account record ids of many objects at once (objects which don't exist, or don't have an account, are absent)
+    public Map<UUID, Long> getAccountRecordIds(final Map<UUID, ObjectType> objects, final TenantContext context) {
+        final Long tenantRecordId = getTenantRecordIdSafe(context);
+        return getAccountRecordIdsSafe(objects, tenantRecordId, new HashSet<UUID>());
+    }
+
     //
     // Safe NonEntityDao private wrappers
     //
 
+    private Map<UUID, Long> getAccountRecordIdsSafe(final Map<UUID, ObjectType> objects, final Long tenantRecordId, final Set<UUID> existingObjectIds) {
+        final Map<ObjectType, List<UUID>> objectIdsByType = new EnumMap<ObjectType, List<UUID>>(ObjectType.class);
+        for (final Entry<UUID, ObjectType> entry : objects.entrySet()) {
+            objectIdsByType.computeIfAbsent(entry.getValue(), k -> new ArrayList<UUID>()).add(entry.getKey());
+        }
+
+        final Map<UUID, Long> result = new HashMap<UUID, Long>();
+        for (final Entry<ObjectType, List<UUID>> entry : objectIdsByType.entrySet()) {
+            final Map<UUID, Long> tenantRecordIds = nonEntityDao.retrieveTenantRecordIdsFromObjects(entry.getValue(), entry.getKey(), tenantRecordIdCacheController);
+            for (final Entry<UUID, Long> tenantRecordIdEntry : tenantRecordIds.entrySet()) {
+                if (!tenantRecordIdEntry.getValue().equals(tenantRecordId)) {
+                    throw new IllegalStateException(String.format("Object id=%s type=%s doesn't belong to tenant recordId=%s", tenantRecordIdEntry.getKey(), entry.getKey(), tenantRecordId));
+                }
+            }
+            existingObjectIds.addAll(tenantRecordIds.keySet());
+
+            result.putAll(nonEntityDao.retrieveAccountRecordIdsFromObjects(tenantRecordIds.keySet(), entry.getKey(), accountRecordIdCacheController));
+        }
+        return result;
+    }
+
     private Long getAccountRecordIdSafe(final UUID objectId, final ObjectType objectType, final TenantContext context) {
         if (objectBelongsToTheRightTenant(objectId, objectType, context)) {
             return getAccountRecordIdUnsafe(objectId, objectType);
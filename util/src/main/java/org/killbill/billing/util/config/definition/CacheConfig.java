@@ -20,8 +20,10 @@ package org.killbill.billing.util.config.definition;
 import java.util.Set;
 
 import org.skife.config.Config;
+import org.skife.config.Default;
 import org.skife.config.DefaultNull;
 import org.skife.config.Description;
+import org.skife.config.TimeSpan;
 
 public interface CacheConfig extends KillbillConfig {
 
@@ -29,4 +31,9 @@ public interface CacheConfig extends KillbillConfig {
     @DefaultNull
     @Description("Caches to be disabled")
     public Set<String> getDisabledCaches();
+
+    @Config("org.killbill.cache.accountTags.ttl")
+    @Default("1m")
+    @Description("Maximum age of the account tags snapshots served from the cache. Other nodes learn about tag changes through broadcasts, which are polled and sent after the tag change commits: this bounds how long a node may serve stale tags if a broadcast is lost")
+    public TimeSpan getAccountTagsCacheTtl();
 }
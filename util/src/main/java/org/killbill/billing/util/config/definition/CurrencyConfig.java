@@ -20,6 +20,7 @@ package org.killbill.billing.util.config.definition;
 import org.skife.config.Config;
 import org.skife.config.Default;
 import org.skife.config.Description;
+import org.skife.config.TimeSpan;
 
 public interface CurrencyConfig extends KillbillConfig {
 
@@ -27,4 +28,14 @@ public interface CurrencyConfig extends KillbillConfig {
     @Default("killbill-currency-plugin")
     @Description("Default currency provider to use")
     public String getDefaultCurrencyProvider();
+
+    @Config("org.killbill.currency.rates.cache.ttl")
+    @Default("1m")
+    @Description("How long rates returned by the currency provider are kept in memory (0 to disable)")
+    public TimeSpan getRatesCacheTTL();
+
+    @Config("org.killbill.currency.rates.cache.maxSize")
+    @Default("1000")
+    @Description("Maximum number of rate snapshots (per base currency and conversion date) kept in memory")
+    public int getRatesCacheMaxSize();
 }
@@ -127,6 +127,41 @@ public interface InvoiceConfig extends KillbillConfig {
     @Description("Default invoice plugin names")
     List<String> getInvoicePluginNames(@Param("dummy") final InternalTenantContext tenantContext);
 
+    @Config("org.killbill.invoice.plugin.timeout")
+    @Default("0s")
+    @Description("Default timeout for each invoice plugin call (ignored if set to 0s)")
+    TimeSpan getInvoicePluginTimeout();
+
+    @Config("org.killbill.invoice.plugin.timeouts")
+    @Default("")
+    @Description("Per-plugin timeout overrides, as a list of pluginName:timeSpan (e.g. my-tax-plugin:5s)")
+    List<String> getInvoicePluginTimeouts();
+
+    @Config("org.killbill.invoice.plugin.parallelDispatch")
+    @Default("false")
+    @Description("Whether invoice plugins can be invoked concurrently (plugins then all see the original plugin properties and invoice)")
+    boolean isInvoicePluginParallelDispatchEnabled();
+
+    @Config("org.killbill.invoice.plugin.threadNb")
+    @Default("10")
+    @Description("Number of threads used to invoke invoice plugins when a timeout or parallel dispatch is configured")
+    int getInvoicePluginThreadNb();
+
+    @Config("org.killbill.invoice.plugin.queueSize")
+    @Default("100")
+    @Description("Maximum number of invoice plugin calls waiting for a thread, further calls are rejected")
+    int getInvoicePluginQueueSize();
+
+    @Config("org.killbill.invoice.plugin.circuitBreaker.failureThreshold")
+    @Default("0")
+    @Description("Number of consecutive failures or timeouts after which calls to an invoice plugin are short-circuited (ignored if set to 0)")
+    int getInvoicePluginCircuitBreakerFailureThreshold();
+
+    @Config("org.killbill.invoice.plugin.circuitBreaker.openDuration")
+    @Default("30s")
+    @Description("How long calls to an invoice plugin are short-circuited before a trial call is let through")
+    TimeSpan getInvoicePluginCircuitBreakerOpenDuration();
+
     @Config("org.killbill.invoice.emailNotificationsEnabled")
     @Default("false")
     @Description("Whether to send email notifications on invoice creation (for configured accounts)")
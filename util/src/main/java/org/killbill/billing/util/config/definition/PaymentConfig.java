@@ -125,6 +125,21 @@ public interface PaymentConfig extends KillbillConfig {
     @Description("Number of threads for plugin executor dispatcher")
     int getPaymentPluginThreadNb();
 
+    @Config("org.killbill.payment.bulk.threads.nb")
+    @Default("5")
+    @Description("Number of threads used to process the accounts of a bulk payment request concurrently")
+    int getBulkPaymentThreadNb();
+
+    @Config("org.killbill.payment.retry.plugin.rate")
+    @Default("0")
+    @Description("Maximum number of scheduled retries per second handed to each payment control plugin by each node, additional retries are rescheduled (0 to disable)")
+    int getRetryPluginRateLimit();
+
+    @Config("org.killbill.payment.retry.jitter")
+    @Default("0s")
+    @Description("Maximum delay added to scheduled retries so that retries due at the same time are spread out")
+    TimeSpan getRetryJitter();
+
     @Config("org.killbill.payment.globalLock.retries")
     @Default("50")
     @Description("Maximum number of times the system will retry to grab global lock (with a 100ms wait each time)")
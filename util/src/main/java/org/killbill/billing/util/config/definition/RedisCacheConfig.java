@@ -17,10 +17,13 @@
 
 package org.killbill.billing.util.config.definition;
 
+import java.util.Set;
+
 import org.skife.config.Config;
 import org.skife.config.Default;
 import org.skife.config.DefaultNull;
 import org.skife.config.Description;
+import org.skife.config.TimeSpan;
 
 public interface RedisCacheConfig extends KillbillConfig {
 
@@ -43,4 +46,19 @@ public interface RedisCacheConfig extends KillbillConfig {
     @DefaultNull
     @Description("Redis Password")
     public String getPassword();
+
+    @Config("org.killbill.cache.config.redis.nearCache")
+    @DefaultNull
+    @Description("Caches to front with an on-heap near cache, e.g. record-id,account-record-id,tenant-record-id,object-id,account-immutable,account-bcd,tenant-kv")
+    public Set<String> getNearCaches();
+
+    @Config("org.killbill.cache.config.redis.nearCache.maxSize")
+    @Default("10000")
+    @Description("Maximum number of entries held on-heap per near cache")
+    public int getNearCacheMaxSize();
+
+    @Config("org.killbill.cache.config.redis.nearCache.ttl")
+    @Default("1m")
+    @Description("Time to live of on-heap entries for near caches whose values can change")
+    public TimeSpan getNearCacheTtl();
 }
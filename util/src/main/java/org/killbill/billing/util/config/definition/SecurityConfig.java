@@ -35,6 +35,11 @@ public interface SecurityConfig extends KillbillConfig {
     @Description("Sets the number of times submitted credentials will be hashed before comparing to the credentials stored in the system")
     public Integer getShiroNbHashIterations();
 
+    @Config("org.killbill.security.verifiedCredentialsCacheSize")
+    @Default("1000")
+    @Description("Max number of principals for which successfully verified credentials are remembered, to avoid re-hashing them on each request (0 to disable)")
+    public int getShiroVerifiedCredentialsCacheSize();
+
     // LDAP Realm
 
     @Config("org.killbill.security.ldap.userDnTemplate")
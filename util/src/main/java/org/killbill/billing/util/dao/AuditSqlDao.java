@@ -21,6 +21,7 @@ package org.killbill.billing.util.dao;
 import java.util.Iterator;
 import java.util.List;
 
+import org.joda.time.DateTime;
 import org.killbill.billing.callcontext.InternalCallContext;
 import org.killbill.billing.callcontext.InternalTenantContext;
 import org.killbill.billing.util.audit.dao.AuditLogModelDao;
@@ -49,11 +50,24 @@ public interface AuditSqlDao {
     @SmartFetchSize(shouldStream = true)
     public Iterator<AuditLogModelDao> getAuditLogsForAccountRecordId(@SmartBindBean final InternalTenantContext context);
 
+    @SqlQuery
+    @SmartFetchSize(shouldStream = true)
+    public Iterator<AuditLogModelDao> getAuditLogsForAccountRecordIdAndCreatedDate(@Bind("fromDate") final DateTime fromDate, /* Inclusive */
+                                                                                   @Bind("toDate") final DateTime toDate, /* Exclusive */
+                                                                                   @SmartBindBean final InternalTenantContext context);
+
     @SqlQuery
     @SmartFetchSize(shouldStream = true)
     public Iterator<AuditLogModelDao> getAuditLogsForTableNameAndAccountRecordId(@Bind("tableName") final String tableName,
                                                                                  @SmartBindBean final InternalTenantContext context);
 
+    @SqlQuery
+    @SmartFetchSize(shouldStream = true)
+    public Iterator<AuditLogModelDao> getAuditLogsForTableNameAndAccountRecordIdAndCreatedDate(@Bind("tableName") final String tableName,
+                                                                                               @Bind("fromDate") final DateTime fromDate, /* Inclusive */
+                                                                                               @Bind("toDate") final DateTime toDate, /* Exclusive */
+                                                                                               @SmartBindBean final InternalTenantContext context);
+
     @SqlQuery
     public List<AuditLogModelDao> getAuditLogsForTargetRecordId(@Bind("tableName") final String tableName,
                                                                 @Bind("targetRecordId") final long targetRecordId,
@@ -18,6 +18,14 @@
 
 package org.killbill.billing.util.dao;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
 import java.util.UUID;
 
 import javax.annotation.Nullable;
@@ -42,6 +50,9 @@ import static org.killbill.billing.util.glue.IDBISetup.MAIN_RO_IDBI_NAMED;
 
 public class DefaultNonEntityDao implements NonEntityDao {
 
+    // Keep the IN clauses to a reasonable size (some databases limit the number of elements)
+    private static final int MAX_IDS_PER_IN_CLAUSE = 1000;
+
     private final DBRouter<NonEntitySqlDao> dbRouter;
     private final WithCaching<String, Long> withCachingObjectId;
     private final WithCaching<String, UUID> withCachingRecordId;
@@ -136,6 +147,64 @@ public class DefaultNonEntityDao implements NonEntityDao {
         }, objectIdOrNull, objectType, tableName, cache);
     }
 
+    @Override
+    public Map<UUID, Long> retrieveRecordIdsFromObjects(final Collection<UUID> objectIds, final ObjectType objectType, @Nullable final CacheController<String, Long> cache) {
+        final TableName tableName = TableName.fromObjectType(objectType);
+        Preconditions.checkNotNull(tableName, "%s is not a valid ObjectType", objectType);
+
+        return withBatchCaching(new BatchOperationRetrieval() {
+            @Override
+            public List<RecordIdIdMappings> doRetrieve(final Collection<String> objectIdsToRetrieve) {
+                return dbRouter.onDemand(true).getRecordIdIdMappingsFromIds(tableName.getTableName(), objectIdsToRetrieve);
+            }
+        }, objectIds, objectType, tableName, cache);
+    }
+
+    @Override
+    public Map<UUID, Long> retrieveAccountRecordIdsFromObjects(final Collection<UUID> objectIds, final ObjectType objectType, @Nullable final CacheController<String, Long> cache) {
+        final TableName tableName = TableName.fromObjectType(objectType);
+        Preconditions.checkNotNull(tableName, "%s is not a valid ObjectType", objectType);
+
+        switch (tableName) {
+            case TENANT:
+            case TAG_DEFINITIONS:
+            case TAG_DEFINITION_HISTORY:
+                return Collections.emptyMap();
+            default:
+                break;
+        }
+
+        return withBatchCaching(new BatchOperationRetrieval() {
+            @Override
+            public List<RecordIdIdMappings> doRetrieve(final Collection<String> objectIdsToRetrieve) {
+                final NonEntitySqlDao nonEntitySqlDao = dbRouter.onDemand(true);
+                if (tableName == TableName.ACCOUNT) {
+                    return nonEntitySqlDao.getRecordIdIdMappingsFromIds(tableName.getTableName(), objectIdsToRetrieve);
+                } else {
+                    return nonEntitySqlDao.getAccountRecordIdIdMappingsFromIds(tableName.getTableName(), objectIdsToRetrieve);
+                }
+            }
+        }, objectIds, objectType, tableName, cache);
+    }
+
+    @Override
+    public Map<UUID, Long> retrieveTenantRecordIdsFromObjects(final Collection<UUID> objectIds, final ObjectType objectType, @Nullable final CacheController<String, Long> cache) {
+        final TableName tableName = TableName.fromObjectType(objectType);
+        Preconditions.checkNotNull(tableName, "%s is not a valid ObjectType", objectType);
+
+        return withBatchCaching(new BatchOperationRetrieval() {
+            @Override
+            public List<RecordIdIdMappings> doRetrieve(final Collection<String> objectIdsToRetrieve) {
+                final NonEntitySqlDao nonEntitySqlDao = dbRouter.onDemand(true);
+                if (tableName == TableName.TENANT) {
+                    return nonEntitySqlDao.getRecordIdIdMappingsFromIds(tableName.getTableName(), objectIdsToRetrieve);
+                } else {
+                    return nonEntitySqlDao.getTenantRecordIdIdMappingsFromIds(tableName.getTableName(), objectIdsToRetrieve);
+                }
+            }
+        }, objectIds, objectType, tableName, cache);
+    }
+
     @Override
     public UUID retrieveIdFromObject(final Long recordId, final ObjectType objectType, @Nullable final CacheController<String, UUID> cache) {
         return retrieveIdFromObjectInTransaction(recordId, objectType, cache, null);
@@ -175,6 +244,68 @@ public class DefaultNonEntityDao implements NonEntityDao {
         public TypeOut doRetrieve(final ObjectType objectType);
     }
 
+    private interface BatchOperationRetrieval {
+
+        public List<RecordIdIdMappings> doRetrieve(final Collection<String> objectIds);
+    }
+
+    // The mappings are immutable, so it is safe to populate the cache with whatever we read (values are the same across nodes)
+    private Map<UUID, Long> withBatchCaching(final BatchOperationRetrieval op, final Collection<UUID> objectIds, final ObjectType objectType, final TableName tableName, @Nullable final CacheController<String, Long> cache) {
+        final Map<UUID, Long> result = new HashMap<UUID, Long>();
+
+        // Cache key -> object id (nulls and duplicates are ignored)
+        final Map<String, UUID> keys = new LinkedHashMap<String, UUID>();
+        for (final UUID objectId : objectIds) {
+            if (objectId != null) {
+                keys.put(getCacheKey(objectId, tableName, cache), objectId);
+            }
+        }
+        if (keys.isEmpty()) {
+            return result;
+        }
+
+        final Map<String, Long> cachedValues = cache != null ? cache.getAll(keys.keySet()) : Collections.<String, Long>emptyMap();
+        final List<String> misses = new ArrayList<String>(keys.size() - cachedValues.size());
+        for (final Entry<String, UUID> entry : keys.entrySet()) {
+            final Long cachedValue = cachedValues.get(entry.getKey());
+            if (cachedValue != null) {
+                result.put(entry.getValue(), cachedValue);
+            } else {
+                misses.add(entry.getValue().toString());
+            }
+        }
+        if (misses.isEmpty()) {
+            return result;
+        }
+
+        final Profiling<List<RecordIdIdMappings>, RuntimeException> prof = new Profiling<List<RecordIdIdMappings>, RuntimeException>();
+        final Map<String, Long> toCache = new HashMap<String, Long>();
+        for (int i = 0; i < misses.size(); i += MAX_IDS_PER_IN_CLAUSE) {
+            final List<String> objectIdsToRetrieve = misses.subList(i, Math.min(i + MAX_IDS_PER_IN_CLAUSE, misses.size()));
+            final List<RecordIdIdMappings> mappings = prof.executeWithProfiling(ProfilingFeatureType.DAO_DETAILS, "NonEntityDao (type = " + objectType + ") batch cache miss", new WithProfilingCallback<List<RecordIdIdMappings>, RuntimeException>() {
+                @Override
+                public List<RecordIdIdMappings> execute() throws RuntimeException {
+                    return op.doRetrieve(objectIdsToRetrieve);
+                }
+            });
+            for (final RecordIdIdMappings mapping : mappings) {
+                result.put(mapping.getId(), mapping.getRecordId());
+                toCache.put(getCacheKey(mapping.getId(), tableName, cache), mapping.getRecordId());
+            }
+        }
+
+        if (cache != null) {
+            cache.putAll(toCache);
+        }
+        return result;
+    }
+
+    private String getCacheKey(final UUID objectId, final TableName tableName, @Nullable final CacheController<String, Long> cache) {
+        return (cache != null && cache.getCacheType().isKeyPrefixedWithTableName()) ?
+               tableName + CacheControllerDispatcher.CACHE_KEY_SEPARATOR + objectId :
+               objectId.toString();
+    }
+
     // 'cache' will be null for the CacheLoader classes -- or if cache is not configured.
     private class WithCaching<TypeIn, TypeOut> {
 
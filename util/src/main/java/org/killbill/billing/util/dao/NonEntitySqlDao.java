@@ -18,6 +18,8 @@
 
 package org.killbill.billing.util.dao;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
 
 import org.killbill.billing.callcontext.InternalTenantContext;
@@ -28,6 +30,7 @@ import org.skife.jdbi.v2.sqlobject.SqlQuery;
 import org.skife.jdbi.v2.sqlobject.customizers.Define;
 import org.skife.jdbi.v2.sqlobject.mixins.CloseMe;
 import org.skife.jdbi.v2.sqlobject.mixins.Transactional;
+import org.skife.jdbi.v2.unstable.BindIn;
 
 @KillBillSqlDaoStringTemplate
 public interface NonEntitySqlDao extends Transactional<NonEntitySqlDao>, CloseMe {
@@ -47,6 +50,15 @@ public interface NonEntitySqlDao extends Transactional<NonEntitySqlDao>, CloseMe
     @SqlQuery
     public Long getAccountRecordIdFromObjectOtherThanAccount(@Bind("id") String id, @Define("tableName") final String tableName);
 
+    @SqlQuery
+    public List<RecordIdIdMappings> getRecordIdIdMappingsFromIds(@Define("tableName") final String tableName, @BindIn("ids") final Collection<String> ids);
+
+    @SqlQuery
+    public List<RecordIdIdMappings> getAccountRecordIdIdMappingsFromIds(@Define("tableName") final String tableName, @BindIn("ids") final Collection<String> ids);
+
+    @SqlQuery
+    public List<RecordIdIdMappings> getTenantRecordIdIdMappingsFromIds(@Define("tableName") final String tableName, @BindIn("ids") final Collection<String> ids);
+
     @SqlQuery
     public Long getTenantRecordIdFromTenant(@Bind("id") String id);
 
@@ -16,16 +16,110 @@
 
 package org.killbill.billing.util.email.templates;
 
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
 
 import com.samskivert.mustache.Mustache;
 import com.samskivert.mustache.Template;
 
 public class MustacheTemplateEngine implements TemplateEngine {
 
+    private static final int MAX_CACHED_TEMPLATES = 1000;
+
+    private final Mustache.Compiler compiler;
+    // Compiled templates, keyed by tenant and template content hash (LRU)
+    private final Map<TemplateKey, CompiledTemplate> compiledTemplates;
+
+    public MustacheTemplateEngine() {
+        this.compiler = Mustache.compiler().nullValue("");
+        this.compiledTemplates = new LinkedHashMap<TemplateKey, CompiledTemplate>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(final Entry<TemplateKey, CompiledTemplate> eldest) {
+                return size() > MAX_CACHED_TEMPLATES;
+            }
+        };
+    }
+
     @Override
     public String executeTemplateText(final String templateText, final Map<String, Object> data) {
-        final Template template = Mustache.compiler().nullValue("").compile(templateText);
+        final Template template = compiler.compile(templateText);
         return template.execute(data);
     }
+
+    @Override
+    public String executeTemplateText(final Long tenantRecordId, final String templateText, final Map<String, Object> data) {
+        return getCompiledTemplate(tenantRecordId, templateText).execute(data);
+    }
+
+    @Override
+    public void invalidateTemplates(final Long tenantRecordId) {
+        synchronized (compiledTemplates) {
+            final Iterator<TemplateKey> it = compiledTemplates.keySet().iterator();
+            while (it.hasNext()) {
+                if (Objects.equals(it.next().tenantRecordId, tenantRecordId)) {
+                    it.remove();
+                }
+            }
+        }
+    }
+
+    private Template getCompiledTemplate(final Long tenantRecordId, final String templateText) {
+        final TemplateKey key = new TemplateKey(tenantRecordId, templateText.hashCode());
+        synchronized (compiledTemplates) {
+            final CompiledTemplate compiledTemplate = compiledTemplates.get(key);
+            // Guard against hash collisions
+            if (compiledTemplate != null && compiledTemplate.templateText.equals(templateText)) {
+                return compiledTemplate.template;
+            }
+        }
+
+        // Compile outside of the lock: templates are immutable, so a concurrent compilation of the same text is harmless
+        final Template template = compiler.compile(templateText);
+        synchronized (compiledTemplates) {
+            compiledTemplates.put(key, new CompiledTemplate(templateText, template));
+        }
+        return template;
+    }
+
+    private static final class TemplateKey {
+
+        private final Long tenantRecordId;
+        private final int templateTextHash;
+
+        private TemplateKey(final Long tenantRecordId, final int templateTextHash) {
+            this.tenantRecordId = tenantRecordId;
+            this.templateTextHash = templateTextHash;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            final TemplateKey that = (TemplateKey) o;
+            return templateTextHash == that.templateTextHash && Objects.equals(tenantRecordId, that.tenantRecordId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(tenantRecordId, templateTextHash);
+        }
+    }
+
+    private static final class CompiledTemplate {
+
+        private final String templateText;
+        private final Template template;
+
+        private CompiledTemplate(final String templateText, final Template template) {
+            this.templateText = templateText;
+            this.template = template;
+        }
+    }
 }
@@ -22,4 +22,9 @@ public interface TemplateEngine {
 
     public String executeTemplateText(final String templateText, final Map<String, Object> data);
 
+    // Same as above, but the compiled template is kept around for subsequent calls for that tenant
+    public String executeTemplateText(final Long tenantRecordId, final String templateText, final Map<String, Object> data);
+
+    public void invalidateTemplates(final Long tenantRecordId);
+
 }
@@ -35,7 +35,9 @@ public class AuditModule extends KillBillModule {
     }
 
     protected void installUserApi() {
-        bind(AuditUserApi.class).to(DefaultAuditUserApi.class).asEagerSingleton();
+        // The JAX-RS layer needs the implementation directly (see DefaultAuditUserApi#getAccountAuditLogs with a date range)
+        bind(DefaultAuditUserApi.class).asEagerSingleton();
+        bind(AuditUserApi.class).to(DefaultAuditUserApi.class);
     }
 
     @Override
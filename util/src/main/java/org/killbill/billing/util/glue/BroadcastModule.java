@@ -25,6 +25,8 @@ import org.killbill.billing.util.broadcast.DefaultBroadcastService;
 import org.killbill.billing.util.broadcast.dao.BroadcastDao;
 import org.killbill.billing.util.broadcast.dao.DefaultBroadcastDao;
 import org.killbill.billing.util.config.definition.BroadcastConfig;
+import org.killbill.billing.util.security.api.SecurityCacheInvalidationListener;
+import org.killbill.billing.util.tag.dao.AccountTagsCacheInvalidationListener;
 import org.skife.config.ConfigurationObjectFactory;
 
 public class BroadcastModule extends KillBillModule {
@@ -41,6 +43,9 @@ public class BroadcastModule extends KillBillModule {
 
         bind(BroadcastService.class).to(DefaultBroadcastService.class).asEagerSingleton();
         bind(BroadcastApi.class).to(DefaultBroadcastApi.class).asEagerSingleton();
+        // Broadcast listeners register themselves to the bus in their own lifecycle
+        bind(SecurityCacheInvalidationListener.class).asEagerSingleton();
+        bind(AccountTagsCacheInvalidationListener.class).asEagerSingleton();
     }
 
     @Override
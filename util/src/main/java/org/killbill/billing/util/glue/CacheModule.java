@@ -25,11 +25,13 @@ import org.killbill.billing.platform.api.KillbillConfigSource;
 import org.killbill.billing.util.cache.AccountBCDCacheLoader;
 import org.killbill.billing.util.cache.AccountIdFromBundleIdCacheLoader;
 import org.killbill.billing.util.cache.AccountRecordIdCacheLoader;
+import org.killbill.billing.util.cache.AccountTagsCacheLoader;
 import org.killbill.billing.util.cache.BaseCacheLoader;
 import org.killbill.billing.util.cache.BundleIdFromSubscriptionIdCacheLoader;
 import org.killbill.billing.util.cache.CacheControllerDispatcher;
 import org.killbill.billing.util.cache.CacheControllerDispatcherProvider;
 import org.killbill.billing.util.cache.ImmutableAccountCacheLoader;
+import org.killbill.billing.util.cache.NearCacheInvalidationChannel;
 import org.killbill.billing.util.cache.ObjectIdCacheLoader;
 import org.killbill.billing.util.cache.OverriddenPlanCacheLoader;
 import org.killbill.billing.util.cache.RecordIdCacheLoader;
@@ -43,6 +45,8 @@ import org.killbill.billing.util.cache.TenantStateMachineConfigCacheLoader;
 import org.killbill.billing.util.config.definition.CacheConfig;
 import org.killbill.billing.util.config.definition.EhCacheConfig;
 import org.killbill.billing.util.config.definition.RedisCacheConfig;
+import org.killbill.billing.util.metrics.LatencyHistogramGauges;
+import org.killbill.billing.util.metrics.LatencyHistograms;
 import org.redisson.api.RedissonClient;
 import org.skife.config.ConfigurationObjectFactory;
 
@@ -77,12 +81,21 @@ public class CacheModule extends KillBillModule {
             bind(CacheManager.class).toProvider(Eh107CacheManagerProvider.class).asEagerSingleton();
         }
 
+        if (redisCacheConfig.isRedisCachingEnabled() && redisCacheConfig.getNearCaches() != null && !redisCacheConfig.getNearCaches().isEmpty()) {
+            bind(NearCacheInvalidationChannel.class).to(RedisNearCacheInvalidationChannel.class).asEagerSingleton();
+        } else {
+            bind(NearCacheInvalidationChannel.class).toProvider(Providers.<NearCacheInvalidationChannel>of(null));
+        }
+
         // Kill Bill generic cache dispatcher
         bind(CacheControllerDispatcher.class).toProvider(CacheControllerDispatcherProvider.class).asEagerSingleton();
+        bind(LatencyHistograms.class).asEagerSingleton();
+        bind(LatencyHistogramGauges.class).asEagerSingleton();
 
         final Multibinder<BaseCacheLoader> resultSetMapperSetBinder = Multibinder.newSetBinder(binder(), BaseCacheLoader.class);
         resultSetMapperSetBinder.addBinding().to(ImmutableAccountCacheLoader.class).asEagerSingleton();
         resultSetMapperSetBinder.addBinding().to(AccountBCDCacheLoader.class).asEagerSingleton();
+        resultSetMapperSetBinder.addBinding().to(AccountTagsCacheLoader.class).asEagerSingleton();
         resultSetMapperSetBinder.addBinding().to(RecordIdCacheLoader.class).asEagerSingleton();
         resultSetMapperSetBinder.addBinding().to(AccountRecordIdCacheLoader.class).asEagerSingleton();
         resultSetMapperSetBinder.addBinding().to(TenantRecordIdCacheLoader.class).asEagerSingleton();
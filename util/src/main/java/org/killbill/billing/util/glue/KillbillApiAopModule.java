@@ -19,6 +19,8 @@ package org.killbill.billing.util.glue;
 
 import java.lang.reflect.Method;
 
+import javax.inject.Inject;
+
 import org.aopalliance.intercept.MethodInterceptor;
 import org.aopalliance.intercept.MethodInvocation;
 import org.killbill.billing.KillbillApi;
@@ -26,6 +28,8 @@ import org.killbill.billing.osgi.api.ROTenantContext;
 import org.killbill.billing.util.callcontext.CallContext;
 import org.killbill.billing.util.config.definition.JaxrsConfig;
 import org.killbill.billing.util.entity.dao.DBRouterUntyped;
+import org.killbill.billing.util.metrics.LatencyHistograms;
+import org.killbill.commons.eventbus.AllowConcurrentEvents;
 import org.killbill.commons.profiling.Profiling;
 import org.killbill.commons.profiling.Profiling.WithProfilingCallback;
 import org.killbill.commons.profiling.ProfilingFeature.ProfilingFeatureType;
@@ -68,6 +72,43 @@ public class KillbillApiAopModule extends AbstractModule {
         bindInterceptor(Matchers.subclassesOf(KillbillApi.class),
                         Matchers.not(SYNTHETIC_METHOD_MATCHER),
                         new ProfilingMethodInterceptor(shouldGETUseROConnection));
+        // Bus handlers
+        final LatencyHistogramMethodInterceptor busLatencyHistogramMethodInterceptor = new LatencyHistogramMethodInterceptor(LatencyHistograms.BUS);
+        requestInjection(busLatencyHistogramMethodInterceptor);
+        bindInterceptor(Matchers.any(),
+                        Matchers.annotatedWith(AllowConcurrentEvents.class),
+                        busLatencyHistogramMethodInterceptor);
+    }
+
+    public static class LatencyHistogramMethodInterceptor implements MethodInterceptor {
+
+        private final String category;
+
+        private volatile LatencyHistograms latencyHistograms;
+
+        public LatencyHistogramMethodInterceptor(final String category) {
+            this.category = category;
+        }
+
+        @Inject
+        public void setLatencyHistograms(final LatencyHistograms latencyHistograms) {
+            this.latencyHistograms = latencyHistograms;
+        }
+
+        @Override
+        public Object invoke(final MethodInvocation invocation) throws Throwable {
+            final long startNano = System.nanoTime();
+            try {
+                return invocation.proceed();
+            } finally {
+                // Not set yet if a handler is invoked while the injector is being created
+                final LatencyHistograms histograms = latencyHistograms;
+                if (histograms != null) {
+                    final Method method = invocation.getMethod();
+                    histograms.getHistogram(category, method.getDeclaringClass(), method).record(System.nanoTime() - startNano);
+                }
+            }
+        }
     }
 
     public static class ProfilingMethodInterceptor implements MethodInterceptor {
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2020-2022 Equinix, Inc
+ * Copyright 2014-2022 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.billing.util.glue;
+
+import java.io.Serializable;
+import java.util.UUID;
+
+import javax.annotation.Nullable;
+import javax.inject.Inject;
+import javax.inject.Named;
+
+import org.killbill.billing.util.cache.Cachable.CacheType;
+import org.killbill.billing.util.cache.NearCacheInvalidationChannel;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static org.killbill.billing.util.glue.CacheModule.REDIS_CACHE_CLIENT;
+
+// Near cache invalidations over Redis pub/sub: delivery is best effort, hence the TTL on mutable near caches
+public class RedisNearCacheInvalidationChannel implements NearCacheInvalidationChannel {
+
+    private static final Logger logger = LoggerFactory.getLogger(RedisNearCacheInvalidationChannel.class);
+
+    public static final String NEAR_CACHE_INVALIDATION_TOPIC = "killbill-near-cache-invalidations";
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final RTopic topic;
+
+    @Inject
+    public RedisNearCacheInvalidationChannel(@Named(REDIS_CACHE_CLIENT) final RedissonClient redissonClient) {
+        this.topic = redissonClient.getTopic(NEAR_CACHE_INVALIDATION_TOPIC);
+    }
+
+    @Override
+    public void publish(final CacheType cacheType, @Nullable final Object key) {
+        try {
+            topic.publish(new Invalidation(nodeId, cacheType.getCacheName(), key));
+        } catch (final RuntimeException e) {
+            // Other nodes will catch up when their entries expire
+            logger.warn("Unable to publish invalidation for cacheName='{}', key='{}'", cacheType.getCacheName(), key, e);
+        }
+    }
+
+    @Override
+    public void subscribe(final Listener listener) {
+        topic.addListener(Invalidation.class, (channel, invalidation) -> {
+            if (nodeId.equals(invalidation.nodeId)) {
+                return;
+            }
+            final CacheType cacheType = CacheType.findByName(invalidation.cacheName);
+            if (cacheType != null) {
+                listener.onInvalidation(cacheType, invalidation.key);
+            }
+        });
+    }
+
+    private static final class Invalidation implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final String nodeId;
+        private final String cacheName;
+        private final Object key;
+
+        private Invalidation(final String nodeId, final String cacheName, @Nullable final Object key) {
+            this.nodeId = nodeId;
+            this.cacheName = cacheName;
+            this.key = key;
+        }
+    }
+}
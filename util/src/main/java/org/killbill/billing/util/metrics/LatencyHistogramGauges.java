@@ -0,0 +1,42 @@
+/*
+ * Copyright 2020-2022 Equinix, Inc
+ * Copyright 2014-2022 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.billing.util.metrics;
+
+import javax.inject.Inject;
+
+import org.killbill.commons.metrics.api.Gauge;
+import org.killbill.commons.metrics.api.MetricRegistry;
+
+// Expose the LatencyHistograms (in microseconds) as gauges, next to the JCache statistics
+public class LatencyHistogramGauges {
+
+    private static final String PROP_METRIC_REG_LATENCY = "latency.";
+
+    @Inject
+    public LatencyHistogramGauges(final LatencyHistograms latencyHistograms, final MetricRegistry metricRegistry) {
+        latencyHistograms.setNewHistogramListener((histogramName, histogram) -> register(metricRegistry, histogramName, histogram));
+    }
+
+    private static void register(final MetricRegistry metricRegistry, final String histogramName, final LatencyHistogram histogram) {
+        final String prefix = PROP_METRIC_REG_LATENCY + histogramName + ".";
+        metricRegistry.gauge(prefix + "count", (Gauge<Long>) histogram::getCount);
+        metricRegistry.gauge(prefix + "p50", (Gauge<Long>) () -> histogram.getValueAtPercentile(50));
+        metricRegistry.gauge(prefix + "p99", (Gauge<Long>) () -> histogram.getValueAtPercentile(99));
+        metricRegistry.gauge(prefix + "max", (Gauge<Long>) histogram::getMaxMicros);
+    }
+}
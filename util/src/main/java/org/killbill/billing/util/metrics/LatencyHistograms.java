@@ -0,0 +1,113 @@
+/*
+ * Copyright 2020-2022 Equinix, Inc
+ * Copyright 2014-2022 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.billing.util.metrics;
+
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.BiConsumer;
+
+import javax.annotation.Nullable;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+/**
+ * Registry of the always-on {@link LatencyHistogram}s (DAO calls, cache lookups and bus handlers).
+ * <p>
+ * There is one registry per injector: it is injected in the DAO invocation handlers, the cache controllers and the bus
+ * handlers interceptor, and its histograms are exposed as gauges by {@link LatencyHistogramGauges}.
+ * <p>
+ * The set of histograms is bounded by the instrumented methods and caches, but values accumulate since startup:
+ * use {@link #reset()} to start a new measurement window (histograms are cleared in place, so that references held
+ * by callers and gauges stay valid).
+ */
+@Singleton
+public class LatencyHistograms {
+
+    public static final String DAO = "dao";
+    public static final String CACHE = "cache";
+    public static final String BUS = "bus";
+
+    private final ConcurrentMap<String, LatencyHistogram> histograms = new ConcurrentHashMap<String, LatencyHistogram>();
+    // Look-up map for performance, to avoid building the histogram name on each call
+    private final ConcurrentMap<String, ConcurrentMap<Class<?>, ConcurrentMap<Method, LatencyHistogram>>> histogramsByMethod = new ConcurrentHashMap<String, ConcurrentMap<Class<?>, ConcurrentMap<Method, LatencyHistogram>>>();
+
+    private volatile BiConsumer<String, LatencyHistogram> newHistogramListener;
+
+    @Inject
+    public LatencyHistograms() {}
+
+    public LatencyHistogram getHistogram(final String category, final String name) {
+        final String histogramName = category + "." + name;
+        final LatencyHistogram histogram = histograms.get(histogramName);
+        return histogram != null ? histogram : createHistogram(histogramName);
+    }
+
+    public LatencyHistogram getHistogram(final String category, final Class<?> owner, final Method method) {
+        ConcurrentMap<Class<?>, ConcurrentMap<Method, LatencyHistogram>> histogramsForCategory = histogramsByMethod.get(category);
+        if (histogramsForCategory == null) {
+            histogramsForCategory = histogramsByMethod.computeIfAbsent(category, k -> new ConcurrentHashMap<Class<?>, ConcurrentMap<Method, LatencyHistogram>>());
+        }
+
+        ConcurrentMap<Method, LatencyHistogram> histogramsForOwner = histogramsForCategory.get(owner);
+        if (histogramsForOwner == null) {
+            histogramsForOwner = histogramsForCategory.computeIfAbsent(owner, k -> new ConcurrentHashMap<Method, LatencyHistogram>());
+        }
+
+        final LatencyHistogram histogram = histogramsForOwner.get(method);
+        if (histogram != null) {
+            return histogram;
+        }
+        return histogramsForOwner.computeIfAbsent(method, m -> getHistogram(category, owner.getSimpleName() + "." + m.getName()));
+    }
+
+    public Map<String, LatencyHistogram> getHistograms() {
+        return Collections.unmodifiableMap(new TreeMap<String, LatencyHistogram>(histograms));
+    }
+
+    public void reset() {
+        histograms.values().forEach(LatencyHistogram::reset);
+    }
+
+    /**
+     * @param listener invoked for each existing histogram and, from now on, for each new histogram (replaces the previous listener)
+     */
+    public void setNewHistogramListener(@Nullable final BiConsumer<String, LatencyHistogram> listener) {
+        newHistogramListener = listener;
+        if (listener != null) {
+            histograms.forEach(listener);
+        }
+    }
+
+    private LatencyHistogram createHistogram(final String histogramName) {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        final LatencyHistogram existingHistogram = histograms.putIfAbsent(histogramName, histogram);
+        if (existingHistogram != null) {
+            return existingHistogram;
+        }
+
+        final BiConsumer<String, LatencyHistogram> listener = newHistogramListener;
+        if (listener != null) {
+            listener.accept(histogramName, histogram);
+        }
+        return histogram;
+    }
+}
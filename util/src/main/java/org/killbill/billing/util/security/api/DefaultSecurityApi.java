@@ -31,6 +31,7 @@ import java.util.Map.Entry;
 import java.util.Set;
 import java.util.stream.Collectors;
 
+import javax.annotation.Nullable;
 import javax.inject.Inject;
 
 import org.apache.shiro.SecurityUtils;
@@ -45,6 +46,8 @@ import org.apache.shiro.session.UnknownSessionException;
 import org.apache.shiro.subject.SimplePrincipalCollection;
 import org.apache.shiro.subject.Subject;
 import org.killbill.billing.ErrorCode;
+import org.killbill.billing.broadcast.BroadcastApi;
+import org.killbill.billing.platform.api.KillbillService.KILLBILL_SERVICES;
 import org.killbill.billing.security.Logical;
 import org.killbill.billing.security.Permission;
 import org.killbill.billing.security.SecurityApiException;
@@ -57,15 +60,26 @@ import org.killbill.billing.util.security.shiro.realm.KillBillJdbcRealm;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
 public class DefaultSecurityApi implements SecurityApi {
 
     // Custom Realm implementors are encouraged to enable DEBUG level logging for development
     private static final Logger logger = LoggerFactory.getLogger(DefaultSecurityApi.class);
 
+    static final String INVALIDATE_CACHES_BROADCAST_TYPE = "INVALIDATE_CACHES";
+    static final String USERNAME_BROADCAST_FIELD = "username";
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
     private final UserDao userDao;
     private final Set<Realm> realms;
     private final Map<Realm, Method> getAuthorizationInfoMethods = new HashMap<Realm, Method>();
 
+    // Not available in all setups (e.g. tests)
+    private BroadcastApi broadcastApi;
+
     @Inject
     public DefaultSecurityApi(final UserDao userDao, final Set<Realm> realms) {
         this.userDao = userDao;
@@ -73,6 +87,11 @@ public class DefaultSecurityApi implements SecurityApi {
         buildGetAuthorizationInfoMethods();
     }
 
+    @com.google.inject.Inject(optional = true)
+    public void setBroadcastApi(final BroadcastApi broadcastApi) {
+        this.broadcastApi = broadcastApi;
+    }
+
     @Override
     public synchronized void login(final Object principal, final Object credentials) {
 
@@ -210,17 +229,19 @@ public class DefaultSecurityApi implements SecurityApi {
     @Override
     public void updateUserPassword(final String username, final String password, final CallContext callContext) throws SecurityApiException {
         userDao.updateUserPassword(username, password, callContext.getUserName());
+        invalidateJDBCCaches(username, callContext);
     }
 
     @Override
     public void updateUserRoles(final String username, final List<String> roles, final CallContext callContext) throws SecurityApiException {
         userDao.updateUserRoles(username, roles, callContext.getUserName());
-        invalidateJDBCAuthorizationCache(username);
+        invalidateJDBCCaches(username, callContext);
     }
 
     @Override
     public void invalidateUser(final String username, final CallContext callContext) throws SecurityApiException {
         userDao.invalidateUser(username, callContext.getUserName());
+        invalidateJDBCCaches(username, callContext);
         // Invalidate the JSESSIONID
         logout();
     }
@@ -242,6 +263,8 @@ public class DefaultSecurityApi implements SecurityApi {
     public void updateRoleDefinition(final String role, final List<String> permissions, final CallContext callContext) throws SecurityApiException {
         final List<String> sanitizedPermissions = sanitizePermissions(permissions);
         userDao.updateRoleDefinition(role, sanitizedPermissions, callContext.getUserName());
+        // The role can be shared by any number of users
+        invalidateJDBCCaches(null, callContext);
     }
 
     @Override
@@ -293,7 +316,27 @@ public class DefaultSecurityApi implements SecurityApi {
         return expandedPermissions;
     }
 
-    private void invalidateJDBCAuthorizationCache(final String username) {
+    // Invalidate the local caches right away and let the other nodes know
+    private void invalidateJDBCCaches(@Nullable final String username, final CallContext callContext) {
+        invalidateJDBCCaches(username);
+
+        if (broadcastApi != null) {
+            try {
+                final Map<String, String> event = username == null ? Map.of() : Map.of(USERNAME_BROADCAST_FIELD, username);
+                broadcastApi.broadcast(KILLBILL_SERVICES.SECURITY_SERVICE.getServiceName(),
+                                       INVALIDATE_CACHES_BROADCAST_TYPE,
+                                       objectMapper.writeValueAsString(event),
+                                       callContext.getCreatedDate(),
+                                       callContext.getUserName(),
+                                       false);
+            } catch (final JsonProcessingException e) {
+                logger.warn("Unable to broadcast cache invalidation for username='{}'", username, e);
+            }
+        }
+    }
+
+    // If username is null, invalidate the caches for all users
+    static void invalidateJDBCCaches(@Nullable final String username) {
         final Collection<Realm> realms = ((DefaultSecurityManager) SecurityUtils.getSecurityManager()).getRealms();
         final KillBillJdbcRealm killBillJdbcRealm = (KillBillJdbcRealm) realms.stream()
                 .filter(realm -> (realm instanceof KillBillJdbcRealm))
@@ -301,9 +344,14 @@ public class DefaultSecurityApi implements SecurityApi {
                 .orElse(null);
 
         if (killBillJdbcRealm != null) {
-            final SimplePrincipalCollection principals = new SimplePrincipalCollection();
-            principals.add(username, killBillJdbcRealm.getName());
-            killBillJdbcRealm.clearCachedAuthorizationInfo(principals);
+            if (username == null) {
+                killBillJdbcRealm.clearAllCachedAuthorizationInfo();
+            } else {
+                final SimplePrincipalCollection principals = new SimplePrincipalCollection();
+                principals.add(username, killBillJdbcRealm.getName());
+                killBillJdbcRealm.clearCachedAuthorizationInfo(principals);
+                killBillJdbcRealm.clearCachedVerifiedCredentials(username);
+            }
         }
     }
 
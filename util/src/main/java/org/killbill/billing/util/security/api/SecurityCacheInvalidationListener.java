@@ -0,0 +1,104 @@
+/*
+ * Copyright 2020-2022 Equinix, Inc
+ * Copyright 2014-2022 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.billing.util.security.api;
+
+import java.io.IOException;
+import java.util.Map;
+
+import javax.inject.Inject;
+
+import org.apache.shiro.UnavailableSecurityManagerException;
+import org.killbill.billing.events.BroadcastInternalEvent;
+import org.killbill.billing.platform.api.KillbillService;
+import org.killbill.billing.platform.api.LifecycleHandlerType;
+import org.killbill.billing.platform.api.LifecycleHandlerType.LifecycleLevel;
+import org.killbill.bus.api.PersistentBus;
+import org.killbill.bus.api.PersistentBus.EventBusException;
+import org.killbill.commons.eventbus.AllowConcurrentEvents;
+import org.killbill.commons.eventbus.Subscribe;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Invalidates the local security caches when users or roles are modified on any node (see DefaultSecurityApi).
+ */
+public class SecurityCacheInvalidationListener implements KillbillService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SecurityCacheInvalidationListener.class);
+
+    private static final String SECURITY_CACHE_INVALIDATION_LISTENER_SERVICE_NAME = "security-cache-invalidation-listener-service";
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final PersistentBus eventBus;
+
+    @Inject
+    public SecurityCacheInvalidationListener(final PersistentBus eventBus) {
+        this.eventBus = eventBus;
+    }
+
+    @Override
+    public String getName() {
+        return SECURITY_CACHE_INVALIDATION_LISTENER_SERVICE_NAME;
+    }
+
+    @Override
+    public int getRegistrationOrdering() {
+        return KILLBILL_SERVICES.SECURITY_SERVICE.getRegistrationOrdering() + 1;
+    }
+
+    @LifecycleHandlerType(LifecycleLevel.INIT_SERVICE)
+    public void initialize() {
+        try {
+            eventBus.register(this);
+        } catch (final EventBusException e) {
+            throw new RuntimeException("Unable to register to the EventBus!", e);
+        }
+    }
+
+    @LifecycleHandlerType(LifecycleLevel.STOP_SERVICE)
+    public void stop() {
+        try {
+            eventBus.unregister(this);
+        } catch (final EventBusException e) {
+            logger.warn("Unable to unregister from the EventBus", e);
+        }
+    }
+
+    @AllowConcurrentEvents
+    @Subscribe
+    public void handleBroadcastEvent(final BroadcastInternalEvent event) {
+        if (!KILLBILL_SERVICES.SECURITY_SERVICE.getServiceName().equals(event.getServiceName()) ||
+            !DefaultSecurityApi.INVALIDATE_CACHES_BROADCAST_TYPE.equals(event.getType())) {
+            return;
+        }
+
+        try {
+            final Map<String, String> invalidation = objectMapper.readValue(event.getJsonEvent(), new TypeReference<Map<String, String>>() {});
+            DefaultSecurityApi.invalidateJDBCCaches(invalidation.get(DefaultSecurityApi.USERNAME_BROADCAST_FIELD));
+        } catch (final IOException e) {
+            logger.warn("Unable to process security cache invalidation event {}", event.getJsonEvent(), e);
+        } catch (final UnavailableSecurityManagerException e) {
+            // Security isn't configured on this node: nothing to invalidate
+            logger.debug("Ignoring security cache invalidation event {}", event.getJsonEvent());
+        }
+    }
+}
@@ -37,6 +37,7 @@ public class KillbillCredentialsMatcher {
         credentialsMatcher.setStoredCredentialsHexEncoded(false);
         credentialsMatcher.setHashIterations(securityConfig.getShiroNbHashIterations());
 
-        return credentialsMatcher;
+        // PERF: hashing is expensive by design, don't do it again for credentials which were already verified
+        return new VerifiedCredentialsMatcher(credentialsMatcher, securityConfig.getShiroVerifiedCredentialsCacheSize());
     }
 }
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2020-2022 Equinix, Inc
+ * Copyright 2014-2022 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.billing.util.security.shiro;
+
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.apache.shiro.authc.AuthenticationInfo;
+import org.apache.shiro.authc.AuthenticationToken;
+import org.apache.shiro.authc.SaltedAuthenticationInfo;
+import org.apache.shiro.authc.credential.CredentialsMatcher;
+import org.apache.shiro.util.ByteSource;
+
+/**
+ * Remembers, per principal, the last credentials which were successfully verified by the delegate
+ * (e.g. a multi-iterations SHA-512 HashedCredentialsMatcher), so that subsequent requests presenting the same secret
+ * don't have to be hashed again.
+ * <p>
+ * Entries are a keyed digest of the presented secret, the stored credentials and the salt: secrets are never kept in memory
+ * and changing the stored credentials (e.g. password update) is enough to invalidate the entry. Explicit invalidation
+ * is still needed when the account is deactivated while its stored credentials are cached by the realm.
+ */
+public class VerifiedCredentialsMatcher implements CredentialsMatcher {
+
+    private static final String MAC_ALGORITHM = "HmacSHA256";
+
+    private final CredentialsMatcher delegate;
+    private final int maxSize;
+    private final SecretKeySpec macKey;
+    private final Map<Object, byte[]> verifiedCredentials;
+
+    public VerifiedCredentialsMatcher(final CredentialsMatcher delegate, final int maxSize) {
+        this.delegate = delegate;
+        this.maxSize = maxSize;
+
+        final byte[] keyBytes = new byte[32];
+        new SecureRandom().nextBytes(keyBytes);
+        this.macKey = new SecretKeySpec(keyBytes, MAC_ALGORITHM);
+
+        this.verifiedCredentials = new LinkedHashMap<Object, byte[]>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<Object, byte[]> eldest) {
+                return size() > VerifiedCredentialsMatcher.this.maxSize;
+            }
+        };
+    }
+
+    @Override
+    public boolean doCredentialsMatch(final AuthenticationToken token, final AuthenticationInfo info) {
+        final Object principal = token.getPrincipal();
+        if (maxSize <= 0 ||
+            principal == null ||
+            !ByteSource.Util.isCompatible(token.getCredentials()) ||
+            !ByteSource.Util.isCompatible(info.getCredentials())) {
+            return delegate.doCredentialsMatch(token, info);
+        }
+
+        final byte[] digest = computeDigest(token, info);
+        final byte[] verifiedDigest;
+        synchronized (verifiedCredentials) {
+            verifiedDigest = verifiedCredentials.get(principal);
+        }
+        if (verifiedDigest != null && MessageDigest.isEqual(verifiedDigest, digest)) {
+            return true;
+        }
+
+        final boolean match = delegate.doCredentialsMatch(token, info);
+        synchronized (verifiedCredentials) {
+            if (match) {
+                verifiedCredentials.put(principal, digest);
+            } else {
+                verifiedCredentials.remove(principal);
+            }
+        }
+        return match;
+    }
+
+    public void invalidate(final Object principal) {
+        synchronized (verifiedCredentials) {
+            verifiedCredentials.remove(principal);
+        }
+    }
+
+    public void invalidateAll() {
+        synchronized (verifiedCredentials) {
+            verifiedCredentials.clear();
+        }
+    }
+
+    private byte[] computeDigest(final AuthenticationToken token, final AuthenticationInfo info) {
+        final Mac mac;
+        try {
+            mac = Mac.getInstance(MAC_ALGORITHM);
+            mac.init(macKey);
+        } catch (final GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+
+        updateWithLength(mac, ByteSource.Util.bytes(token.getCredentials()).getBytes());
+        updateWithLength(mac, ByteSource.Util.bytes(info.getCredentials()).getBytes());
+        if (info instanceof SaltedAuthenticationInfo && ((SaltedAuthenticationInfo) info).getCredentialsSalt() != null) {
+            updateWithLength(mac, ((SaltedAuthenticationInfo) info).getCredentialsSalt().getBytes());
+        }
+        return mac.doFinal();
+    }
+
+    // Length-prefix each field so that different splits of the same bytes don't collide
+    private static void updateWithLength(final Mac mac, final byte[] bytes) {
+        mac.update((byte) (bytes.length >>> 24));
+        mac.update((byte) (bytes.length >>> 16));
+        mac.update((byte) (bytes.length >>> 8));
+        mac.update((byte) bytes.length);
+        mac.update(bytes);
+    }
+}
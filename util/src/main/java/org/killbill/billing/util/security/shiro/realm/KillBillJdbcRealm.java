@@ -21,11 +21,14 @@ import javax.inject.Inject;
 import javax.inject.Named;
 import javax.sql.DataSource;
 
+import org.apache.shiro.authz.AuthorizationInfo;
+import org.apache.shiro.cache.Cache;
 import org.apache.shiro.realm.jdbc.JdbcRealm;
 import org.apache.shiro.subject.PrincipalCollection;
 import org.killbill.billing.platform.glue.KillBillPlatformModuleBase;
 import org.killbill.billing.util.config.definition.SecurityConfig;
 import org.killbill.billing.util.security.shiro.KillbillCredentialsMatcher;
+import org.killbill.billing.util.security.shiro.VerifiedCredentialsMatcher;
 
 public class KillBillJdbcRealm extends JdbcRealm {
 
@@ -44,6 +47,8 @@ public class KillBillJdbcRealm extends JdbcRealm {
 
         // TODO Enable when we add support for cache invalidation
         // See JavaDoc warning: https://shiro.apache.org/static/1.2.3/apidocs/org/apache/shiro/realm/AuthenticatingRealm.html
+        // Note that the credentials matcher already remembers verified credentials (the authentication query is still run,
+        // which guarantees password updates and deactivated users are taken into account right away)
         //setAuthenticationCachingEnabled(true);
 
         // See https://issues.apache.org/jira/browse/SHIRO-552 and https://github.com/apache/shiro/pull/138
@@ -64,6 +69,19 @@ public class KillBillJdbcRealm extends JdbcRealm {
         super.clearCachedAuthorizationInfo(principals);
     }
 
+    public void clearAllCachedAuthorizationInfo() {
+        final Cache<Object, AuthorizationInfo> cache = getAuthorizationCache();
+        if (cache != null) {
+            cache.clear();
+        }
+    }
+
+    public void clearCachedVerifiedCredentials(final String username) {
+        if (getCredentialsMatcher() instanceof VerifiedCredentialsMatcher) {
+            ((VerifiedCredentialsMatcher) getCredentialsMatcher()).invalidate(username);
+        }
+    }
+
     private void configureSecurity() {
         setSaltStyle(SaltStyle.COLUMN);
         setCredentialsMatcher(KillbillCredentialsMatcher.getCredentialsMatcher(securityConfig));
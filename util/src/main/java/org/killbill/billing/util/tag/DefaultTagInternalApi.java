@@ -28,6 +28,7 @@ import org.killbill.billing.callcontext.InternalCallContext;
 import org.killbill.billing.callcontext.InternalTenantContext;
 import org.killbill.billing.tag.TagInternalApi;
 import org.killbill.billing.util.api.TagApiException;
+import org.killbill.billing.util.tag.dao.AccountTagsSnapshot;
 import org.killbill.billing.util.tag.dao.TagDao;
 import org.killbill.billing.util.tag.dao.TagDefinitionDao;
 import org.killbill.billing.util.tag.dao.TagModelDao;
@@ -54,19 +55,44 @@ public class DefaultTagInternalApi implements TagInternalApi {
 
     @Override
     public List<Tag> getTags(final UUID objectId, final ObjectType objectType, final InternalTenantContext context) {
+        // The context may not be the one of the account (e.g. child account looked up with the parent context)
+        if (objectType == ObjectType.ACCOUNT && context.getAccountRecordId() != null) {
+            final AccountTagsSnapshot snapshot = tagDao.getAccountTagsSnapshot(context);
+            if (objectId.equals(snapshot.getAccountId())) {
+                return toTagList(snapshot.getTags(objectId, objectType));
+            }
+        }
         return toTagList(tagDao.getTagsForObject(objectId, objectType, false, context));
     }
 
     @Override
     public List<Tag> getTagsForAccount(final boolean includedDeleted, final InternalTenantContext context) {
+        if (!includedDeleted && context.getAccountRecordId() != null) {
+            return toTagList(tagDao.getAccountTagsSnapshot(context).getTags());
+        }
         return toTagList(tagDao.getTagsForAccount(includedDeleted, context));
     }
 
     @Override
     public List<Tag> getTagsForAccountType(final ObjectType objectType, final boolean includedDeleted, final InternalTenantContext internalTenantContext) {
+        if (!includedDeleted && internalTenantContext.getAccountRecordId() != null) {
+            return toTagList(tagDao.getAccountTagsSnapshot(internalTenantContext).getTags(objectType));
+        }
         return toTagList(tagDao.getTagsForAccountType(objectType, includedDeleted, internalTenantContext));
     }
 
+    @Override
+    public boolean hasControlTag(final UUID objectId, final ObjectType objectType, final ControlTagType controlTagType, final InternalTenantContext context) {
+        if (context.getAccountRecordId() != null) {
+            final AccountTagsSnapshot snapshot = tagDao.getAccountTagsSnapshot(context);
+            if (objectType != ObjectType.ACCOUNT || objectId.equals(snapshot.getAccountId())) {
+                return snapshot.hasControlTag(objectId, controlTagType);
+            }
+        }
+        return tagDao.getTagsForObject(objectId, objectType, false, context).stream()
+                     .anyMatch(input -> controlTagType.getId().equals(input.getTagDefinitionId()));
+    }
+
     @Override
     public void addTag(final UUID objectId, final ObjectType objectType, final UUID tagDefinitionId, final InternalCallContext context)
             throws TagApiException {
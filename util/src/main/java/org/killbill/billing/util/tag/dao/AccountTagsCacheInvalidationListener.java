@@ -0,0 +1,146 @@
+/*
+ * Copyright 2020-2022 Equinix, Inc
+ * Copyright 2014-2022 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.billing.util.tag.dao;
+
+import java.io.IOException;
+import java.util.Map;
+
+import javax.annotation.Nullable;
+import javax.inject.Inject;
+
+import org.killbill.billing.events.BroadcastInternalEvent;
+import org.killbill.billing.events.ControlTagCreationInternalEvent;
+import org.killbill.billing.events.ControlTagDeletionInternalEvent;
+import org.killbill.billing.events.UserTagCreationInternalEvent;
+import org.killbill.billing.events.UserTagDeletionInternalEvent;
+import org.killbill.billing.platform.api.KillbillService;
+import org.killbill.billing.platform.api.LifecycleHandlerType;
+import org.killbill.billing.platform.api.LifecycleHandlerType.LifecycleLevel;
+import org.killbill.billing.util.cache.Cachable.CacheType;
+import org.killbill.billing.util.cache.CacheController;
+import org.killbill.billing.util.cache.CacheControllerDispatcher;
+import org.killbill.bus.api.PersistentBus;
+import org.killbill.bus.api.PersistentBus.EventBusException;
+import org.killbill.commons.eventbus.AllowConcurrentEvents;
+import org.killbill.commons.eventbus.Subscribe;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Invalidates the local account tags snapshots when tags are created or deleted (see DefaultTagDao).
+ * <p>
+ * The tag bus events are persisted with the tag change but only dispatched on one node, so the other nodes
+ * rely on the broadcast sent once the change is committed. Broadcasts are polled (org.killbill.billing.util.broadcast.rate)
+ * and could be lost if the node crashes before sending them: org.killbill.cache.accountTags.ttl bounds how long a node
+ * may keep serving a stale snapshot.
+ */
+public class AccountTagsCacheInvalidationListener implements KillbillService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AccountTagsCacheInvalidationListener.class);
+
+    private static final String ACCOUNT_TAGS_CACHE_INVALIDATION_LISTENER_SERVICE_NAME = "account-tags-cache-invalidation-listener-service";
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final PersistentBus eventBus;
+    private final CacheController<Long, AccountTagsSnapshot> accountTagsCacheController;
+
+    @Inject
+    public AccountTagsCacheInvalidationListener(final PersistentBus eventBus, final CacheControllerDispatcher controllerDispatcher) {
+        this.eventBus = eventBus;
+        this.accountTagsCacheController = controllerDispatcher == null ? null : controllerDispatcher.getCacheController(CacheType.ACCOUNT_TAGS);
+    }
+
+    @Override
+    public String getName() {
+        return ACCOUNT_TAGS_CACHE_INVALIDATION_LISTENER_SERVICE_NAME;
+    }
+
+    @Override
+    public int getRegistrationOrdering() {
+        return KILLBILL_SERVICES.BROADCAST_SERVICE.getRegistrationOrdering() + 1;
+    }
+
+    @LifecycleHandlerType(LifecycleLevel.INIT_SERVICE)
+    public void initialize() {
+        try {
+            eventBus.register(this);
+        } catch (final EventBusException e) {
+            throw new RuntimeException("Unable to register to the EventBus!", e);
+        }
+    }
+
+    @LifecycleHandlerType(LifecycleLevel.STOP_SERVICE)
+    public void stop() {
+        try {
+            eventBus.unregister(this);
+        } catch (final EventBusException e) {
+            logger.warn("Unable to unregister from the EventBus", e);
+        }
+    }
+
+    @AllowConcurrentEvents
+    @Subscribe
+    public void handleControlTagCreation(final ControlTagCreationInternalEvent event) {
+        invalidate(event.getSearchKey1());
+    }
+
+    @AllowConcurrentEvents
+    @Subscribe
+    public void handleControlTagDeletion(final ControlTagDeletionInternalEvent event) {
+        invalidate(event.getSearchKey1());
+    }
+
+    @AllowConcurrentEvents
+    @Subscribe
+    public void handleUserTagCreation(final UserTagCreationInternalEvent event) {
+        invalidate(event.getSearchKey1());
+    }
+
+    @AllowConcurrentEvents
+    @Subscribe
+    public void handleUserTagDeletion(final UserTagDeletionInternalEvent event) {
+        invalidate(event.getSearchKey1());
+    }
+
+    @AllowConcurrentEvents
+    @Subscribe
+    public void handleBroadcastEvent(final BroadcastInternalEvent event) {
+        if (accountTagsCacheController == null ||
+            !KILLBILL_SERVICES.ACCOUNT_SERVICE.getServiceName().equals(event.getServiceName()) ||
+            !DefaultTagDao.INVALIDATE_ACCOUNT_TAGS_BROADCAST_TYPE.equals(event.getType())) {
+            return;
+        }
+
+        try {
+            final Map<String, Long> invalidation = objectMapper.readValue(event.getJsonEvent(), new TypeReference<Map<String, Long>>() {});
+            invalidate(invalidation.get(DefaultTagDao.ACCOUNT_RECORD_ID_BROADCAST_FIELD));
+        } catch (final IOException e) {
+            logger.warn("Unable to process account tags invalidation event {}", event.getJsonEvent(), e);
+        }
+    }
+
+    private void invalidate(@Nullable final Long accountRecordId) {
+        if (accountTagsCacheController != null && accountRecordId != null) {
+            accountTagsCacheController.remove(accountRecordId);
+        }
+    }
+}
@@ -0,0 +1,207 @@
+/*
+ * Copyright 2020-2022 Equinix, Inc
+ * Copyright 2014-2022 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.billing.util.tag.dao;
+
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import javax.annotation.Nullable;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.killbill.billing.ObjectType;
+import org.killbill.billing.util.tag.ControlTagType;
+
+/**
+ * Immutable view of all the active tags of an account (i.e. tags on the account itself and on all of its objects),
+ * as stored in the {@code account-tags} cache.
+ * <p>
+ * The snapshot is never updated in place: any tag creation or deletion for the account invalidates it
+ * (on all nodes, through a broadcast) and the next reader loads a new one. Snapshots older than the
+ * configured TTL are reloaded as well. Tags are indexed by object id at construction time so that
+ * control tag checks don't require scanning the whole list.
+ * <p>
+ * The snapshot is shared by all readers: tags are handed out as copies, since TagModelDao is mutable.
+ */
+public class AccountTagsSnapshot implements Externalizable {
+
+    private static final long serialVersionUID = -4162384515046532447L;
+
+    private UUID accountId;
+    private long loadedAtMillis;
+    private List<TagModelDao> tags;
+
+    // Derived from tags, rebuilt on deserialization
+    private transient Map<UUID, List<TagModelDao>> tagsByObjectId;
+    private transient Map<UUID, Set<UUID>> tagDefinitionIdsByObjectId;
+
+    // For deserialization
+    public AccountTagsSnapshot() {}
+
+    public AccountTagsSnapshot(@Nullable final UUID accountId, final List<TagModelDao> tags, final long loadedAtMillis) {
+        this.accountId = accountId;
+        this.loadedAtMillis = loadedAtMillis;
+        this.tags = Collections.unmodifiableList(copyOf(tags));
+        buildIndexes();
+    }
+
+    /**
+     * @return the id of the account, or null if it couldn't be resolved when the snapshot was loaded
+     */
+    public UUID getAccountId() {
+        return accountId;
+    }
+
+    public long getLoadedAtMillis() {
+        return loadedAtMillis;
+    }
+
+    public List<TagModelDao> getTags() {
+        return Collections.unmodifiableList(copyOf(tags));
+    }
+
+    public List<TagModelDao> getTags(final ObjectType objectType) {
+        final List<TagModelDao> result = new ArrayList<>();
+        for (final TagModelDao tag : tags) {
+            if (tag.getObjectType() == objectType) {
+                result.add(copyOf(tag));
+            }
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    public List<TagModelDao> getTags(final UUID objectId, final ObjectType objectType) {
+        final List<TagModelDao> tagsForObject = tagsByObjectId.get(objectId);
+        if (tagsForObject == null) {
+            return Collections.emptyList();
+        }
+
+        final List<TagModelDao> result = new ArrayList<>(tagsForObject.size());
+        for (final TagModelDao tag : tagsForObject) {
+            if (tag.getObjectType() == objectType) {
+                result.add(copyOf(tag));
+            }
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    public boolean hasTag(final UUID objectId, final UUID tagDefinitionId) {
+        final Set<UUID> tagDefinitionIds = tagDefinitionIdsByObjectId.get(objectId);
+        return tagDefinitionIds != null && tagDefinitionIds.contains(tagDefinitionId);
+    }
+
+    public boolean hasControlTag(final UUID objectId, final ControlTagType controlTagType) {
+        return hasTag(objectId, controlTagType.getId());
+    }
+
+    private static List<TagModelDao> copyOf(final List<TagModelDao> input) {
+        final List<TagModelDao> result = new ArrayList<>(input.size());
+        for (final TagModelDao tag : input) {
+            result.add(copyOf(tag));
+        }
+        return result;
+    }
+
+    private static TagModelDao copyOf(final TagModelDao tag) {
+        final TagModelDao copy = new TagModelDao(tag.getId(), tag.getCreatedDate(), tag.getUpdatedDate(), tag.getTagDefinitionId(), tag.getObjectId(), tag.getObjectType());
+        copy.setIsActive(tag.getIsActive());
+        copy.setRecordId(tag.getRecordId());
+        copy.setAccountRecordId(tag.getAccountRecordId());
+        copy.setTenantRecordId(tag.getTenantRecordId());
+        return copy;
+    }
+
+    private void buildIndexes() {
+        final Map<UUID, List<TagModelDao>> byObjectId = new HashMap<>();
+        final Map<UUID, Set<UUID>> definitionIdsByObjectId = new HashMap<>();
+        for (final TagModelDao tag : tags) {
+            byObjectId.computeIfAbsent(tag.getObjectId(), k -> new ArrayList<>(1)).add(tag);
+            definitionIdsByObjectId.computeIfAbsent(tag.getObjectId(), k -> new HashSet<>(2)).add(tag.getTagDefinitionId());
+        }
+        this.tagsByObjectId = byObjectId;
+        this.tagDefinitionIdsByObjectId = definitionIdsByObjectId;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("AccountTagsSnapshot{");
+        sb.append("accountId=").append(accountId);
+        sb.append(", loadedAtMillis=").append(loadedAtMillis);
+        sb.append(", tags=").append(tags);
+        sb.append('}');
+        return sb.toString();
+    }
+
+    @Override
+    public void readExternal(final ObjectInput in) throws IOException {
+        this.accountId = in.readBoolean() ? new UUID(in.readLong(), in.readLong()) : null;
+        this.loadedAtMillis = in.readLong();
+        final int nbTags = in.readInt();
+        final List<TagModelDao> result = new ArrayList<>(nbTags);
+        for (int i = 0; i < nbTags; i++) {
+            final UUID id = new UUID(in.readLong(), in.readLong());
+            final DateTime createdDate = new DateTime(in.readLong(), DateTimeZone.UTC);
+            final DateTime updatedDate = new DateTime(in.readLong(), DateTimeZone.UTC);
+            final UUID tagDefinitionId = new UUID(in.readLong(), in.readLong());
+            final UUID objectId = new UUID(in.readLong(), in.readLong());
+            final ObjectType objectType = ObjectType.valueOf(in.readUTF());
+            final TagModelDao tag = new TagModelDao(id, createdDate, updatedDate, tagDefinitionId, objectId, objectType);
+            tag.setRecordId(in.readLong());
+            tag.setAccountRecordId(in.readLong());
+            tag.setTenantRecordId(in.readLong());
+            result.add(tag);
+        }
+        this.tags = Collections.unmodifiableList(result);
+        buildIndexes();
+    }
+
+    @Override
+    public void writeExternal(final ObjectOutput oo) throws IOException {
+        oo.writeBoolean(accountId != null);
+        if (accountId != null) {
+            oo.writeLong(accountId.getMostSignificantBits());
+            oo.writeLong(accountId.getLeastSignificantBits());
+        }
+        oo.writeLong(loadedAtMillis);
+        oo.writeInt(tags.size());
+        for (final TagModelDao tag : tags) {
+            oo.writeLong(tag.getId().getMostSignificantBits());
+            oo.writeLong(tag.getId().getLeastSignificantBits());
+            oo.writeLong(tag.getCreatedDate().getMillis());
+            oo.writeLong(tag.getUpdatedDate().getMillis());
+            oo.writeLong(tag.getTagDefinitionId().getMostSignificantBits());
+            oo.writeLong(tag.getTagDefinitionId().getLeastSignificantBits());
+            oo.writeLong(tag.getObjectId().getMostSignificantBits());
+            oo.writeLong(tag.getObjectId().getLeastSignificantBits());
+            oo.writeUTF(tag.getObjectType().name());
+            oo.writeLong(tag.getRecordId());
+            oo.writeLong(tag.getAccountRecordId());
+            oo.writeLong(tag.getTenantRecordId());
+        }
+    }
+}
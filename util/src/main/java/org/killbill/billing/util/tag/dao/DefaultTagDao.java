@@ -21,6 +21,7 @@ package org.killbill.billing.util.tag.dao;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -31,16 +32,23 @@ import javax.inject.Named;
 import org.killbill.billing.BillingExceptionBase;
 import org.killbill.billing.ErrorCode;
 import org.killbill.billing.ObjectType;
+import org.killbill.billing.broadcast.BroadcastApi;
 import org.killbill.billing.callcontext.InternalCallContext;
 import org.killbill.billing.callcontext.InternalTenantContext;
 import org.killbill.billing.events.TagInternalEvent;
+import org.killbill.billing.platform.api.KillbillService.KILLBILL_SERVICES;
 import org.killbill.billing.util.api.AuditLevel;
 import org.killbill.billing.util.api.TagApiException;
 import org.killbill.billing.util.audit.AuditLogWithHistory;
 import org.killbill.billing.util.audit.ChangeType;
 import org.killbill.billing.util.audit.dao.AuditDao;
+import org.killbill.billing.util.cache.AccountTagsCacheLoader;
+import org.killbill.billing.util.cache.Cachable.CacheType;
+import org.killbill.billing.util.cache.CacheController;
 import org.killbill.billing.util.cache.CacheControllerDispatcher;
+import org.killbill.billing.util.cache.CacheLoaderArgument;
 import org.killbill.billing.util.callcontext.InternalCallContextFactory;
+import org.killbill.billing.util.config.definition.CacheConfig;
 import org.killbill.billing.util.dao.NonEntityDao;
 import org.killbill.billing.util.dao.TableName;
 import org.killbill.billing.util.entity.Pagination;
@@ -51,33 +59,61 @@ import org.killbill.billing.util.entity.dao.EntitySqlDao;
 import org.killbill.billing.util.entity.dao.EntitySqlDaoTransactionWrapper;
 import org.killbill.billing.util.entity.dao.EntitySqlDaoTransactionalJdbiWrapper;
 import org.killbill.billing.util.entity.dao.EntitySqlDaoWrapperFactory;
+import org.killbill.billing.util.metrics.LatencyHistograms;
 import org.killbill.billing.util.optimizer.BusOptimizer;
 import org.killbill.billing.util.tag.ControlTagType;
 import org.killbill.billing.util.tag.Tag;
 import org.killbill.billing.util.tag.api.user.TagEventBuilder;
 import org.killbill.bus.api.PersistentBus;
 import org.killbill.clock.Clock;
+import org.killbill.commons.utils.Preconditions;
 import org.skife.jdbi.v2.IDBI;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
 import static org.killbill.billing.util.glue.IDBISetup.MAIN_RO_IDBI_NAMED;
 
 public class DefaultTagDao extends EntityDaoBase<TagModelDao, Tag, TagApiException> implements TagDao {
 
     private static final Logger log = LoggerFactory.getLogger(DefaultTagDao.class);
 
+    static final String INVALIDATE_ACCOUNT_TAGS_BROADCAST_TYPE = "INVALIDATE_ACCOUNT_TAGS";
+    static final String ACCOUNT_RECORD_ID_BROADCAST_FIELD = "accountRecordId";
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
     private final TagEventBuilder tagEventBuilder;
     private final BusOptimizer bus;
+    private final Clock clock;
+    private final CacheConfig cacheConfig;
     private final AuditDao auditDao;
+    private final NonEntityDao nonEntityDao;
+    private final CacheController<Long, AccountTagsSnapshot> accountTagsCacheController;
+    private final CacheController<String, UUID> objectIdCacheController;
+
+    // Not available in all setups (e.g. tests)
+    private BroadcastApi broadcastApi;
 
     @Inject
-    public DefaultTagDao(final IDBI dbi, @Named(MAIN_RO_IDBI_NAMED) final IDBI roDbi, final TagEventBuilder tagEventBuilder, final BusOptimizer bus, final Clock clock,
-                         final CacheControllerDispatcher controllerDispatcher, final NonEntityDao nonEntityDao, final InternalCallContextFactory internalCallContextFactory, final AuditDao auditDao) {
-        super(nonEntityDao, controllerDispatcher, new EntitySqlDaoTransactionalJdbiWrapper(dbi, roDbi, clock, controllerDispatcher, nonEntityDao, internalCallContextFactory), TagSqlDao.class);
+    public DefaultTagDao(final IDBI dbi, @Named(MAIN_RO_IDBI_NAMED) final IDBI roDbi, final TagEventBuilder tagEventBuilder, final BusOptimizer bus, final Clock clock, final CacheConfig cacheConfig,
+                         final CacheControllerDispatcher controllerDispatcher, final NonEntityDao nonEntityDao, final InternalCallContextFactory internalCallContextFactory, final AuditDao auditDao, final LatencyHistograms latencyHistograms) {
+        super(nonEntityDao, controllerDispatcher, new EntitySqlDaoTransactionalJdbiWrapper(dbi, roDbi, clock, controllerDispatcher, nonEntityDao, internalCallContextFactory, latencyHistograms), TagSqlDao.class);
         this.tagEventBuilder = tagEventBuilder;
         this.bus = bus;
+        this.clock = clock;
+        this.cacheConfig = cacheConfig;
         this.auditDao = auditDao;
+        this.nonEntityDao = nonEntityDao;
+        this.accountTagsCacheController = controllerDispatcher == null ? null : controllerDispatcher.getCacheController(CacheType.ACCOUNT_TAGS);
+        this.objectIdCacheController = controllerDispatcher == null ? null : controllerDispatcher.getCacheController(CacheType.OBJECT_ID);
+    }
+
+    @com.google.inject.Inject(optional = true)
+    public void setBroadcastApi(final BroadcastApi broadcastApi) {
+        this.broadcastApi = broadcastApi;
     }
 
     @Override
@@ -118,6 +154,64 @@ public class DefaultTagDao extends EntityDaoBase<TagModelDao, Tag, TagApiExcepti
         });
     }
 
+    @Override
+    public AccountTagsSnapshot getAccountTagsSnapshot(final InternalTenantContext internalTenantContext) {
+        final Long accountRecordId = internalTenantContext.getAccountRecordId();
+        Preconditions.checkNotNull(accountRecordId, "Context missing accountRecordId");
+        if (accountTagsCacheController == null) {
+            return loadAccountTagsSnapshot(accountRecordId, internalTenantContext);
+        }
+
+        final CacheLoaderArgument cacheLoaderArgument = createAccountTagsCacheLoaderArgument(internalTenantContext);
+        final AccountTagsSnapshot snapshot = accountTagsCacheController.get(accountRecordId, cacheLoaderArgument);
+        final long ageMillis = clock.getUTCNow().getMillis() - snapshot.getLoadedAtMillis();
+        if (ageMillis >= 0 && ageMillis < cacheConfig.getAccountTagsCacheTtl().getMillis()) {
+            return snapshot;
+        }
+        accountTagsCacheController.remove(accountRecordId);
+        return accountTagsCacheController.get(accountRecordId, cacheLoaderArgument);
+    }
+
+    private AccountTagsSnapshot loadAccountTagsSnapshot(final Long accountRecordId, final InternalTenantContext internalTenantContext) {
+        final UUID accountId = nonEntityDao.retrieveIdFromObject(accountRecordId, ObjectType.ACCOUNT, objectIdCacheController);
+        return new AccountTagsSnapshot(accountId, getTagsForAccount(false, internalTenantContext), clock.getUTCNow().getMillis());
+    }
+
+    private CacheLoaderArgument createAccountTagsCacheLoaderArgument(final InternalTenantContext internalTenantContext) {
+        final AccountTagsCacheLoader.LoaderCallback loaderCallback = new AccountTagsCacheLoader.LoaderCallback() {
+            @Override
+            public AccountTagsSnapshot loadAccountTags(final Long accountRecordId, final InternalTenantContext context) {
+                return loadAccountTagsSnapshot(accountRecordId, context);
+            }
+        };
+        final Object[] args = new Object[1];
+        args[0] = loaderCallback;
+        final ObjectType irrelevant = null;
+        return new CacheLoaderArgument(irrelevant, args, internalTenantContext);
+    }
+
+    private void invalidateAccountTagsSnapshot(final InternalTenantContext context) {
+        if (accountTagsCacheController != null && context.getAccountRecordId() != null) {
+            accountTagsCacheController.remove(context.getAccountRecordId());
+        }
+    }
+
+    // Let the other nodes know (see AccountTagsCacheInvalidationListener)
+    private void broadcastAccountTagsInvalidation(final InternalCallContext context) {
+        if (broadcastApi != null && context.getAccountRecordId() != null) {
+            try {
+                broadcastApi.broadcast(KILLBILL_SERVICES.ACCOUNT_SERVICE.getServiceName(),
+                                       INVALIDATE_ACCOUNT_TAGS_BROADCAST_TYPE,
+                                       objectMapper.writeValueAsString(Map.of(ACCOUNT_RECORD_ID_BROADCAST_FIELD, context.getAccountRecordId())),
+                                       context.getCreatedDate(),
+                                       context.getCreatedBy(),
+                                       false);
+            } catch (final JsonProcessingException e) {
+                log.warn("Unable to broadcast account tags invalidation for accountRecordId='{}'", context.getAccountRecordId(), e);
+            }
+        }
+    }
+
     @Override
     public List<AuditLogWithHistory> getTagAuditLogsWithHistoryForId(final UUID tagId, final AuditLevel auditLevel, final InternalTenantContext context) {
         return transactionalSqlDao.execute(true, new EntitySqlDaoTransactionWrapper<List<AuditLogWithHistory>>() {
@@ -156,6 +250,9 @@ public class DefaultTagDao extends EntityDaoBase<TagModelDao, Tag, TagApiExcepti
                 return;
         }
 
+        // Readers in other transactions could repopulate the cache before we commit: we invalidate again once the transaction is done
+        invalidateAccountTagsSnapshot(context);
+
         try {
             bus.postFromTransaction(tagEvent, entitySqlDaoWrapperFactory.getHandle().getConnection());
         } catch (final PersistentBus.EventBusException e) {
@@ -193,7 +290,12 @@ public class DefaultTagDao extends EntityDaoBase<TagModelDao, Tag, TagApiExcepti
     public void create(final TagModelDao entity, final InternalCallContext context) throws TagApiException {
 
         validateApplicableObjectTypes(entity.getTagDefinitionId(), entity.getObjectType());
-        transactionalSqlDao.execute(false, TagApiException.class, getCreateEntitySqlDaoTransactionWrapper(entity, context));
+        try {
+            transactionalSqlDao.execute(false, TagApiException.class, getCreateEntitySqlDaoTransactionWrapper(entity, context));
+        } finally {
+            invalidateAccountTagsSnapshot(context);
+        }
+        broadcastAccountTagsInvalidation(context);
     }
 
     private void validateApplicableObjectTypes(final UUID tagDefinitionId, final ObjectType objectType) {
@@ -210,7 +312,15 @@ public class DefaultTagDao extends EntityDaoBase<TagModelDao, Tag, TagApiExcepti
 
     @Override
     public void deleteTag(final UUID objectId, final ObjectType objectType, final UUID tagDefinitionId, final InternalCallContext context) throws TagApiException {
+        try {
+            deleteTagInTransaction(objectId, objectType, tagDefinitionId, context);
+        } finally {
+            invalidateAccountTagsSnapshot(context);
+        }
+        broadcastAccountTagsInvalidation(context);
+    }
 
+    private void deleteTagInTransaction(final UUID objectId, final ObjectType objectType, final UUID tagDefinitionId, final InternalCallContext context) throws TagApiException {
         transactionalSqlDao.execute(false, TagApiException.class, new EntitySqlDaoTransactionWrapper<Void>() {
 
             @Override
@@ -41,6 +41,8 @@ public interface TagDao extends EntityDao<TagModelDao, Tag, TagApiException> {
 
     List<TagModelDao> getTagsForAccount(boolean includedDeleted, InternalTenantContext internalTenantContext);
 
+    AccountTagsSnapshot getAccountTagsSnapshot(InternalTenantContext internalTenantContext);
+
     List<AuditLogWithHistory> getTagAuditLogsWithHistoryForId(UUID tagId, AuditLevel auditLevel, InternalTenantContext context);
 
 }
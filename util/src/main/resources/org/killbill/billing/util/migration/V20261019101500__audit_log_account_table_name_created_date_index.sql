@@ -0,0 +1,2 @@
+drop index audit_log_tenant_account_record_id on audit_log;
+create index audit_log_tenant_account_record_id on audit_log(tenant_record_id, account_record_id, table_name, created_date);
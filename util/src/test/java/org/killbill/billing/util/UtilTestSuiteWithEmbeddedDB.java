@@ -36,6 +36,7 @@ import org.killbill.billing.util.audit.dao.AuditDao;
 import org.killbill.billing.util.broadcast.dao.BroadcastDao;
 import org.killbill.billing.util.cache.CacheControllerDispatcher;
 import org.killbill.billing.util.callcontext.InternalCallContextFactory;
+import org.killbill.billing.util.config.definition.CacheConfig;
 import org.killbill.billing.util.config.definition.SecurityConfig;
 import org.killbill.billing.util.customfield.api.DefaultCustomFieldUserApi;
 import org.killbill.billing.util.customfield.dao.CustomFieldDao;
@@ -108,6 +109,8 @@ public abstract class UtilTestSuiteWithEmbeddedDB extends GuicyKillbillTestSuite
     protected Set<Realm> realms;
     @Inject
     protected CacheControllerDispatcher cacheControllerDispatcher;
+    @Inject
+    protected CacheConfig cacheConfig;
 
     @BeforeClass(groups = "slow")
     public void beforeClass() throws Exception {
@@ -24,6 +24,7 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.UUID;
 
+import org.joda.time.DateTime;
 import org.killbill.billing.callcontext.InternalTenantContext;
 import org.killbill.billing.util.api.AuditLevel;
 import org.killbill.billing.util.audit.AuditLog;
@@ -58,6 +59,11 @@ public class MockAuditDao implements AuditDao {
         throw new UnsupportedOperationException();
     }
 
+    @Override
+    public DefaultAccountAuditLogs getAuditLogsForAccountRecordId(final AuditLevel auditLevel, final DateTime fromDate, final DateTime toDate, final InternalTenantContext context) {
+        throw new UnsupportedOperationException();
+    }
+
     @Override
     public DefaultAccountAuditLogsForObjectType getAuditLogsForAccountRecordId(final TableName tableName, final AuditLevel auditLevel, final InternalTenantContext context) {
         throw new UnsupportedOperationException();
@@ -19,6 +19,7 @@ package org.killbill.billing.util.audit.dao;
 import java.util.List;
 import java.util.UUID;
 
+import org.joda.time.DateTime;
 import org.skife.jdbi.v2.Handle;
 import org.testng.Assert;
 import org.testng.annotations.Test;
@@ -74,6 +75,27 @@ public class TestDefaultAuditDao extends UtilTestSuiteWithEmbeddedDB {
         }
     }
 
+    @Test(groups = "slow")
+    public void testRetrieveAccountAuditsInCreatedDateRange() throws Exception {
+        addTag();
+
+        final List<AuditLog> allAuditLogs = auditDao.getAuditLogsForAccountRecordId(AuditLevel.FULL, internalCallContext).getAuditLogs(ObjectType.TAG).getAuditLogs(tag.getId());
+        verifyAuditLogsForTag(allAuditLogs, AuditLevel.FULL);
+        final DateTime createdDate = allAuditLogs.get(0).getCreatedDate();
+
+        final AccountAuditLogs auditLogsSinceCreation = auditDao.getAuditLogsForAccountRecordId(AuditLevel.FULL, createdDate, null, internalCallContext);
+        verifyAuditLogsForTag(auditLogsSinceCreation.getAuditLogs(ObjectType.TAG).getAuditLogs(tag.getId()), AuditLevel.FULL);
+        Assert.assertEquals(auditLogsSinceCreation.getAuditLogs().stream().filter(auditLog -> tag.getId().equals(auditLog.getAuditedEntityId())).count(), 1);
+
+        final AccountAuditLogs auditLogsBeforeCreation = auditDao.getAuditLogsForAccountRecordId(AuditLevel.FULL, null, createdDate, internalCallContext);
+        Assert.assertEquals(auditLogsBeforeCreation.getAuditLogs(ObjectType.TAG).getAuditLogs(tag.getId()).size(), 0);
+        Assert.assertEquals(auditLogsBeforeCreation.getAuditLogs().stream().filter(auditLog -> tag.getId().equals(auditLog.getAuditedEntityId())).count(), 0);
+
+        final AccountAuditLogs auditLogsAfterCreation = auditDao.getAuditLogsForAccountRecordId(AuditLevel.FULL, createdDate.plusSeconds(1), createdDate.plusDays(1), internalCallContext);
+        Assert.assertEquals(auditLogsAfterCreation.getAuditLogs(ObjectType.TAG).getAuditLogs(tag.getId()).size(), 0);
+        Assert.assertEquals(auditLogsAfterCreation.getAuditLogs().stream().filter(auditLog -> tag.getId().equals(auditLog.getAuditedEntityId())).count(), 0);
+    }
+
     @Test(groups = "slow")
     public void testVerifyAuditCachesAreCleared() throws Exception {
         addTag();
@@ -22,6 +22,7 @@ import javax.cache.CacheException;
 
 import org.killbill.billing.util.UtilTestSuiteNoDB;
 import org.killbill.billing.util.cache.Cachable.CacheType;
+import org.killbill.billing.util.metrics.LatencyHistograms;
 import org.mockito.Mockito;
 import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
@@ -52,7 +53,7 @@ public class TestKillBillCacheController extends UtilTestSuiteNoDB {
             }
         };
 
-        final KillBillCacheController<String, Long> killBillCacheController = new KillBillCacheController<String, Long>(cache, baseCacheLoader);
+        final KillBillCacheController<String, Long> killBillCacheController = new KillBillCacheController<String, Long>(cache, baseCacheLoader, new LatencyHistograms());
 
         try {
             killBillCacheController.getKeys();
@@ -0,0 +1,221 @@
+/*
+ * Copyright 2020-2022 Equinix, Inc
+ * Copyright 2014-2022 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.billing.util.cache;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import javax.annotation.Nullable;
+
+import org.killbill.billing.util.UtilTestSuiteNoDB;
+import org.killbill.billing.util.cache.Cachable.CacheType;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class TestNearCacheController extends UtilTestSuiteNoDB {
+
+    private static final long TTL_MILLIS = 60000L;
+
+    @Test(groups = "fast")
+    public void testImmutableCacheServedLocally() {
+        final RemoteCache remoteCache = new RemoteCache(CacheType.RECORD_ID);
+        final AtomicLong ticker = new AtomicLong();
+        final NearCacheController<String, Object> node = new NearCacheController<String, Object>(remoteCache, new InMemoryChannel(), 100, TTL_MILLIS, ticker::get);
+
+        for (int i = 0; i < 10; i++) {
+            Assert.assertEquals(node.get("a", null), "a-1");
+            // Immutable mappings never expire locally
+            ticker.addAndGet(TimeUnit.HOURS.toNanos(1));
+        }
+        Assert.assertEquals(remoteCache.roundTrips.get(), 1);
+    }
+
+    @Test(groups = "fast")
+    public void testMutableCacheKeptCoherentAcrossNodes() {
+        final RemoteCache remoteCache = new RemoteCache(CacheType.ACCOUNT_BCD);
+        final InMemoryChannel channel = new InMemoryChannel();
+        final AtomicLong ticker = new AtomicLong();
+        final NearCacheController<String, Object> node1 = new NearCacheController<String, Object>(remoteCache, channel, 100, TTL_MILLIS, ticker::get);
+        final NearCacheController<String, Object> node2 = new NearCacheController<String, Object>(remoteCache, channel, 100, TTL_MILLIS, ticker::get);
+
+        Assert.assertEquals(node1.get("a", null), "a-1");
+        Assert.assertEquals(node2.get("a", null), "a-1");
+        Assert.assertEquals(node2.get("a", null), "a-1");
+        Assert.assertEquals(remoteCache.roundTrips.get(), 2);
+
+        // Node 1 updates the value: node 2 must not keep serving the old one
+        Assert.assertTrue(node1.remove("a"));
+        Assert.assertEquals(node2.localSize(), 0);
+        Assert.assertEquals(node2.get("a", null), "a-2");
+        Assert.assertEquals(node1.get("a", null), "a-2");
+
+        node2.removeAll();
+        Assert.assertEquals(node1.localSize(), 0);
+
+        // Entries expire locally as a safety net against lost invalidations
+        Assert.assertEquals(node1.get("b", null), "b-3");
+        final int roundTrips = remoteCache.roundTrips.get();
+        ticker.addAndGet(TimeUnit.MILLISECONDS.toNanos(TTL_MILLIS));
+        Assert.assertEquals(node1.get("b", null), "b-3");
+        Assert.assertEquals(remoteCache.roundTrips.get(), roundTrips + 1);
+    }
+
+    @Test(groups = "fast")
+    public void testLocalTierIsBounded() {
+        final RemoteCache remoteCache = new RemoteCache(CacheType.OBJECT_ID);
+        final NearCacheController<String, Object> node = new NearCacheController<String, Object>(remoteCache, new InMemoryChannel(), 2, TTL_MILLIS);
+
+        node.get("a", null);
+        node.get("b", null);
+        node.get("a", null);
+        node.get("c", null);
+        Assert.assertEquals(node.localSize(), 2);
+        Assert.assertEquals(remoteCache.roundTrips.get(), 3);
+
+        // Least recently used entry was evicted
+        node.get("a", null);
+        Assert.assertEquals(remoteCache.roundTrips.get(), 3);
+        node.get("b", null);
+        Assert.assertEquals(remoteCache.roundTrips.get(), 4);
+    }
+
+    @Test(groups = "fast")
+    public void testGetAllOnlyFetchesMissingKeys() {
+        final RemoteCache remoteCache = new RemoteCache(CacheType.TENANT_RECORD_ID);
+        final NearCacheController<String, Object> node = new NearCacheController<String, Object>(remoteCache, new InMemoryChannel(), 100, TTL_MILLIS);
+
+        node.get("a", null);
+        final Map<String, Object> values = node.getAll(Set.of("a", "b"));
+        // getAll doesn't trigger the cache loader
+        Assert.assertEquals(values, Map.of("a", "a-1"));
+        Assert.assertEquals(remoteCache.requestedKeys, List.of("a", "b"));
+    }
+
+    // Stand-in for the shared Redis tier: values are computed once and versioned on each removal
+    private static final class RemoteCache implements CacheController<String, Object> {
+
+        private final CacheType cacheType;
+        private final Map<String, Object> values = new ConcurrentHashMap<String, Object>();
+        private final AtomicLong version = new AtomicLong();
+        private final AtomicInteger roundTrips = new AtomicInteger();
+        private final List<String> requestedKeys = new ArrayList<String>();
+
+        private RemoteCache(final CacheType cacheType) {
+            this.cacheType = cacheType;
+        }
+
+        @Override
+        public List<String> getKeys() {
+            roundTrips.incrementAndGet();
+            return new ArrayList<String>(values.keySet());
+        }
+
+        @Override
+        public boolean isKeyInCache(final String key) {
+            roundTrips.incrementAndGet();
+            return values.containsKey(key);
+        }
+
+        @Override
+        public Object get(final String key, final CacheLoaderArgument objectType) {
+            roundTrips.incrementAndGet();
+            requestedKeys.add(key);
+            return values.computeIfAbsent(key, k -> k + "-" + version.incrementAndGet());
+        }
+
+        @Override
+        public Map<String, Object> getAll(final Set<String> keys) {
+            roundTrips.incrementAndGet();
+            final Map<String, Object> result = new HashMap<String, Object>();
+            for (final String key : keys) {
+                requestedKeys.add(key);
+                if (values.containsKey(key)) {
+                    result.put(key, values.get(key));
+                }
+            }
+            return result;
+        }
+
+        @Override
+        public boolean remove(final String key) {
+            roundTrips.incrementAndGet();
+            return values.remove(key) != null;
+        }
+
+        @Override
+        public void remove(final Function<String, Boolean> keyMatcher) {
+            roundTrips.incrementAndGet();
+            values.keySet().removeIf(keyMatcher::apply);
+        }
+
+        @Override
+        public void putIfAbsent(final String key, final Object value) {
+            roundTrips.incrementAndGet();
+            values.putIfAbsent(key, value);
+        }
+
+        @Override
+        public void putAll(final Map<String, Object> newValues) {
+            roundTrips.incrementAndGet();
+            values.putAll(newValues);
+        }
+
+        @Override
+        public int size() {
+            roundTrips.incrementAndGet();
+            return values.size();
+        }
+
+        @Override
+        public void removeAll() {
+            roundTrips.incrementAndGet();
+            values.clear();
+        }
+
+        @Override
+        public CacheType getCacheType() {
+            return cacheType;
+        }
+    }
+
+    // Stand-in for Redis pub/sub: delivers synchronously (redelivering to the publisher is harmless)
+    private static final class InMemoryChannel implements NearCacheInvalidationChannel {
+
+        private final List<Listener> listeners = new ArrayList<Listener>();
+
+        @Override
+        public void publish(final CacheType cacheType, @Nullable final Object key) {
+            for (final Listener listener : listeners) {
+                listener.onInvalidation(cacheType, key);
+            }
+        }
+
+        @Override
+        public void subscribe(final Listener listener) {
+            listeners.add(listener);
+        }
+    }
+}
@@ -19,6 +19,8 @@
 package org.killbill.billing.util.callcontext;
 
 import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.UUID;
 
 import org.killbill.billing.ObjectType;
@@ -91,6 +93,58 @@ public class TestInternalCallContextFactory extends UtilTestSuiteWithEmbeddedDB
         verifyInternalCallContext(context);
     }
 
+    @Test(groups = "slow")
+    public void testCreateInternalTenantContextsInBatch() throws Exception {
+        final UUID invoiceId1 = UUID.randomUUID();
+        final UUID invoiceId2 = UUID.randomUUID();
+        final UUID invoiceId3 = UUID.randomUUID();
+        final UUID unknownInvoiceId = UUID.randomUUID();
+        final Long accountRecordId1 = 19384013L;
+        final Long accountRecordId2 = 19384014L;
+
+        final ImmutableAccountData immutableAccountData = Mockito.mock(ImmutableAccountData.class);
+        Mockito.when(immutableAccountInternalApi.getImmutableAccountDataByRecordId(Mockito.<Long>any(), Mockito.<InternalTenantContext>any())).thenReturn(immutableAccountData);
+
+        dbi.withHandle(new HandleCallback<Void>() {
+            @Override
+            public Void withHandle(final Handle handle) throws Exception {
+                insertInvoice(handle, invoiceId1, accountRecordId1);
+                insertInvoice(handle, invoiceId2, accountRecordId1);
+                insertInvoice(handle, invoiceId3, accountRecordId2);
+                return null;
+            }
+
+            private void insertInvoice(final Handle handle, final UUID invoiceId, final Long accountRecordId) {
+                handle.execute("insert into invoices (id, account_id, invoice_date, target_date, currency, status, migrated, created_by, created_date, account_record_id, tenant_record_id) values " +
+                               "(?, ?, ?, ?, 'USD', 'COMMITTED', FALSE, 'test', ?, ?, ?)", invoiceId.toString(), UUID.randomUUID().toString(), new Date(), new Date(), new Date(), accountRecordId, internalCallContext.getTenantRecordId());
+            }
+        });
+
+        final Map<UUID, ObjectType> objects = new LinkedHashMap<UUID, ObjectType>();
+        objects.put(invoiceId1, ObjectType.INVOICE);
+        objects.put(invoiceId2, ObjectType.INVOICE);
+        objects.put(invoiceId3, ObjectType.INVOICE);
+        objects.put(unknownInvoiceId, ObjectType.INVOICE);
+
+        final Map<UUID, Long> accountRecordIds = internalCallContextFactory.getAccountRecordIds(objects, callContext);
+        Assert.assertEquals(accountRecordIds.size(), 3);
+        Assert.assertEquals(accountRecordIds.get(invoiceId1), accountRecordId1);
+        Assert.assertEquals(accountRecordIds.get(invoiceId2), accountRecordId1);
+        Assert.assertEquals(accountRecordIds.get(invoiceId3), accountRecordId2);
+        Assert.assertFalse(accountRecordIds.containsKey(unknownInvoiceId));
+
+        final Map<UUID, InternalTenantContext> contexts = internalCallContextFactory.createInternalTenantContexts(objects, callContext);
+        Assert.assertEquals(contexts.size(), 3);
+        Assert.assertEquals(contexts.get(invoiceId1).getAccountRecordId(), accountRecordId1);
+        Assert.assertEquals(contexts.get(invoiceId3).getAccountRecordId(), accountRecordId2);
+        // Objects belonging to the same account share the same context
+        Assert.assertSame(contexts.get(invoiceId1), contexts.get(invoiceId2));
+        Assert.assertFalse(contexts.containsKey(unknownInvoiceId));
+
+        // Only one account lookup per distinct account
+        Mockito.verify(immutableAccountInternalApi, Mockito.times(1)).getImmutableAccountDataByRecordId(Mockito.<Long>eq(accountRecordId1), Mockito.<InternalTenantContext>any());
+    }
+
     private void verifyInternalCallContext(final InternalCallContext context) {
         Assert.assertEquals(context.getCallOrigin(), callContext.getCallOrigin());
         Assert.assertEquals(context.getComments(), callContext.getComments());
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2020-2022 Equinix, Inc
+ * Copyright 2014-2022 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.billing.util.email.templates;
+
+import java.util.Map;
+
+import org.killbill.billing.util.UtilTestSuiteNoDB;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class TestMustacheTemplateEngine extends UtilTestSuiteNoDB {
+
+    @Test(groups = "fast")
+    public void testCachedTemplates() {
+        final MustacheTemplateEngine templateEngine = new MustacheTemplateEngine();
+        final Map<String, Object> data = Map.of("name", "Bob");
+
+        Assert.assertEquals(templateEngine.executeTemplateText(1L, "Hello {{name}}", data), "Hello Bob");
+        Assert.assertEquals(templateEngine.executeTemplateText(1L, "Hello {{name}}", data), "Hello Bob");
+        // Missing values are rendered as empty strings, as for the non-cached version
+        Assert.assertEquals(templateEngine.executeTemplateText(1L, "Hello {{name}}{{missing}}", data), "Hello Bob");
+        Assert.assertEquals(templateEngine.executeTemplateText(2L, "Bye {{name}}", data), "Bye Bob");
+
+        // New template uploaded for that tenant
+        templateEngine.invalidateTemplates(1L);
+        Assert.assertEquals(templateEngine.executeTemplateText(1L, "Hi {{name}}", data), "Hi Bob");
+        Assert.assertEquals(templateEngine.executeTemplateText(2L, "Bye {{name}}", data), "Bye Bob");
+    }
+
+    @Test(groups = "fast")
+    public void testTemplatesWithSameHash() {
+        final MustacheTemplateEngine templateEngine = new MustacheTemplateEngine();
+        final Map<String, Object> data = Map.of();
+
+        Assert.assertEquals("Aa".hashCode(), "BB".hashCode());
+        Assert.assertEquals(templateEngine.executeTemplateText(1L, "Aa", data), "Aa");
+        Assert.assertEquals(templateEngine.executeTemplateText(1L, "BB", data), "BB");
+        Assert.assertEquals(templateEngine.executeTemplateText(1L, "Aa", data), "Aa");
+    }
+}
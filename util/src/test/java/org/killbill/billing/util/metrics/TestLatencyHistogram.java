@@ -0,0 +1,125 @@
+/*
+ * Copyright 2020-2022 Equinix, Inc
+ * Copyright 2014-2022 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.billing.util.metrics;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.killbill.billing.util.UtilTestSuiteNoDB;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class TestLatencyHistogram extends UtilTestSuiteNoDB {
+
+    @Test(groups = "fast")
+    public void testEmptyHistogram() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        Assert.assertEquals(histogram.getCount(), 0);
+        Assert.assertEquals(histogram.getMeanMicros(), 0);
+        Assert.assertEquals(histogram.getMaxMicros(), 0);
+        Assert.assertEquals(histogram.getValueAtPercentile(99), 0);
+    }
+
+    @Test(groups = "fast")
+    public void testPercentiles() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        for (long micros = 1; micros <= 10000; micros++) {
+            histogram.record(TimeUnit.MICROSECONDS.toNanos(micros));
+        }
+
+        Assert.assertEquals(histogram.getCount(), 10000);
+        Assert.assertEquals(histogram.getMaxMicros(), 10000);
+        Assert.assertEquals(histogram.getMeanMicros(), 5000);
+        // Buckets are at most 1/16th wide
+        assertWithinBucketPrecision(histogram.getValueAtPercentile(50), 5000);
+        assertWithinBucketPrecision(histogram.getValueAtPercentile(99), 9900);
+        Assert.assertEquals(histogram.getValueAtPercentile(100), 10000);
+    }
+
+    @Test(groups = "fast")
+    public void testReset() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(TimeUnit.MILLISECONDS.toNanos(10));
+        histogram.reset();
+        Assert.assertEquals(histogram.getCount(), 0);
+        Assert.assertEquals(histogram.getMeanMicros(), 0);
+        Assert.assertEquals(histogram.getMaxMicros(), 0);
+        Assert.assertEquals(histogram.getValueAtPercentile(99), 0);
+
+        histogram.record(TimeUnit.MICROSECONDS.toNanos(5));
+        Assert.assertEquals(histogram.getCount(), 1);
+        Assert.assertEquals(histogram.getMaxMicros(), 5);
+        Assert.assertEquals(histogram.getValueAtPercentile(50), 5);
+    }
+
+    @Test(groups = "fast")
+    public void testHistogramsByMethod() throws Exception {
+        final LatencyHistograms latencyHistograms = new LatencyHistograms();
+        final Method method = TestLatencyHistogram.class.getMethod("testHistogramsByMethod");
+        final LatencyHistogram daoHistogram = latencyHistograms.getHistogram(LatencyHistograms.DAO, TestLatencyHistogram.class, method);
+        final LatencyHistogram busHistogram = latencyHistograms.getHistogram(LatencyHistograms.BUS, TestLatencyHistogram.class, method);
+        Assert.assertNotSame(daoHistogram, busHistogram);
+        Assert.assertSame(latencyHistograms.getHistogram(LatencyHistograms.DAO, TestLatencyHistogram.class, method), daoHistogram);
+        Assert.assertSame(latencyHistograms.getHistograms().get("dao.TestLatencyHistogram.testHistogramsByMethod"), daoHistogram);
+        Assert.assertSame(latencyHistograms.getHistograms().get("bus.TestLatencyHistogram.testHistogramsByMethod"), busHistogram);
+
+        daoHistogram.record(TimeUnit.MICROSECONDS.toNanos(100));
+        Assert.assertEquals(daoHistogram.getCount(), 1);
+        Assert.assertEquals(busHistogram.getCount(), 0);
+
+        // Histograms are reset in place
+        latencyHistograms.reset();
+        Assert.assertEquals(daoHistogram.getCount(), 0);
+        Assert.assertSame(latencyHistograms.getHistogram(LatencyHistograms.DAO, TestLatencyHistogram.class, method), daoHistogram);
+    }
+
+    @Test(groups = "fast")
+    public void testRegistriesAreIndependent() throws Exception {
+        final LatencyHistograms first = new LatencyHistograms();
+        final LatencyHistograms second = new LatencyHistograms();
+        final List<String> created = new ArrayList<String>();
+        first.setNewHistogramListener((name, histogram) -> created.add(name));
+
+        final Method method = TestLatencyHistogram.class.getMethod("testRegistriesAreIndependent");
+        first.getHistogram(LatencyHistograms.DAO, TestLatencyHistogram.class, method).record(TimeUnit.MICROSECONDS.toNanos(100));
+        first.getHistogram(LatencyHistograms.DAO, TestLatencyHistogram.class, method);
+        Assert.assertEquals(created, List.of("dao.TestLatencyHistogram.testRegistriesAreIndependent"));
+
+        Assert.assertTrue(second.getHistograms().isEmpty());
+        Assert.assertEquals(second.getHistogram(LatencyHistograms.DAO, TestLatencyHistogram.class, method).getCount(), 0);
+        Assert.assertEquals(created.size(), 1);
+    }
+
+    @Test(groups = "fast")
+    public void testBucketBoundaries() {
+        for (long value = 0; value < 1000000; value++) {
+            final int index = LatencyHistogram.getBucketIndex(value);
+            Assert.assertTrue(value <= LatencyHistogram.getBucketUpperBound(index));
+            if (index > 0) {
+                Assert.assertTrue(value > LatencyHistogram.getBucketUpperBound(index - 1));
+            }
+        }
+        Assert.assertEquals(LatencyHistogram.getBucketUpperBound(LatencyHistogram.getBucketIndex(Long.MAX_VALUE)), Long.MAX_VALUE);
+    }
+
+    private void assertWithinBucketPrecision(final long actual, final long expected) {
+        Assert.assertTrue(actual >= expected && actual <= expected + expected / 16, "actual=" + actual + ", expected=" + expected);
+    }
+}
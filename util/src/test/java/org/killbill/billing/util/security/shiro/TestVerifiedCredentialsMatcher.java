@@ -0,0 +1,92 @@
+/*
+ * Copyright 2020-2022 Equinix, Inc
+ * Copyright 2014-2022 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.billing.util.security.shiro;
+
+import org.apache.shiro.authc.AuthenticationInfo;
+import org.apache.shiro.authc.AuthenticationToken;
+import org.apache.shiro.authc.SimpleAuthenticationInfo;
+import org.apache.shiro.authc.UsernamePasswordToken;
+import org.apache.shiro.authc.credential.CredentialsMatcher;
+import org.apache.shiro.authc.credential.SimpleCredentialsMatcher;
+import org.apache.shiro.util.ByteSource;
+import org.killbill.billing.util.UtilTestSuiteNoDB;
+import org.mockito.Mockito;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class TestVerifiedCredentialsMatcher extends UtilTestSuiteNoDB {
+
+    @Test(groups = "fast")
+    public void testVerifiedCredentialsAreRemembered() {
+        final CredentialsMatcher delegate = Mockito.spy(new SimpleCredentialsMatcher());
+        final VerifiedCredentialsMatcher matcher = new VerifiedCredentialsMatcher(delegate, 10);
+
+        final AuthenticationInfo info = new SimpleAuthenticationInfo("pierre", "password".toCharArray(), ByteSource.Util.bytes("salt"), "realm");
+        final AuthenticationToken goodToken = new UsernamePasswordToken("pierre", "password");
+        final AuthenticationToken badToken = new UsernamePasswordToken("pierre", "somethingelse");
+
+        Assert.assertTrue(matcher.doCredentialsMatch(goodToken, info));
+        Assert.assertTrue(matcher.doCredentialsMatch(goodToken, info));
+        Mockito.verify(delegate, Mockito.times(1)).doCredentialsMatch(goodToken, info);
+
+        // A different secret is always verified
+        Assert.assertFalse(matcher.doCredentialsMatch(badToken, info));
+        Assert.assertFalse(matcher.doCredentialsMatch(badToken, info));
+        Mockito.verify(delegate, Mockito.times(2)).doCredentialsMatch(badToken, info);
+
+        // The failed attempts forgot the verified credentials
+        Assert.assertTrue(matcher.doCredentialsMatch(goodToken, info));
+        Mockito.verify(delegate, Mockito.times(2)).doCredentialsMatch(goodToken, info);
+
+        matcher.invalidate("pierre");
+        Assert.assertTrue(matcher.doCredentialsMatch(goodToken, info));
+        Mockito.verify(delegate, Mockito.times(3)).doCredentialsMatch(goodToken, info);
+    }
+
+    @Test(groups = "fast")
+    public void testUpdatedStoredCredentials() {
+        final VerifiedCredentialsMatcher matcher = new VerifiedCredentialsMatcher(new SimpleCredentialsMatcher(), 10);
+
+        final AuthenticationToken token = new UsernamePasswordToken("pierre", "password");
+        Assert.assertTrue(matcher.doCredentialsMatch(token, new SimpleAuthenticationInfo("pierre", "password".toCharArray(), "realm")));
+
+        // Password was updated: the previously verified secret must not be accepted anymore
+        Assert.assertFalse(matcher.doCredentialsMatch(token, new SimpleAuthenticationInfo("pierre", "newpassword".toCharArray(), "realm")));
+        Assert.assertFalse(matcher.doCredentialsMatch(token, new SimpleAuthenticationInfo("pierre", "password".toCharArray(), ByteSource.Util.bytes("newsalt"), "realm")));
+    }
+
+    @Test(groups = "fast")
+    public void testMaxSize() {
+        final CredentialsMatcher delegate = Mockito.spy(new SimpleCredentialsMatcher());
+        final VerifiedCredentialsMatcher matcher = new VerifiedCredentialsMatcher(delegate, 2);
+
+        final AuthenticationToken[] tokens = new AuthenticationToken[3];
+        final AuthenticationInfo[] infos = new AuthenticationInfo[3];
+        for (int i = 0; i < 3; i++) {
+            tokens[i] = new UsernamePasswordToken("user" + i, "password" + i);
+            infos[i] = new SimpleAuthenticationInfo("user" + i, ("password" + i).toCharArray(), "realm");
+            Assert.assertTrue(matcher.doCredentialsMatch(tokens[i], infos[i]));
+        }
+
+        // user0 was evicted
+        Assert.assertTrue(matcher.doCredentialsMatch(tokens[2], infos[2]));
+        Assert.assertTrue(matcher.doCredentialsMatch(tokens[0], infos[0]));
+        Mockito.verify(delegate, Mockito.times(1)).doCredentialsMatch(tokens[2], infos[2]);
+        Mockito.verify(delegate, Mockito.times(2)).doCredentialsMatch(tokens[0], infos[0]);
+    }
+}
@@ -103,6 +103,11 @@ public class MockTagDao extends MockEntityDaoBase<TagModelDao, Tag, TagApiExcept
         return tagStore.get(getAccountId(internalTenantContext.getAccountRecordId()));
     }
 
+    @Override
+    public AccountTagsSnapshot getAccountTagsSnapshot(final InternalTenantContext internalTenantContext) {
+        return new AccountTagsSnapshot(getAccountId(internalTenantContext.getAccountRecordId()), getTagsForAccount(false, internalTenantContext), System.currentTimeMillis());
+    }
+
     @Override
     public List<AuditLogWithHistory> getTagAuditLogsWithHistoryForId(final UUID tagId, final AuditLevel auditLevel, final InternalTenantContext context) {
         throw new UnsupportedOperationException();
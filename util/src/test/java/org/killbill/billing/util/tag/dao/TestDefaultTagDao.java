@@ -18,13 +18,21 @@
 
 package org.killbill.billing.util.tag.dao;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 
+import org.killbill.billing.platform.api.KillbillService.KILLBILL_SERVICES;
 import org.killbill.billing.util.api.AuditLevel;
 import org.killbill.billing.util.audit.AuditLog;
 import org.killbill.billing.util.audit.ChangeType;
+import org.killbill.billing.util.broadcast.DefaultBroadcastInternalEvent;
+import org.killbill.billing.util.cache.Cachable.CacheType;
+import org.killbill.billing.util.cache.CacheController;
 import org.killbill.billing.util.dao.TableName;
 import org.testng.Assert;
 import org.testng.annotations.Test;
@@ -38,6 +46,7 @@ import org.killbill.billing.util.api.TagDefinitionApiException;
 import org.killbill.billing.util.tag.ControlTagType;
 import org.killbill.billing.util.tag.DescriptiveTag;
 import org.killbill.billing.util.tag.Tag;
+import org.killbill.billing.util.tag.api.user.TagEventBuilder;
 
 import static org.testng.Assert.assertEquals;
 
@@ -203,4 +212,140 @@ public class TestDefaultTagDao extends UtilTestSuiteWithEmbeddedDB {
             Assert.assertEquals(ErrorCode.TAG_ALREADY_EXISTS.getCode(), e.getCode());
         }
     }
+
+    @Test(groups = "slow")
+    public void testAccountTagsSnapshot() throws Exception {
+        final UUID objectId = UUID.randomUUID();
+        final ObjectType objectType = ObjectType.BUNDLE;
+        final CacheController<Long, AccountTagsSnapshot> accountTagsCache = cacheControllerDispatcher.getCacheController(CacheType.ACCOUNT_TAGS);
+
+        final AccountTagsSnapshot emptySnapshot = tagDao.getAccountTagsSnapshot(internalCallContext);
+        Assert.assertTrue(emptySnapshot.getTags().isEmpty());
+        Assert.assertFalse(emptySnapshot.hasControlTag(objectId, ControlTagType.AUTO_INVOICING_OFF));
+        Assert.assertTrue(accountTagsCache.isKeyInCache(internalCallContext.getAccountRecordId()));
+
+        eventsListener.pushExpectedEvent(NextEvent.TAG);
+        final Tag tag = new DescriptiveTag(ControlTagType.AUTO_INVOICING_OFF.getId(), objectType, objectId, internalCallContext.getCreatedDate());
+        tagDao.create(new TagModelDao(tag), internalCallContext);
+        assertListenerStatus();
+
+        // Creation invalidates the snapshot
+        Assert.assertFalse(accountTagsCache.isKeyInCache(internalCallContext.getAccountRecordId()));
+        final AccountTagsSnapshot snapshot = tagDao.getAccountTagsSnapshot(internalCallContext);
+        Assert.assertEquals(snapshot.getTags().size(), 1);
+        Assert.assertEquals(snapshot.getTags(objectId, objectType).size(), 1);
+        Assert.assertEquals(snapshot.getTags(objectId, ObjectType.ACCOUNT).size(), 0);
+        Assert.assertTrue(snapshot.hasControlTag(objectId, ControlTagType.AUTO_INVOICING_OFF));
+        Assert.assertFalse(snapshot.hasControlTag(objectId, ControlTagType.AUTO_PAY_OFF));
+        // Subsequent calls are served from the cache
+        Assert.assertSame(tagDao.getAccountTagsSnapshot(internalCallContext), snapshot);
+
+        // Verify the snapshot survives serialization (e.g. Redis)
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (final ObjectOutputStream oos = new ObjectOutputStream(out)) {
+            oos.writeObject(snapshot);
+        }
+        final AccountTagsSnapshot deserialized;
+        try (final ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            deserialized = (AccountTagsSnapshot) ois.readObject();
+        }
+        Assert.assertEquals(deserialized.getAccountId(), snapshot.getAccountId());
+        Assert.assertEquals(deserialized.getTags().size(), 1);
+        Assert.assertEquals(deserialized.getTags().get(0).getId(), snapshot.getTags().get(0).getId());
+        Assert.assertEquals(deserialized.getTags().get(0).getRecordId(), snapshot.getTags().get(0).getRecordId());
+        Assert.assertTrue(deserialized.hasControlTag(objectId, ControlTagType.AUTO_INVOICING_OFF));
+
+        // Deletion invalidates the snapshot
+        eventsListener.pushExpectedEvent(NextEvent.TAG);
+        tagDao.deleteTag(objectId, objectType, ControlTagType.AUTO_INVOICING_OFF.getId(), internalCallContext);
+        assertListenerStatus();
+
+        Assert.assertFalse(accountTagsCache.isKeyInCache(internalCallContext.getAccountRecordId()));
+        Assert.assertFalse(tagDao.getAccountTagsSnapshot(internalCallContext).hasControlTag(objectId, ControlTagType.AUTO_INVOICING_OFF));
+    }
+
+    @Test(groups = "slow")
+    public void testAccountTagsSnapshotIsolation() throws Exception {
+        final UUID objectId = UUID.randomUUID();
+
+        eventsListener.pushExpectedEvent(NextEvent.TAG);
+        final Tag tag = new DescriptiveTag(ControlTagType.AUTO_PAY_OFF.getId(), ObjectType.ACCOUNT, objectId, internalCallContext.getCreatedDate());
+        tagDao.create(new TagModelDao(tag), internalCallContext);
+        assertListenerStatus();
+
+        final AccountTagsSnapshot snapshot = tagDao.getAccountTagsSnapshot(internalCallContext);
+        final TagModelDao copy = snapshot.getTags().get(0);
+        Assert.assertNotSame(snapshot.getTags().get(0), copy);
+        Assert.assertNotSame(snapshot.getTags(ObjectType.ACCOUNT).get(0), copy);
+        Assert.assertNotSame(snapshot.getTags(objectId, ObjectType.ACCOUNT).get(0), copy);
+
+        // Mutating what callers get back doesn't leak into the cached snapshot
+        copy.setIsActive(false);
+        Assert.assertTrue(snapshot.getTags().get(0).getIsActive());
+        Assert.assertTrue(snapshot.hasControlTag(objectId, ControlTagType.AUTO_PAY_OFF));
+
+        // The DAO (user facing) path always goes to the database
+        Assert.assertNotSame(tagDao.getTagsForAccount(false, internalCallContext), tagDao.getTagsForAccount(false, internalCallContext));
+        Assert.assertEquals(tagDao.getTagsForAccount(false, internalCallContext).get(0).getId(), copy.getId());
+    }
+
+    @Test(groups = "slow")
+    public void testAccountTagsSnapshotExpiration() throws Exception {
+        final CacheController<Long, AccountTagsSnapshot> accountTagsCache = cacheControllerDispatcher.getCacheController(CacheType.ACCOUNT_TAGS);
+
+        final AccountTagsSnapshot snapshot = tagDao.getAccountTagsSnapshot(internalCallContext);
+        Assert.assertSame(tagDao.getAccountTagsSnapshot(internalCallContext), snapshot);
+
+        final long ttlMillis = cacheConfig.getAccountTagsCacheTtl().getMillis();
+        clock.addDeltaFromReality(ttlMillis / 2);
+        Assert.assertSame(tagDao.getAccountTagsSnapshot(internalCallContext), snapshot);
+
+        // Once the TTL has elapsed, the snapshot is reloaded (covers invalidations we may have missed)
+        clock.addDeltaFromReality(ttlMillis / 2 + 1000);
+        final AccountTagsSnapshot reloadedSnapshot = tagDao.getAccountTagsSnapshot(internalCallContext);
+        Assert.assertNotSame(reloadedSnapshot, snapshot);
+        Assert.assertTrue(accountTagsCache.isKeyInCache(internalCallContext.getAccountRecordId()));
+        Assert.assertSame(tagDao.getAccountTagsSnapshot(internalCallContext), reloadedSnapshot);
+    }
+
+    @Test(groups = "slow")
+    public void testAccountTagsSnapshotBroadcastInvalidation() throws Exception {
+        final CacheController<Long, AccountTagsSnapshot> accountTagsCache = cacheControllerDispatcher.getCacheController(CacheType.ACCOUNT_TAGS);
+        final AccountTagsCacheInvalidationListener listener = new AccountTagsCacheInvalidationListener(eventBus, cacheControllerDispatcher);
+
+        tagDao.getAccountTagsSnapshot(internalCallContext);
+        Assert.assertTrue(accountTagsCache.isKeyInCache(internalCallContext.getAccountRecordId()));
+
+        // Unrelated broadcasts are ignored
+        listener.handleBroadcastEvent(new DefaultBroadcastInternalEvent(KILLBILL_SERVICES.ACCOUNT_SERVICE.getServiceName(),
+                                                                        "SOMETHING_ELSE",
+                                                                        "{\"accountRecordId\":" + internalCallContext.getAccountRecordId() + "}"));
+        Assert.assertTrue(accountTagsCache.isKeyInCache(internalCallContext.getAccountRecordId()));
+
+        // Invalidation coming from another node
+        listener.handleBroadcastEvent(new DefaultBroadcastInternalEvent(KILLBILL_SERVICES.ACCOUNT_SERVICE.getServiceName(),
+                                                                        DefaultTagDao.INVALIDATE_ACCOUNT_TAGS_BROADCAST_TYPE,
+                                                                        "{\"accountRecordId\":" + internalCallContext.getAccountRecordId() + "}"));
+        Assert.assertFalse(accountTagsCache.isKeyInCache(internalCallContext.getAccountRecordId()));
+    }
+
+    @Test(groups = "slow")
+    public void testAccountTagsSnapshotBusEventInvalidation() throws Exception {
+        final CacheController<Long, AccountTagsSnapshot> accountTagsCache = cacheControllerDispatcher.getCacheController(CacheType.ACCOUNT_TAGS);
+        final AccountTagsCacheInvalidationListener listener = new AccountTagsCacheInvalidationListener(eventBus, cacheControllerDispatcher);
+        final TagEventBuilder tagEventBuilder = new TagEventBuilder();
+        final TagDefinitionModelDao autoPayOff = new TagDefinitionModelDao(ControlTagType.AUTO_PAY_OFF);
+
+        tagDao.getAccountTagsSnapshot(internalCallContext);
+        Assert.assertTrue(accountTagsCache.isKeyInCache(internalCallContext.getAccountRecordId()));
+
+        // Tag events for other accounts are ignored
+        listener.handleControlTagCreation(tagEventBuilder.newControlTagCreationEvent(UUID.randomUUID(), UUID.randomUUID(), ObjectType.ACCOUNT, autoPayOff,
+                                                                                     internalCallContext.getAccountRecordId() + 1, internalCallContext.getTenantRecordId(), null));
+        Assert.assertTrue(accountTagsCache.isKeyInCache(internalCallContext.getAccountRecordId()));
+
+        listener.handleControlTagCreation(tagEventBuilder.newControlTagCreationEvent(UUID.randomUUID(), UUID.randomUUID(), ObjectType.ACCOUNT, autoPayOff,
+                                                                                     internalCallContext.getAccountRecordId(), internalCallContext.getTenantRecordId(), null));
+        Assert.assertFalse(accountTagsCache.isKeyInCache(internalCallContext.getAccountRecordId()));
+    }
 }